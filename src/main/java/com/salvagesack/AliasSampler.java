@@ -0,0 +1,107 @@
+package com.salvagesack;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws indexes from a fixed discrete distribution in constant time using Vose's alias method.
+ * <p>
+ * The table is built once in linear time. Each draw picks a column uniformly and then either
+ * the column itself or its alias, using a single random double for both choices. The sampler is
+ * immutable, so one instance can be shared by every simulation worker; each worker supplies its
+ * own random source.
+ * </p>
+ */
+final class AliasSampler
+{
+	private final double[] probability;
+	private final int[] alias;
+
+	/**
+	 * @param weights Relative weights, at least one of them positive; they need not sum to 1
+	 */
+	AliasSampler(double[] weights)
+	{
+		int n = weights.length;
+		double total = 0;
+		for (double weight : weights)
+		{
+			if (weight < 0 || Double.isNaN(weight))
+			{
+				throw new IllegalArgumentException("Invalid weight " + weight);
+			}
+			total += weight;
+		}
+		if (n == 0 || total <= 0)
+		{
+			throw new IllegalArgumentException("No positive weights");
+		}
+
+		probability = new double[n];
+		alias = new int[n];
+
+		// Columns are split into those below and above the average height
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < n; i++)
+		{
+			scaled[i] = weights[i] * n / total;
+			if (scaled[i] < 1.0)
+			{
+				small[smallCount++] = i;
+			}
+			else
+			{
+				large[largeCount++] = i;
+			}
+		}
+
+		// Fill each short column with the excess of a tall one
+		while (smallCount > 0 && largeCount > 0)
+		{
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			probability[less] = scaled[less];
+			alias[less] = more;
+			scaled[more] = scaled[more] + scaled[less] - 1.0;
+			if (scaled[more] < 1.0)
+			{
+				small[smallCount++] = more;
+			}
+			else
+			{
+				large[largeCount++] = more;
+			}
+		}
+
+		// Whatever is left is full up to rounding error
+		while (largeCount > 0)
+		{
+			probability[large[--largeCount]] = 1.0;
+		}
+		while (smallCount > 0)
+		{
+			probability[small[--smallCount]] = 1.0;
+		}
+	}
+
+	/**
+	 * @return Number of outcomes
+	 */
+	int size()
+	{
+		return probability.length;
+	}
+
+	/**
+	 * @return An index drawn with probability proportional to its weight
+	 */
+	int sample(SplittableRandom random)
+	{
+		double u = random.nextDouble() * probability.length;
+		int column = Math.min((int) u, probability.length - 1);
+		return u - column < probability[column] ? column : alias[column];
+	}
+}
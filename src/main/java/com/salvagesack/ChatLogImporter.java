@@ -0,0 +1,562 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports salvage sorts from RuneLite's chat logs.
+ * <p>
+ * Log files are read in date order in chunks of {@link #CHUNK_SIZE} bytes that end on a line
+ * break. Plain files are memory-mapped a chunk at a time; compressed files are streamed into
+ * chunk buffers. Chunks are parsed in parallel with the same grammar as live chat messages, and
+ * their sorts are consumed in file order. At most a few chunks are in flight at once, so memory
+ * use does not depend on the size of the logs.
+ * </p>
+ * <p>
+ * Sorts that are already counted are dropped by an {@link ImportDeduplicator}; the rest are
+ * handed to a sink in batches of {@link #BATCH_SIZE}. The sink may block, which also holds back
+ * reading. Lines only carry a time of day, so each file's date comes from its name, or from
+ * when it was last modified for the current log. Only the bytes present when the files were
+ * found are read, so sorts logged during the import are left to the live tracking.
+ * </p>
+ * <p>
+ * Each importer runs one import, and may be cancelled from any thread.
+ * </p>
+ */
+@Slf4j
+public class ChatLogImporter
+{
+	static final int CHUNK_SIZE = 4 * 1024 * 1024;
+	static final int BATCH_SIZE = 1000;
+
+	private static final Pattern DATE_PATTERN = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})");
+
+	/**
+	 * Receives batches of sorts to import
+	 */
+	@FunctionalInterface
+	public interface Sink
+	{
+		void accept(List<ImportedSort> batch) throws InterruptedException;
+	}
+
+	/**
+	 * State of an import
+	 */
+	public enum Status
+	{
+		RUNNING,
+		FINISHED,
+		CANCELLED,
+		FAILED
+	}
+
+	private final ExecutorService parsePool;
+	private final int chunkSize;
+	private final int maxChunksInFlight;
+	private final ZoneId zone;
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+
+	// State of the run, used only by the importing thread
+	private final ArrayDeque<Chunk> inFlight = new ArrayDeque<>();
+	private final List<ImportedSort> batch = new ArrayList<>();
+	private ImportDeduplicator deduplicator;
+	private Sink sink;
+	private Consumer<Progress> onProgress;
+
+	private volatile Status status = Status.RUNNING;
+	private long totalBytes;
+	private long bytesRead;
+	private int sortsFound;
+	private int imported;
+
+	/**
+	 * @param parsePool Pool that parses chunks
+	 * @param parallelism Number of threads in the pool
+	 * @param zone Time zone the logs were written in
+	 */
+	public ChatLogImporter(ExecutorService parsePool, int parallelism, ZoneId zone)
+	{
+		this(parsePool, parallelism, zone, CHUNK_SIZE);
+	}
+
+	ChatLogImporter(ExecutorService parsePool, int parallelism, ZoneId zone, int chunkSize)
+	{
+		this.parsePool = parsePool;
+		this.chunkSize = chunkSize;
+		this.maxChunksInFlight = parallelism + 1;
+		this.zone = zone;
+	}
+
+	/**
+	 * Find the log files under the given files and directories, oldest first
+	 */
+	public List<LogFile> findLogFiles(List<File> roots) throws IOException
+	{
+		List<LogFile> files = new ArrayList<>();
+		for (File root : roots)
+		{
+			if (root.isDirectory())
+			{
+				try (Stream<Path> paths = Files.walk(root.toPath()))
+				{
+					for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList()))
+					{
+						String name = path.getFileName().toString();
+						if (name.endsWith(".log") || name.endsWith(".log.gz"))
+						{
+							files.add(logFile(path));
+						}
+					}
+				}
+			}
+			else if (root.isFile())
+			{
+				files.add(logFile(root.toPath()));
+			}
+		}
+
+		files.sort(Comparator.comparing(LogFile::getDate)
+			.thenComparing(LogFile::isCurrent)
+			.thenComparing(file -> file.getPath().getFileName().toString()));
+		return files;
+	}
+
+	private LogFile logFile(Path path) throws IOException
+	{
+		String name = path.getFileName().toString();
+		Matcher matcher = DATE_PATTERN.matcher(name);
+		LocalDate date;
+		boolean current = !matcher.find();
+		if (current)
+		{
+			// The current log only holds today's lines; older ones are rolled into dated files
+			date = LocalDate.ofInstant(Files.getLastModifiedTime(path).toInstant(), zone);
+		}
+		else
+		{
+			date = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+				Integer.parseInt(matcher.group(3)));
+		}
+		return new LogFile(path, date, current, name.endsWith(".gz"), Files.size(path));
+	}
+
+	/**
+	 * Import the sorts in a list of log files
+	 * @param files The files from {@link #findLogFiles(List)}
+	 * @param deduplicator Drops sorts that are already counted; read after the files were found
+	 * @param sink Receives the sorts to import, in time order
+	 * @param onProgress Called after each chunk with the progress so far
+	 * @return The final progress
+	 */
+	public Progress run(List<LogFile> files, ImportDeduplicator deduplicator, Sink sink,
+		Consumer<Progress> onProgress) throws IOException, InterruptedException
+	{
+		this.deduplicator = deduplicator;
+		this.sink = sink;
+		this.onProgress = onProgress;
+		totalBytes = files.stream().mapToLong(LogFile::getLength).sum();
+
+		try
+		{
+			long offset = 0;
+			for (LogFile file : files)
+			{
+				if (cancelled.get())
+				{
+					break;
+				}
+
+				long start = System.nanoTime();
+				if (file.isCompressed())
+				{
+					streamCompressed(file, offset);
+				}
+				else
+				{
+					mapPlain(file, offset);
+				}
+				offset += file.getLength();
+				log.debug("Queued {} ({} bytes) in {} ms", file.getPath().getFileName(), file.getLength(),
+					(System.nanoTime() - start) / 1_000_000);
+			}
+
+			while (!inFlight.isEmpty() && !cancelled.get())
+			{
+				consume(inFlight.removeFirst());
+			}
+
+			if (!cancelled.get())
+			{
+				deduplicator.finish();
+				flush();
+			}
+		}
+		catch (CancellationException e)
+		{
+			cancelled.set(true);
+		}
+		catch (IOException | InterruptedException | RuntimeException e)
+		{
+			status = Status.FAILED;
+			throw e;
+		}
+		finally
+		{
+			for (Chunk chunk : inFlight)
+			{
+				chunk.sorts.cancel(false);
+			}
+		}
+
+		status = cancelled.get() ? Status.CANCELLED : Status.FINISHED;
+		Progress progress = getProgress();
+		onProgress.accept(progress);
+		return progress;
+	}
+
+	/**
+	 * Stop the import after the current batch; sorts already handed to the sink stay imported
+	 */
+	public void cancel()
+	{
+		cancelled.set(true);
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled.get();
+	}
+
+	private void mapPlain(LogFile file, long offset) throws IOException, InterruptedException
+	{
+		try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ))
+		{
+			long length = Math.min(file.getLength(), channel.size());
+			long position = 0;
+			while (position < length && !cancelled.get())
+			{
+				// Mappings stay valid after the channel is closed, so chunks can outlive this method
+				int size = (int) Math.min(chunkSize, length - position);
+				ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+				int end = position + size < length ? lastLineEnd(chunk, size) : size;
+				chunk.limit(end);
+				position += end;
+				submit(chunk, file.getDate(), offset + position);
+			}
+		}
+	}
+
+	private void streamCompressed(LogFile file, long offset) throws IOException, InterruptedException
+	{
+		try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ);
+			InputStream in = new GZIPInputStream(Channels.newInputStream(channel), 64 * 1024))
+		{
+			byte[] buffer = new byte[chunkSize];
+			int filled = 0;
+			while (!cancelled.get())
+			{
+				int read = in.read(buffer, filled, buffer.length - filled);
+				if (read < 0)
+				{
+					if (filled > 0)
+					{
+						submit(ByteBuffer.wrap(buffer, 0, filled), file.getDate(), offset + file.getLength());
+					}
+					break;
+				}
+
+				filled += read;
+				if (filled == buffer.length)
+				{
+					// The partial line at the end starts the next chunk
+					int end = lastLineEnd(ByteBuffer.wrap(buffer), filled);
+					byte[] next = new byte[chunkSize];
+					System.arraycopy(buffer, end, next, 0, filled - end);
+					submit(ByteBuffer.wrap(buffer, 0, end), file.getDate(), offset + channel.position());
+					buffer = next;
+					filled -= end;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Index after the last line break in a chunk, or the whole chunk if a line fills it
+	 */
+	private static int lastLineEnd(ByteBuffer chunk, int size)
+	{
+		for (int i = size - 1; i >= 0; i--)
+		{
+			if (chunk.get(i) == '\n')
+			{
+				return i + 1;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Start parsing a chunk, first consuming the oldest chunk if too many are in flight
+	 */
+	private void submit(ByteBuffer chunk, LocalDate date, long bytesAfter) throws IOException, InterruptedException
+	{
+		if (inFlight.size() >= maxChunksInFlight)
+		{
+			consume(inFlight.removeFirst());
+		}
+		inFlight.addLast(new Chunk(parsePool.submit(() -> parseChunk(chunk, date, zone)), bytesAfter));
+	}
+
+	/**
+	 * Wait for a chunk to be parsed and pass its new sorts on
+	 */
+	private void consume(Chunk chunk) throws IOException, InterruptedException
+	{
+		List<ImportedSort> sorts;
+		try
+		{
+			sorts = chunk.sorts.get();
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("Failed to parse chat log", e.getCause());
+		}
+
+		for (ImportedSort sort : sorts)
+		{
+			deduplicator.offer(sort, batch::add);
+			if (batch.size() >= BATCH_SIZE)
+			{
+				flush();
+			}
+		}
+		sortsFound += sorts.size();
+		bytesRead = chunk.bytesAfter;
+		onProgress.accept(getProgress());
+	}
+
+	private void flush() throws InterruptedException
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+		if (cancelled.get())
+		{
+			throw new CancellationException();
+		}
+
+		sink.accept(new ArrayList<>(batch));
+		imported += batch.size();
+		batch.clear();
+	}
+
+	/**
+	 * @return The progress so far; only up to date on the importing thread
+	 */
+	public Progress getProgress()
+	{
+		return new Progress(status, totalBytes, bytesRead, sortsFound, imported,
+			deduplicator != null ? deduplicator.getDuplicates() : 0);
+	}
+
+	/**
+	 * Parse the salvage sorts in a chunk of whole lines
+	 * @param chunk Lines from its position to its limit, as UTF-8
+	 * @param date The date the lines were logged on
+	 * @param zone Time zone of the log
+	 */
+	static List<ImportedSort> parseChunk(ByteBuffer chunk, LocalDate date, ZoneId zone)
+	{
+		SalvageMessageParser parser = new SalvageMessageParser();
+		List<ImportedSort> sorts = new ArrayList<>();
+		byte[] line = new byte[256];
+		int limit = chunk.limit();
+		int lineStart = chunk.position();
+		while (lineStart < limit)
+		{
+			int lineEnd = lineStart;
+			while (lineEnd < limit && chunk.get(lineEnd) != '\n')
+			{
+				lineEnd++;
+			}
+			int next = lineEnd + 1;
+			if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r')
+			{
+				lineEnd--;
+			}
+
+			// Lines look like "13:45:07 You sort through the ...", with the time in brackets on some setups
+			int i = lineStart;
+			if (i < lineEnd && chunk.get(i) == '[')
+			{
+				i++;
+			}
+			int secondOfDay = parseTime(chunk, i, lineEnd);
+			if (secondOfDay >= 0)
+			{
+				i += 8;
+				if (i < lineEnd && chunk.get(i) == ']')
+				{
+					i++;
+				}
+				while (i < lineEnd && chunk.get(i) == ' ')
+				{
+					i++;
+				}
+
+				// Almost every line is rejected here without being decoded
+				if (SalvageMessageParser.mightBeSalvage(chunk, i, lineEnd))
+				{
+					int length = lineEnd - i;
+					if (line.length < length)
+					{
+						line = new byte[Math.max(length, line.length * 2)];
+					}
+					for (int j = 0; j < length; j++)
+					{
+						line[j] = chunk.get(i + j);
+					}
+
+					SalvageMessage message = parser.parse(new String(line, 0, length, StandardCharsets.UTF_8));
+					if (message != null)
+					{
+						Instant time = LocalDateTime.of(date, LocalTime.ofSecondOfDay(secondOfDay)).atZone(zone)
+							.toInstant();
+						sorts.add(new ImportedSort(ShipwreckType.fromString(message.getSalvageType()),
+							time.toEpochMilli(), message.getItemName(), message.getQuantity()));
+					}
+				}
+			}
+			lineStart = next;
+		}
+		return sorts;
+	}
+
+	/**
+	 * @return The second of the day in an "HH:mm:ss" time, or -1 if there is none
+	 */
+	private static int parseTime(ByteBuffer chunk, int i, int end)
+	{
+		if (end - i < 8 || chunk.get(i + 2) != ':' || chunk.get(i + 5) != ':')
+		{
+			return -1;
+		}
+		int hours = twoDigits(chunk, i);
+		int minutes = twoDigits(chunk, i + 3);
+		int seconds = twoDigits(chunk, i + 6);
+		if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59)
+		{
+			return -1;
+		}
+		return hours * 3600 + minutes * 60 + seconds;
+	}
+
+	private static int twoDigits(ByteBuffer chunk, int i)
+	{
+		int tens = chunk.get(i) - '0';
+		int ones = chunk.get(i + 1) - '0';
+		return tens >= 0 && tens <= 9 && ones >= 0 && ones <= 9 ? tens * 10 + ones : -1;
+	}
+
+	/**
+	 * A chunk being parsed, and how far through the logs it ends
+	 */
+	@RequiredArgsConstructor
+	private static class Chunk
+	{
+		private final Future<List<ImportedSort>> sorts;
+		private final long bytesAfter;
+	}
+
+	/**
+	 * A log file and the date its lines were written on
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static class LogFile
+	{
+		private final Path path;
+		private final LocalDate date;
+
+		/**
+		 * Whether this is the log currently being written, rather than a rolled dated one
+		 */
+		private final boolean current;
+
+		private final boolean compressed;
+
+		/**
+		 * Size of the file when it was found; only this much is read
+		 */
+		private final long length;
+	}
+
+	/**
+	 * Immutable view of an import's progress, for the panel
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static class Progress
+	{
+		private final Status status;
+		private final long totalBytes;
+		private final long bytesRead;
+
+		/**
+		 * Sorts parsed so far
+		 */
+		private final int sortsFound;
+
+		/**
+		 * Sorts handed to the sink so far
+		 */
+		private final int imported;
+
+		/**
+		 * Sorts dropped because they were already counted
+		 */
+		private final int duplicates;
+
+		/**
+		 * @return Fraction of the bytes read, from 0 to 1
+		 */
+		public double getFraction()
+		{
+			return totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : 1.0;
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package com.salvagesack;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores salvage data in a compact, versioned binary form.
+ * <p>
+ * Layout (version 4), before compression:
+ * <pre>
+ * byte    version
+ * varint  totalLoots
+ * varint  journalSeq (64-bit; absent in version 1)
+ * varint  nameCount, then nameCount x (varint length, UTF-8 bytes)
+ * varint  itemCount, then itemCount x (varint itemId delta, varint name index,
+ *         varint dropCount, varint totalQuantity (64-bit; 32-bit before version 4),
+ *         varint sorts since last drop, varint longest dry streak)
+ * </pre>
+ * The dry streak fields are absent before version 3; items decoded from older data start
+ * their streak at the current total. The last drop is stored relative to the total so that
+ * it stays small.
+ * Items are written in item ID order so IDs can be delta-encoded. Expected drop rates are
+ * not stored since they are always looked up from {@link DropRateManager}. The bytes are
+ * zlib-deflated, so corruption is caught by its checksum, and base64-encoded to fit in
+ * RSProfile configuration. Base64 never starts with '{', which is how stored data is
+ * told apart from JSON.
+ * </p>
+ */
+public class CompactSalvageCodec implements SalvageDataCodec
+{
+	static final int VERSION = 4;
+
+	private final ItemRegistry registry;
+
+	public CompactSalvageCodec(ItemRegistry registry)
+	{
+		this.registry = registry;
+	}
+
+	@Override
+	public String encode(SalvageData data)
+	{
+		List<SalvageItem> items = new ArrayList<>(data.getItems().values());
+		items.sort(Comparator.comparingInt(SalvageItem::getItemId));
+
+		Map<String, Integer> nameIndexes = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		for (SalvageItem item : items)
+		{
+			String name = item.getItemName() != null ? item.getItemName() : "";
+			if (!nameIndexes.containsKey(name))
+			{
+				nameIndexes.put(name, names.size());
+				names.add(name);
+			}
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16 + items.size() * 24);
+		out.write(VERSION);
+		writeVarint(out, data.getTotalLoots());
+		writeVarint(out, data.getJournalSeq());
+
+		writeVarint(out, names.size());
+		for (String name : names)
+		{
+			byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			writeVarint(out, bytes.length);
+			out.write(bytes, 0, bytes.length);
+		}
+
+		writeVarint(out, items.size());
+		int previousId = 0;
+		for (SalvageItem item : items)
+		{
+			String name = item.getItemName() != null ? item.getItemName() : "";
+			writeVarint(out, item.getItemId() - previousId);
+			writeVarint(out, nameIndexes.get(name));
+			writeVarint(out, item.getDropCount());
+			writeVarint(out, item.getTotalQuantity());
+			writeVarint(out, item.getDryStreak(data.getTotalLoots()));
+			writeVarint(out, item.getLongestDryStreak());
+			previousId = item.getItemId();
+		}
+
+		return Base64.getEncoder().encodeToString(deflate(out.toByteArray()));
+	}
+
+	@Override
+	public SalvageData decode(ShipwreckType type, String encoded)
+	{
+		byte[] bytes;
+		try
+		{
+			bytes = inflate(Base64.getDecoder().decode(encoded));
+		}
+		catch (IllegalArgumentException | DataFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid compact salvage data", e);
+		}
+
+		Reader in = new Reader(bytes);
+		int version = in.readByte();
+		if (version < 1 || version > VERSION)
+		{
+			throw new IllegalArgumentException("Unsupported compact salvage data version: " + version);
+		}
+
+		int totalLoots = in.readVarint();
+		long journalSeq = version >= 2 ? in.readVarlong() : 0;
+
+		int nameCount = in.readVarint();
+		String[] names = new String[nameCount];
+		for (int i = 0; i < nameCount; i++)
+		{
+			names[i] = in.readString();
+		}
+
+		int itemCount = in.readVarint();
+		SalvageData data = new SalvageData(type, registry, totalLoots);
+		int itemId = 0;
+		for (int i = 0; i < itemCount; i++)
+		{
+			itemId += in.readVarint();
+			int nameIndex = in.readVarint();
+			int dropCount = in.readVarint();
+			long totalQuantity = version >= 4 ? in.readVarlong() : in.readVarint();
+			if (nameIndex >= nameCount)
+			{
+				throw new IllegalArgumentException("Invalid name index " + nameIndex);
+			}
+			data.setItem(itemId, names[nameIndex], dropCount, totalQuantity, 0.0);
+			if (version >= 3)
+			{
+				int dryStreak = in.readVarint();
+				int longestDryStreak = in.readVarint();
+				data.setDryStreak(itemId, totalLoots - dryStreak, longestDryStreak);
+			}
+		}
+
+		data.setJournalSeq(journalSeq);
+		return data;
+	}
+
+	/**
+	 * Unsigned LEB128 encoding; values are never negative
+	 */
+	private static void writeVarint(ByteArrayOutputStream out, long value)
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static byte[] deflate(byte[] input)
+	{
+		Deflater deflater = new Deflater();
+		try
+		{
+			deflater.setInput(input);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+			byte[] buffer = new byte[1024];
+			while (!deflater.finished())
+			{
+				int n = deflater.deflate(buffer);
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] input) throws DataFormatException
+	{
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(input);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+			byte[] buffer = new byte[1024];
+			while (!inflater.finished())
+			{
+				int n = inflater.inflate(buffer);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+				{
+					throw new DataFormatException("Truncated compact salvage data");
+				}
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Bounds-checked reader over the decompressed bytes
+	 */
+	private static class Reader
+	{
+		private final byte[] bytes;
+		private int position;
+
+		Reader(byte[] bytes)
+		{
+			this.bytes = bytes;
+		}
+
+		int readByte()
+		{
+			if (position >= bytes.length)
+			{
+				throw new IllegalArgumentException("Unexpected end of compact salvage data");
+			}
+			return bytes[position++] & 0xFF;
+		}
+
+		int readVarint()
+		{
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7)
+			{
+				int b = readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					if (value < 0)
+					{
+						throw new IllegalArgumentException("Negative value in compact salvage data");
+					}
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("Malformed varint in compact salvage data");
+		}
+
+		long readVarlong()
+		{
+			long value = 0;
+			for (int shift = 0; shift < 63; shift += 7)
+			{
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("Malformed varint in compact salvage data");
+		}
+
+		String readString()
+		{
+			int length = readVarint();
+			if (length > bytes.length - position)
+			{
+				throw new IllegalArgumentException("Unexpected end of compact salvage data");
+			}
+			String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return value;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.salvagesack;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the user drop rates file and runs a callback on its own thread when it changes.
+ * <p>
+ * Editors often save a file in several steps, so changes are only reported once the file
+ * has been quiet for a short settle period. The callback runs off the client thread.
+ * </p>
+ */
+@Slf4j
+public class DropRateFileWatcher implements Closeable
+{
+	private static final long SETTLE_MILLIS = 250;
+
+	private final Path file;
+	private final Runnable onChange;
+	private WatchService watchService;
+
+	public DropRateFileWatcher(File file, Runnable onChange)
+	{
+		this.file = file.toPath().toAbsolutePath();
+		this.onChange = onChange;
+	}
+
+	/**
+	 * Start watching the file's directory
+	 */
+	public synchronized void start() throws IOException
+	{
+		if (watchService != null)
+		{
+			return;
+		}
+
+		WatchService service = FileSystems.getDefault().newWatchService();
+		try
+		{
+			file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+		}
+		catch (IOException e)
+		{
+			service.close();
+			throw e;
+		}
+		watchService = service;
+
+		Thread thread = new Thread(() -> watch(service), "salvagesack-drop-rates");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void watch(WatchService service)
+	{
+		try
+		{
+			while (true)
+			{
+				WatchKey key = service.take();
+				boolean changed = pollEvents(key);
+
+				// Wait for the file to settle, absorbing any further events
+				while (changed)
+				{
+					WatchKey next = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+					if (next == null)
+					{
+						break;
+					}
+					pollEvents(next);
+				}
+
+				if (changed)
+				{
+					try
+					{
+						onChange.run();
+					}
+					catch (RuntimeException e)
+					{
+						log.warn("Failed to reload drop rates", e);
+					}
+				}
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e)
+		{
+			log.debug("Stopped watching {}", file);
+		}
+	}
+
+	/**
+	 * Drain a key's events and reset it
+	 * @return true if any event was for the watched file
+	 */
+	private boolean pollEvents(WatchKey key)
+	{
+		boolean changed = false;
+		for (WatchEvent<?> event : key.pollEvents())
+		{
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context()))
+			{
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+
+	@Override
+	public synchronized void close()
+	{
+		if (watchService == null)
+		{
+			return;
+		}
+
+		try
+		{
+			watchService.close();
+		}
+		catch (IOException e)
+		{
+			log.debug("Failed to close drop rates watcher: {}", e.getMessage());
+		}
+		watchService = null;
+	}
+}
@@ -7,16 +7,51 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages loading and accessing expected drop rates from configuration
+ * Manages loading and accessing expected drop rates from configuration.
+ * <p>
+ * Rates are compiled at load time into one {@code double[]} per shipwreck type, indexed by
+ * an item handle. {@link #getItemHandle(String)} returns the handle for an item name once;
+ * {@link #getExpectedDropRate(ShipwreckType, int)} is then a plain array read. Handles are
+ * never reassigned, so they stay valid when {@link #reload()} swaps in a new table.
+ * </p>
+ * <p>
+ * A {@link DryStreakTable} is built alongside the rates for every item with a known rate,
+ * shared between items with the same rate, so dry streak percentiles are a lookup too. The
+ * rates, streak tables, drop tables and item names are published together in one volatile
+ * write, so a reader never pairs parts of two different loads.
+ * </p>
  */
 @Slf4j
 public class DropRateManager
 {
-	private final Map<ShipwreckType, Map<String, Double>> dropRates = new HashMap<>();
+	/**
+	 * Item name -> handle. Holds both the names as seen and their normalized form, so repeat
+	 * lookups of the same spelling do not need to lower-case the name.
+	 */
+	private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+	private final Map<String, Integer> normalizedHandles = new HashMap<>();
+	private int handleCount;
+
+	/**
+	 * Everything compiled from one load of the rates, replaced as a whole on reload
+	 */
+	private volatile CompiledRates compiled = new CompiledRates(
+		new double[ShipwreckType.values().length][0],
+		new DryStreakTable[ShipwreckType.values().length][0],
+		Collections.emptySet(),
+		Collections.emptyMap());
+
 	private final Gson gson;
 	private final File userConfigFile;
 
@@ -24,7 +59,15 @@ public class DropRateManager
 	{
 		this.gson = gson;
 		this.userConfigFile = new File(dataDirectory, "drop_rates.json");
-		loadDropRates();
+		try
+		{
+			loadDropRates();
+		}
+		catch (RuntimeException e)
+		{
+			// Keep the empty table, so items show without expected rates
+			log.error("Failed to load drop rates", e);
+		}
 	}
 
 	/**
@@ -32,31 +75,163 @@ public class DropRateManager
 	 */
 	private void loadDropRates()
 	{
+		Map<ShipwreckType, Map<String, Double>> dropRates = new EnumMap<>(ShipwreckType.class);
+
 		// First load bundled defaults
-		loadBundledRates();
+		loadBundledRates(dropRates);
 
 		// Then override with user config if it exists
 		if (userConfigFile.exists())
 		{
-			loadUserRates();
+			loadUserRates(dropRates);
 		}
 		else
 		{
 			// Copy bundled config to user directory for editing
 			copyBundledToUser();
 		}
+
+		compiled = compile(dropRates);
+	}
+
+	/**
+	 * Re-read the user config file and swap in the new rates if it is valid.
+	 * If the file cannot be parsed the current rates are kept.
+	 * @return The shipwreck types whose rates changed
+	 */
+	public Set<ShipwreckType> reload()
+	{
+		Map<ShipwreckType, Map<String, Double>> dropRates = new EnumMap<>(ShipwreckType.class);
+		loadBundledRates(dropRates);
+		if (userConfigFile.exists() && !loadUserRates(dropRates))
+		{
+			return EnumSet.noneOf(ShipwreckType.class);
+		}
+
+		CompiledRates next = compile(dropRates);
+		double[][] previous = compiled.rateTable;
+		double[][] table = next.rateTable;
+		compiled = next;
+
+		Set<ShipwreckType> changed = EnumSet.noneOf(ShipwreckType.class);
+		for (ShipwreckType type : ShipwreckType.values())
+		{
+			if (!sameRates(previous[type.ordinal()], table[type.ordinal()]))
+			{
+				changed.add(type);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Compare two rate arrays, treating handles past the end of the shorter one as 0
+	 */
+	private static boolean sameRates(double[] a, double[] b)
+	{
+		int length = Math.max(a.length, b.length);
+		for (int i = 0; i < length; i++)
+		{
+			double rateA = i < a.length ? a[i] : 0.0;
+			double rateB = i < b.length ? b[i] : 0.0;
+			if (Double.compare(rateA, rateB) != 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return Names of every item with a configured rate in any shipwreck, lower-cased
+	 */
+	public Set<String> getItemNames()
+	{
+		return compiled.itemNames;
+	}
+
+	/**
+	 * @return A shipwreck's configured drop rates by lower-cased item name; empty if it has none
+	 */
+	public Map<String, Double> getDropTable(ShipwreckType shipwreckType)
+	{
+		return compiled.dropTables.getOrDefault(shipwreckType, Collections.emptyMap());
+	}
+
+	/**
+	 * @return The user config file that overrides the bundled rates
+	 */
+	public File getUserConfigFile()
+	{
+		return userConfigFile;
+	}
+
+	/**
+	 * Build the rate table and its dry streak tables, assigning handles to any item names not
+	 * seen before
+	 */
+	private CompiledRates compile(Map<ShipwreckType, Map<String, Double>> dropRates)
+	{
+		Set<String> names = new HashSet<>();
+		for (Map<String, Double> itemRates : dropRates.values())
+		{
+			for (String itemName : itemRates.keySet())
+			{
+				getItemHandle(itemName);
+				names.add(itemName);
+			}
+		}
+
+		Map<ShipwreckType, Map<String, Double>> tables = new EnumMap<>(ShipwreckType.class);
+		for (Map.Entry<ShipwreckType, Map<String, Double>> entry : dropRates.entrySet())
+		{
+			tables.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+		}
+
+		int size;
+		synchronized (normalizedHandles)
+		{
+			size = handleCount;
+		}
+
+		double[][] table = new double[ShipwreckType.values().length][];
+		DryStreakTable[][] streaks = new DryStreakTable[ShipwreckType.values().length][];
+		Map<Double, DryStreakTable> streaksByRate = new HashMap<>();
+		for (ShipwreckType type : ShipwreckType.values())
+		{
+			double[] rates = new double[size];
+			DryStreakTable[] typeStreaks = new DryStreakTable[size];
+			Map<String, Double> itemRates = dropRates.get(type);
+			if (itemRates != null)
+			{
+				for (Map.Entry<String, Double> entry : itemRates.entrySet())
+				{
+					int handle = getItemHandle(entry.getKey());
+					double rate = entry.getValue();
+					rates[handle] = rate;
+					if (rate > 0.0 && rate < 1.0)
+					{
+						typeStreaks[handle] = streaksByRate.computeIfAbsent(rate, DryStreakTable::new);
+					}
+				}
+			}
+			table[type.ordinal()] = rates;
+			streaks[type.ordinal()] = typeStreaks;
+		}
+		return new CompiledRates(table, streaks, Collections.unmodifiableSet(names),
+			Collections.unmodifiableMap(tables));
 	}
 
 	/**
 	 * Load rates from bundled resource
 	 */
-	private void loadBundledRates()
+	private void loadBundledRates(Map<ShipwreckType, Map<String, Double>> dropRates)
 	{
 		try (InputStream is = getClass().getResourceAsStream("/drop_rates.json"))
 		{
 			if (is != null)
 			{
-				parseDropRates(new InputStreamReader(is, StandardCharsets.UTF_8));
+				parseDropRates(new InputStreamReader(is, StandardCharsets.UTF_8), dropRates);
 				log.info("Loaded bundled drop rates");
 			}
 		}
@@ -68,17 +243,20 @@ public class DropRateManager
 
 	/**
 	 * Load rates from user config file
+	 * @return true if the file was parsed
 	 */
-	private void loadUserRates()
+	private boolean loadUserRates(Map<ShipwreckType, Map<String, Double>> dropRates)
 	{
 		try (FileReader reader = new FileReader(userConfigFile))
 		{
-			parseDropRates(reader);
+			parseDropRates(reader, dropRates);
 			log.info("Loaded user drop rates from {}", userConfigFile.getAbsolutePath());
+			return true;
 		}
 		catch (Exception e)
 		{
 			log.warn("Failed to load user drop rates: {}", e.getMessage());
+			return false;
 		}
 	}
 
@@ -118,7 +296,7 @@ public class DropRateManager
 	/**
 	 * Parse drop rates from a reader
 	 */
-	private void parseDropRates(Reader reader)
+	private void parseDropRates(Reader reader, Map<ShipwreckType, Map<String, Double>> dropRates)
 	{
 		JsonObject root = gson.fromJson(reader, JsonObject.class);
 		JsonObject shipwrecks = root.getAsJsonObject("shipwrecks");
@@ -146,7 +324,14 @@ public class DropRateManager
 						if (rateElement != null && rateElement.isJsonPrimitive())
 						{
 							double rate = rateElement.getAsDouble();
-							itemRates.put(itemName.toLowerCase(), rate);
+							if (rate >= 0.0 && rate <= 1.0)
+							{
+								itemRates.put(normalize(itemName), rate);
+							}
+							else
+							{
+								log.warn("Ignoring invalid drop rate {} for {}", rate, itemName);
+							}
 						}
 					}
 				}
@@ -158,6 +343,46 @@ public class DropRateManager
 		}
 	}
 
+	/**
+	 * Get the handle for an item name, for use with {@link #getExpectedDropRate(ShipwreckType, int)}.
+	 * Names are matched case-insensitively. Every name gets a handle, including names with no
+	 * configured rate, and a name's handle never changes.
+	 * @param itemName The name of the item
+	 * @return The item's handle
+	 */
+	public int getItemHandle(String itemName)
+	{
+		Integer handle = handles.get(itemName);
+		if (handle != null)
+		{
+			return handle;
+		}
+
+		synchronized (normalizedHandles)
+		{
+			handle = normalizedHandles.get(normalize(itemName));
+			if (handle == null)
+			{
+				handle = handleCount++;
+				normalizedHandles.put(normalize(itemName), handle);
+			}
+		}
+		handles.put(itemName, handle);
+		return handle;
+	}
+
+	/**
+	 * Get the expected drop rate for an item handle from a specific shipwreck type
+	 * @param shipwreckType The type of shipwreck
+	 * @param itemHandle Handle from {@link #getItemHandle(String)}
+	 * @return The expected drop rate (0.0 to 1.0), or 0.0 if unknown
+	 */
+	public double getExpectedDropRate(ShipwreckType shipwreckType, int itemHandle)
+	{
+		double[] rates = compiled.rateTable[shipwreckType.ordinal()];
+		return itemHandle >= 0 && itemHandle < rates.length ? rates[itemHandle] : 0.0;
+	}
+
 	/**
 	 * Get the expected drop rate for an item from a specific shipwreck type
 	 * @param shipwreckType The type of shipwreck
@@ -166,16 +391,70 @@ public class DropRateManager
 	 */
 	public double getExpectedDropRate(ShipwreckType shipwreckType, String itemName)
 	{
-		Map<String, Double> itemRates = dropRates.get(shipwreckType);
-		if (itemRates == null)
+		return getExpectedDropRate(shipwreckType, getItemHandle(itemName));
+	}
+
+	/**
+	 * Get the dry streak percentiles for an item from a specific shipwreck type
+	 * @param shipwreckType The type of shipwreck
+	 * @param itemHandle Handle from {@link #getItemHandle(String)}
+	 * @return The table for the item's expected rate, or null if the rate is unknown
+	 */
+	public DryStreakTable getDryStreakTable(ShipwreckType shipwreckType, int itemHandle)
+	{
+		DryStreakTable[] tables = compiled.streakTables[shipwreckType.ordinal()];
+		return itemHandle >= 0 && itemHandle < tables.length ? tables[itemHandle] : null;
+	}
+
+	/**
+	 * Get the dry streak percentiles for an item from a specific shipwreck type
+	 * @param shipwreckType The type of shipwreck
+	 * @param itemName The name of the item
+	 * @return The table for the item's expected rate, or null if the rate is unknown
+	 */
+	public DryStreakTable getDryStreakTable(ShipwreckType shipwreckType, String itemName)
+	{
+		return getDryStreakTable(shipwreckType, getItemHandle(itemName));
+	}
+
+	/**
+	 * The rate table and everything derived from it, published together so readers never mix
+	 * two loads
+	 */
+	private static final class CompiledRates
+	{
+		/**
+		 * Rates indexed by shipwreck type ordinal and then item handle
+		 */
+		private final double[][] rateTable;
+
+		/**
+		 * Dry streak tables indexed like {@link #rateTable}; null where the rate is unknown
+		 */
+		private final DryStreakTable[][] streakTables;
+
+		/**
+		 * Names of every item with a configured rate, lower-cased
+		 */
+		private final Set<String> itemNames;
+
+		/**
+		 * Each shipwreck's configured rates by lower-cased item name, for {@link LootSimulator}
+		 */
+		private final Map<ShipwreckType, Map<String, Double>> dropTables;
+
+		CompiledRates(double[][] rateTable, DryStreakTable[][] streakTables, Set<String> itemNames,
+			Map<ShipwreckType, Map<String, Double>> dropTables)
 		{
-			log.debug("No rates found for shipwreck type: {}", shipwreckType);
-			return 0.0;
+			this.rateTable = rateTable;
+			this.streakTables = streakTables;
+			this.itemNames = itemNames;
+			this.dropTables = dropTables;
 		}
+	}
 
-		double rate = itemRates.getOrDefault(itemName.toLowerCase(), 0.0);
-		log.info("Drop rate lookup: type={}, item='{}', rate={}", shipwreckType, itemName, rate);
-		return rate;
+	private static String normalize(String itemName)
+	{
+		return itemName.toLowerCase(Locale.ROOT);
 	}
 }
-
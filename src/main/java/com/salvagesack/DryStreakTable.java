@@ -0,0 +1,66 @@
+package com.salvagesack;
+
+/**
+ * Percentiles of dry streaks for one drop rate, precomputed so a lookup needs no logarithms.
+ * <p>
+ * The number of sorts until a drop at rate {@code p} is geometric, so the chance of going
+ * {@code s} sorts without it is {@code (1 - p)^s}, and a streak of {@code s} is drier than
+ * {@code 1 - (1 - p)^s} of players. The table holds, for each whole percentile, the shortest
+ * streak that reaches it; {@link #getPercentile(int)} is a binary search over those 99 values.
+ * Tables are built by {@link DropRateManager} when the rates are loaded and shared by every
+ * item with the same rate.
+ * </p>
+ */
+public final class DryStreakTable
+{
+	private static final int PERCENTILES = 99;
+
+	private final double rate;
+
+	/**
+	 * Shortest streak at or above each percentile from 1 to 99
+	 */
+	private final int[] thresholds = new int[PERCENTILES];
+
+	/**
+	 * @param rate Drop rate, greater than 0 and less than 1
+	 */
+	public DryStreakTable(double rate)
+	{
+		this.rate = rate;
+		double logMiss = Math.log1p(-rate);
+		for (int q = 1; q <= PERCENTILES; q++)
+		{
+			double streak = Math.ceil(Math.log1p(-q / 100.0) / logMiss);
+			thresholds[q - 1] = (int) Math.min(Integer.MAX_VALUE, Math.max(1, streak));
+		}
+	}
+
+	public double getRate()
+	{
+		return rate;
+	}
+
+	/**
+	 * @return The whole percentage of players who would have had the drop in fewer sorts
+	 *         than this streak, from 0 to 99
+	 */
+	public int getPercentile(int streak)
+	{
+		int low = 0;
+		int high = PERCENTILES;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (thresholds[mid] <= streak)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
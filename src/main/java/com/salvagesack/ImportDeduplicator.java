@@ -0,0 +1,250 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Decides which sorts read from chat logs are already counted, and where the rest belong.
+ * <p>
+ * Counted sorts with timestamps come from the {@link LootHistory}. A logged sort is a duplicate
+ * if a history row of the same shipwreck covers its time and has not been matched yet: a single
+ * sort within {@link #MATCH_TOLERANCE_MILLIS} of the logged second, or a rolled-up hour or day
+ * with drops left over. Items are not compared, since every sort drops exactly one item. The
+ * history keeps sorts from before a reset, so logs from before a reset are not imported again.
+ * </p>
+ * <p>
+ * Sorts counted before the history was kept have no timestamps. They are assumed to be the
+ * latest sorts before the shipwreck's first history row, so that many logged sorts from just
+ * before it are held back and dropped as duplicates. Only that many sorts are ever held.
+ * </p>
+ * <p>
+ * Sorts must be offered in time order. Each new sort is given its position among the counted
+ * sorts: after every earlier imported sort, and after the untimed and history sorts only if it
+ * is newer than the start of the history.
+ * </p>
+ */
+public class ImportDeduplicator
+{
+	/**
+	 * How far a logged second may be from the recorded time of the same sort
+	 */
+	static final long MATCH_TOLERANCE_MILLIS = 2000;
+
+	private static final long SECOND_MILLIS = 1000;
+
+	private final Shipwreck[] shipwrecks;
+
+	@Getter
+	private int duplicates;
+
+	/**
+	 * @param totalLoots Each shipwreck's total sorts when the history was read, by ordinal
+	 */
+	ImportDeduplicator(int[] totalLoots)
+	{
+		ShipwreckType[] types = ShipwreckType.values();
+		shipwrecks = new Shipwreck[types.length];
+		for (int i = 0; i < types.length; i++)
+		{
+			shipwrecks[i] = new Shipwreck(i < totalLoots.length ? totalLoots[i] : 0);
+		}
+	}
+
+	/**
+	 * Read the counted sorts from the history
+	 * @param history The loot history
+	 * @param totalLoots Each shipwreck's total sorts, by ordinal, read before the history
+	 */
+	public static ImportDeduplicator fromHistory(LootHistory history, int[] totalLoots)
+	{
+		ImportDeduplicator deduplicator = new ImportDeduplicator(totalLoots);
+		history.scanSpans(deduplicator::addRecorded);
+		deduplicator.finishRecorded();
+		return deduplicator;
+	}
+
+	/**
+	 * Add a counted history row; rows may be added in any order
+	 */
+	void addRecorded(long timestamp, long span, ShipwreckType type, int drops)
+	{
+		shipwrecks[type.ordinal()].add(timestamp, span, drops);
+	}
+
+	/**
+	 * Called once every history row has been added
+	 */
+	void finishRecorded()
+	{
+		for (Shipwreck shipwreck : shipwrecks)
+		{
+			shipwreck.finish();
+		}
+	}
+
+	/**
+	 * Offer the next logged sort
+	 * @param sort The sort, no older than any sort offered before it
+	 * @param output Receives the sorts that are not counted yet, with their positions set;
+	 *               a sort may be passed on later, when a newer one is offered
+	 */
+	public void offer(ImportedSort sort, Consumer<ImportedSort> output)
+	{
+		Shipwreck shipwreck = shipwrecks[sort.getShipwreckType().ordinal()];
+		long time = sort.getTimestamp();
+
+		if (shipwreck.size == 0 || time < shipwreck.times[0] - SECOND_MILLIS - MATCH_TOLERANCE_MILLIS)
+		{
+			// Before the history; the latest of these may be the untimed sorts
+			if (shipwreck.untimed == 0)
+			{
+				sort.setPosition(shipwreck.imported++);
+				output.accept(sort);
+				return;
+			}
+
+			shipwreck.held.addLast(sort);
+			if (shipwreck.held.size() > shipwreck.untimed)
+			{
+				ImportedSort older = shipwreck.held.removeFirst();
+				older.setPosition(shipwreck.imported++);
+				output.accept(older);
+			}
+			return;
+		}
+
+		// The sorts held from just before the history are the untimed ones
+		duplicates += shipwreck.held.size();
+		shipwreck.held.clear();
+
+		if (shipwreck.match(time))
+		{
+			duplicates++;
+			return;
+		}
+
+		sort.setPosition(shipwreck.imported++ + shipwreck.untimed + shipwreck.countBefore(time));
+		output.accept(sort);
+	}
+
+	/**
+	 * Called after the last sort; sorts still held are dropped as duplicates of the untimed sorts
+	 */
+	public void finish()
+	{
+		for (Shipwreck shipwreck : shipwrecks)
+		{
+			duplicates += shipwreck.held.size();
+			shipwreck.held.clear();
+		}
+	}
+
+	/**
+	 * One shipwreck's counted history rows in time order, with the drops each has left to match
+	 */
+	private static class Shipwreck
+	{
+		private final int totalLoots;
+		private long[] times = new long[16];
+		private long[] ends = new long[16];
+		private int[] drops = new int[16];
+		private int[] unmatched;
+		private int size;
+
+		private int untimed;
+		private final ArrayDeque<ImportedSort> held = new ArrayDeque<>();
+		private int imported;
+
+		private int matchStart;
+		private int countCursor;
+		private int countedBefore;
+
+		Shipwreck(int totalLoots)
+		{
+			this.totalLoots = totalLoots;
+		}
+
+		void add(long time, long span, int dropCount)
+		{
+			if (size == times.length)
+			{
+				times = Arrays.copyOf(times, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+				drops = Arrays.copyOf(drops, size * 2);
+			}
+			times[size] = time;
+			ends[size] = time + span;
+			drops[size] = dropCount;
+			size++;
+		}
+
+		void finish()
+		{
+			// Tiers are visited oldest first, so this is linear unless sorts were recorded out of order
+			long timed = 0;
+			for (int i = 0; i < size; i++)
+			{
+				long time = times[i];
+				long end = ends[i];
+				int dropCount = drops[i];
+				int j = i - 1;
+				while (j >= 0 && times[j] > time)
+				{
+					times[j + 1] = times[j];
+					ends[j + 1] = ends[j];
+					drops[j + 1] = drops[j];
+					j--;
+				}
+				times[j + 1] = time;
+				ends[j + 1] = end;
+				drops[j + 1] = dropCount;
+				timed += dropCount;
+			}
+			unmatched = Arrays.copyOf(drops, size);
+
+			// The history keeps sorts from before a reset, so it can hold more than the data
+			untimed = (int) Math.max(0, totalLoots - timed);
+		}
+
+		/**
+		 * Match a logged second against the first row that covers it and has drops left
+		 * @return true if the sort is already counted
+		 */
+		boolean match(long time)
+		{
+			// Rows that are used up or too old for this sort are too old for every later one
+			while (matchStart < size
+				&& (unmatched[matchStart] == 0 || ends[matchStart] + MATCH_TOLERANCE_MILLIS < time))
+			{
+				matchStart++;
+			}
+
+			// A sort recorded at t is logged in the second (t - 1s, t]
+			for (int i = matchStart; i < size && times[i] - SECOND_MILLIS - MATCH_TOLERANCE_MILLIS <= time; i++)
+			{
+				if (unmatched[i] > 0 && time <= ends[i] + MATCH_TOLERANCE_MILLIS)
+				{
+					unmatched[i]--;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return Number of history sorts recorded before a time
+		 */
+		int countBefore(long time)
+		{
+			while (countCursor < size && times[countCursor] <= time)
+			{
+				countedBefore += drops[countCursor];
+				countCursor++;
+			}
+			return countedBefore;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A sort read from a chat log by {@link ChatLogImporter}
+ * <p>
+ * The position is where the sort belongs among the shipwreck's counted sorts, and is set by
+ * {@link ImportDeduplicator} once the sort is known not to be counted already.
+ * </p>
+ */
+@Getter
+@RequiredArgsConstructor
+public class ImportedSort
+{
+	private final ShipwreckType shipwreckType;
+
+	/**
+	 * Start of the second the sort was logged in (milliseconds since epoch)
+	 */
+	private final long timestamp;
+
+	private final String itemName;
+	private final int quantity;
+
+	/**
+	 * Number of the shipwreck's counted sorts that happened before this one
+	 */
+	private int position;
+
+	void setPosition(int position)
+	{
+		this.position = position;
+	}
+}
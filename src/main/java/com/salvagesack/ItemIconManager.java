@@ -5,33 +5,90 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.util.AsyncBufferedImage;
 
+import javax.swing.Timer;
 import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Manages fetching and caching of item icons using RuneLite's ItemManager
+ * <p>
+ * Each item's icon is requested from the ItemManager once; callers asking for an icon that is
+ * still loading get the same pending image. Loaded icons are kept in a bounded cache that
+ * evicts the least recently used icon. Icons finishing in the same frame trigger a single
+ * repaint.
+ * </p>
  */
 @Slf4j
 public class ItemIconManager
 {
 	private static final int ICON_SIZE = 32;
-	
+
+	/**
+	 * Default number of loaded icons to keep; comfortably more than every item in the drop table
+	 */
+	static final int DEFAULT_MAX_CACHED_ICONS = 512;
+
+	/**
+	 * Icons that finish loading within this long of each other share one repaint, about a frame
+	 */
+	private static final int REPAINT_DELAY_MILLIS = 16;
+
+	/**
+	 * Loaded icons in least to most recently used order; guarded by itself
+	 */
 	private final Map<Integer, BufferedImage> iconCache;
+
+	/**
+	 * Icons requested from the ItemManager that have not finished loading
+	 */
+	private final Map<Integer, BufferedImage> loadingIcons = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean repaintScheduled = new AtomicBoolean();
 	private final BufferedImage placeholderIcon;
 
 	@Setter
 	private Runnable onIconLoaded;
 
-	@Setter
-	private ItemManager itemManager;
+	private IconSource iconSource;
 
 	public ItemIconManager()
 	{
-		this.iconCache = new ConcurrentHashMap<>();
+		this(DEFAULT_MAX_CACHED_ICONS);
+	}
+
+	/**
+	 * @param maxCachedIcons Number of loaded icons to keep before evicting the least recently used
+	 */
+	public ItemIconManager(int maxCachedIcons)
+	{
+		this.iconCache = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest)
+			{
+				return size() > maxCachedIcons;
+			}
+		};
 		this.placeholderIcon = createPlaceholderIcon();
 	}
 
+	/**
+	 * Load icons through the ItemManager
+	 */
+	public void setItemManager(ItemManager itemManager)
+	{
+		setIconSource(itemManager != null ? IconSource.of(itemManager) : null);
+	}
+
+	void setIconSource(IconSource iconSource)
+	{
+		this.iconSource = iconSource;
+	}
+
 	/**
 	 * Get icon for an item by ID
 	 * @param itemId ID of the item
@@ -45,41 +102,187 @@ public class ItemIconManager
 		}
 
 		// Check cache first
-		BufferedImage cached = iconCache.get(itemId);
-		if (cached != null)
+		synchronized (iconCache)
 		{
-			return cached;
+			BufferedImage cached = iconCache.get(itemId);
+			if (cached != null)
+			{
+				return cached;
+			}
 		}
 
-		// Try to get from ItemManager
-		if (itemManager != null)
+		// Already requested; the pending image fills in when it loads
+		BufferedImage loading = loadingIcons.get(itemId);
+		if (loading != null)
 		{
-			try
+			return loading;
+		}
+
+		BufferedImage icon = fetch(itemId);
+		return icon != null ? icon : placeholderIcon;
+	}
+
+	/**
+	 * Start loading icons ahead of time so they are ready when first shown.
+	 * Icons that are already cached or loading are skipped.
+	 * @param itemIds IDs of the items to load
+	 * @return Number of icons requested
+	 */
+	public int prefetch(Collection<Integer> itemIds)
+	{
+		int requested = 0;
+		for (int itemId : itemIds)
+		{
+			if (itemId <= 0 || loadingIcons.containsKey(itemId))
+			{
+				continue;
+			}
+
+			synchronized (iconCache)
 			{
-				AsyncBufferedImage asyncImage = itemManager.getImage(itemId);
-				if (asyncImage != null)
+				if (iconCache.containsKey(itemId))
 				{
-					// Cache when the image loads and trigger callback
-					asyncImage.onLoaded(() -> {
-						iconCache.put(itemId, asyncImage);
-						log.debug("Cached icon for item {}", itemId);
-						if (onIconLoaded != null)
-						{
-							onIconLoaded.run();
-						}
-					});
-					// Return the async image (it extends BufferedImage)
-					return asyncImage;
+					continue;
 				}
 			}
-			catch (Exception e)
+
+			if (fetch(itemId) != null)
+			{
+				requested++;
+			}
+		}
+		return requested;
+	}
+
+	/**
+	 * Request an icon from the ItemManager and cache it once it loads
+	 * @return The pending image, or null if it could not be requested
+	 */
+	private BufferedImage fetch(int itemId)
+	{
+		IconSource source = iconSource;
+		if (source == null)
+		{
+			return null;
+		}
+
+		BufferedImage image;
+		try
+		{
+			image = source.getImage(itemId);
+		}
+		catch (Exception e)
+		{
+			log.debug("Failed to get icon for item {}: {}", itemId, e.getMessage());
+			return null;
+		}
+
+		if (image == null)
+		{
+			return null;
+		}
+
+		BufferedImage existing = loadingIcons.putIfAbsent(itemId, image);
+		if (existing != null)
+		{
+			// Requested by another thread in the meantime; it owns the callback
+			return existing;
+		}
+
+		// May run immediately if the image is already loaded
+		source.onLoaded(image, () -> {
+			synchronized (iconCache)
+			{
+				iconCache.put(itemId, image);
+			}
+			loadingIcons.remove(itemId);
+			log.debug("Cached icon for item {}", itemId);
+			requestRepaint();
+		});
+		return image;
+	}
+
+	/**
+	 * Run the icon loaded callback once for all icons that finish in the same frame
+	 */
+	private void requestRepaint()
+	{
+		if (onIconLoaded == null || !repaintScheduled.compareAndSet(false, true))
+		{
+			return;
+		}
+
+		Timer timer = new Timer(REPAINT_DELAY_MILLIS, e -> {
+			repaintScheduled.set(false);
+			Runnable callback = onIconLoaded;
+			if (callback != null)
 			{
-				log.debug("Failed to get icon for item {}: {}", itemId, e.getMessage());
+				callback.run();
 			}
+		});
+		timer.setRepeats(false);
+		timer.start();
+	}
+
+	/**
+	 * @return Number of loaded icons in the cache
+	 */
+	int getCachedIconCount()
+	{
+		synchronized (iconCache)
+		{
+			return iconCache.size();
 		}
+	}
 
-		// Return placeholder if fetch failed
-		return placeholderIcon;
+	/**
+	 * @return Number of icons requested that have not finished loading
+	 */
+	int getLoadingIconCount()
+	{
+		return loadingIcons.size();
+	}
+
+	/**
+	 * Where icons are loaded from; the ItemManager outside of tests
+	 */
+	interface IconSource
+	{
+		/**
+		 * @return The item's icon, which may still be loading, or null
+		 */
+		BufferedImage getImage(int itemId);
+
+		/**
+		 * Run a callback once an icon from {@link #getImage(int)} has loaded, immediately if it
+		 * already has
+		 */
+		void onLoaded(BufferedImage image, Runnable callback);
+
+		static IconSource of(ItemManager itemManager)
+		{
+			return new IconSource()
+			{
+				@Override
+				public BufferedImage getImage(int itemId)
+				{
+					return itemManager.getImage(itemId);
+				}
+
+				@Override
+				public void onLoaded(BufferedImage image, Runnable callback)
+				{
+					if (image instanceof AsyncBufferedImage)
+					{
+						((AsyncBufferedImage) image).onLoaded(callback);
+					}
+					else
+					{
+						callback.run();
+					}
+				}
+			};
+		}
 	}
 
 	/**
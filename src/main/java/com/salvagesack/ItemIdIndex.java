@@ -0,0 +1,212 @@
+package com.salvagesack;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.game.ItemManager;
+import net.runelite.http.api.item.ItemPrice;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Resolves item names from salvage messages to item IDs.
+ * <p>
+ * {@link ItemManager#search(String)} scans the whole item database, so each name is
+ * searched at most once: successful lookups are kept in a map keyed by the normalized
+ * name and persisted with the profile data, and failed lookups are remembered for the
+ * rest of the session. The item database is empty until the client has loaded it, so
+ * misses are only remembered once a search has found something.
+ * </p>
+ * <p>
+ * Names that cannot be resolved fall back to a hash-based ID. Once such a name resolves,
+ * {@link #repairHashedIds(Map)} moves the counts recorded under the hash ID to the real ID.
+ * </p>
+ */
+@Slf4j
+public class ItemIdIndex
+{
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean dirty = new AtomicBoolean();
+
+	/**
+	 * Set once a search has returned results, so the item database is loaded
+	 */
+	private volatile boolean searchable;
+
+	/**
+	 * Searches the item database by name, usually {@link ItemManager#search(String)}
+	 */
+	@Setter
+	private Function<String, List<ItemPrice>> itemSearch;
+
+	/**
+	 * Load previously persisted name to ID mappings
+	 * @param entries Normalized item name -> item ID
+	 */
+	public void load(Map<String, Integer> entries)
+	{
+		if (entries == null)
+		{
+			return;
+		}
+
+		for (Map.Entry<String, Integer> entry : entries.entrySet())
+		{
+			if (entry.getKey() != null && entry.getValue() != null && entry.getValue() > 0)
+			{
+				ids.put(normalize(entry.getKey()), entry.getValue());
+			}
+		}
+		log.debug("Loaded {} item ID mappings", ids.size());
+	}
+
+	/**
+	 * Resolve an item name to its item ID
+	 * @param itemName The item name as it appears in the salvage message
+	 * @return The item ID, or a hash-based fallback ID if the item could not be found
+	 */
+	public int resolve(String itemName)
+	{
+		String key = normalize(itemName);
+		Integer cached = ids.get(key);
+		if (cached != null)
+		{
+			return cached;
+		}
+
+		if (unresolved.contains(key))
+		{
+			return fallbackId(itemName);
+		}
+
+		int itemId = search(itemName);
+		if (itemId > 0)
+		{
+			ids.put(key, itemId);
+			dirty.set(true);
+			log.debug("Resolved item ID {} for '{}'", itemId, itemName);
+			return itemId;
+		}
+
+		// Only remember misses once the item database has been loaded to search
+		if (searchable)
+		{
+			unresolved.add(key);
+		}
+		return fallbackId(itemName);
+	}
+
+	/**
+	 * Search the item database, preferring an exact name match over the first result
+	 */
+	private int search(String itemName)
+	{
+		Function<String, List<ItemPrice>> search = itemSearch;
+		if (search == null)
+		{
+			return -1;
+		}
+
+		try
+		{
+			List<ItemPrice> results = search.apply(itemName);
+			if (results.isEmpty())
+			{
+				return -1;
+			}
+
+			searchable = true;
+			for (ItemPrice result : results)
+			{
+				if (itemName.equalsIgnoreCase(result.getName()))
+				{
+					return result.getId();
+				}
+			}
+			return results.get(0).getId();
+		}
+		catch (Exception e)
+		{
+			log.debug("Failed to look up item ID for '{}': {}", itemName, e.getMessage());
+			return -1;
+		}
+	}
+
+	/**
+	 * Re-key items that were recorded under a hash-based fallback ID but now resolve
+	 * to a real item ID, merging their counts into any existing entry for that ID.
+	 * @param dataMap The salvage data to repair
+	 * @return Number of items that were re-keyed
+	 */
+	public int repairHashedIds(Map<ShipwreckType, SalvageData> dataMap)
+	{
+		int repaired = 0;
+		for (SalvageData data : dataMap.values())
+		{
+			Map<Integer, Integer> remaps = new HashMap<>();
+			for (SalvageItem item : data.getItems().values())
+			{
+				String name = item.getItemName();
+				if (name == null || item.getItemId() != fallbackId(name))
+				{
+					continue;
+				}
+
+				int itemId = resolve(name);
+				if (itemId != item.getItemId())
+				{
+					remaps.put(item.getItemId(), itemId);
+				}
+			}
+
+			for (Map.Entry<Integer, Integer> remap : remaps.entrySet())
+			{
+				data.remapItem(remap.getKey(), remap.getValue());
+				repaired++;
+			}
+		}
+
+		if (repaired > 0)
+		{
+			log.info("Re-keyed {} items from fallback IDs to item IDs", repaired);
+		}
+		return repaired;
+	}
+
+	/**
+	 * @return A copy of the resolved mappings for persistence
+	 */
+	public Map<String, Integer> getEntries()
+	{
+		return new HashMap<>(ids);
+	}
+
+	/**
+	 * Check whether new mappings were resolved since the last call, clearing the flag
+	 * @return true if the index should be persisted
+	 */
+	public boolean consumeDirty()
+	{
+		return dirty.getAndSet(false);
+	}
+
+	/**
+	 * Hash-based ID used when an item name cannot be resolved
+	 */
+	public static int fallbackId(String itemName)
+	{
+		return itemName.hashCode() & 0x7FFFFFFF;
+	}
+
+	static String normalize(String itemName)
+	{
+		return itemName.trim().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,96 @@
+package com.salvagesack;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every item ID a dense ordinal shared by all shipwrecks, and keeps a single copy of
+ * each item name.
+ * <p>
+ * {@link SalvageData} stores its counts in primitive arrays indexed by these ordinals, so an
+ * item costs a few array slots per shipwreck instead of a map entry, a boxed key and an object.
+ * Ordinals are assigned on first use and never change or get reused while the registry is in
+ * use. Lookups are lock-free; assigning a new ordinal takes a lock.
+ * </p>
+ * <p>
+ * The plugin creates one registry each time it starts and passes it to everything that holds
+ * ordinals, so ordinals from different registries must never be mixed.
+ * </p>
+ */
+public final class ItemRegistry
+{
+	private final Map<Integer, Integer> ordinals = new ConcurrentHashMap<>();
+	private final Map<String, String> names = new ConcurrentHashMap<>();
+	private volatile int[] itemIds = new int[64];
+	private int size;
+
+	/**
+	 * Get the ordinal for an item ID, assigning the next one if the item is new
+	 */
+	public int ordinal(int itemId)
+	{
+		Integer ordinal = ordinals.get(itemId);
+		return ordinal != null ? ordinal : register(itemId);
+	}
+
+	private synchronized int register(int itemId)
+	{
+		Integer existing = ordinals.get(itemId);
+		if (existing != null)
+		{
+			return existing;
+		}
+
+		int ordinal = size;
+		int[] ids = itemIds;
+		if (ordinal == ids.length)
+		{
+			ids = Arrays.copyOf(ids, ids.length * 2);
+		}
+		ids[ordinal] = itemId;
+		// Publish the ID before the ordinal can be looked up
+		itemIds = ids;
+		size = ordinal + 1;
+		ordinals.put(itemId, ordinal);
+		return ordinal;
+	}
+
+	/**
+	 * @return The ordinal for an item ID, or -1 if no data has used the item
+	 */
+	public int find(int itemId)
+	{
+		Integer ordinal = ordinals.get(itemId);
+		return ordinal != null ? ordinal : -1;
+	}
+
+	/**
+	 * @return The item ID an ordinal was assigned to
+	 */
+	public int getItemId(int ordinal)
+	{
+		return itemIds[ordinal];
+	}
+
+	/**
+	 * @return The shared copy of an item name, so equal names are stored once
+	 */
+	public String intern(String name)
+	{
+		if (name == null)
+		{
+			return null;
+		}
+		String existing = names.putIfAbsent(name, name);
+		return existing != null ? existing : name;
+	}
+
+	/**
+	 * @return Number of ordinals assigned
+	 */
+	public synchronized int size()
+	{
+		return size;
+	}
+}
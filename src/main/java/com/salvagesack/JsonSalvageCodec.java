@@ -0,0 +1,134 @@
+package com.salvagesack;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores salvage data as JSON, in the same per-shipwreck shape used by every
+ * previous version of the plugin
+ */
+@Slf4j
+public class JsonSalvageCodec implements SalvageDataCodec
+{
+	private final Gson gson;
+	private final ItemRegistry registry;
+
+	public JsonSalvageCodec(Gson gson, ItemRegistry registry)
+	{
+		this.gson = gson;
+		this.registry = registry;
+	}
+
+	@Override
+	public String encode(SalvageData data)
+	{
+		return gson.toJson(SalvageDataDto.fromSalvageData(data));
+	}
+
+	@Override
+	public SalvageData decode(ShipwreckType type, String encoded)
+	{
+		SalvageDataDto dto;
+		try
+		{
+			dto = gson.fromJson(encoded, SalvageDataDto.class);
+		}
+		catch (RuntimeException e)
+		{
+			throw new IllegalArgumentException("Invalid salvage data JSON", e);
+		}
+
+		if (dto == null)
+		{
+			throw new IllegalArgumentException("Empty salvage data JSON");
+		}
+		return dto.toSalvageData(type, registry);
+	}
+
+	/**
+	 * Data Transfer Object for serialization
+	 */
+	static class SalvageDataDto
+	{
+		int totalLoots;
+		long journalSeq;
+		Map<String, SalvageItemDto> items;
+
+		static SalvageDataDto fromSalvageData(SalvageData data)
+		{
+			SalvageDataDto dto = new SalvageDataDto();
+			dto.totalLoots = data.getTotalLoots();
+			dto.journalSeq = data.getJournalSeq();
+			dto.items = new HashMap<>();
+			
+			for (Map.Entry<Integer, SalvageItem> entry : data.getItems().entrySet())
+			{
+				dto.items.put(String.valueOf(entry.getKey()), SalvageItemDto.fromSalvageItem(entry.getValue()));
+			}
+			
+			return dto;
+		}
+
+		SalvageData toSalvageData(ShipwreckType type, ItemRegistry registry)
+		{
+			SalvageData data = new SalvageData(type, registry, totalLoots);
+			
+			if (items != null)
+			{
+				for (Map.Entry<String, SalvageItemDto> entry : items.entrySet())
+				{
+					try
+					{
+						int itemId = Integer.parseInt(entry.getKey());
+						entry.getValue().addTo(data, itemId);
+					}
+					catch (NumberFormatException e)
+					{
+						log.warn("Invalid item ID format: {}", entry.getKey());
+					}
+				}
+			}
+			
+			data.setJournalSeq(journalSeq);
+			return data;
+		}
+	}
+
+	/**
+	 * Data Transfer Object for SalvageItem
+	 */
+	static class SalvageItemDto
+	{
+		String itemName;
+		int dropCount;
+		long totalQuantity;
+		double expectedDropRate;
+		Integer lastSeenAt;       // absent in data saved before dry streaks were tracked
+		Integer longestDryStreak;
+
+		static SalvageItemDto fromSalvageItem(SalvageItem item)
+		{
+			SalvageItemDto dto = new SalvageItemDto();
+			dto.itemName = item.getItemName();
+			dto.dropCount = item.getDropCount();
+			dto.totalQuantity = item.getTotalQuantity();
+			dto.expectedDropRate = item.getExpectedDropRate();
+			dto.lastSeenAt = item.getLastSeenAt();
+			dto.longestDryStreak = item.getLongestDryStreak();
+			return dto;
+		}
+
+		void addTo(SalvageData data, int itemId)
+		{
+			long qty = totalQuantity > 0 ? totalQuantity : dropCount;
+			data.setItem(itemId, itemName, dropCount, qty, expectedDropRate);
+			if (lastSeenAt != null)
+			{
+				data.setDryStreak(itemId, lastSeenAt, longestDryStreak != null ? longestDryStreak : 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package com.salvagesack;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only history of every sort, for questions about when loot was received.
+ * <p>
+ * On disk every sort is a fixed-size record in a memory-mapped file, so appending is a few
+ * buffer writes and the file can be read back without parsing. Record layout: long timestamp,
+ * byte shipwreck ordinal, int item ID, int quantity. The file starts with a header of int magic,
+ * int version and long record count; the count is written after the record, so a crash never
+ * leaves a partial record counted.
+ * </p>
+ * <p>
+ * In memory the history is held in columns of primitive arrays, in time order, in three tiers:
+ * individual sorts from the last {@link #RAW_RETENTION_MILLIS}, hourly totals per shipwreck and
+ * item up to {@link #HOURLY_RETENTION_MILLIS}, and daily totals beyond that. Sorts move down a
+ * tier as they age, so memory grows with the number of days rather than the number of sorts.
+ * Hours and days are UTC. Items are held by the ordinals of the given {@link ItemRegistry}.
+ * </p>
+ * <p>
+ * {@link #scan} visits only the rows in the requested time range, found by binary search, and
+ * filters on the shipwreck column without touching anything else.
+ * </p>
+ */
+@Slf4j
+public class LootHistory implements Closeable
+{
+	static final long HOUR_MILLIS = 60L * 60 * 1000;
+	static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+	static final long RAW_RETENTION_MILLIS = 7 * DAY_MILLIS;
+	static final long HOURLY_RETENTION_MILLIS = 90 * DAY_MILLIS;
+
+	private static final int MAGIC = 0x53534C48; // "SSLH"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4 + 4 + 8;
+	private static final int RECORD_SIZE = 8 + 1 + 4 + 4;
+	private static final int INITIAL_RECORDS = 4096;
+
+	/**
+	 * Visits history rows. Sorts from the raw tier have one drop; rolled-up rows are reported
+	 * at the start of their hour or day with the totals for that period.
+	 */
+	@FunctionalInterface
+	public interface Visitor
+	{
+		void visit(long timestamp, ShipwreckType shipwreck, int itemOrdinal, int drops, long quantity);
+	}
+
+	/**
+	 * Visits history rows with the length of time each row covers: zero for a single sort,
+	 * an hour or a day for rolled-up rows
+	 */
+	@FunctionalInterface
+	public interface SpanVisitor
+	{
+		void visit(long timestamp, long span, ShipwreckType shipwreck, int drops);
+	}
+
+	private final Path path;
+	private final ItemRegistry registry;
+	private final ShipwreckType[] types = ShipwreckType.values();
+
+	private final Tier raw = new Tier(0);
+	private final Tier hourly = new Tier(HOUR_MILLIS);
+	private final Tier daily = new Tier(DAY_MILLIS);
+	private long latestTimestamp = Long.MIN_VALUE;
+
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private long recordCount;
+
+	public LootHistory(Path path, ItemRegistry registry)
+	{
+		this.path = path;
+		this.registry = registry;
+	}
+
+	/**
+	 * Map the history file, creating it if needed, and load its records into memory
+	 */
+	public synchronized void open() throws IOException
+	{
+		Files.createDirectories(path.getParent());
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		long fileSize = channel.size();
+		map(Math.max(fileSize, HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE));
+		if (fileSize < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+		{
+			if (fileSize > 0)
+			{
+				log.warn("Ignoring unrecognised loot history file {}", path);
+			}
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putLong(8, 0);
+			recordCount = 0;
+			return;
+		}
+
+		long stored = buffer.getLong(8);
+		recordCount = Math.max(0, Math.min(stored, (fileSize - HEADER_SIZE) / RECORD_SIZE));
+		for (long i = 0; i < recordCount; i++)
+		{
+			int offset = offset(i);
+			int shipwreck = buffer.get(offset + 8) & 0xFF;
+			if (shipwreck < types.length)
+			{
+				add(buffer.getLong(offset), shipwreck, registry.ordinal(buffer.getInt(offset + 9)),
+					buffer.getInt(offset + 13));
+			}
+		}
+		log.debug("Loaded {} sorts of loot history into {} rows", recordCount, getMemoryRows());
+	}
+
+	/**
+	 * Record one sort
+	 * @return true if the sort was written to the history file
+	 */
+	public synchronized boolean append(ShipwreckType shipwreck, int itemId, int quantity, long timestamp)
+	{
+		add(timestamp, shipwreck.ordinal(), registry.ordinal(itemId), quantity);
+		if (buffer == null)
+		{
+			return false;
+		}
+
+		try
+		{
+			if (offset(recordCount + 1) > buffer.capacity())
+			{
+				map(Math.min(Integer.MAX_VALUE, (long) buffer.capacity() * 2));
+			}
+			int offset = offset(recordCount);
+			buffer.putLong(offset, timestamp);
+			buffer.put(offset + 8, (byte) shipwreck.ordinal());
+			buffer.putInt(offset + 9, itemId);
+			buffer.putInt(offset + 13, quantity);
+			recordCount++;
+			buffer.putLong(8, recordCount);
+			return true;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Failed to write loot history", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Visit the history rows in a time range, oldest first
+	 * @param from Start of the range (inclusive, milliseconds since epoch)
+	 * @param to End of the range (exclusive)
+	 * @param shipwreck Only visit this shipwreck, or null for all
+	 */
+	public synchronized void scan(long from, long to, ShipwreckType shipwreck, Visitor visitor)
+	{
+		int filter = shipwreck != null ? shipwreck.ordinal() : -1;
+		for (Tier tier : new Tier[]{daily, hourly, raw})
+		{
+			for (int i = tier.lowerBound(from); i < tier.size && tier.times[i] < to; i++)
+			{
+				int type = tier.shipwrecks[i];
+				if (filter < 0 || type == filter)
+				{
+					visitor.visit(tier.times[i], types[type], tier.items[i], tier.drops[i], tier.quantities[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visit every history row, coarsest tier first, with the length of time it covers
+	 */
+	public synchronized void scanSpans(SpanVisitor visitor)
+	{
+		for (Tier tier : new Tier[]{daily, hourly, raw})
+		{
+			for (int i = 0; i < tier.size; i++)
+			{
+				visitor.visit(tier.times[i], tier.granularity, types[tier.shipwrecks[i]], tier.drops[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return Number of sorts recorded in the history file
+	 */
+	public synchronized long size()
+	{
+		return recordCount;
+	}
+
+	/**
+	 * @return Number of rows held in memory across all tiers
+	 */
+	synchronized int getMemoryRows()
+	{
+		return raw.size + hourly.size + daily.size;
+	}
+
+	@Override
+	public synchronized void close()
+	{
+		if (buffer != null)
+		{
+			buffer.force();
+			buffer = null;
+		}
+		if (channel != null)
+		{
+			try
+			{
+				channel.close();
+			}
+			catch (IOException e)
+			{
+				log.debug("Failed to close loot history: {}", e.getMessage());
+			}
+			channel = null;
+		}
+	}
+
+	private void map(long size) throws IOException
+	{
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	private static int offset(long record)
+	{
+		return (int) (HEADER_SIZE + record * RECORD_SIZE);
+	}
+
+	/**
+	 * Add a sort to the in-memory tiers, rolling up anything that has aged out of its tier
+	 */
+	private void add(long timestamp, int shipwreck, int itemOrdinal, int quantity)
+	{
+		latestTimestamp = Math.max(latestTimestamp, timestamp);
+
+		// Old sorts, e.g. imported from chat logs, go straight to the tier they would have rolled up into
+		Tier tier = timestamp >= latestTimestamp - RAW_RETENTION_MILLIS ? raw
+			: timestamp >= latestTimestamp - HOURLY_RETENTION_MILLIS ? hourly : daily;
+		tier.add(timestamp, shipwreck, itemOrdinal, 1, quantity);
+
+		// Roll up an hour's worth at a time rather than on every sort
+		if (raw.size > 0 && raw.times[0] < latestTimestamp - RAW_RETENTION_MILLIS - HOUR_MILLIS)
+		{
+			raw.moveBefore(latestTimestamp - RAW_RETENTION_MILLIS, hourly);
+		}
+		if (hourly.size > 0 && hourly.times[0] < latestTimestamp - HOURLY_RETENTION_MILLIS - DAY_MILLIS)
+		{
+			hourly.moveBefore(latestTimestamp - HOURLY_RETENTION_MILLIS, daily);
+		}
+	}
+
+	/**
+	 * One tier of history rows in columns, ordered by time
+	 */
+	private static final class Tier
+	{
+		/**
+		 * Bucket length that rows are merged into, or 0 to keep every row
+		 */
+		private final long granularity;
+
+		private long[] times = new long[64];
+		private byte[] shipwrecks = new byte[64];
+		private int[] items = new int[64];
+		private int[] drops = new int[64];
+		private long[] quantities = new long[64];
+		private int size;
+
+		Tier(long granularity)
+		{
+			this.granularity = granularity;
+		}
+
+		void add(long time, int shipwreck, int item, int dropCount, long quantity)
+		{
+			if (granularity > 0)
+			{
+				time = Math.floorDiv(time, granularity) * granularity;
+				for (int i = lowerBound(time); i < size && times[i] == time; i++)
+				{
+					if (shipwrecks[i] == shipwreck && items[i] == item)
+					{
+						drops[i] += dropCount;
+						quantities[i] += quantity;
+						return;
+					}
+				}
+			}
+
+			if (size == times.length)
+			{
+				int length = size * 2;
+				times = Arrays.copyOf(times, length);
+				shipwrecks = Arrays.copyOf(shipwrecks, length);
+				items = Arrays.copyOf(items, length);
+				drops = Arrays.copyOf(drops, length);
+				quantities = Arrays.copyOf(quantities, length);
+			}
+
+			// Sorts normally arrive in time order; older ones are inserted in place
+			int index = size > 0 && time < times[size - 1] ? upperBound(time) : size;
+			if (index < size)
+			{
+				int moved = size - index;
+				System.arraycopy(times, index, times, index + 1, moved);
+				System.arraycopy(shipwrecks, index, shipwrecks, index + 1, moved);
+				System.arraycopy(items, index, items, index + 1, moved);
+				System.arraycopy(drops, index, drops, index + 1, moved);
+				System.arraycopy(quantities, index, quantities, index + 1, moved);
+			}
+			times[index] = time;
+			shipwrecks[index] = (byte) shipwreck;
+			items[index] = item;
+			drops[index] = dropCount;
+			quantities[index] = quantity;
+			size++;
+		}
+
+		/**
+		 * Move the rows before a time into a coarser tier
+		 */
+		void moveBefore(long time, Tier target)
+		{
+			int end = lowerBound(time);
+			for (int i = 0; i < end; i++)
+			{
+				target.add(times[i], shipwrecks[i], items[i], drops[i], quantities[i]);
+			}
+
+			int remaining = size - end;
+			System.arraycopy(times, end, times, 0, remaining);
+			System.arraycopy(shipwrecks, end, shipwrecks, 0, remaining);
+			System.arraycopy(items, end, items, 0, remaining);
+			System.arraycopy(drops, end, drops, 0, remaining);
+			System.arraycopy(quantities, end, quantities, 0, remaining);
+			size = remaining;
+		}
+
+		/**
+		 * @return Index of the first row at or after a time
+		 */
+		int lowerBound(long time)
+		{
+			int low = 0;
+			int high = size;
+			while (low < high)
+			{
+				int mid = (low + high) >>> 1;
+				if (times[mid] < time)
+				{
+					low = mid + 1;
+				}
+				else
+				{
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return Index of the first row after a time
+		 */
+		int upperBound(long time)
+		{
+			int low = 0;
+			int high = size;
+			while (low < high)
+			{
+				int mid = (low + high) >>> 1;
+				if (times[mid] <= time)
+				{
+					low = mid + 1;
+				}
+				else
+				{
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+}
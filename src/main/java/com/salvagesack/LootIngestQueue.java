@@ -0,0 +1,172 @@
+package com.salvagesack;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Queues parsed salvage messages and applies them in batches, so sorting a whole stack of
+ * salvage results in one data update, one panel update and one save request.
+ * <p>
+ * Messages may be added from any thread. {@link #drain(Consumer)} is called on the client thread
+ * once per game tick and applies everything queued so far as a single batch. In case no tick
+ * arrives, adding a message also schedules a fallback drain request after a short delay; it does
+ * nothing if a tick has already drained the queue.
+ * </p>
+ */
+@Slf4j
+public class LootIngestQueue
+{
+	private final Queue<SalvageMessage> queue = new ConcurrentLinkedQueue<>();
+	private final TaskScheduler scheduler;
+	private final LongSupplier nanoClock;
+	private final Runnable requestDrain;
+	private final long fallbackMillis;
+	private final AtomicBoolean fallbackScheduled = new AtomicBoolean();
+
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong appliedMessages = new AtomicLong();
+	private final AtomicLong largestBatch = new AtomicLong();
+	private final AtomicLong totalApplyNanos = new AtomicLong();
+	private final AtomicLong longestApplyNanos = new AtomicLong();
+
+	/**
+	 * @param executor Executor to schedule fallback drains on
+	 * @param requestDrain Arranges for {@link #drain(Consumer)} to be called on the client thread
+	 * @param fallbackMillis Delay after a message is added before a fallback drain is requested
+	 */
+	public LootIngestQueue(ScheduledExecutorService executor, Runnable requestDrain, long fallbackMillis)
+	{
+		this(TaskScheduler.of(executor), System::nanoTime, requestDrain, fallbackMillis);
+	}
+
+	/**
+	 * @param scheduler Schedules fallback drains
+	 * @param nanoClock Time source for the batch timings, in nanoseconds
+	 */
+	LootIngestQueue(TaskScheduler scheduler, LongSupplier nanoClock, Runnable requestDrain, long fallbackMillis)
+	{
+		this.scheduler = scheduler;
+		this.nanoClock = nanoClock;
+		this.requestDrain = requestDrain;
+		this.fallbackMillis = fallbackMillis;
+	}
+
+	/**
+	 * Queue a message for the next batch
+	 */
+	public void add(SalvageMessage message)
+	{
+		queue.add(message);
+		if (fallbackScheduled.compareAndSet(false, true))
+		{
+			try
+			{
+				scheduler.schedule(this::onFallback, fallbackMillis);
+			}
+			catch (Exception e)
+			{
+				// Executor is shutting down; the final drain will pick this up
+				fallbackScheduled.set(false);
+				log.debug("Unable to schedule loot drain: {}", e.getMessage());
+			}
+		}
+	}
+
+	private void onFallback()
+	{
+		fallbackScheduled.set(false);
+		if (!queue.isEmpty())
+		{
+			requestDrain.run();
+		}
+	}
+
+	/**
+	 * Apply every queued message as one batch, in the order they were added
+	 * @param apply Applies the batch
+	 * @return Number of messages applied
+	 */
+	public int drain(Consumer<List<SalvageMessage>> apply)
+	{
+		SalvageMessage message = queue.poll();
+		if (message == null)
+		{
+			return 0;
+		}
+
+		List<SalvageMessage> batch = new ArrayList<>();
+		do
+		{
+			batch.add(message);
+		}
+		while ((message = queue.poll()) != null);
+
+		long start = nanoClock.getAsLong();
+		apply.accept(batch);
+		long elapsed = nanoClock.getAsLong() - start;
+
+		batches.incrementAndGet();
+		appliedMessages.addAndGet(batch.size());
+		largestBatch.accumulateAndGet(batch.size(), Math::max);
+		totalApplyNanos.addAndGet(elapsed);
+		longestApplyNanos.accumulateAndGet(elapsed, Math::max);
+		return batch.size();
+	}
+
+	/**
+	 * @return Number of messages waiting for the next batch
+	 */
+	public int size()
+	{
+		return queue.size();
+	}
+
+	/**
+	 * @return Number of batches applied
+	 */
+	public long getBatches()
+	{
+		return batches.get();
+	}
+
+	/**
+	 * @return Number of messages applied across all batches
+	 */
+	public long getAppliedMessages()
+	{
+		return appliedMessages.get();
+	}
+
+	/**
+	 * @return Size of the largest batch applied
+	 */
+	public long getLargestBatch()
+	{
+		return largestBatch.get();
+	}
+
+	/**
+	 * @return Total time spent applying batches, in nanoseconds
+	 */
+	public long getTotalApplyNanos()
+	{
+		return totalApplyNanos.get();
+	}
+
+	/**
+	 * @return Time taken by the slowest batch, in nanoseconds
+	 */
+	public long getLongestApplyNanos()
+	{
+		return longestApplyNanos.get();
+	}
+}
@@ -0,0 +1,337 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of loot events, so drops survive a crash between snapshot saves.
+ * <p>
+ * Every sort is appended as a record with an increasing sequence number. Each record is
+ * framed by its length and a CRC32, so a record torn by a crash is detected and dropped
+ * when the journal is opened. Snapshots remember the sequence number of the last event
+ * they include; {@link #compact(Predicate)} rewrites the journal without the events a
+ * snapshot already covers, using an atomic rename so the journal is never half-written.
+ * </p>
+ * <p>
+ * Record layout: int payload length, payload, int CRC32 of the payload. Payload: long seq,
+ * long timestamp, byte kind, byte shipwreck ordinal, int item ID, int quantity, short name
+ * length, UTF-8 name.
+ * </p>
+ */
+@Slf4j
+public class LootJournal implements Closeable
+{
+	static final byte KIND_LOOT = 1;
+	static final byte KIND_RESET = 2;
+	private static final int ALL_SHIPWRECKS = 0xFF;
+	private static final int FIXED_PAYLOAD_SIZE = 8 + 8 + 1 + 1 + 4 + 4 + 2;
+	private static final int MAX_NAME_BYTES = 1024;
+
+	private final Path path;
+	private final ByteBuffer buffer = ByteBuffer.allocate(4 + FIXED_PAYLOAD_SIZE + MAX_NAME_BYTES + 4);
+	private final CRC32 crc = new CRC32();
+	private FileChannel channel;
+	private long lastSeq;
+
+	public LootJournal(Path path)
+	{
+		this.path = path;
+	}
+
+	/**
+	 * Open the journal for appending, reading back the events it already contains.
+	 * A torn record at the end of the file is truncated.
+	 * @return The valid events in the journal, in order
+	 */
+	public synchronized List<Entry> open() throws IOException
+	{
+		Files.createDirectories(path.getParent());
+		List<Entry> entries = new ArrayList<>();
+		long validLength = read(path, entries);
+
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+		if (channel.size() > validLength)
+		{
+			log.warn("Dropping {} bytes of incomplete loot journal data", channel.size() - validLength);
+			channel.truncate(validLength);
+		}
+		channel.position(validLength);
+
+		for (Entry entry : entries)
+		{
+			lastSeq = Math.max(lastSeq, entry.getSeq());
+		}
+		return entries;
+	}
+
+	/**
+	 * Append a loot event
+	 * @return The event's sequence number, or 0 if it could not be written
+	 */
+	public synchronized long appendLoot(ShipwreckType type, int itemId, String itemName, int quantity, long timestamp)
+	{
+		return append(KIND_LOOT, type.ordinal(), itemId, itemName, quantity, timestamp);
+	}
+
+	/**
+	 * Append a reset of one shipwreck, or of all shipwrecks if type is null
+	 * @return The event's sequence number, or 0 if it could not be written
+	 */
+	public synchronized long appendReset(ShipwreckType type, long timestamp)
+	{
+		return append(KIND_RESET, type != null ? type.ordinal() : ALL_SHIPWRECKS, 0, "", 0, timestamp);
+	}
+
+	private long append(byte kind, int shipwreck, int itemId, String itemName, int quantity, long timestamp)
+	{
+		if (channel == null)
+		{
+			return 0;
+		}
+
+		long seq = lastSeq + 1;
+		try
+		{
+			buffer.clear();
+			writeRecord(buffer, seq, timestamp, kind, shipwreck, itemId, quantity, itemName);
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+			lastSeq = seq;
+			return seq;
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to append to loot journal, disabling it for this session", e);
+			closeQuietly();
+			return 0;
+		}
+	}
+
+	private void writeRecord(ByteBuffer out, long seq, long timestamp, byte kind, int shipwreck,
+		int itemId, int quantity, String itemName)
+	{
+		byte[] name = itemName != null ? itemName.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		int nameLength = Math.min(name.length, MAX_NAME_BYTES);
+		int payloadLength = FIXED_PAYLOAD_SIZE + nameLength;
+
+		out.putInt(payloadLength);
+		int payloadStart = out.position();
+		out.putLong(seq);
+		out.putLong(timestamp);
+		out.put(kind);
+		out.put((byte) shipwreck);
+		out.putInt(itemId);
+		out.putInt(quantity);
+		out.putShort((short) nameLength);
+		out.put(name, 0, nameLength);
+
+		crc.reset();
+		crc.update(out.array(), out.arrayOffset() + payloadStart, payloadLength);
+		out.putInt((int) crc.getValue());
+	}
+
+	/**
+	 * @return Sequence number of the last event appended
+	 */
+	public synchronized long getLastSeq()
+	{
+		return lastSeq;
+	}
+
+	/**
+	 * @return Current size of the journal file in bytes
+	 */
+	public synchronized long size()
+	{
+		try
+		{
+			return channel != null ? channel.size() : 0;
+		}
+		catch (IOException e)
+		{
+			return 0;
+		}
+	}
+
+	/**
+	 * Rewrite the journal keeping only the events matching the predicate.
+	 * The new journal is written to a temporary file and atomically renamed over the old one.
+	 * @param keep Returns true for events that are not yet covered by a snapshot
+	 */
+	public synchronized void compact(Predicate<Entry> keep) throws IOException
+	{
+		if (channel == null)
+		{
+			return;
+		}
+
+		List<Entry> entries = new ArrayList<>();
+		read(path, entries);
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		int kept = 0;
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer recordBuffer = ByteBuffer.allocate(64 * 1024);
+			for (Entry entry : entries)
+			{
+				if (!keep.test(entry))
+				{
+					continue;
+				}
+
+				if (recordBuffer.remaining() < buffer.capacity())
+				{
+					drain(recordBuffer, out);
+				}
+				writeRecord(recordBuffer, entry.getSeq(), entry.getTimestamp(), entry.getKind(),
+					entry.getShipwreck() != null ? entry.getShipwreck().ordinal() : ALL_SHIPWRECKS,
+					entry.getItemId(), entry.getQuantity(), entry.getItemName());
+				kept++;
+			}
+			drain(recordBuffer, out);
+			out.force(true);
+		}
+
+		channel.close();
+		try
+		{
+			Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally
+		{
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+			channel.position(channel.size());
+		}
+		log.debug("Compacted loot journal from {} to {} events", entries.size(), kept);
+	}
+
+	private static void drain(ByteBuffer recordBuffer, FileChannel out) throws IOException
+	{
+		recordBuffer.flip();
+		while (recordBuffer.hasRemaining())
+		{
+			out.write(recordBuffer);
+		}
+		recordBuffer.clear();
+	}
+
+	/**
+	 * Read all valid records from a journal file
+	 * @return Length of the valid prefix of the file
+	 */
+	private static long read(Path file, List<Entry> entries) throws IOException
+	{
+		if (!Files.exists(file))
+		{
+			return 0;
+		}
+
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+		CRC32 checksum = new CRC32();
+		ShipwreckType[] types = ShipwreckType.values();
+
+		while (in.remaining() >= 4)
+		{
+			int start = in.position();
+			int payloadLength = in.getInt();
+			if (payloadLength < FIXED_PAYLOAD_SIZE || payloadLength > FIXED_PAYLOAD_SIZE + MAX_NAME_BYTES
+				|| in.remaining() < payloadLength + 4)
+			{
+				in.position(start);
+				break;
+			}
+
+			int payloadStart = in.position();
+			checksum.reset();
+			checksum.update(in.array(), payloadStart, payloadLength);
+			int expectedCrc = in.getInt(payloadStart + payloadLength);
+			if ((int) checksum.getValue() != expectedCrc)
+			{
+				in.position(start);
+				break;
+			}
+
+			long seq = in.getLong();
+			long timestamp = in.getLong();
+			byte kind = in.get();
+			int shipwreck = in.get() & 0xFF;
+			int itemId = in.getInt();
+			int quantity = in.getInt();
+			int nameLength = in.getShort() & 0xFFFF;
+			String itemName = new String(in.array(), in.position(), nameLength, StandardCharsets.UTF_8);
+			in.position(payloadStart + payloadLength + 4);
+
+			ShipwreckType type = shipwreck < types.length ? types[shipwreck] : null;
+			if (type == null && (kind != KIND_RESET || shipwreck != ALL_SHIPWRECKS))
+			{
+				log.warn("Skipping loot journal event with unknown shipwreck {}", shipwreck);
+				continue;
+			}
+			entries.add(new Entry(seq, timestamp, kind, type, itemId, quantity, itemName));
+		}
+		return in.position();
+	}
+
+	@Override
+	public synchronized void close()
+	{
+		closeQuietly();
+	}
+
+	private void closeQuietly()
+	{
+		if (channel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			channel.close();
+		}
+		catch (IOException e)
+		{
+			log.debug("Failed to close loot journal: {}", e.getMessage());
+		}
+		channel = null;
+	}
+
+	/**
+	 * A loot or reset event read from the journal
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static class Entry
+	{
+		private final long seq;
+		private final long timestamp;
+		private final byte kind;
+		/**
+		 * The shipwreck, or null for a reset of all shipwrecks
+		 */
+		private final ShipwreckType shipwreck;
+		private final int itemId;
+		private final int quantity;
+		private final String itemName;
+	}
+}
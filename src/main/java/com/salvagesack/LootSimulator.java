@@ -0,0 +1,441 @@
+package com.salvagesack;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Monte Carlo simulation of a shipwreck's loot, to compare the player's counts with what the
+ * drop table predicts.
+ * <p>
+ * Every sort gives exactly one item, so a trial of {@code n} sorts draws {@code n} items from
+ * the shipwreck's table in {@link DropRateManager} with an {@link AliasSampler}, in constant
+ * time per draw. Rates that sum to less than 1 leave the remainder as an unlisted outcome;
+ * rates that sum to more are scaled down. Trials are split into a {@link RecursiveTask} tree on
+ * a {@link ForkJoinPool}. Each task has its own {@link SplittableRandom}, split off
+ * before it is forked so results do not depend on scheduling, and counts into flat {@code int}
+ * histograms that are added together as the tasks join.
+ * </p>
+ * <p>
+ * The number of trials is chosen so a simulation makes at most {@link #TARGET_DRAWS} draws.
+ * When even {@link #MIN_TRIALS} trials would need more, each trial instead draws every item's
+ * count from its binomial distribution given the items before it, which takes time in
+ * proportion to the number of items rather than sorts. Results are cached per shipwreck and
+ * sort count until the drop rates change, and a simulation stops early if its future is
+ * cancelled.
+ * </p>
+ */
+@Slf4j
+public class LootSimulator
+{
+	/**
+	 * Draws to aim for across all trials of one simulation
+	 */
+	static final long TARGET_DRAWS = 20_000_000L;
+	static final int MIN_TRIALS = 500;
+	static final int MAX_TRIALS = 20_000;
+
+	/**
+	 * Trials run by one task without splitting further
+	 */
+	private static final int LEAF_TRIALS = 64;
+
+	/**
+	 * Most histogram bins per item; wider ranges use bins more than one drop wide
+	 */
+	private static final int MAX_BINS = 1024;
+
+	/**
+	 * Standard deviations above the mean covered by the histogram before the last bin
+	 */
+	private static final double HISTOGRAM_DEVIATIONS = 8.0;
+
+	/**
+	 * Binomial counts with a smaller mean are drawn exactly; larger ones from the normal
+	 * approximation
+	 */
+	private static final double EXACT_BINOMIAL_MEAN = 50.0;
+
+	private static final int CACHE_SIZE = 16;
+
+	private final DropRateManager dropRateManager;
+	private final ForkJoinPool pool;
+	private final long seed;
+
+	private final Map<Long, CompletableFuture<SimulationResult>> cache =
+		new LinkedHashMap<Long, CompletableFuture<SimulationResult>>(CACHE_SIZE, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<SimulationResult>> eldest)
+			{
+				return size() > CACHE_SIZE;
+			}
+		};
+
+	/**
+	 * @param dropRateManager Source of the drop tables
+	 * @param pool Pool the simulations run on
+	 * @param seed Seed for the random draws; the same seed gives the same results
+	 */
+	public LootSimulator(DropRateManager dropRateManager, ForkJoinPool pool, long seed)
+	{
+		this.dropRateManager = dropRateManager;
+		this.pool = pool;
+		this.seed = seed;
+	}
+
+	/**
+	 * Simulate a number of sorts of a shipwreck on the pool, or return the cached result.
+	 * Cancelling the returned future stops the simulation, and the next call starts it again.
+	 * @param type The shipwreck
+	 * @param sorts Sorts per trial, usually the player's total for the shipwreck
+	 * @return The result, completed on a pool thread
+	 */
+	public CompletableFuture<SimulationResult> simulate(ShipwreckType type, int sorts)
+	{
+		long key = ((long) type.ordinal() << 32) | (sorts & 0xFFFFFFFFL);
+		synchronized (cache)
+		{
+			CompletableFuture<SimulationResult> result = cache.get(key);
+			if (result == null || result.isCompletedExceptionally())
+			{
+				CompletableFuture<SimulationResult> future = new CompletableFuture<>();
+				pool.execute(() -> {
+					try
+					{
+						future.complete(run(type, sorts, trialsFor(sorts), future::isCancelled));
+					}
+					catch (CancellationException e)
+					{
+						// The future is already cancelled
+					}
+					catch (RuntimeException e)
+					{
+						future.completeExceptionally(e);
+					}
+				});
+				result = future;
+				cache.put(key, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Forget cached results, e.g. after the drop rates changed
+	 */
+	public void clear()
+	{
+		synchronized (cache)
+		{
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return Whether trials of this many sorts draw binomial counts instead of one item per sort
+	 */
+	static boolean approximates(int sorts)
+	{
+		return (long) sorts * MIN_TRIALS > TARGET_DRAWS;
+	}
+
+	static int trialsFor(int sorts)
+	{
+		if (approximates(sorts))
+		{
+			// A trial costs the same however many sorts it covers
+			return MAX_TRIALS;
+		}
+		long trials = TARGET_DRAWS / Math.max(1, sorts);
+		return (int) Math.max(MIN_TRIALS, Math.min(MAX_TRIALS, trials));
+	}
+
+	/**
+	 * Run a simulation on the pool and wait for it
+	 */
+	SimulationResult run(ShipwreckType type, int sorts, int trials)
+	{
+		return run(type, sorts, trials, () -> false);
+	}
+
+	/**
+	 * Run a simulation on the pool and wait for it
+	 * @param cancelled Checked between trials
+	 * @throws CancellationException If it was cancelled before finishing
+	 */
+	SimulationResult run(ShipwreckType type, int sorts, int trials, BooleanSupplier cancelled)
+	{
+		long start = System.nanoTime();
+
+		// Most common items first; the order only affects how results are listed
+		List<Map.Entry<String, Double>> table = new ArrayList<>(dropRateManager.getDropTable(type).entrySet());
+		table.removeIf(entry -> entry.getValue() <= 0.0);
+		table.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+		int itemCount = table.size();
+		double total = 0;
+		for (Map.Entry<String, Double> entry : table)
+		{
+			total += entry.getValue();
+		}
+		if (itemCount == 0)
+		{
+			return new SimulationResult(type, sorts, 0, System.nanoTime() - start, new LinkedHashMap<>());
+		}
+
+		// Any probability the table leaves unlisted is an extra outcome that is not reported
+		double[] weights = new double[total < 1.0 ? itemCount + 1 : itemCount];
+		double scale = Math.max(total, 1.0);
+		double[] rates = new double[itemCount];
+		double[] conditionalRates = new double[itemCount];
+		double remaining = 1.0;
+		int[] widths = new int[itemCount];
+		int[] binCounts = new int[itemCount];
+		int[] offsets = new int[itemCount];
+		int binTotal = 0;
+		for (int i = 0; i < itemCount; i++)
+		{
+			weights[i] = table.get(i).getValue();
+			rates[i] = weights[i] / scale;
+			// Rate among the sorts that did not give an earlier item
+			conditionalRates[i] = remaining > 0 ? Math.min(1.0, rates[i] / remaining) : 1.0;
+			remaining -= rates[i];
+
+			double mean = sorts * rates[i];
+			double deviation = Math.sqrt(mean * (1 - rates[i]));
+			long highest = Math.min(sorts, (long) Math.ceil(mean + HISTOGRAM_DEVIATIONS * deviation) + 16);
+			widths[i] = (int) Math.max(1, (highest + MAX_BINS) / MAX_BINS);
+			binCounts[i] = (int) (highest / widths[i]) + 1;
+			offsets[i] = binTotal;
+			binTotal += binCounts[i];
+		}
+		if (total < 1.0)
+		{
+			weights[itemCount] = 1.0 - total;
+		}
+
+		AliasSampler sampler = new AliasSampler(weights);
+		SimulationPlan plan = new SimulationPlan(sampler, approximates(sorts) ? conditionalRates : null, itemCount,
+			sorts, widths, binCounts, offsets, binTotal, cancelled);
+		SplittableRandom random = new SplittableRandom(seed ^ (type.ordinal() * 0x9E3779B97F4A7C15L) ^ sorts);
+		Tally tally = pool.invoke(new SimulationTask(plan, trials, random));
+		if (cancelled.getAsBoolean())
+		{
+			throw new CancellationException();
+		}
+
+		Map<String, SimulationResult.ItemDistribution> distributions = new LinkedHashMap<>();
+		for (int i = 0; i < itemCount; i++)
+		{
+			int[] bins = new int[binCounts[i]];
+			System.arraycopy(tally.bins, offsets[i], bins, 0, binCounts[i]);
+			double mean = (double) tally.sums[i] / trials;
+			double variance = Math.max(0, (double) tally.squares[i] / trials - mean * mean);
+			String name = table.get(i).getKey();
+			distributions.put(name, new SimulationResult.ItemDistribution(name, rates[i], bins, widths[i], trials,
+				mean, Math.sqrt(variance)));
+		}
+
+		long elapsed = System.nanoTime() - start;
+		log.debug("Simulated {} x {} {} sorts in {} ms", trials, sorts, type, elapsed / 1_000_000);
+		return new SimulationResult(type, sorts, trials, elapsed, distributions);
+	}
+
+	/**
+	 * Draw the number of successes in {@code n} trials of rate {@code p}. Small means are drawn
+	 * exactly by skipping the geometric gaps between successes, in time proportional to the
+	 * mean; larger ones come from the normal approximation.
+	 */
+	static int binomial(int n, double p, SplittableRandom random)
+	{
+		if (p <= 0.0)
+		{
+			return 0;
+		}
+		if (p >= 1.0)
+		{
+			return n;
+		}
+		if (p > 0.5)
+		{
+			return n - binomial(n, 1.0 - p, random);
+		}
+
+		double mean = n * p;
+		if (mean < EXACT_BINOMIAL_MEAN)
+		{
+			double logMiss = Math.log1p(-p);
+			int count = 0;
+			long position = (long) (Math.log(1.0 - random.nextDouble()) / logMiss) + 1;
+			while (position <= n)
+			{
+				count++;
+				position += (long) (Math.log(1.0 - random.nextDouble()) / logMiss) + 1;
+			}
+			return count;
+		}
+
+		long count = Math.round(mean + Math.sqrt(mean * (1.0 - p)) * gaussian(random));
+		return (int) Math.max(0, Math.min(n, count));
+	}
+
+	/**
+	 * A standard normal draw, by Marsaglia's polar method
+	 */
+	private static double gaussian(SplittableRandom random)
+	{
+		double x;
+		double y;
+		double s;
+		do
+		{
+			x = 2.0 * random.nextDouble() - 1.0;
+			y = 2.0 * random.nextDouble() - 1.0;
+			s = x * x + y * y;
+		}
+		while (s >= 1.0 || s == 0.0);
+		return x * Math.sqrt(-2.0 * Math.log(s) / s);
+	}
+
+	/**
+	 * What every task of one simulation shares
+	 */
+	private static final class SimulationPlan
+	{
+		private final AliasSampler sampler;
+		/**
+		 * Each item's rate given that no earlier item was drawn, or null to draw one item per sort
+		 */
+		private final double[] conditionalRates;
+		private final int itemCount;
+		private final int sorts;
+		private final int[] widths;
+		private final int[] binCounts;
+		private final int[] offsets;
+		private final int binTotal;
+		private final BooleanSupplier cancelled;
+
+		SimulationPlan(AliasSampler sampler, double[] conditionalRates, int itemCount, int sorts, int[] widths,
+			int[] binCounts, int[] offsets, int binTotal, BooleanSupplier cancelled)
+		{
+			this.sampler = sampler;
+			this.conditionalRates = conditionalRates;
+			this.itemCount = itemCount;
+			this.sorts = sorts;
+			this.widths = widths;
+			this.binCounts = binCounts;
+			this.offsets = offsets;
+			this.binTotal = binTotal;
+			this.cancelled = cancelled;
+		}
+	}
+
+	/**
+	 * Histograms of every item, in one flat array, and the sums for their means and deviations
+	 */
+	private static final class Tally
+	{
+		private final int[] bins;
+		private final long[] sums;
+		private final long[] squares;
+
+		Tally(SimulationPlan plan)
+		{
+			bins = new int[plan.binTotal];
+			sums = new long[plan.itemCount];
+			squares = new long[plan.itemCount];
+		}
+
+		void add(Tally other)
+		{
+			for (int i = 0; i < bins.length; i++)
+			{
+				bins[i] += other.bins[i];
+			}
+			for (int i = 0; i < sums.length; i++)
+			{
+				sums[i] += other.sums[i];
+				squares[i] += other.squares[i];
+			}
+		}
+	}
+
+	private static final class SimulationTask extends RecursiveTask<Tally>
+	{
+		private final SimulationPlan plan;
+		private final int trials;
+		private final SplittableRandom random;
+
+		SimulationTask(SimulationPlan plan, int trials, SplittableRandom random)
+		{
+			this.plan = plan;
+			this.trials = trials;
+			this.random = random;
+		}
+
+		@Override
+		protected Tally compute()
+		{
+			if (trials <= LEAF_TRIALS)
+			{
+				return runTrials();
+			}
+
+			int half = trials / 2;
+			SimulationTask left = new SimulationTask(plan, half, random.split());
+			left.fork();
+			Tally tally = new SimulationTask(plan, trials - half, random).compute();
+			tally.add(left.join());
+			return tally;
+		}
+
+		private Tally runTrials()
+		{
+			Tally tally = new Tally(plan);
+			AliasSampler sampler = plan.sampler;
+			int[] counts = new int[sampler.size()];
+			for (int trial = 0; trial < trials && !plan.cancelled.getAsBoolean(); trial++)
+			{
+				Arrays.fill(counts, 0);
+				if (plan.conditionalRates != null)
+				{
+					// The multinomial counts as a chain of binomials, one per item
+					int remaining = plan.sorts;
+					for (int i = 0; i < plan.itemCount && remaining > 0; i++)
+					{
+						counts[i] = binomial(remaining, plan.conditionalRates[i], random);
+						remaining -= counts[i];
+					}
+				}
+				else
+				{
+					for (int sort = 0; sort < plan.sorts; sort++)
+					{
+						counts[sampler.sample(random)]++;
+					}
+				}
+
+				for (int i = 0; i < plan.itemCount; i++)
+				{
+					int count = counts[i];
+					int bin = Math.min(count / plan.widths[i], plan.binCounts[i] - 1);
+					tally.bins[plan.offsets[i] + bin]++;
+					tally.sums[i] += count;
+					tally.squares[i] += (long) count * count;
+				}
+			}
+			return tally;
+		}
+	}
+}
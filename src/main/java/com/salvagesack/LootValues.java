@@ -0,0 +1,65 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+/**
+ * Immutable copy of the item prices and per-shipwreck loot values, for the panel
+ */
+public class LootValues
+{
+	public static final LootValues NONE = new LootValues(null, new int[0], new long[ShipwreckType.values().length]);
+
+	private final ItemRegistry registry;
+	private final int[] prices;
+	private final long[] shipwreckValues;
+
+	/**
+	 * Value of the loot from every shipwreck
+	 */
+	@Getter
+	private final long totalValue;
+
+	/**
+	 * @param registry Registry of the item ordinals; may be null if there are no prices
+	 * @param prices Prices by item ordinal; must not be changed afterwards
+	 * @param shipwreckValues Values by shipwreck type ordinal
+	 */
+	LootValues(ItemRegistry registry, int[] prices, long[] shipwreckValues)
+	{
+		this.registry = registry;
+		this.prices = prices;
+		this.shipwreckValues = shipwreckValues;
+
+		long total = 0;
+		for (long value : shipwreckValues)
+		{
+			total += value;
+		}
+		this.totalValue = total;
+	}
+
+	/**
+	 * @return The item's Grand Exchange price, or 0 if it is unknown
+	 */
+	public int getPrice(int itemId)
+	{
+		int ordinal = prices.length > 0 ? registry.find(itemId) : -1;
+		return ordinal >= 0 && ordinal < prices.length ? prices[ordinal] : 0;
+	}
+
+	/**
+	 * @return Value of the loot from a shipwreck
+	 */
+	public long getShipwreckValue(ShipwreckType type)
+	{
+		return shipwreckValues[type.ordinal()];
+	}
+
+	/**
+	 * @return Average value of a sort of a shipwreck, or 0 if it has not been sorted
+	 */
+	public double getValuePerSort(ShipwreckType type, int totalLoots)
+	{
+		return totalLoots > 0 ? (double) getShipwreckValue(type) / totalLoots : 0;
+	}
+}
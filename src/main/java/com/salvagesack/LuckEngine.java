@@ -0,0 +1,170 @@
+package com.salvagesack;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Classifies each item's luck by statistical significance and caches the result.
+ * <p>
+ * An item's {@link LuckStats}, color and description are computed when its drop count, its
+ * shipwreck's total sorts or its expected rate changes, and are otherwise looked up by item
+ * ordinal, so rendering a row or comparing two items for the luck sort is constant time.
+ * </p>
+ * <p>
+ * Results that could easily be chance are neutral: the color only moves from yellow once the
+ * item is more than one standard deviation from its expected count (two-sided p below about
+ * 0.32) and is fully green or red at p below 0.01.
+ * </p>
+ * <p>
+ * Not thread-safe; the panel uses it on the EDT only.
+ * </p>
+ */
+public class LuckEngine
+{
+	static final Color LUCK_GOOD = new Color(0, 200, 83);      // Green - lucky
+	static final Color LUCK_NEUTRAL = new Color(255, 214, 0); // Yellow - expected
+	static final Color LUCK_BAD = new Color(255, 68, 68);     // Red - unlucky
+	static final Color LUCK_UNKNOWN = Color.LIGHT_GRAY;
+
+	/**
+	 * |z| up to which a result is shown as neutral (two-sided p of about 0.32)
+	 */
+	static final double Z_NEUTRAL = 1.0;
+
+	/**
+	 * |z| from which a result is shown fully lucky or unlucky (two-sided p of 0.01)
+	 */
+	static final double Z_FULL = 2.5758293035489;
+
+	private final ItemRegistry registry;
+	private final Map<ShipwreckType, Entry[]> cache = new EnumMap<>(ShipwreckType.class);
+
+	/**
+	 * @param registry Registry of the items' ordinals, which the cache is indexed by
+	 */
+	public LuckEngine(ItemRegistry registry)
+	{
+		this.registry = registry;
+	}
+
+	/**
+	 * The cached result for an item
+	 */
+	public static final class Entry
+	{
+		private final LuckStats stats;
+		private final Color color;
+		private final String description;
+
+		private Entry(LuckStats stats)
+		{
+			this.stats = stats;
+			this.color = colorFor(stats);
+			this.description = describe(stats);
+		}
+
+		public LuckStats getStats()
+		{
+			return stats;
+		}
+
+		public Color getColor()
+		{
+			return color;
+		}
+
+		/**
+		 * @return Tooltip lines with the confidence interval and significance, separated by
+		 *         HTML line breaks
+		 */
+		public String getDescription()
+		{
+			return description;
+		}
+
+		/**
+		 * @return The luck sort key: the signed z-score, with unknown rates below everything
+		 */
+		public double getSortKey()
+		{
+			return stats.hasExpectedRate() ? stats.getZScore() : Integer.MIN_VALUE;
+		}
+
+		private boolean matches(int dropCount, int totalLoots, double expectedRate)
+		{
+			return stats.getDropCount() == dropCount && stats.getTotalLoots() == totalLoots
+				&& stats.getExpectedRate() == expectedRate;
+		}
+	}
+
+	/**
+	 * Get an item's luck, computing it only if its counts or expected rate changed
+	 */
+	public Entry get(ShipwreckType type, int itemId, int dropCount, int totalLoots, double expectedRate)
+	{
+		int ordinal = registry.ordinal(itemId);
+		Entry[] entries = cache.get(type);
+		if (entries == null || ordinal >= entries.length)
+		{
+			int length = Math.max(ordinal + 1, entries != null ? entries.length * 2 : 64);
+			entries = entries != null ? Arrays.copyOf(entries, length) : new Entry[length];
+			cache.put(type, entries);
+		}
+
+		Entry entry = entries[ordinal];
+		if (entry == null || !entry.matches(dropCount, totalLoots, expectedRate))
+		{
+			entry = new Entry(new LuckStats(dropCount, totalLoots, expectedRate));
+			entries[ordinal] = entry;
+		}
+		return entry;
+	}
+
+	/**
+	 * Drop the cached results for a shipwreck, e.g. after it was reset
+	 */
+	public void clear(ShipwreckType type)
+	{
+		cache.remove(type);
+	}
+
+	static Color colorFor(LuckStats stats)
+	{
+		if (!stats.hasExpectedRate())
+		{
+			return LUCK_UNKNOWN;
+		}
+
+		double magnitude = Math.abs(stats.getZScore());
+		if (magnitude <= Z_NEUTRAL)
+		{
+			return LUCK_NEUTRAL;
+		}
+
+		float t = (float) ((magnitude - Z_NEUTRAL) / (Z_FULL - Z_NEUTRAL));
+		return interpolateColor(LUCK_NEUTRAL, stats.getZScore() > 0 ? LUCK_GOOD : LUCK_BAD, t);
+	}
+
+	private static String describe(LuckStats stats)
+	{
+		String interval = String.format("95%% confidence: %.2f%% - %.2f%%", stats.getWilsonLower() * 100,
+			stats.getWilsonUpper() * 100);
+		if (!stats.hasExpectedRate())
+		{
+			return interval;
+		}
+		return String.format("%s<br>z = %+.2f, p = %.3f", interval, stats.getZScore(),
+			stats.getPValue());
+	}
+
+	private static Color interpolateColor(Color c1, Color c2, float t)
+	{
+		t = Math.max(0, Math.min(1, t));
+		int r = (int) (c1.getRed() + t * (c2.getRed() - c1.getRed()));
+		int g = (int) (c1.getGreen() + t * (c2.getGreen() - c1.getGreen()));
+		int b = (int) (c1.getBlue() + t * (c2.getBlue() - c1.getBlue()));
+		return new Color(r, g, b);
+	}
+}
@@ -0,0 +1,187 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+/**
+ * How an item's observed drop count compares to its expected rate, as a binomial test.
+ * <p>
+ * For {@code k} drops in {@code n} sorts at expected rate {@code p}, the z-score is
+ * {@code (k - np) / sqrt(np(1 - p))} and the two-sided p-value is the chance of a result at
+ * least that far from expected. While {@code np(1 - p)} is small the normal approximation is
+ * poor (1 drop in 2 sorts of a 10% item would look significant), so the p-value is taken from
+ * the exact binomial tails instead and converted back to a z-score. The observed rate also gets
+ * a 95% Wilson score interval.
+ * </p>
+ */
+@Getter
+public class LuckStats
+{
+	/**
+	 * z-score of a 95% two-sided interval
+	 */
+	static final double Z_95 = 1.959963984540054;
+
+	/**
+	 * Below this variance the exact binomial test is used
+	 */
+	private static final double EXACT_MAX_VARIANCE = 25;
+
+	/**
+	 * Above this many drops the exact tails are too costly and the normal approximation is used
+	 */
+	private static final int EXACT_MAX_DROPS = 2000;
+
+	private final int dropCount;
+	private final int totalLoots;
+	private final double expectedRate;
+
+	/**
+	 * Signed z-score; positive when luckier than expected, 0 if the expected rate is unknown
+	 */
+	private final double zScore;
+
+	/**
+	 * Two-sided p-value against the expected rate, 1 if the expected rate is unknown
+	 */
+	private final double pValue;
+
+	private final double wilsonLower;
+	private final double wilsonUpper;
+
+	public LuckStats(int dropCount, int totalLoots, double expectedRate)
+	{
+		this.dropCount = dropCount;
+		this.totalLoots = totalLoots;
+		this.expectedRate = expectedRate;
+
+		double n = totalLoots;
+		if (totalLoots > 0)
+		{
+			double observed = dropCount / n;
+			double z2 = Z_95 * Z_95;
+			double center = (observed + z2 / (2 * n)) / (1 + z2 / n);
+			double half = Z_95 / (1 + z2 / n) * Math.sqrt(observed * (1 - observed) / n + z2 / (4 * n * n));
+			wilsonLower = Math.max(0, center - half);
+			wilsonUpper = Math.min(1, center + half);
+		}
+		else
+		{
+			wilsonLower = 0;
+			wilsonUpper = 1;
+		}
+
+		if (!hasExpectedRate() || totalLoots <= 0)
+		{
+			zScore = 0;
+			pValue = 1;
+			return;
+		}
+
+		double variance = n * expectedRate * (1 - expectedRate);
+		double deviation = dropCount - n * expectedRate;
+		if (variance < EXACT_MAX_VARIANCE && dropCount <= EXACT_MAX_DROPS)
+		{
+			pValue = exactPValue(dropCount, totalLoots, expectedRate);
+			zScore = Math.signum(deviation) * inverseNormal(1 - pValue / 2);
+		}
+		else
+		{
+			zScore = deviation / Math.sqrt(variance);
+			pValue = Math.min(1, erfc(Math.abs(zScore) / Math.sqrt(2)));
+		}
+	}
+
+	/**
+	 * @return Whether there is an expected rate to compare against
+	 */
+	public boolean hasExpectedRate()
+	{
+		return expectedRate > 0 && expectedRate < 1;
+	}
+
+	/**
+	 * Two-sided exact binomial p-value: twice the smaller tail, capped at 1
+	 */
+	static double exactPValue(int k, int n, double p)
+	{
+		// Probabilities are stepped in log space, since (1 - p)^n can underflow
+		double logRatio = Math.log(p) - Math.log1p(-p);
+		double logPmf = n * Math.log1p(-p);
+		double lower = 0;
+		for (int i = 0; i < k; i++)
+		{
+			lower += Math.exp(logPmf);
+			logPmf += Math.log((double) (n - i) / (i + 1)) + logRatio;
+		}
+		double atK = Math.exp(logPmf);
+		lower += atK;
+
+		// Upper tail from k, stopping once past the mode and the terms no longer matter
+		double upper = atK;
+		double mode = (n + 1) * p;
+		for (int i = k; i < n; i++)
+		{
+			logPmf += Math.log((double) (n - i) / (i + 1)) + logRatio;
+			double term = Math.exp(logPmf);
+			upper += term;
+			if (i > mode && term < upper * 1e-17)
+			{
+				break;
+			}
+		}
+
+		return Math.max(Double.MIN_NORMAL, Math.min(1, 2 * Math.min(lower, upper)));
+	}
+
+	/**
+	 * Complementary error function (Numerical Recipes erfcc, fractional error below 1.2e-7)
+	 */
+	static double erfc(double x)
+	{
+		double z = Math.abs(x);
+		double t = 1 / (1 + 0.5 * z);
+		double result = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+			+ t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+			+ t * (-0.82215223 + t * 0.17087277)))))))));
+		return x >= 0 ? result : 2 - result;
+	}
+
+	/**
+	 * Inverse of the standard normal CDF (Acklam's approximation, relative error below 1.2e-9)
+	 */
+	static double inverseNormal(double probability)
+	{
+		if (probability <= 0)
+		{
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (probability >= 1)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+
+		final double[] a = {-39.69683028665376, 220.9460984245205, -275.9285104469687, 138.3577518672690,
+			-30.66479806614716, 2.506628277459239};
+		final double[] b = {-54.47609879822406, 161.5858368580409, -155.6989798598866, 66.80131188771972,
+			-13.28068155288572};
+		final double[] c = {-0.007784894002430293, -0.3223964580411365, -2.400758277161838, -2.549732539343734,
+			4.374664141464968, 2.938163982698783};
+		final double[] d = {0.007784695709041462, 0.3224671290700398, 2.445134137142996, 3.754408661907416};
+
+		if (probability < 0.02425)
+		{
+			double q = Math.sqrt(-2 * Math.log(probability));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+				/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if (probability > 1 - 0.02425)
+		{
+			return -inverseNormal(1 - probability);
+		}
+
+		double q = probability - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+			/ (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+}
@@ -0,0 +1,126 @@
+package com.salvagesack;
+
+import javax.swing.Timer;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Coalesces panel update requests into at most one render per interval, and only while the
+ * panel is visible.
+ * <p>
+ * {@link #requestUpdate(Set)} may be called from any thread. Requests that arrive while a
+ * render is already pending are merged into it. While the panel is hidden nothing is rendered;
+ * any pending update is rendered once when the panel is activated again. Renders run on the EDT.
+ * </p>
+ */
+public class PanelUpdateScheduler
+{
+	private final Consumer<Set<ShipwreckType>> render;
+	private final IntSupplier intervalMillis;
+
+	private final Object lock = new Object();
+	private final Set<ShipwreckType> forcedTypes = EnumSet.noneOf(ShipwreckType.class);
+	private boolean pending;
+	private boolean scheduled;
+	private boolean active;
+	private long lastRenderAt;
+
+	private final AtomicLong performedRenders = new AtomicLong();
+	private final AtomicLong skippedRenders = new AtomicLong();
+
+	/**
+	 * @param render Renders the panel on the EDT, given the shipwreck types that must be refreshed
+	 *               even if their data has not changed
+	 * @param intervalMillis Minimum time between renders
+	 */
+	public PanelUpdateScheduler(Consumer<Set<ShipwreckType>> render, IntSupplier intervalMillis)
+	{
+		this.render = render;
+		this.intervalMillis = intervalMillis;
+	}
+
+	/**
+	 * Request a render, merging it with any render that is already pending
+	 * @param forced Shipwreck types to refresh even if their data has not changed
+	 */
+	public void requestUpdate(Set<ShipwreckType> forced)
+	{
+		synchronized (lock)
+		{
+			forcedTypes.addAll(forced);
+			if (pending)
+			{
+				skippedRenders.incrementAndGet();
+			}
+			pending = true;
+			scheduleIfNeeded();
+		}
+	}
+
+	/**
+	 * Called when the panel is shown or hidden. A pending update is rendered on activation.
+	 */
+	public void setActive(boolean active)
+	{
+		synchronized (lock)
+		{
+			this.active = active;
+			scheduleIfNeeded();
+		}
+	}
+
+	private void scheduleIfNeeded()
+	{
+		if (!pending || !active || scheduled)
+		{
+			return;
+		}
+
+		scheduled = true;
+		long delay = lastRenderAt + intervalMillis.getAsInt() - System.currentTimeMillis();
+		Timer timer = new Timer((int) Math.max(0, delay), e -> renderPending());
+		timer.setRepeats(false);
+		timer.start();
+	}
+
+	private void renderPending()
+	{
+		Set<ShipwreckType> forced;
+		synchronized (lock)
+		{
+			scheduled = false;
+			if (!pending || !active)
+			{
+				// Hidden since it was scheduled; rendered on the next activation
+				return;
+			}
+
+			pending = false;
+			lastRenderAt = System.currentTimeMillis();
+			forced = EnumSet.copyOf(forcedTypes);
+			forcedTypes.clear();
+		}
+
+		render.accept(forced);
+		performedRenders.incrementAndGet();
+	}
+
+	/**
+	 * @return Number of renders performed
+	 */
+	public long getPerformedRenders()
+	{
+		return performedRenders.get();
+	}
+
+	/**
+	 * @return Number of update requests merged into an already pending render
+	 */
+	public long getSkippedRenders()
+	{
+		return skippedRenders.get();
+	}
+}
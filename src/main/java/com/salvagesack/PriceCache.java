@@ -0,0 +1,105 @@
+package com.salvagesack;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Grand Exchange prices of the items that have been looted, indexed by {@link ItemRegistry} ordinal.
+ * <p>
+ * An item's price is looked up the first time it is needed and then re-read for every cached
+ * item at once by {@link #refresh(long)}, which the plugin calls on a schedule, so rows never
+ * query prices themselves. Items recorded under a hash-based fallback ID have no price.
+ * </p>
+ * <p>
+ * Lookups and refreshes run on the client thread, since item prices are read from the item
+ * definitions. Each change publishes a new price array, so {@link #getPrices()} can be read
+ * from any thread and the array it returns never changes.
+ * </p>
+ */
+public class PriceCache
+{
+	private final ItemRegistry registry;
+	private final IntUnaryOperator lookup;
+	private final BitSet cached = new BitSet();
+	private volatile int[] prices = new int[0];
+	private long refreshedAt;
+
+	/**
+	 * @param registry Assigns the ordinals prices are indexed by
+	 * @param lookup Reads an item's current price by item ID, on the client thread
+	 */
+	public PriceCache(ItemRegistry registry, IntUnaryOperator lookup)
+	{
+		this.registry = registry;
+		this.lookup = lookup;
+	}
+
+	/**
+	 * Get an item's price, looking it up if it is not cached yet
+	 * @param itemId The item ID
+	 * @param itemName The item name, to recognize fallback IDs
+	 * @return The price in coins, or 0 if the item has no price
+	 */
+	public int getPrice(int itemId, String itemName)
+	{
+		int ordinal = registry.ordinal(itemId);
+		if (cached.get(ordinal))
+		{
+			return prices[ordinal];
+		}
+		if (itemName == null || itemId == ItemIdIndex.fallbackId(itemName))
+		{
+			return 0;
+		}
+
+		int price = Math.max(0, lookup.applyAsInt(itemId));
+		int[] next = Arrays.copyOf(prices, Math.max(prices.length, ordinal + 1));
+		next[ordinal] = price;
+		cached.set(ordinal);
+		prices = next;
+		return price;
+	}
+
+	/**
+	 * Re-read the price of every cached item in one pass
+	 * @param now The current time
+	 * @return The prices before the refresh, the same length as {@link #getPrices()}
+	 */
+	public int[] refresh(long now)
+	{
+		int[] previous = prices;
+		int[] next = previous.clone();
+		for (int ordinal = cached.nextSetBit(0); ordinal >= 0; ordinal = cached.nextSetBit(ordinal + 1))
+		{
+			next[ordinal] = Math.max(0, lookup.applyAsInt(registry.getItemId(ordinal)));
+		}
+		prices = next;
+		refreshedAt = now;
+		return previous;
+	}
+
+	/**
+	 * @return Prices by item ordinal, 0 where unknown; the array is never changed
+	 */
+	public int[] getPrices()
+	{
+		return prices;
+	}
+
+	/**
+	 * @return The registry prices are indexed by
+	 */
+	ItemRegistry getRegistry()
+	{
+		return registry;
+	}
+
+	/**
+	 * @return When prices were last refreshed, or 0 if they never were
+	 */
+	public long getRefreshedAt()
+	{
+		return refreshedAt;
+	}
+}
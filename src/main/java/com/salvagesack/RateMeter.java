@@ -0,0 +1,74 @@
+package com.salvagesack;
+
+/**
+ * Exponentially weighted moving average of an event rate, updated in constant time per event.
+ * <p>
+ * Events add to a total that decays exponentially with the meter's time constant, so recent
+ * events count the most and events a few time constants old hardly count at all. The rate is
+ * the decayed total divided by the weight the decay gives to the time the meter has run, so a
+ * meter that has only run for part of a time constant is not biased towards zero. Very short
+ * runs are treated as {@link #MIN_WINDOW_MILLIS} long, so the first event after a start does
+ * not read as a huge rate.
+ * </p>
+ */
+public class RateMeter
+{
+	static final long HOUR_MILLIS = 60L * 60 * 1000;
+	static final long MIN_WINDOW_MILLIS = 60 * 1000;
+
+	private final double timeConstantMillis;
+	private long startedAt;
+	private long lastEventAt;
+	private double total;
+
+	/**
+	 * @param timeConstantMillis How quickly old events stop counting; an event's weight falls
+	 *                           by a factor of e over this time
+	 */
+	public RateMeter(long timeConstantMillis)
+	{
+		this.timeConstantMillis = timeConstantMillis;
+	}
+
+	/**
+	 * Start measuring from a time, discarding earlier events
+	 */
+	public void start(long now)
+	{
+		startedAt = now;
+		lastEventAt = now;
+		total = 0;
+	}
+
+	/**
+	 * Record events
+	 * @param amount Number of events, e.g. items received
+	 * @param now Time of the events
+	 */
+	public void add(double amount, long now)
+	{
+		if (now > lastEventAt)
+		{
+			total *= Math.exp((lastEventAt - now) / timeConstantMillis);
+			lastEventAt = now;
+		}
+		total += amount;
+	}
+
+	/**
+	 * @return The rate in events per hour as of a time
+	 */
+	public double getRatePerHour(long now)
+	{
+		if (total == 0)
+		{
+			return 0;
+		}
+
+		double decayed = total * Math.exp(Math.min(0, lastEventAt - now) / timeConstantMillis);
+		long elapsed = Math.max(MIN_WINDOW_MILLIS, now - startedAt);
+		// Integral of the decay over the time the meter has run
+		double weight = timeConstantMillis * -Math.expm1(-elapsed / timeConstantMillis);
+		return decayed / weight * HOUR_MILLIS;
+	}
+}
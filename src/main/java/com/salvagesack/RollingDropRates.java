@@ -0,0 +1,69 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+/**
+ * Immutable copy of one shipwreck's {@link RollingDropWindow}, for the panel
+ */
+public class RollingDropRates
+{
+	private final ItemRegistry registry;
+
+	/**
+	 * Number of sorts in the sort window; fewer than its capacity until that many have been made
+	 */
+	@Getter
+	private final int windowSorts;
+
+	/**
+	 * Number of sorts in the time window
+	 */
+	@Getter
+	private final int windowTimeSorts;
+
+	/**
+	 * Length of the time window
+	 */
+	@Getter
+	private final long windowMillis;
+
+	private final int[] sortCounts;
+	private final int[] timeCounts;
+
+	RollingDropRates(ItemRegistry registry, int windowSorts, int[] sortCounts, int windowTimeSorts, int[] timeCounts,
+		long windowMillis)
+	{
+		this.registry = registry;
+		this.windowSorts = windowSorts;
+		this.sortCounts = sortCounts;
+		this.windowTimeSorts = windowTimeSorts;
+		this.timeCounts = timeCounts;
+		this.windowMillis = windowMillis;
+	}
+
+	/**
+	 * @return The item's drop rate over the last sorts, or 0 if there are none
+	 */
+	public double getSortWindowRate(int itemId)
+	{
+		return rate(sortCounts, windowSorts, itemId);
+	}
+
+	/**
+	 * @return The item's drop rate over the sorts in the time window, or 0 if there are none
+	 */
+	public double getTimeWindowRate(int itemId)
+	{
+		return rate(timeCounts, windowTimeSorts, itemId);
+	}
+
+	private double rate(int[] counts, int sorts, int itemId)
+	{
+		int ordinal = registry.find(itemId);
+		if (sorts == 0 || ordinal < 0 || ordinal >= counts.length)
+		{
+			return 0;
+		}
+		return (double) counts[ordinal] / sorts;
+	}
+}
@@ -0,0 +1,181 @@
+package com.salvagesack;
+
+import java.util.Arrays;
+
+/**
+ * One shipwreck's recent drops: its last N sorts and its sorts in the last T minutes.
+ * <p>
+ * Each window is a ring buffer of the item ordinals of its sorts, with a count per item of the
+ * sorts currently in the window. Recording a sort pushes it onto both rings and evicts whatever
+ * falls out, adjusting the counts, so an update is constant time and a recent rate is one array
+ * read. Memory is the two rings plus two ints per item, however long the history.
+ * </p>
+ * <p>
+ * The time window holds at most {@link #MAX_TIME_SORTS} sorts; beyond that the oldest are
+ * evicted early. Used on the client thread only; the panel reads {@link RollingDropRates}.
+ * </p>
+ */
+public class RollingDropWindow
+{
+	static final int MAX_TIME_SORTS = 16384;
+
+	private final ItemRegistry registry;
+	private final int sortCapacity;
+	private final long windowMillis;
+
+	// Item ordinals of the last sorts, oldest at the head
+	private final int[] sortItems;
+	private int sortHead;
+	private int sortSize;
+
+	// Times and item ordinals of the sorts inside the time window, oldest at the head
+	private long[] timeStamps = new long[64];
+	private int[] timeItems = new int[64];
+	private int timeHead;
+	private int timeSize;
+
+	// Sorts of each item, by registry ordinal, in each window
+	private int[] sortCounts = new int[64];
+	private int[] timeCounts = new int[64];
+
+	private boolean modified = true;
+
+	/**
+	 * @param registry Registry of the item ordinals that are recorded
+	 * @param sortCapacity Number of sorts in the sort window
+	 * @param windowMillis Length of the time window
+	 */
+	public RollingDropWindow(ItemRegistry registry, int sortCapacity, long windowMillis)
+	{
+		this.registry = registry;
+		this.sortCapacity = sortCapacity;
+		this.windowMillis = windowMillis;
+		this.sortItems = new int[sortCapacity];
+	}
+
+	/**
+	 * Record one sort
+	 * @param itemOrdinal {@link ItemRegistry} ordinal of the item received
+	 * @param timestamp Time of the sort; sorts are expected in time order
+	 */
+	public void record(int itemOrdinal, long timestamp)
+	{
+		if (itemOrdinal >= sortCounts.length)
+		{
+			int length = Math.max(itemOrdinal + 1, sortCounts.length * 2);
+			sortCounts = Arrays.copyOf(sortCounts, length);
+			timeCounts = Arrays.copyOf(timeCounts, length);
+		}
+
+		if (sortSize == sortCapacity)
+		{
+			evictSort();
+		}
+		sortItems[(sortHead + sortSize) % sortCapacity] = itemOrdinal;
+		sortSize++;
+		sortCounts[itemOrdinal]++;
+
+		expire(timestamp);
+		if (timeSize == timeStamps.length)
+		{
+			if (timeSize < MAX_TIME_SORTS)
+			{
+				growTimeRing();
+			}
+			else
+			{
+				evictTime();
+			}
+		}
+		int tail = (timeHead + timeSize) & (timeStamps.length - 1);
+		timeStamps[tail] = timestamp;
+		timeItems[tail] = itemOrdinal;
+		timeSize++;
+		timeCounts[itemOrdinal]++;
+		modified = true;
+	}
+
+	/**
+	 * Evict sorts that have fallen out of the time window
+	 * @return true if any sort was evicted
+	 */
+	public boolean expire(long now)
+	{
+		boolean expired = false;
+		while (timeSize > 0 && timeStamps[timeHead] <= now - windowMillis)
+		{
+			evictTime();
+			expired = true;
+		}
+		modified |= expired;
+		return expired;
+	}
+
+	/**
+	 * Keep only the most recent sorts, e.g. when seeding from history across a reset
+	 */
+	public void truncate(int maxSorts)
+	{
+		while (sortSize > maxSorts)
+		{
+			evictSort();
+			modified = true;
+		}
+		while (timeSize > maxSorts)
+		{
+			evictTime();
+			modified = true;
+		}
+	}
+
+	/**
+	 * @return Whether the window changed since the last call, clearing the flag
+	 */
+	public boolean consumeModified()
+	{
+		boolean wasModified = modified;
+		modified = false;
+		return wasModified;
+	}
+
+	/**
+	 * @return An immutable copy of the window's counts
+	 */
+	public RollingDropRates snapshot()
+	{
+		return new RollingDropRates(registry, sortSize, sortCounts.clone(), timeSize, timeCounts.clone(), windowMillis);
+	}
+
+	private void evictSort()
+	{
+		sortCounts[sortItems[sortHead]]--;
+		sortHead = (sortHead + 1) % sortCapacity;
+		sortSize--;
+	}
+
+	private void evictTime()
+	{
+		timeCounts[timeItems[timeHead]]--;
+		timeHead = (timeHead + 1) & (timeStamps.length - 1);
+		timeSize--;
+	}
+
+	/**
+	 * Double the time ring, unrolling it so the head is at index 0; capacities stay powers of two
+	 */
+	private void growTimeRing()
+	{
+		int length = timeStamps.length;
+		long[] stamps = new long[length * 2];
+		int[] items = new int[length * 2];
+		for (int i = 0; i < timeSize; i++)
+		{
+			int index = (timeHead + i) & (length - 1);
+			stamps[i] = timeStamps[index];
+			items[i] = timeItems[index];
+		}
+		timeStamps = stamps;
+		timeItems = items;
+		timeHead = 0;
+	}
+}
@@ -1,8 +1,17 @@
 package com.salvagesack;
 
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Stores all salvage tracking data for a specific shipwreck type.
@@ -15,37 +24,144 @@ import java.util.concurrent.ConcurrentHashMap;
  * the most recently active shipwreck always appears at the top, regardless of
  * whether it is expanded or collapsed.
  * </p>
+ * <p>
+ * Item counts are kept in primitive arrays indexed by the ordinals of the {@link ItemRegistry}
+ * the data was created with, grown as new items are seen. {@link #getItems()} is a read-only view that creates {@link SalvageItem}
+ * objects as they are accessed; code that runs on every update uses the ordinal accessors
+ * instead. Copies made by {@link #snapshot()} cannot be changed.
+ * </p>
+ * <p>
+ * Each item also records the sort number of its last drop and its longest dry streak, updated
+ * in constant time as drops are recorded, so the sorts since its last drop is
+ * {@code totalLoots - lastSeenAt}. Items loaded from data saved before streaks were tracked
+ * count their streak from the time they were loaded.
+ * </p>
  */
-@Data
 public class SalvageData
 {
+	@Getter
 	private final ShipwreckType shipwreckType;
+
+	/**
+	 * Assigns the ordinals the item arrays are indexed by
+	 */
+	@Getter
+	private final ItemRegistry registry;
+
+	@Getter
 	private int totalLoots;
-	private final Map<Integer, SalvageItem> items; // itemId -> SalvageItem
 
 	/**
 	 * Timestamp (milliseconds since epoch) of the last loot recorded for this shipwreck.
 	 * Used to sort shipwreck panels in the UI with most recently updated at the top.
 	 */
+	@Getter
+	@Setter
 	private long lastUpdated;
 
-	public SalvageData(ShipwreckType shipwreckType)
+	/**
+	 * Sequence number of the last loot journal event included in this data.
+	 * Journal events up to this number are skipped when replaying the journal.
+	 */
+	@Getter
+	@Setter
+	private long journalSeq;
+
+	/**
+	 * Set whenever this shipwreck's data changes, so persistence only rewrites changed shipwrecks.
+	 */
+	private final AtomicBoolean dirty = new AtomicBoolean();
+
+	/**
+	 * Incremented on every change to the counts, so views can skip shipwrecks that have not changed.
+	 */
+	@Getter
+	@Setter
+	private volatile int revision;
+
+	/**
+	 * Item counts by ordinal; an ordinal only holds an item if its bit is set in {@link #present}
+	 */
+	private final BitSet present;
+	private String[] names;
+	private int[] dropCounts;
+	private long[] quantities;
+	private double[] expectedRates;
+	private int[] lastSeenAt;
+	private int[] longestDryStreaks;
+	private int itemCount;
+
+	private final boolean frozen;
+	private final Map<Integer, SalvageItem> itemView = new ItemView();
+
+	public SalvageData(ShipwreckType shipwreckType, ItemRegistry registry)
 	{
 		this.shipwreckType = shipwreckType;
+		this.registry = registry;
 		this.totalLoots = 0;
-		this.items = new ConcurrentHashMap<>();
 		this.lastUpdated = 0;
+		this.present = new BitSet();
+		this.names = new String[0];
+		this.dropCounts = new int[0];
+		this.quantities = new long[0];
+		this.expectedRates = new double[0];
+		this.lastSeenAt = new int[0];
+		this.longestDryStreaks = new int[0];
+		this.frozen = false;
 	}
 
 	/**
-	 * Constructor for deserialization
+	 * Constructor for deserialization; items are added with {@link #setItem}
 	 */
-	public SalvageData(ShipwreckType shipwreckType, int totalLoots, Map<Integer, SalvageItem> items)
+	public SalvageData(ShipwreckType shipwreckType, ItemRegistry registry, int totalLoots)
 	{
-		this.shipwreckType = shipwreckType;
+		this(shipwreckType, registry);
 		this.totalLoots = totalLoots;
-		this.items = items;
-		this.lastUpdated = 0;
+	}
+
+	/**
+	 * Constructor for deserialization
+	 */
+	public SalvageData(ShipwreckType shipwreckType, ItemRegistry registry, int totalLoots,
+		Map<Integer, SalvageItem> items)
+	{
+		this(shipwreckType, registry, totalLoots);
+		for (SalvageItem item : items.values())
+		{
+			setItem(item.getItemId(), item.getItemName(), item.getDropCount(), item.getTotalQuantity(),
+				item.getExpectedDropRate());
+		}
+	}
+
+	/**
+	 * Copy for {@link #snapshot()}, with the arrays trimmed to the highest ordinal in use
+	 */
+	private SalvageData(SalvageData source)
+	{
+		int length = source.present.length();
+		this.shipwreckType = source.shipwreckType;
+		this.registry = source.registry;
+		this.totalLoots = source.totalLoots;
+		this.lastUpdated = source.lastUpdated;
+		this.journalSeq = source.journalSeq;
+		this.revision = source.revision;
+		this.present = (BitSet) source.present.clone();
+		this.names = Arrays.copyOf(source.names, length);
+		this.dropCounts = Arrays.copyOf(source.dropCounts, length);
+		this.quantities = Arrays.copyOf(source.quantities, length);
+		this.expectedRates = Arrays.copyOf(source.expectedRates, length);
+		this.lastSeenAt = Arrays.copyOf(source.lastSeenAt, length);
+		this.longestDryStreaks = Arrays.copyOf(source.longestDryStreaks, length);
+		this.itemCount = source.itemCount;
+		this.frozen = true;
+	}
+
+	/**
+	 * @return A copy of this data that cannot be changed and shares nothing mutable with it
+	 */
+	public SalvageData snapshot()
+	{
+		return new SalvageData(this);
 	}
 
 	/**
@@ -69,9 +185,97 @@ public class SalvageData
 	 */
 	public void recordLoot(int itemId, String itemName, double expectedDropRate, int quantity)
 	{
-		SalvageItem item = items.computeIfAbsent(itemId,
-			id -> new SalvageItem(id, itemName, expectedDropRate));
-		item.recordDrop(quantity);  // 1 drop for rate, full quantity for display
+		checkMutable();
+		int ordinal = registry.ordinal(itemId);
+		if (!present.get(ordinal))
+		{
+			add(ordinal, itemName, expectedDropRate);
+		}
+		dropCounts[ordinal]++;  // 1 drop for rate, full quantity for display
+		quantities[ordinal] += quantity;
+
+		// The sorts between the previous drop and this one; the current sort is already counted
+		int dryStreak = totalLoots - lastSeenAt[ordinal] - 1;
+		longestDryStreaks[ordinal] = Math.max(longestDryStreaks[ordinal], dryStreak);
+		lastSeenAt[ordinal] = totalLoots;
+		dirty.set(true);
+		revision++;
+	}
+
+	/**
+	 * Record a drop from a sort that happened before some of the sorts already counted, e.g. one
+	 * imported from a chat log. Later sorts move down one place, so an item's dry streak is only
+	 * ended by the drop if it is the item's latest.
+	 * @param position Number of counted sorts that happened before this one
+	 * @param itemId The item ID that was looted
+	 * @param itemName The item name
+	 * @param expectedDropRate Expected drop rate for this item
+	 * @param quantity Number of items looted
+	 */
+	public void recordEarlierLoot(int position, int itemId, String itemName, double expectedDropRate, int quantity)
+	{
+		checkMutable();
+		position = Math.max(0, Math.min(totalLoots, position));
+		int ordinal = registry.ordinal(itemId);
+		if (!present.get(ordinal))
+		{
+			add(ordinal, itemName, expectedDropRate);
+		}
+
+		for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1))
+		{
+			if (lastSeenAt[i] > position)
+			{
+				lastSeenAt[i]++;
+			}
+		}
+		totalLoots++;
+		dropCounts[ordinal]++;
+		quantities[ordinal] += quantity;
+
+		// Sort numbers start at 1; a drop that splits an earlier streak cannot make it longer
+		int sortNumber = position + 1;
+		if (sortNumber > lastSeenAt[ordinal])
+		{
+			longestDryStreaks[ordinal] = Math.max(longestDryStreaks[ordinal], sortNumber - lastSeenAt[ordinal] - 1);
+			lastSeenAt[ordinal] = sortNumber;
+		}
+		dirty.set(true);
+		revision++;
+	}
+
+	/**
+	 * Set an item's counts outright, adding the item if needed. Used when loading saved data.
+	 * A new item's dry streak starts at the current total; see {@link #setDryStreak}.
+	 */
+	public void setItem(int itemId, String itemName, int dropCount, long totalQuantity, double expectedDropRate)
+	{
+		checkMutable();
+		int ordinal = registry.ordinal(itemId);
+		if (!present.get(ordinal))
+		{
+			add(ordinal, itemName, expectedDropRate);
+			lastSeenAt[ordinal] = totalLoots;
+		}
+		dropCounts[ordinal] = dropCount;
+		quantities[ordinal] = totalQuantity;
+	}
+
+	/**
+	 * Set an item's dry streak state, for items added with {@link #setItem}
+	 * @param itemId The item ID
+	 * @param lastSeenAt Sort number of the item's last drop
+	 * @param longestDryStreak Most sorts between two drops of the item
+	 */
+	public void setDryStreak(int itemId, int lastSeenAt, int longestDryStreak)
+	{
+		checkMutable();
+		int ordinal = registry.find(itemId);
+		if (ordinal >= 0 && present.get(ordinal))
+		{
+			this.lastSeenAt[ordinal] = Math.max(0, Math.min(totalLoots, lastSeenAt));
+			this.longestDryStreaks[ordinal] = Math.max(0, longestDryStreak);
+		}
 	}
 
 	/**
@@ -84,7 +288,297 @@ public class SalvageData
 	 */
 	public void incrementTotalLoots()
 	{
+		checkMutable();
 		this.totalLoots++;
 		this.lastUpdated = System.currentTimeMillis();
+		dirty.set(true);
+		this.revision++;
+	}
+
+	/**
+	 * Mark this shipwreck's data as changed so that it is written on the next save
+	 */
+	public void markDirty()
+	{
+		dirty.set(true);
+	}
+
+	/**
+	 * Check whether this shipwreck's data changed since the last call, clearing the flag.
+	 * A change marked while this runs is never lost: it is either returned now or left set.
+	 * @return true if the data should be written
+	 */
+	public boolean consumeDirty()
+	{
+		return dirty.getAndSet(false);
+	}
+
+	/**
+	 * @return Whether this shipwreck's data changed since it was last written
+	 */
+	public boolean isDirty()
+	{
+		return dirty.get();
+	}
+
+	/**
+	 * Set whether this shipwreck's data still needs to be written
+	 */
+	public void setDirty(boolean dirty)
+	{
+		this.dirty.set(dirty);
+	}
+
+	/**
+	 * Move an item's counts to a different item ID, merging with any existing entry.
+	 * Used to re-key items that were recorded under a fallback ID.
+	 * @param oldItemId The item ID the counts are currently recorded under
+	 * @param newItemId The item ID to record them under
+	 */
+	public void remapItem(int oldItemId, int newItemId)
+	{
+		checkMutable();
+		int oldOrdinal = registry.find(oldItemId);
+		if (oldOrdinal < 0 || !present.get(oldOrdinal) || oldItemId == newItemId)
+		{
+			return;
+		}
+
+		String name = names[oldOrdinal];
+		double expectedDropRate = expectedRates[oldOrdinal];
+		int dropCount = dropCounts[oldOrdinal];
+		long totalQuantity = quantities[oldOrdinal];
+		int seenAt = lastSeenAt[oldOrdinal];
+		int longestDryStreak = longestDryStreaks[oldOrdinal];
+		remove(oldOrdinal);
+
+		int newOrdinal = registry.ordinal(newItemId);
+		if (present.get(newOrdinal))
+		{
+			dropCount += dropCounts[newOrdinal];
+			totalQuantity += quantities[newOrdinal];
+			seenAt = Math.max(seenAt, lastSeenAt[newOrdinal]);
+			longestDryStreak = Math.max(longestDryStreak, longestDryStreaks[newOrdinal]);
+			remove(newOrdinal);
+		}
+
+		add(newOrdinal, name, expectedDropRate);
+		dropCounts[newOrdinal] = dropCount;
+		quantities[newOrdinal] = totalQuantity;
+		lastSeenAt[newOrdinal] = seenAt;
+		longestDryStreaks[newOrdinal] = longestDryStreak;
+		dirty.set(true);
+		revision++;
+	}
+
+	/**
+	 * @return Read-only view of the items by item ID; each access creates a new {@link SalvageItem}
+	 */
+	public Map<Integer, SalvageItem> getItems()
+	{
+		return itemView;
+	}
+
+	/**
+	 * @return Number of distinct items recorded
+	 */
+	public int getItemCount()
+	{
+		return itemCount;
+	}
+
+	/**
+	 * Iterate the items by ordinal: {@code for (int o = nextItemOrdinal(0); o >= 0; o = nextItemOrdinal(o + 1))}
+	 * @return The first ordinal at or after {@code fromOrdinal} that holds an item, or -1
+	 */
+	public int nextItemOrdinal(int fromOrdinal)
+	{
+		return present.nextSetBit(fromOrdinal);
+	}
+
+	/**
+	 * @return true if an item is recorded at an ordinal
+	 */
+	public boolean hasItemAt(int ordinal)
+	{
+		return present.get(ordinal);
+	}
+
+	/**
+	 * @return Drop count of the item at an ordinal
+	 */
+	public int getDropCountAt(int ordinal)
+	{
+		return dropCounts[ordinal];
+	}
+
+	/**
+	 * @return Total quantity received of the item at an ordinal
+	 */
+	public long getTotalQuantityAt(int ordinal)
+	{
+		return quantities[ordinal];
+	}
+
+	/**
+	 * @return Name of the item at an ordinal
+	 */
+	public String getItemNameAt(int ordinal)
+	{
+		return names[ordinal];
+	}
+
+	/**
+	 * @return Sort number of the last drop of the item at an ordinal
+	 */
+	public int getLastSeenAt(int ordinal)
+	{
+		return lastSeenAt[ordinal];
+	}
+
+	/**
+	 * @return Longest completed dry streak of the item at an ordinal
+	 */
+	public int getLongestDryStreakAt(int ordinal)
+	{
+		return longestDryStreaks[ordinal];
+	}
+
+	/**
+	 * @return A new item view for an ordinal that holds an item
+	 */
+	public SalvageItem getItemAt(int ordinal)
+	{
+		SalvageItem item = new SalvageItem(registry.getItemId(ordinal), names[ordinal], dropCounts[ordinal],
+			quantities[ordinal], expectedRates[ordinal]);
+		item.setLastSeenAt(lastSeenAt[ordinal]);
+		item.setLongestDryStreak(longestDryStreaks[ordinal]);
+		return item;
+	}
+
+	private void add(int ordinal, String itemName, double expectedDropRate)
+	{
+		if (ordinal >= dropCounts.length)
+		{
+			int length = Math.max(ordinal + 1, dropCounts.length + (dropCounts.length >> 1));
+			names = Arrays.copyOf(names, length);
+			dropCounts = Arrays.copyOf(dropCounts, length);
+			quantities = Arrays.copyOf(quantities, length);
+			expectedRates = Arrays.copyOf(expectedRates, length);
+			lastSeenAt = Arrays.copyOf(lastSeenAt, length);
+			longestDryStreaks = Arrays.copyOf(longestDryStreaks, length);
+		}
+
+		present.set(ordinal);
+		names[ordinal] = registry.intern(itemName);
+		dropCounts[ordinal] = 0;
+		quantities[ordinal] = 0;
+		expectedRates[ordinal] = expectedDropRate;
+		lastSeenAt[ordinal] = 0;
+		longestDryStreaks[ordinal] = 0;
+		itemCount++;
+	}
+
+	private void remove(int ordinal)
+	{
+		present.clear(ordinal);
+		names[ordinal] = null;
+		dropCounts[ordinal] = 0;
+		quantities[ordinal] = 0;
+		expectedRates[ordinal] = 0.0;
+		lastSeenAt[ordinal] = 0;
+		longestDryStreaks[ordinal] = 0;
+		itemCount--;
+	}
+
+	private void checkMutable()
+	{
+		if (frozen)
+		{
+			throw new UnsupportedOperationException("Snapshot salvage data cannot be changed");
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SalvageData(shipwreckType=" + shipwreckType + ", totalLoots=" + totalLoots + ", items=" + itemCount + ")";
+	}
+
+	/**
+	 * Read-only map view over the item arrays
+	 */
+	private class ItemView extends AbstractMap<Integer, SalvageItem>
+	{
+		private final Set<Map.Entry<Integer, SalvageItem>> entries = new AbstractSet<Map.Entry<Integer, SalvageItem>>()
+		{
+			@Override
+			public Iterator<Map.Entry<Integer, SalvageItem>> iterator()
+			{
+				return new Iterator<Map.Entry<Integer, SalvageItem>>()
+				{
+					private int next = present.nextSetBit(0);
+
+					@Override
+					public boolean hasNext()
+					{
+						return next >= 0;
+					}
+
+					@Override
+					public Map.Entry<Integer, SalvageItem> next()
+					{
+						if (next < 0)
+						{
+							throw new NoSuchElementException();
+						}
+						SalvageItem item = getItemAt(next);
+						next = present.nextSetBit(next + 1);
+						return new AbstractMap.SimpleImmutableEntry<>(item.getItemId(), item);
+					}
+				};
+			}
+
+			@Override
+			public int size()
+			{
+				return itemCount;
+			}
+		};
+
+		@Override
+		public Set<Map.Entry<Integer, SalvageItem>> entrySet()
+		{
+			return entries;
+		}
+
+		@Override
+		public SalvageItem get(Object key)
+		{
+			int ordinal = ordinalOf(key);
+			return ordinal >= 0 ? getItemAt(ordinal) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key)
+		{
+			return ordinalOf(key) >= 0;
+		}
+
+		@Override
+		public int size()
+		{
+			return itemCount;
+		}
+
+		private int ordinalOf(Object key)
+		{
+			if (!(key instanceof Integer))
+			{
+				return -1;
+			}
+			int ordinal = registry.find((Integer) key);
+			return ordinal >= 0 && present.get(ordinal) ? ordinal : -1;
+		}
 	}
 }
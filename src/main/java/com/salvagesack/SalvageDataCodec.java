@@ -0,0 +1,24 @@
+package com.salvagesack;
+
+/**
+ * Converts the salvage data of a single shipwreck to and from the string stored in
+ * RSProfile configuration
+ */
+public interface SalvageDataCodec
+{
+	/**
+	 * Encode salvage data for storage
+	 * @param data The shipwreck's salvage data
+	 * @return The encoded data
+	 */
+	String encode(SalvageData data);
+
+	/**
+	 * Decode stored salvage data
+	 * @param type The shipwreck type the data belongs to
+	 * @param encoded The encoded data
+	 * @return The decoded salvage data
+	 * @throws IllegalArgumentException if the data cannot be decoded
+	 */
+	SalvageData decode(ShipwreckType type, String encoded);
+}
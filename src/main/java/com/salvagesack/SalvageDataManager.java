@@ -1,23 +1,55 @@
 package com.salvagesack;
 
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.config.ConfigManager;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
 
 /**
  * Handles persistence of salvage tracking data between sessions using RSProfile configuration.
  * <p>
- * On first load, checks for existing file-based data and migrates it to the RSProfile format.
- * This ensures backwards compatibility with previous plugin versions.
+ * Each shipwreck type is stored under its own key, with a small manifest key listing the
+ * shipwrecks that have data. Only shipwrecks whose data changed since the last save are
+ * re-serialized.
+ * </p>
+ * <p>
+ * Every sort is also appended to a {@link LootJournal} under the data directory as it happens.
+ * Loading replays the journal on top of the stored shards, so drops recorded after the last
+ * save survive a crash. Once the journal grows past a size threshold, it is compacted after a
+ * save down to the events the saved shards do not yet include.
+ * </p>
+ * <p>
+ * Sorts are also kept in a {@link LootHistory} with their timestamps, for questions about when
+ * loot was received. The history is never compacted or reset.
+ * </p>
+ * <p>
+ * Storage goes through {@link ProfileConfig}, which is RuneLite's RSProfile configuration
+ * outside of tests.
+ * </p>
+ * <p>
+ * On first load, checks for data in the older single-key format or the file-based format and
+ * migrates it to the sharded RSProfile format. This ensures backwards compatibility with
+ * previous plugin versions.
  * </p>
  */
 @Slf4j
@@ -25,11 +57,71 @@ public class SalvageDataManager
 {
 	private static final String CONFIG_GROUP = "salvagesack";
 	private static final String DATA_KEY = "salvageData";
+	private static final String SHARD_KEY_PREFIX = "salvageData.";
+	private static final String UNREADABLE_SUFFIX = ".unreadable";
+	private static final String MANIFEST_KEY = "salvageDataManifest";
+	private static final int MANIFEST_VERSION = 1;
+	private static final String ITEM_IDS_KEY = "itemIds";
 	private static final String DATA_FILE = "salvage-data.json";
+	private static final long JOURNAL_COMPACT_THRESHOLD = 256 * 1024;
+
+	private static final Type ITEM_ID_MAP_TYPE = new TypeToken<Map<String, Integer>>() {}.getType();
 
 	private final Gson gson;
-	private final ConfigManager configManager;
+	private final ProfileConfig profileConfig;
 	private final File legacyDataFile;
+	private final File dataDirectory;
+	private final ItemRegistry registry;
+	private final JsonSalvageCodec jsonCodec;
+	private final CompactSalvageCodec compactCodec;
+	private final long journalCompactThreshold;
+
+	/**
+	 * Format used when writing shards; shards in either format can be read
+	 */
+	@Setter
+	private Supplier<StorageFormat> storageFormat = () -> StorageFormat.JSON;
+
+	/**
+	 * Shipwreck types whose shard holds data that was loaded or saved
+	 */
+	private final Set<ShipwreckType> storedShards = EnumSet.noneOf(ShipwreckType.class);
+
+	/**
+	 * Shipwreck types listed in the stored manifest
+	 */
+	private final Set<ShipwreckType> manifestShards = EnumSet.noneOf(ShipwreckType.class);
+
+	/**
+	 * Shipwreck types whose shard could not be decoded. They stay stored and listed, so a
+	 * failed load never deletes data; a reset or new data for the shipwreck replaces them.
+	 */
+	private final Set<ShipwreckType> unreadableShards = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Unreadable shards that were reset and should be removed by the next save
+	 */
+	private final Set<ShipwreckType> discardedShards = ConcurrentHashMap.newKeySet();
+	private StorageFormat storedFormat;
+
+	/**
+	 * Journal sequence number included in each stored shard
+	 */
+	private final Map<ShipwreckType, Long> storedJournalSeqs = new EnumMap<>(ShipwreckType.class);
+
+	/**
+	 * Sequence number of the latest journaled reset of each shipwreck by ordinal, and of all
+	 * shipwrecks in the last slot
+	 */
+	private final AtomicLongArray resetSeqs = new AtomicLongArray(ShipwreckType.values().length + 1);
+
+	private volatile LootJournal journal;
+
+	/**
+	 * Timestamped history of every sort, or null if it could not be opened
+	 */
+	@Getter
+	private volatile LootHistory history;
 
 	/**
 	 * Create a SalvageDataManager using RSProfile configuration for persistence.
@@ -37,47 +129,442 @@ public class SalvageDataManager
 	 * @param configManager RuneLite's ConfigManager for RSProfile storage
 	 * @param legacyDataDirectory Directory where legacy file-based data may exist (for migration)
 	 * @param gson Gson instance for JSON serialization
+	 * @param registry Item registry for the loaded data and history
+	 */
+	public SalvageDataManager(ConfigManager configManager, File legacyDataDirectory, Gson gson, ItemRegistry registry)
+	{
+		this(ProfileConfig.of(configManager), legacyDataDirectory, gson, registry, JOURNAL_COMPACT_THRESHOLD);
+	}
+
+	/**
+	 * @param journalCompactThreshold Journal size in bytes above which a save compacts it
 	 */
-	public SalvageDataManager(ConfigManager configManager, File legacyDataDirectory, Gson gson)
+	SalvageDataManager(ProfileConfig profileConfig, File legacyDataDirectory, Gson gson, ItemRegistry registry,
+		long journalCompactThreshold)
 	{
-		this.configManager = configManager;
+		this.profileConfig = profileConfig;
 		this.gson = gson;
+		this.registry = registry;
 		this.legacyDataFile = legacyDataDirectory != null ? new File(legacyDataDirectory, DATA_FILE) : null;
+		this.dataDirectory = legacyDataDirectory;
+		this.jsonCodec = new JsonSalvageCodec(gson, registry);
+		this.compactCodec = new CompactSalvageCodec(registry);
+		this.journalCompactThreshold = journalCompactThreshold;
+	}
+
+	/**
+	 * Record one sort in a shipwreck's data and append it to the loot journal
+	 * @param data The shipwreck's salvage data
+	 * @param itemId The item ID that was looted
+	 * @param itemName The item name
+	 * @param expectedDropRate Expected drop rate for this item
+	 * @param quantity Number of items looted
+	 */
+	public void recordLoot(SalvageData data, int itemId, String itemName, double expectedDropRate, int quantity)
+	{
+		long timestamp = System.currentTimeMillis();
+
+		// Only called on the client thread. Saves encode snapshots from SalvageDataStore.publish(), which reads
+		// the journal sequence before copying the data, so every event up to a snapshot's sequence is in its counts
+		data.incrementTotalLoots();
+		data.recordLoot(itemId, itemName, expectedDropRate, quantity);
+		appendToJournal(data, itemId, itemName, quantity, timestamp);
+		appendToHistory(data, itemId, quantity, timestamp);
+	}
+
+	/**
+	 * Record a sort that happened before some of the shipwreck's counted sorts, such as one
+	 * imported from a chat log, in its data, the loot journal and the history.
+	 * <p>
+	 * A journal replay applies the sort as the latest one, so only dry streaks can differ from
+	 * the recorded data if the client exits before the next save.
+	 * </p>
+	 * @param data The shipwreck's salvage data
+	 * @param position Number of counted sorts that happened before this one
+	 * @param itemId The item ID that was looted
+	 * @param itemName The item name
+	 * @param expectedDropRate Expected drop rate for this item
+	 * @param quantity Number of items looted
+	 * @param timestamp When the sort happened (milliseconds since epoch)
+	 */
+	public void recordEarlierLoot(SalvageData data, int position, int itemId, String itemName,
+		double expectedDropRate, int quantity, long timestamp)
+	{
+		data.recordEarlierLoot(position, itemId, itemName, expectedDropRate, quantity);
+		data.setLastUpdated(Math.max(data.getLastUpdated(), timestamp));
+		appendToJournal(data, itemId, itemName, quantity, timestamp);
+		appendToHistory(data, itemId, quantity, timestamp);
+	}
+
+	private void appendToJournal(SalvageData data, int itemId, String itemName, int quantity, long timestamp)
+	{
+		LootJournal currentJournal = journal;
+		if (currentJournal != null)
+		{
+			long seq = currentJournal.appendLoot(data.getShipwreckType(), itemId, itemName, quantity, timestamp);
+			if (seq > 0)
+			{
+				data.setJournalSeq(seq);
+			}
+		}
+	}
+
+	private void appendToHistory(SalvageData data, int itemId, int quantity, long timestamp)
+	{
+		LootHistory currentHistory = history;
+		if (currentHistory != null)
+		{
+			currentHistory.append(data.getShipwreckType(), itemId, quantity, timestamp);
+		}
+	}
+
+	/**
+	 * Record a reset of one shipwreck's data in the loot journal
+	 * @param type The shipwreck type that was reset, or null if all data was reset
+	 */
+	public void recordReset(ShipwreckType type)
+	{
+		for (ShipwreckType unreadable : unreadableShards)
+		{
+			if ((type == null || type == unreadable) && unreadableShards.remove(unreadable))
+			{
+				discardedShards.add(unreadable);
+			}
+		}
+
+		LootJournal currentJournal = journal;
+		if (currentJournal != null)
+		{
+			noteReset(type, currentJournal.appendReset(type, System.currentTimeMillis()));
+		}
+	}
+
+	private void noteReset(ShipwreckType type, long seq)
+	{
+		if (seq > 0)
+		{
+			resetSeqs.set(type != null ? type.ordinal() : resetSeqs.length() - 1, seq);
+		}
+	}
+
+	/**
+	 * @return Sequence number of the last event in the loot journal, or 0 if it is not open
+	 */
+	public long getJournalSeq()
+	{
+		LootJournal currentJournal = journal;
+		return currentJournal != null ? currentJournal.getLastSeq() : 0;
 	}
 
 	/**
-	 * Save salvage data to RSProfile configuration
+	 * Save salvage data to RSProfile configuration.
+	 * Only shipwrecks marked dirty (or not yet stored) are written, and shards for
+	 * shipwrecks no longer in the map are removed. Changing the storage format
+	 * rewrites every shipwreck.
+	 * @param dataMap A snapshot of the data, which is not changed while it is saved
+	 * @param journalSeq Last loot journal sequence number included in the snapshot; later
+	 *                   events are kept when the journal is compacted
 	 */
-	public void saveData(Map<ShipwreckType, SalvageData> dataMap)
+	public synchronized void saveData(Map<ShipwreckType, SalvageData> dataMap, long journalSeq)
 	{
-		SaveDataWrapper wrapper = new SaveDataWrapper();
-		wrapper.shipwrecks = new HashMap<>();
+		StorageFormat format = storageFormat.get();
+		boolean formatChanged = format != storedFormat;
+		SalvageDataCodec codec = format == StorageFormat.COMPACT ? compactCodec : jsonCodec;
+		LootJournal currentJournal = journal;
 
+		int written = 0;
 		for (Map.Entry<ShipwreckType, SalvageData> entry : dataMap.entrySet())
 		{
-			wrapper.shipwrecks.put(entry.getKey().name(), SalvageDataDto.fromSalvageData(entry.getValue()));
+			ShipwreckType type = entry.getKey();
+			SalvageData data = entry.getValue();
+			if (!data.consumeDirty() && storedShards.contains(type) && !formatChanged)
+			{
+				continue;
+			}
+
+			try
+			{
+				String encoded = codec.encode(data);
+				long shardSeq = data.getJournalSeq();
+				if (unreadableShards.remove(type))
+				{
+					// Keep what could not be read instead of overwriting it
+					profileConfig.set(shardKey(type) + UNREADABLE_SUFFIX, profileConfig.get(shardKey(type)));
+				}
+				profileConfig.set(shardKey(type), encoded);
+				storedJournalSeqs.put(type, shardSeq);
+				written++;
+			}
+			catch (RuntimeException e)
+			{
+				// Try again on the next save
+				data.markDirty();
+				throw e;
+			}
+		}
+
+		for (Iterator<ShipwreckType> it = discardedShards.iterator(); it.hasNext(); )
+		{
+			ShipwreckType type = it.next();
+			it.remove();
+			if (!dataMap.containsKey(type))
+			{
+				profileConfig.unset(shardKey(type));
+			}
+		}
+
+		for (ShipwreckType type : storedShards)
+		{
+			if (!dataMap.containsKey(type))
+			{
+				profileConfig.unset(shardKey(type));
+				storedJournalSeqs.remove(type);
+			}
+		}
+		storedShards.clear();
+		storedShards.addAll(dataMap.keySet());
+
+		Set<ShipwreckType> shards = EnumSet.noneOf(ShipwreckType.class);
+		shards.addAll(dataMap.keySet());
+		shards.addAll(unreadableShards);
+		if (!shards.equals(manifestShards) || formatChanged)
+		{
+			Manifest manifest = new Manifest();
+			manifest.version = MANIFEST_VERSION;
+			manifest.format = format.name();
+			manifest.shipwrecks = new ArrayList<>();
+			for (ShipwreckType type : shards)
+			{
+				manifest.shipwrecks.add(type.name());
+			}
+			profileConfig.set(MANIFEST_KEY, gson.toJson(manifest));
+			manifestShards.clear();
+			manifestShards.addAll(shards);
+			storedFormat = format;
 		}
 
-		String jsonData = gson.toJson(wrapper);
-		configManager.setRSProfileConfiguration(CONFIG_GROUP, DATA_KEY, jsonData);
-		log.debug("Saved salvage data to RSProfile configuration");
+		log.debug("Saved {} of {} shipwrecks to RSProfile configuration", written, dataMap.size());
+
+		if (currentJournal != null && currentJournal.size() > journalCompactThreshold)
+		{
+			compactJournal(currentJournal, journalSeq);
+		}
 	}
 
 	/**
-	 * Load salvage data from RSProfile configuration.
-	 * If no RSProfile data exists, attempts to migrate from legacy file format.
+	 * Drop journal events that the stored shards already include
+	 * @param journalSeq Last journal sequence number included in the saved snapshot
 	 */
-	public Map<ShipwreckType, SalvageData> loadData()
+	private void compactJournal(LootJournal currentJournal, long journalSeq)
 	{
-		// First try to load from RSProfile configuration
-		String jsonData = configManager.getRSProfileConfiguration(CONFIG_GROUP, DATA_KEY);
+		// Make sure the shards are durable before dropping the events they replace
+		profileConfig.flush();
+
+		Map<ShipwreckType, Long> covered = new EnumMap<>(storedJournalSeqs);
+		try
+		{
+			currentJournal.compact(entry -> {
+				if (entry.getSeq() > journalSeq)
+				{
+					return true;
+				}
 
+				if (entry.getKind() == LootJournal.KIND_RESET)
+				{
+					// Still needed while a shard it clears was stored before it
+					for (Map.Entry<ShipwreckType, Long> shard : covered.entrySet())
+					{
+						if ((entry.getShipwreck() == null || entry.getShipwreck() == shard.getKey())
+							&& shard.getValue() < entry.getSeq())
+						{
+							return true;
+						}
+					}
+					return false;
+				}
+
+				Long shardSeq = covered.get(entry.getShipwreck());
+				if (shardSeq != null)
+				{
+					return entry.getSeq() > shardSeq;
+				}
+				// No shard: dropped only if a later reset cleared it
+				return entry.getSeq() > Math.max(resetSeqs.get(entry.getShipwreck().ordinal()),
+					resetSeqs.get(resetSeqs.length() - 1));
+			});
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to compact loot journal", e);
+		}
+	}
+
+	/**
+	 * Load salvage data from RSProfile configuration and replay the loot journal on top of it.
+	 * If no sharded data exists, attempts to migrate from the single-key format
+	 * and then from the legacy file format. Also opens the profile's loot history.
+	 */
+	public synchronized Map<ShipwreckType, SalvageData> loadData()
+	{
+		close();
+		Map<ShipwreckType, SalvageData> dataMap = loadSnapshot();
+		for (int i = 0; i < resetSeqs.length(); i++)
+		{
+			resetSeqs.set(i, 0);
+		}
+		if (dataDirectory != null)
+		{
+			openJournal(dataMap);
+			openHistory();
+		}
+		return dataMap;
+	}
+
+	/**
+	 * Close the loot journal and history
+	 */
+	public void close()
+	{
+		LootJournal currentJournal = journal;
+		journal = null;
+		if (currentJournal != null)
+		{
+			currentJournal.close();
+		}
+
+		LootHistory currentHistory = history;
+		history = null;
+		if (currentHistory != null)
+		{
+			currentHistory.close();
+		}
+	}
+
+	/**
+	 * @return A per-profile file in the data directory
+	 */
+	private File profileFile(String prefix)
+	{
+		String profileKey = profileConfig.getProfileKey();
+		return new File(dataDirectory, prefix + (profileKey != null ? profileKey : "default") + ".bin");
+	}
+
+	/**
+	 * Open this profile's loot journal and apply any events the snapshot does not include
+	 */
+	private void openJournal(Map<ShipwreckType, SalvageData> dataMap)
+	{
+		LootJournal newJournal = new LootJournal(profileFile("loot-journal-").toPath());
+		try
+		{
+			int replayed = replay(newJournal.open(), dataMap);
+			if (replayed > 0)
+			{
+				log.info("Replayed {} salvage events from the loot journal", replayed);
+			}
+			journal = newJournal;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Failed to open loot journal, drops will only be saved periodically", e);
+			newJournal.close();
+		}
+	}
+
+	/**
+	 * Open this profile's loot history
+	 */
+	private void openHistory()
+	{
+		LootHistory newHistory = new LootHistory(profileFile("loot-history-").toPath(), registry);
+		try
+		{
+			newHistory.open();
+			history = newHistory;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Failed to open loot history", e);
+			newHistory.close();
+		}
+	}
+
+	/**
+	 * Apply journal events newer than each shipwreck's snapshot
+	 * @return Number of loot events applied
+	 */
+	private int replay(List<LootJournal.Entry> entries, Map<ShipwreckType, SalvageData> dataMap)
+	{
+		int replayed = 0;
+		for (LootJournal.Entry entry : entries)
+		{
+			if (entry.getKind() == LootJournal.KIND_RESET)
+			{
+				noteReset(entry.getShipwreck(), entry.getSeq());
+				for (ShipwreckType type : ShipwreckType.values())
+				{
+					SalvageData data = dataMap.get(type);
+					if ((entry.getShipwreck() == null || entry.getShipwreck() == type)
+						&& data != null && entry.getSeq() > data.getJournalSeq())
+					{
+						dataMap.remove(type);
+					}
+				}
+				continue;
+			}
+
+			if (unreadableShards.contains(entry.getShipwreck()))
+			{
+				// Kept in the journal; applying them to empty data would hide the stored shard
+				continue;
+			}
+
+			SalvageData data = dataMap.computeIfAbsent(entry.getShipwreck(), type -> new SalvageData(type, registry));
+			if (entry.getSeq() <= data.getJournalSeq())
+			{
+				continue;
+			}
+
+			data.incrementTotalLoots();
+			data.recordLoot(entry.getItemId(), entry.getItemName(), 0.0, entry.getQuantity());
+			data.setJournalSeq(entry.getSeq());
+			data.setLastUpdated(entry.getTimestamp());
+			replayed++;
+		}
+		return replayed;
+	}
+
+	/**
+	 * Load the last saved snapshot, migrating older formats if needed
+	 */
+	private Map<ShipwreckType, SalvageData> loadSnapshot()
+	{
+		storedShards.clear();
+		manifestShards.clear();
+		unreadableShards.clear();
+		discardedShards.clear();
+		storedJournalSeqs.clear();
+		storedFormat = null;
+
+		// First try to load the sharded format
+		String manifestJson = profileConfig.get(MANIFEST_KEY);
+		if (manifestJson != null && !manifestJson.isEmpty())
+		{
+			Map<ShipwreckType, SalvageData> dataMap = loadShards(manifestJson);
+			log.debug("Loaded {} shipwrecks from RSProfile configuration", dataMap.size());
+			return dataMap;
+		}
+
+		// Then the single-key format used before sharding
+		String jsonData = profileConfig.get(DATA_KEY);
 		if (jsonData != null && !jsonData.isEmpty())
 		{
 			Map<ShipwreckType, SalvageData> dataMap = parseJsonData(jsonData);
 			if (!dataMap.isEmpty())
 			{
-				log.debug("Loaded salvage data from RSProfile configuration");
+				log.info("Migrating single-key salvage data to per-shipwreck keys");
+				saveMigrated(dataMap);
+				profileConfig.unset(DATA_KEY);
 				return dataMap;
 			}
 		}
@@ -87,15 +574,15 @@ public class SalvageDataManager
 		if (!legacyData.isEmpty())
 		{
 			// Double-check RSProfile wasn't updated by another instance during file load
-			String existingData = configManager.getRSProfileConfiguration(CONFIG_GROUP, DATA_KEY);
-			if (existingData != null && !existingData.isEmpty())
+			String existingManifest = profileConfig.get(MANIFEST_KEY);
+			if (existingManifest != null && !existingManifest.isEmpty())
 			{
 				log.info("RSProfile data appeared during migration check, using RSProfile data");
-				return parseJsonData(existingData);
+				return loadShards(existingManifest);
 			}
 
 			log.info("Migrating legacy file data to RSProfile configuration");
-			saveData(legacyData);
+			saveMigrated(legacyData);
 			// Rename the old file to indicate migration is complete
 			renameLegacyFile();
 			return legacyData;
@@ -105,6 +592,140 @@ public class SalvageDataManager
 		return new HashMap<>();
 	}
 
+	/**
+	 * Write every shipwreck of migrated data to its shard
+	 */
+	private void saveMigrated(Map<ShipwreckType, SalvageData> dataMap)
+	{
+		for (SalvageData data : dataMap.values())
+		{
+			data.markDirty();
+		}
+		// Written before the journal is opened, so there are no events to compact against
+		saveData(dataMap, 0);
+	}
+
+	/**
+	 * Load the shards listed in the manifest
+	 */
+	private Map<ShipwreckType, SalvageData> loadShards(String manifestJson)
+	{
+		Map<ShipwreckType, SalvageData> dataMap = new HashMap<>();
+
+		Manifest manifest;
+		try
+		{
+			manifest = gson.fromJson(manifestJson, Manifest.class);
+		}
+		catch (Exception e)
+		{
+			log.error("Failed to parse salvage data manifest", e);
+			return dataMap;
+		}
+
+		if (manifest == null || manifest.shipwrecks == null)
+		{
+			return dataMap;
+		}
+
+		storedFormat = parseFormat(manifest.format);
+
+		for (String name : manifest.shipwrecks)
+		{
+			ShipwreckType type;
+			try
+			{
+				type = ShipwreckType.valueOf(name);
+			}
+			catch (IllegalArgumentException e)
+			{
+				log.warn("Unknown shipwreck type: {}", name);
+				continue;
+			}
+
+			String shard = profileConfig.get(shardKey(type));
+			if (shard == null || shard.isEmpty())
+			{
+				continue;
+			}
+
+			manifestShards.add(type);
+			try
+			{
+				// Shards are read in whichever format they were written in
+				SalvageDataCodec codec = shard.startsWith("{") ? jsonCodec : compactCodec;
+				SalvageData data = codec.decode(type, shard);
+				dataMap.put(type, data);
+				storedShards.add(type);
+				storedJournalSeqs.put(type, data.getJournalSeq());
+			}
+			catch (Exception e)
+			{
+				// Left stored and listed; saves do not remove it
+				log.error("Failed to parse salvage data for {}", type, e);
+				unreadableShards.add(type);
+			}
+		}
+
+		return dataMap;
+	}
+
+	private static StorageFormat parseFormat(String name)
+	{
+		if (name == null)
+		{
+			return StorageFormat.JSON;
+		}
+
+		try
+		{
+			return StorageFormat.valueOf(name);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	private static String shardKey(ShipwreckType type)
+	{
+		return SHARD_KEY_PREFIX + type.name();
+	}
+
+	/**
+	 * Save the item name to item ID index to RSProfile configuration
+	 * @param entries Normalized item name -> item ID
+	 */
+	public void saveItemIdIndex(Map<String, Integer> entries)
+	{
+		profileConfig.set(ITEM_IDS_KEY, gson.toJson(entries));
+		log.debug("Saved {} item ID mappings to RSProfile configuration", entries.size());
+	}
+
+	/**
+	 * Load the item name to item ID index from RSProfile configuration
+	 * @return Normalized item name -> item ID, empty if nothing was saved
+	 */
+	public Map<String, Integer> loadItemIdIndex()
+	{
+		String jsonData = profileConfig.get(ITEM_IDS_KEY);
+		if (jsonData == null || jsonData.isEmpty())
+		{
+			return new HashMap<>();
+		}
+
+		try
+		{
+			Map<String, Integer> entries = gson.fromJson(jsonData, ITEM_ID_MAP_TYPE);
+			return entries != null ? entries : new HashMap<>();
+		}
+		catch (Exception e)
+		{
+			log.error("Failed to parse item ID index JSON", e);
+			return new HashMap<>();
+		}
+	}
+
 	/**
 	 * Parse JSON data into a salvage data map
 	 */
@@ -118,12 +739,12 @@ public class SalvageDataManager
 
 			if (wrapper != null && wrapper.shipwrecks != null)
 			{
-				for (Map.Entry<String, SalvageDataDto> entry : wrapper.shipwrecks.entrySet())
+				for (Map.Entry<String, JsonSalvageCodec.SalvageDataDto> entry : wrapper.shipwrecks.entrySet())
 				{
 					try
 					{
 						ShipwreckType type = ShipwreckType.valueOf(entry.getKey());
-						SalvageData data = entry.getValue().toSalvageData(type);
+						SalvageData data = entry.getValue().toSalvageData(type, registry);
 						dataMap.put(type, data);
 					}
 					catch (IllegalArgumentException e)
@@ -159,12 +780,12 @@ public class SalvageDataManager
 
 			if (wrapper != null && wrapper.shipwrecks != null)
 			{
-				for (Map.Entry<String, SalvageDataDto> entry : wrapper.shipwrecks.entrySet())
+				for (Map.Entry<String, JsonSalvageCodec.SalvageDataDto> entry : wrapper.shipwrecks.entrySet())
 				{
 					try
 					{
 						ShipwreckType type = ShipwreckType.valueOf(entry.getKey());
-						SalvageData data = entry.getValue().toSalvageData(type);
+						SalvageData data = entry.getValue().toSalvageData(type, registry);
 						dataMap.put(type, data);
 					}
 					catch (IllegalArgumentException e)
@@ -176,7 +797,7 @@ public class SalvageDataManager
 
 			log.info("Loaded {} shipwreck types from legacy file: {}", dataMap.size(), legacyDataFile.getAbsolutePath());
 		}
-		catch (IOException e)
+		catch (Exception e)
 		{
 			log.error("Failed to load legacy salvage data file", e);
 		}
@@ -208,84 +829,78 @@ public class SalvageDataManager
 	}
 
 	/**
-	 * Wrapper class for the root JSON object
+	 * Lists the shipwreck types that have a shard key
+	 */
+	private static class Manifest
+	{
+		int version;
+		String format;
+		List<String> shipwrecks;
+	}
+
+	/**
+	 * Wrapper class for the root JSON object of the single-key and legacy file formats
 	 */
 	private static class SaveDataWrapper
 	{
-		Map<String, SalvageDataDto> shipwrecks;
+		Map<String, JsonSalvageCodec.SalvageDataDto> shipwrecks;
 	}
 
 	/**
-	 * Data Transfer Object for serialization
+	 * The RSProfile configuration keys the data is stored under
 	 */
-	private static class SalvageDataDto
+	interface ProfileConfig
 	{
-		int totalLoots;
-		Map<String, SalvageItemDto> items;
+		String get(String key);
 
-		static SalvageDataDto fromSalvageData(SalvageData data)
-		{
-			SalvageDataDto dto = new SalvageDataDto();
-			dto.totalLoots = data.getTotalLoots();
-			dto.items = new HashMap<>();
-			
-			for (Map.Entry<Integer, SalvageItem> entry : data.getItems().entrySet())
-			{
-				dto.items.put(String.valueOf(entry.getKey()), SalvageItemDto.fromSalvageItem(entry.getValue()));
-			}
-			
-			return dto;
-		}
+		void set(String key, String value);
+
+		void unset(String key);
+
+		/**
+		 * @return Key of the current RuneScape profile, or null if there is none
+		 */
+		String getProfileKey();
 
-		SalvageData toSalvageData(ShipwreckType type)
+		/**
+		 * Write pending changes to disk
+		 */
+		void flush();
+
+		static ProfileConfig of(ConfigManager configManager)
 		{
-			Map<Integer, SalvageItem> itemsMap = new ConcurrentHashMap<>();
-			
-			if (items != null)
+			return new ProfileConfig()
 			{
-				for (Map.Entry<String, SalvageItemDto> entry : items.entrySet())
+				@Override
+				public String get(String key)
 				{
-					try
-					{
-						int itemId = Integer.parseInt(entry.getKey());
-						SalvageItem item = entry.getValue().toSalvageItem(itemId);
-						itemsMap.put(itemId, item);
-					}
-					catch (NumberFormatException e)
-					{
-						log.warn("Invalid item ID format: {}", entry.getKey());
-					}
+					return configManager.getRSProfileConfiguration(CONFIG_GROUP, key);
 				}
-			}
-			
-			return new SalvageData(type, totalLoots, itemsMap);
-		}
-	}
 
-	/**
-	 * Data Transfer Object for SalvageItem
-	 */
-	private static class SalvageItemDto
-	{
-		String itemName;
-		int dropCount;
-		int totalQuantity;
-		double expectedDropRate;
+				@Override
+				public void set(String key, String value)
+				{
+					configManager.setRSProfileConfiguration(CONFIG_GROUP, key, value);
+				}
 
-		static SalvageItemDto fromSalvageItem(SalvageItem item)
-		{
-			SalvageItemDto dto = new SalvageItemDto();
-			dto.itemName = item.getItemName();
-			dto.dropCount = item.getDropCount();
-			dto.totalQuantity = item.getTotalQuantity();
-			dto.expectedDropRate = item.getExpectedDropRate();
-			return dto;
-		}
+				@Override
+				public void unset(String key)
+				{
+					configManager.unsetRSProfileConfiguration(CONFIG_GROUP, key);
+				}
 
-		SalvageItem toSalvageItem(int itemId)
-		{
-			int qty = totalQuantity > 0 ? totalQuantity : dropCount;
-			return new SalvageItem(itemId, itemName, dropCount, qty, expectedDropRate);
+				@Override
+				public String getProfileKey()
+				{
+					return configManager.getRSProfileKey();
+				}
+
+				@Override
+				public void flush()
+				{
+					configManager.sendConfig();
+				}
+			};
 		}
 	}
 }
@@ -0,0 +1,203 @@
+package com.salvagesack;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Write-behind saver that coalesces save requests and performs them on a background executor.
+ * <p>
+ * {@link #requestSave()} only marks the data dirty. The save runs once no further requests
+ * have arrived for the debounce window, or once the data has been dirty for the max staleness
+ * bound, whichever comes first. Any number of requests in between result in a single save.
+ * </p>
+ * <p>
+ * The executor should be single-threaded so that saves never overlap. {@link #flush()} performs
+ * any pending save on the calling thread and is used for the final save on shutdown. A save
+ * that fails leaves the data dirty and is retried after the debounce window.
+ * </p>
+ */
+@Slf4j
+public class SalvageDataSaver
+{
+	private final TaskScheduler scheduler;
+	private final LongSupplier clock;
+	private final Runnable saveAction;
+	private final IntSupplier debounceMillis;
+	private final IntSupplier maxStalenessMillis;
+
+	private final Object lock = new Object();
+	private final Object saveLock = new Object();
+	private boolean dirty;
+	private long firstDirtyAt;
+	private long lastRequestAt;
+
+	private final AtomicLong requestedSaves = new AtomicLong();
+	private final AtomicLong coalescedSaves = new AtomicLong();
+	private final AtomicLong performedSaves = new AtomicLong();
+
+	/**
+	 * @param executor Single-threaded executor to run saves on
+	 * @param saveAction Performs the actual save
+	 * @param debounceMillis Quiet period after the last request before saving
+	 * @param maxStalenessMillis Upper bound on how long data may stay dirty
+	 */
+	public SalvageDataSaver(ScheduledExecutorService executor, Runnable saveAction,
+		IntSupplier debounceMillis, IntSupplier maxStalenessMillis)
+	{
+		this(TaskScheduler.of(executor), System::currentTimeMillis, saveAction, debounceMillis, maxStalenessMillis);
+	}
+
+	/**
+	 * @param scheduler Schedules save timers; the tasks must run one at a time
+	 * @param clock Current time in milliseconds
+	 */
+	SalvageDataSaver(TaskScheduler scheduler, LongSupplier clock, Runnable saveAction,
+		IntSupplier debounceMillis, IntSupplier maxStalenessMillis)
+	{
+		this.scheduler = scheduler;
+		this.clock = clock;
+		this.saveAction = saveAction;
+		this.debounceMillis = debounceMillis;
+		this.maxStalenessMillis = maxStalenessMillis;
+	}
+
+	/**
+	 * Mark the data dirty and schedule a save if one is not already pending
+	 */
+	public void requestSave()
+	{
+		requestedSaves.incrementAndGet();
+		synchronized (lock)
+		{
+			long now = clock.getAsLong();
+			lastRequestAt = now;
+			if (dirty)
+			{
+				// Will be written by the save that is already scheduled
+				coalescedSaves.incrementAndGet();
+				return;
+			}
+
+			dirty = true;
+			firstDirtyAt = now;
+			schedule(Math.min(debounceMillis.getAsInt(), maxStalenessMillis.getAsInt()));
+		}
+	}
+
+	/**
+	 * Scheduled task: save if the data has been quiet for the debounce window or has
+	 * reached the staleness bound, otherwise check again when the earlier of the two is due
+	 */
+	private void onTimer()
+	{
+		synchronized (lock)
+		{
+			if (!dirty)
+			{
+				return;
+			}
+
+			long now = clock.getAsLong();
+			long untilQuiet = lastRequestAt + debounceMillis.getAsInt() - now;
+			long untilStale = firstDirtyAt + maxStalenessMillis.getAsInt() - now;
+			if (untilQuiet > 0 && untilStale > 0)
+			{
+				schedule(Math.min(untilQuiet, untilStale));
+				return;
+			}
+		}
+
+		flush();
+	}
+
+	private void schedule(long delayMillis)
+	{
+		try
+		{
+			scheduler.schedule(this::onTimer, Math.max(0, delayMillis));
+		}
+		catch (Exception e)
+		{
+			// Executor is shutting down; the final flush will pick this up
+			log.debug("Unable to schedule save: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Perform the pending save, if any, on the calling thread
+	 */
+	public void flush()
+	{
+		synchronized (saveLock)
+		{
+			synchronized (lock)
+			{
+				if (!dirty)
+				{
+					return;
+				}
+				dirty = false;
+			}
+
+			try
+			{
+				saveAction.run();
+				performedSaves.incrementAndGet();
+			}
+			catch (Exception e)
+			{
+				log.warn("Failed to save salvage data", e);
+				retry();
+			}
+		}
+	}
+
+	/**
+	 * Mark the data dirty again after a failed save and try again once the debounce window passes
+	 */
+	private void retry()
+	{
+		synchronized (lock)
+		{
+			long now = clock.getAsLong();
+			lastRequestAt = now;
+			if (dirty)
+			{
+				// A request during the save already scheduled one
+				return;
+			}
+
+			dirty = true;
+			firstDirtyAt = now;
+			schedule(debounceMillis.getAsInt());
+		}
+	}
+
+	/**
+	 * @return Number of save requests received
+	 */
+	public long getRequestedSaves()
+	{
+		return requestedSaves.get();
+	}
+
+	/**
+	 * @return Number of save requests absorbed by an already pending save
+	 */
+	public long getCoalescedSaves()
+	{
+		return coalescedSaves.get();
+	}
+
+	/**
+	 * @return Number of saves actually written
+	 */
+	public long getPerformedSaves()
+	{
+		return performedSaves.get();
+	}
+}
@@ -0,0 +1,133 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the live salvage data and publishes immutable snapshots of it for other threads.
+ * <p>
+ * The live data is owned by a single writer thread (the client thread) and must only be read
+ * or changed there. After a batch of changes the writer calls {@link #publish()}, which builds
+ * a snapshot and makes it visible through a volatile reference. Readers such as the panel and
+ * the saver call {@link #getSnapshot()} without locking and always see a consistent state.
+ * </p>
+ * <p>
+ * Snapshots share structure with the previous snapshot: a shipwreck whose data has not changed
+ * keeps the same {@link SalvageData} copy, so publishing after a sort only copies the sorted
+ * shipwreck, which is a handful of primitive arrays. Snapshot copies cannot be changed.
+ * </p>
+ * <p>
+ * Each snapshot also records the last loot journal sequence number at the time it was taken.
+ * The saver compacts the journal against that number, since events journaled after the
+ * snapshot are not in it.
+ * </p>
+ */
+public class SalvageDataStore
+{
+	private final Map<ShipwreckType, SalvageData> live = new EnumMap<>(ShipwreckType.class);
+
+	/**
+	 * The live data each shipwreck in the current snapshot was copied from; writer thread only
+	 */
+	private final Map<ShipwreckType, SalvageData> sources = new EnumMap<>(ShipwreckType.class);
+
+	private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), 0);
+
+	/**
+	 * Last loot journal sequence number; read on the writer thread when publishing
+	 */
+	@Setter
+	private LongSupplier journalSeq = () -> 0;
+
+	/**
+	 * @return The live data, for the writer thread only
+	 */
+	public Map<ShipwreckType, SalvageData> getLive()
+	{
+		return live;
+	}
+
+	/**
+	 * @return The most recently published snapshot; safe to read from any thread
+	 */
+	public Map<ShipwreckType, SalvageData> getSnapshot()
+	{
+		return snapshot.getData();
+	}
+
+	/**
+	 * @return The most recently published snapshot with its journal sequence number; safe to
+	 *         read from any thread
+	 */
+	public Snapshot getPublished()
+	{
+		return snapshot;
+	}
+
+	/**
+	 * Publish a snapshot of the live data. Called on the writer thread after a batch of changes.
+	 * @return The new snapshot
+	 */
+	public Map<ShipwreckType, SalvageData> publish()
+	{
+		// Taken first, so every event up to it is in the live data being copied
+		long seq = journalSeq.getAsLong();
+		Map<ShipwreckType, SalvageData> previous = snapshot.getData();
+		Map<ShipwreckType, SalvageData> next = new EnumMap<>(ShipwreckType.class);
+		for (Map.Entry<ShipwreckType, SalvageData> entry : live.entrySet())
+		{
+			ShipwreckType type = entry.getKey();
+			SalvageData data = entry.getValue();
+
+			// Data replaced by a reset starts again from revision 0, so match on identity too
+			SalvageData copy = sources.get(type) == data ? previous.get(type) : null;
+			next.put(type, freeze(data, copy));
+			sources.put(type, data);
+		}
+		sources.keySet().retainAll(live.keySet());
+
+		Map<ShipwreckType, SalvageData> published = Collections.unmodifiableMap(next);
+		snapshot = new Snapshot(published, seq);
+		return published;
+	}
+
+	/**
+	 * Copy one shipwreck's data, reusing the previous copy if nothing has changed
+	 * @param data The live data
+	 * @param previous The previous copy of the same live data, or null
+	 */
+	static SalvageData freeze(SalvageData data, SalvageData previous)
+	{
+		boolean dirty = data.consumeDirty();
+		if (previous != null && previous.getRevision() == data.getRevision() && !dirty)
+		{
+			return previous;
+		}
+
+		SalvageData copy = data.snapshot();
+		// The copy carries the change to the saver, which clears it once written
+		copy.setDirty(dirty);
+		return copy;
+	}
+
+	/**
+	 * A published snapshot and the journal events it includes
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static class Snapshot
+	{
+		private final Map<ShipwreckType, SalvageData> data;
+
+		/**
+		 * Last loot journal sequence number included in the data
+		 */
+		private final long journalSeq;
+	}
+}
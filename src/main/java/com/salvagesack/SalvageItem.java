@@ -4,6 +4,10 @@ import lombok.Data;
 
 /**
  * Represents a salvage item drop with tracking information
+ * <p>
+ * Items returned by {@link SalvageData#getItems()} are views created on access; changing
+ * one does not change the data it came from.
+ * </p>
  */
 @Data
 public class SalvageItem
@@ -11,8 +15,10 @@ public class SalvageItem
 	private final int itemId;
 	private final String itemName;
 	private int dropCount;      // Number of times this item was dropped (for rate calculation)
-	private int totalQuantity;  // Total quantity received (for display)
+	private long totalQuantity; // Total quantity received (for display)
 	private final double expectedDropRate; // Expected rate from wiki (e.g., 0.1 for 10%)
+	private int lastSeenAt;       // Sort number of the last drop
+	private int longestDryStreak; // Most sorts between two drops
 
 	public SalvageItem(int itemId, String itemName, double expectedDropRate)
 	{
@@ -27,7 +33,7 @@ public class SalvageItem
 	/**
 	 * Full constructor for deserialization with quantity
 	 */
-	public SalvageItem(int itemId, String itemName, int dropCount, int totalQuantity, double expectedDropRate)
+	public SalvageItem(int itemId, String itemName, int dropCount, long totalQuantity, double expectedDropRate)
 	{
 		this.itemId = itemId;
 		this.itemName = itemName;
@@ -68,6 +74,15 @@ public class SalvageItem
 		this.totalQuantity += amount;
 	}
 
+	/**
+	 * @param totalLoots Total number of loots from this shipwreck type
+	 * @return Number of sorts since this item last dropped
+	 */
+	public int getDryStreak(int totalLoots)
+	{
+		return Math.max(0, totalLoots - lastSeenAt);
+	}
+
 	/**
 	 * Calculate current drop rate based on total loots
 	 * @param totalLoots Total number of loots from this shipwreck type
@@ -0,0 +1,321 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import net.runelite.client.util.QuantityFormatter;
+
+import javax.swing.*;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ * A single item row in a shipwreck section: icon, name, current, expected and recent rates,
+ * dry streak, and count and value.
+ * <p>
+ * Rows are created once per item and updated in place; labels are only touched when the
+ * value they show has changed. The tooltip holds the details that do not fit in the row:
+ * the luck statistics, the recent windows, the longest dry streak and the item's price.
+ * </p>
+ */
+public class SalvageItemPanel extends JPanel
+{
+	private static final Color ROW_BACKGROUND = new Color(40, 40, 40);
+	private static final Color ROW_BORDER = new Color(60, 60, 60);
+	private static final Font NAME_FONT = new Font("Arial", Font.PLAIN, 11);
+	private static final Font CURRENT_FONT = new Font("Arial", Font.BOLD, 9);
+	private static final Font EXPECTED_FONT = new Font("Arial", Font.PLAIN, 9);
+	private static final Color RECENT_COLOR = new Color(170, 170, 170);
+	private static final Font COUNT_FONT = new Font("Arial", Font.BOLD, 11);
+
+	/**
+	 * Space below each row; painted by the parent rather than the row
+	 */
+	private static final int ROW_GAP = 2;
+
+	/**
+	 * Height of a row that shows an expected rate, including the gap below it
+	 */
+	static final int FULL_ROW_HEIGHT = 76 + ROW_GAP;
+	private static final int SHORT_ROW_HEIGHT = 65 + ROW_GAP;
+
+	@Getter
+	private final int itemId;
+
+	private final JLabel iconLabel;
+	private final JLabel nameLabel;
+	private final JLabel currentLabel;
+	private final JLabel expectedLabel;
+	private final JLabel recentLabel;
+	private final JLabel dryLabel;
+	private final JLabel countLabel;
+	private final JLabel valueLabel;
+
+	private double shownCurrentRate = -1;
+	private double shownExpectedRate = -1;
+	private long shownQuantity = -1;
+	private int shownRecentSorts = -1;
+	private double shownRecentRate = -1;
+	private int shownRecentMinutes = -1;
+	private double shownRecentTimeRate = -1;
+	private int shownDryStreak = -1;
+	private int shownDryPercentile = -2;
+	private int shownLongestDryStreak = -1;
+	private int shownPrice = -1;
+	private long shownValue = -1;
+	private String shownLuckDescription;
+	private Color shownLuckColor;
+
+	public SalvageItemPanel(int itemId, BufferedImage icon)
+	{
+		super(new BorderLayout(6, 0));
+		this.itemId = itemId;
+		setOpaque(false);
+		setBorder(new CompoundBorder(
+			new EmptyBorder(0, 0, ROW_GAP, 0),
+			new CompoundBorder(new LineBorder(ROW_BORDER, 1), new EmptyBorder(4, 6, 4, 6))
+		));
+
+		// Left: Icon - give it proper size for 32x32 icons
+		iconLabel = new JLabel();
+		if (icon != null)
+		{
+			iconLabel.setIcon(new ImageIcon(icon));
+		}
+		iconLabel.setPreferredSize(new Dimension(32, 32));
+		iconLabel.setMinimumSize(new Dimension(32, 32));
+
+		// Center: Name and rates
+		JPanel infoPanel = new JPanel();
+		infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+		infoPanel.setBackground(ROW_BACKGROUND);
+
+		nameLabel = new JLabel();
+		nameLabel.setForeground(Color.WHITE);
+		nameLabel.setFont(NAME_FONT);
+		nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+		currentLabel = new JLabel();
+		currentLabel.setFont(CURRENT_FONT);
+		currentLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+		// Expected rate is only shown if we have data
+		expectedLabel = new JLabel();
+		expectedLabel.setForeground(Color.LIGHT_GRAY);
+		expectedLabel.setFont(EXPECTED_FONT);
+		expectedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+		// Rates over the shipwreck's last sorts and last minutes
+		recentLabel = new JLabel();
+		recentLabel.setForeground(RECENT_COLOR);
+		recentLabel.setFont(EXPECTED_FONT);
+		recentLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+		// Sorts since the last drop
+		dryLabel = new JLabel();
+		dryLabel.setForeground(RECENT_COLOR);
+		dryLabel.setFont(EXPECTED_FONT);
+		dryLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+		infoPanel.add(nameLabel);
+		infoPanel.add(currentLabel);
+		infoPanel.add(expectedLabel);
+		infoPanel.add(recentLabel);
+		infoPanel.add(dryLabel);
+
+		// Right: Count (show total quantity received) and its value
+		JPanel totalPanel = new JPanel();
+		totalPanel.setLayout(new BoxLayout(totalPanel, BoxLayout.Y_AXIS));
+		totalPanel.setBackground(ROW_BACKGROUND);
+
+		countLabel = new JLabel();
+		countLabel.setForeground(Color.WHITE);
+		countLabel.setFont(COUNT_FONT);
+		countLabel.setAlignmentX(Component.RIGHT_ALIGNMENT);
+
+		valueLabel = new JLabel();
+		valueLabel.setForeground(RECENT_COLOR);
+		valueLabel.setFont(EXPECTED_FONT);
+		valueLabel.setAlignmentX(Component.RIGHT_ALIGNMENT);
+
+		totalPanel.add(countLabel);
+		totalPanel.add(valueLabel);
+
+		add(iconLabel, BorderLayout.WEST);
+		add(infoPanel, BorderLayout.CENTER);
+		add(totalPanel, BorderLayout.EAST);
+	}
+
+	/**
+	 * Replace the icon, for rows that are reused to draw different items
+	 */
+	public void setIcon(Icon icon)
+	{
+		iconLabel.setIcon(icon);
+	}
+
+	/**
+	 * Update the row with an item's latest values
+	 * @param itemName The item name
+	 * @param currentRate The player's actual drop rate
+	 * @param expectedRate The expected drop rate, or 0 if unknown
+	 * @param totalQuantity Total quantity received
+	 * @param luckColor Color for the current rate
+	 */
+	public void update(String itemName, double currentRate, double expectedRate, long totalQuantity, Color luckColor)
+	{
+		if (!itemName.equals(nameLabel.getText()))
+		{
+			nameLabel.setText(itemName);
+		}
+
+		if (currentRate != shownCurrentRate)
+		{
+			shownCurrentRate = currentRate;
+			currentLabel.setText(String.format("Current: %.2f%%", currentRate * 100));
+		}
+
+		if (!luckColor.equals(shownLuckColor))
+		{
+			shownLuckColor = luckColor;
+			currentLabel.setForeground(luckColor);
+		}
+
+		if (expectedRate != shownExpectedRate)
+		{
+			shownExpectedRate = expectedRate;
+			boolean hasExpected = expectedRate > 0;
+			if (hasExpected)
+			{
+				expectedLabel.setText(String.format("Expected: %.2f%%", expectedRate * 100));
+			}
+			expectedLabel.setVisible(hasExpected);
+
+			// Height depends on whether we have expected rate (6 lines) or not (5 lines)
+			int rowHeight = hasExpected ? FULL_ROW_HEIGHT : SHORT_ROW_HEIGHT;
+			setMaximumSize(new Dimension(Integer.MAX_VALUE, rowHeight));
+			setPreferredSize(new Dimension(0, rowHeight));
+			revalidate();
+		}
+
+		if (totalQuantity != shownQuantity)
+		{
+			shownQuantity = totalQuantity;
+			countLabel.setText("x" + totalQuantity);
+		}
+	}
+
+	/**
+	 * Set the tooltip lines explaining the luck color, e.g. the confidence interval and significance
+	 */
+	public void setLuckDescription(String description)
+	{
+		if (!Objects.equals(description, shownLuckDescription))
+		{
+			shownLuckDescription = description;
+			updateToolTip();
+		}
+	}
+
+	/**
+	 * Update the recent drop rates shown under the lifetime rates
+	 * @param sorts Number of sorts the sort window rate is over
+	 * @param sortRate Drop rate over those sorts
+	 * @param minutes Length of the time window
+	 * @param timeRate Drop rate over the sorts in the time window
+	 */
+	public void updateRecent(int sorts, double sortRate, int minutes, double timeRate)
+	{
+		if (sorts != shownRecentSorts || sortRate != shownRecentRate || minutes != shownRecentMinutes
+			|| timeRate != shownRecentTimeRate)
+		{
+			shownRecentSorts = sorts;
+			shownRecentRate = sortRate;
+			shownRecentMinutes = minutes;
+			shownRecentTimeRate = timeRate;
+			recentLabel.setText(String.format("Recent: %.2f%% · %.2f%%", sortRate * 100, timeRate * 100));
+			updateToolTip();
+		}
+	}
+
+	/**
+	 * Update the dry streak shown under the recent rates
+	 * @param streak Sorts since the item last dropped
+	 * @param percentile Percentage of players who would have had the drop sooner, or -1 if unknown
+	 * @param longest Longest dry streak, including the current one
+	 */
+	public void updateDryStreak(int streak, int percentile, int longest)
+	{
+		if (streak == shownDryStreak && percentile == shownDryPercentile && longest == shownLongestDryStreak)
+		{
+			return;
+		}
+
+		if (streak != shownDryStreak || percentile != shownDryPercentile)
+		{
+			dryLabel.setText(percentile >= 0
+				? String.format("Dry: %d sorts (%d%%)", streak, percentile)
+				: String.format("Dry: %d sorts", streak));
+		}
+		shownDryStreak = streak;
+		shownDryPercentile = percentile;
+		shownLongestDryStreak = longest;
+		updateToolTip();
+	}
+
+	/**
+	 * Update the Grand Exchange value shown under the count
+	 * @param price Price of one item, or 0 if unknown
+	 * @param totalQuantity Total quantity received
+	 */
+	public void updateValue(int price, long totalQuantity)
+	{
+		long value = price * totalQuantity;
+		if (price == shownPrice && value == shownValue)
+		{
+			return;
+		}
+
+		shownPrice = price;
+		shownValue = value;
+		valueLabel.setText(value > 0 ? QuantityFormatter.quantityToStackSize(value) + " gp" : "");
+		updateToolTip();
+	}
+
+	private void updateToolTip()
+	{
+		StringBuilder text = new StringBuilder("<html>");
+		if (shownLuckDescription != null)
+		{
+			text.append(shownLuckDescription).append("<br>");
+		}
+		text.append(String.format("Last %d sorts: %.2f%%<br>Last %d mins: %.2f%%", shownRecentSorts,
+			shownRecentRate * 100, shownRecentMinutes, shownRecentTimeRate * 100));
+		if (shownDryStreak >= 0)
+		{
+			text.append("<br>Dry for ").append(shownDryStreak).append(" sorts");
+			if (shownDryPercentile >= 0)
+			{
+				text.append(", drier than ").append(shownDryPercentile).append("% of players");
+			}
+			text.append("<br>Longest dry streak: ").append(Math.max(shownLongestDryStreak, shownDryStreak))
+				.append(" sorts");
+		}
+		if (shownPrice > 0)
+		{
+			text.append("<br>Value: ").append(QuantityFormatter.formatNumber(shownValue)).append(" gp (")
+				.append(QuantityFormatter.formatNumber(shownPrice)).append(" gp each)");
+		}
+		text.append("</html>");
+		setToolTipText(text.toString());
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		g.setColor(ROW_BACKGROUND);
+		g.fillRect(0, 0, getWidth(), getHeight() - ROW_GAP);
+	}
+}
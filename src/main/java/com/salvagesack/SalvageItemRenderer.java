@@ -0,0 +1,37 @@
+package com.salvagesack;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws item rows in the virtualized item list using a single reusable {@link SalvageItemPanel}.
+ * One renderer is shared by every shipwreck section.
+ */
+public class SalvageItemRenderer implements ListCellRenderer<SalvageItemRow>
+{
+	private final ItemIconManager iconManager;
+	private final SalvageItemPanel rowPanel = new SalvageItemPanel(-1, null);
+	private final Map<Integer, Icon> icons = new HashMap<>();
+
+	public SalvageItemRenderer(ItemIconManager iconManager)
+	{
+		this.iconManager = iconManager;
+	}
+
+	@Override
+	public Component getListCellRendererComponent(JList<? extends SalvageItemRow> list, SalvageItemRow row,
+		int index, boolean isSelected, boolean cellHasFocus)
+	{
+		rowPanel.setIcon(icons.computeIfAbsent(row.getItemId(), id -> new ImageIcon(iconManager.getItemIcon(id))));
+		rowPanel.update(row.getItemName(), row.getCurrentRate(), row.getExpectedRate(), row.getTotalQuantity(),
+			row.getLuckColor());
+		rowPanel.setLuckDescription(row.getLuckDescription());
+		rowPanel.updateRecent(row.getRecentSorts(), row.getRecentRate(), row.getRecentMinutes(),
+			row.getRecentTimeRate());
+		rowPanel.updateDryStreak(row.getDryStreak(), row.getDryPercentile(), row.getLongestDryStreak());
+		rowPanel.updateValue(row.getPrice(), row.getTotalQuantity());
+		return rowPanel;
+	}
+}
@@ -0,0 +1,28 @@
+package com.salvagesack;
+
+import lombok.Value;
+
+import java.awt.Color;
+
+/**
+ * The values shown for one item row in the virtualized item list
+ */
+@Value
+public class SalvageItemRow
+{
+	int itemId;
+	String itemName;
+	double currentRate;
+	double expectedRate;
+	long totalQuantity;
+	int price;
+	Color luckColor;
+	String luckDescription;
+	int recentSorts;
+	double recentRate;
+	int recentMinutes;
+	double recentTimeRate;
+	int dryStreak;
+	int dryPercentile;
+	int longestDryStreak;
+}
@@ -0,0 +1,20 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A salvage loot message parsed out of the chat box by {@link SalvageMessageParser}
+ * <p>
+ * Example: "You sort through the Martial salvage and find: 1 x Adamant 2h sword."
+ * yields salvage type "Martial", quantity 1 and item name "Adamant 2h sword".
+ * </p>
+ */
+@Getter
+@RequiredArgsConstructor
+public class SalvageMessage
+{
+	private final String salvageType;
+	private final int quantity;
+	private final String itemName;
+}
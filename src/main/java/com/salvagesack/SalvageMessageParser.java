@@ -0,0 +1,347 @@
+package com.salvagesack;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses salvage loot chat messages without regular expressions.
+ * <p>
+ * Recognises the same grammar as the regular expression
+ * {@code You sort through the (.+?) salvage and find: (\d+) x (.+?)\.} (case-insensitive)
+ * applied to the message after stripping {@code <tags>} and decoding the
+ * {@code &lt;}, {@code &gt;} and {@code &amp;} entities, and returns the same groups.
+ * </p>
+ * <p>
+ * Almost every chat message the client sees is not a salvage message, so parsing is
+ * split into a cheap keyword pre-filter and a single scanner over a reused buffer.
+ * Nothing is allocated unless the message is actually a salvage message.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; each thread should use its own parser.
+ * </p>
+ */
+public class SalvageMessageParser
+{
+	private static final char[] PREFIX = "you sort through the ".toCharArray();
+	private static final char[] KEYWORD = " salvage and find: ".toCharArray();
+	private static final char[] QUANTITY_SEPARATOR = " x ".toCharArray();
+
+	private char[] buffer = new char[128];
+
+	/**
+	 * Parse a raw chat message
+	 * @param message The message as received from the client, possibly containing tags
+	 * @return The parsed salvage message, or null if this is not a salvage message
+	 */
+	public SalvageMessage parse(String message)
+	{
+		if (message == null || !mightBeSalvage(message))
+		{
+			return null;
+		}
+
+		int length = stripMarkup(message);
+		return scan(buffer, length);
+	}
+
+	/**
+	 * Cheap pre-filter that rejects messages which cannot be salvage messages.
+	 * <p>
+	 * Messages without markup must contain the salvage keyword verbatim. Messages
+	 * with markup are passed through because tags may split the keyword.
+	 * </p>
+	 */
+	static boolean mightBeSalvage(String message)
+	{
+		int length = message.length();
+		if (length < PREFIX.length + KEYWORD.length + QUANTITY_SEPARATOR.length + 4)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < length; i++)
+		{
+			char c = message.charAt(i);
+			if (c == '<' || c == '&')
+			{
+				return true;
+			}
+			if (c == ' ' && regionMatches(message, i, KEYWORD))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@link #mightBeSalvage(String)} for UTF-8 text in a buffer, so lines read from a file can be
+	 * rejected before they are decoded. Every character it looks for is ASCII, so bytes compare
+	 * the same as characters.
+	 * @param from Index of the line's first byte
+	 * @param to Index after the line's last byte
+	 */
+	static boolean mightBeSalvage(ByteBuffer text, int from, int to)
+	{
+		if (to - from < PREFIX.length + KEYWORD.length + QUANTITY_SEPARATOR.length + 4)
+		{
+			return false;
+		}
+
+		for (int i = from; i < to; i++)
+		{
+			byte b = text.get(i);
+			if (b == '<' || b == '&')
+			{
+				return true;
+			}
+			if (b == ' ' && regionMatches(text, i, to, KEYWORD))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Copy the message into the buffer, removing tags and decoding entities
+	 * @return Number of characters written to the buffer
+	 */
+	private int stripMarkup(String message)
+	{
+		int length = message.length();
+		if (buffer.length < length)
+		{
+			buffer = new char[Math.max(length, buffer.length * 2)];
+		}
+
+		char[] buf = buffer;
+
+		// Remove <...> tags first, exactly like replaceAll("<[^>]*>", "")
+		int written = 0;
+		for (int i = 0; i < length; i++)
+		{
+			char c = message.charAt(i);
+			if (c == '<')
+			{
+				int close = message.indexOf('>', i + 1);
+				if (close >= 0)
+				{
+					i = close;
+					continue;
+				}
+			}
+			buf[written++] = c;
+		}
+
+		// Then decode entities in place; the output never outgrows the input
+		int out = 0;
+		for (int i = 0; i < written; i++)
+		{
+			char c = buf[i];
+			if (c == '&')
+			{
+				if (entityAt(buf, written, i, 'l', 't'))
+				{
+					buf[out++] = '<';
+					i += 3;
+					continue;
+				}
+				if (entityAt(buf, written, i, 'g', 't'))
+				{
+					buf[out++] = '>';
+					i += 3;
+					continue;
+				}
+				if (i + 4 < written && buf[i + 1] == 'a' && buf[i + 2] == 'm' && buf[i + 3] == 'p' && buf[i + 4] == ';')
+				{
+					buf[out++] = '&';
+					i += 4;
+					continue;
+				}
+			}
+			buf[out++] = c;
+		}
+		return out;
+	}
+
+	private static boolean entityAt(char[] buf, int length, int i, char first, char second)
+	{
+		return i + 3 < length && buf[i + 1] == first && buf[i + 2] == second && buf[i + 3] == ';';
+	}
+
+	/**
+	 * Find the first salvage message in the buffer, backtracking the same way the
+	 * lazy regular expression does
+	 */
+	private static SalvageMessage scan(char[] buf, int length)
+	{
+		int lastStart = length - PREFIX.length - KEYWORD.length;
+		for (int start = 0; start <= lastStart; start++)
+		{
+			if (!regionMatches(buf, length, start, PREFIX))
+			{
+				continue;
+			}
+
+			int typeStart = start + PREFIX.length;
+			for (int typeEnd = typeStart + 1; typeEnd < length; typeEnd++)
+			{
+				if (isLineTerminator(buf[typeEnd - 1]))
+				{
+					break;
+				}
+				if (!regionMatches(buf, length, typeEnd, KEYWORD))
+				{
+					continue;
+				}
+
+				int digitsStart = typeEnd + KEYWORD.length;
+				int digitsEnd = digitsStart;
+				while (digitsEnd < length && buf[digitsEnd] >= '0' && buf[digitsEnd] <= '9')
+				{
+					digitsEnd++;
+				}
+				if (digitsEnd == digitsStart || !regionMatches(buf, length, digitsEnd, QUANTITY_SEPARATOR))
+				{
+					continue;
+				}
+
+				int nameStart = digitsEnd + QUANTITY_SEPARATOR.length;
+				int nameEnd = findItemNameEnd(buf, length, nameStart);
+				if (nameEnd < 0)
+				{
+					continue;
+				}
+
+				int quantity = parseQuantity(buf, digitsStart, digitsEnd);
+				if (quantity < 0)
+				{
+					return null;
+				}
+
+				return new SalvageMessage(
+					trimmed(buf, typeStart, typeEnd),
+					quantity,
+					trimmed(buf, nameStart, nameEnd)
+				);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Find the terminating period of a lazy, non-empty item name group
+	 * @return Index of the period, or -1 if there is none on this line
+	 */
+	private static int findItemNameEnd(char[] buf, int length, int nameStart)
+	{
+		for (int end = nameStart + 1; end < length; end++)
+		{
+			if (isLineTerminator(buf[end - 1]))
+			{
+				return -1;
+			}
+			if (buf[end] == '.')
+			{
+				return end;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parse the digits of the quantity group
+	 * @return The quantity, or -1 if it does not fit in an int
+	 */
+	private static int parseQuantity(char[] buf, int start, int end)
+	{
+		long value = 0;
+		for (int i = start; i < end; i++)
+		{
+			value = value * 10 + (buf[i] - '0');
+			if (value > Integer.MAX_VALUE)
+			{
+				return -1;
+			}
+		}
+		return (int) value;
+	}
+
+	private static String trimmed(char[] buf, int start, int end)
+	{
+		while (start < end && buf[start] <= ' ')
+		{
+			start++;
+		}
+		while (end > start && buf[end - 1] <= ' ')
+		{
+			end--;
+		}
+		return new String(buf, start, end - start);
+	}
+
+	/**
+	 * Same set of characters that {@code .} refuses to match without DOTALL
+	 */
+	private static boolean isLineTerminator(char c)
+	{
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * ASCII-only case-insensitive comparison against a lower-case literal,
+	 * matching Pattern.CASE_INSENSITIVE without UNICODE_CASE
+	 */
+	private static boolean regionMatches(char[] buf, int length, int offset, char[] lowerLiteral)
+	{
+		if (offset + lowerLiteral.length > length)
+		{
+			return false;
+		}
+		for (int i = 0; i < lowerLiteral.length; i++)
+		{
+			if (toLowerAscii(buf[offset + i]) != lowerLiteral[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean regionMatches(ByteBuffer text, int offset, int end, char[] lowerLiteral)
+	{
+		if (offset + lowerLiteral.length > end)
+		{
+			return false;
+		}
+		for (int i = 0; i < lowerLiteral.length; i++)
+		{
+			if (toLowerAscii((char) (text.get(offset + i) & 0xFF)) != lowerLiteral[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean regionMatches(String text, int offset, char[] lowerLiteral)
+	{
+		if (offset + lowerLiteral.length > text.length())
+		{
+			return false;
+		}
+		for (int i = 0; i < lowerLiteral.length; i++)
+		{
+			if (toLowerAscii(text.charAt(offset + i)) != lowerLiteral[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static char toLowerAscii(char c)
+	{
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+}
@@ -3,10 +3,21 @@ package com.salvagesack;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup("salvagesack")
 public interface SalvageSackConfig extends Config
 {
+	@ConfigSection(
+		name = "Advanced",
+		description = "Performance tuning options",
+		position = 100,
+		closedByDefault = true
+	)
+	String advancedSection = "advanced";
+
 	@ConfigItem(
 		keyName = "sortOption",
 		name = "Sort Items By",
@@ -26,4 +37,117 @@ public interface SalvageSackConfig extends Config
 	{
 		return false;
 	}
+
+	@Range(min = 1, max = 240)
+	@Units(Units.MINUTES)
+	@ConfigItem(
+		keyName = "sessionIdleTimeout",
+		name = "Session Idle Timeout",
+		description = "End the current salvaging session after this long without a sort"
+	)
+	default int sessionIdleTimeout()
+	{
+		return 15;
+	}
+
+	@Range(min = 10, max = 10000)
+	@ConfigItem(
+		keyName = "recentSorts",
+		name = "Recent Rate Sorts",
+		description = "Number of most recent sorts of a shipwreck that recent drop rates are measured over"
+	)
+	default int recentSorts()
+	{
+		return 100;
+	}
+
+	@Range(min = 1, max = 240)
+	@Units(Units.MINUTES)
+	@ConfigItem(
+		keyName = "recentMinutes",
+		name = "Recent Rate Time",
+		description = "Time that the timed recent drop rates are measured over"
+	)
+	default int recentMinutes()
+	{
+		return 30;
+	}
+
+	@Range(min = 1, max = 240)
+	@Units(Units.MINUTES)
+	@ConfigItem(
+		keyName = "priceRefreshMinutes",
+		name = "Price Refresh Interval",
+		description = "How often the Grand Exchange prices used for loot values are refreshed"
+	)
+	default int priceRefreshMinutes()
+	{
+		return 10;
+	}
+
+	@Range(min = 0, max = 60000)
+	@Units(Units.MILLISECONDS)
+	@ConfigItem(
+		keyName = "saveDebounceMs",
+		name = "Save Delay",
+		description = "How long to wait after the last drop before saving, so bursts of drops are saved once",
+		section = advancedSection,
+		position = 101
+	)
+	default int saveDebounceMs()
+	{
+		return 2000;
+	}
+
+	@Range(min = 0, max = 300000)
+	@Units(Units.MILLISECONDS)
+	@ConfigItem(
+		keyName = "saveMaxStalenessMs",
+		name = "Max Save Delay",
+		description = "Longest time unsaved drops may wait during continuous looting",
+		section = advancedSection,
+		position = 102
+	)
+	default int saveMaxStalenessMs()
+	{
+		return 10000;
+	}
+
+	@ConfigItem(
+		keyName = "storageFormat",
+		name = "Storage Format",
+		description = "How salvage data is stored in your profile. Compact is smaller and faster to load; both can always be read",
+		section = advancedSection,
+		position = 103
+	)
+	default StorageFormat storageFormat()
+	{
+		return StorageFormat.COMPACT;
+	}
+
+	@ConfigItem(
+		keyName = "virtualizedList",
+		name = "Virtualized Item List",
+		description = "Draw item rows with a single list renderer so only visible rows are painted. Faster with many items",
+		section = advancedSection,
+		position = 104
+	)
+	default boolean virtualizedList()
+	{
+		return false;
+	}
+
+	@Range(min = 0, max = 5000)
+	@Units(Units.MILLISECONDS)
+	@ConfigItem(
+		keyName = "panelRefreshIntervalMs",
+		name = "Panel Refresh Interval",
+		description = "Shortest time between panel updates; drops in between are shown together",
+		section = advancedSection,
+		position = 105
+	)
+	default int panelRefreshIntervalMs()
+	{
+		return 100;
+	}
 }
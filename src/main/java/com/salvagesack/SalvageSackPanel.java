@@ -4,20 +4,31 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
+import net.runelite.client.util.QuantityFormatter;
 
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -25,15 +36,18 @@ import java.util.function.Consumer;
  * <p>
  * The panel includes sorting controls that allow users to organize items
  * by different criteria including alphabetical order, current drop rate,
- * expected drop rate, quantity, and luck (based on rate comparison).
+ * expected drop rate, quantity, luck (based on rate comparison) and recent drop rate.
+ * Each row also shows how many sorts it has been since the item last dropped and the Grand
+ * Exchange value of the item's total quantity; the header and each section show total values.
  * Sort direction can be toggled between ascending and descending.
  * </p>
  * <p>
- * Luck sorting orders items by comparing current drop rate to expected rate:
+ * Luck is judged by {@link LuckEngine} with a binomial test of the item's drop count against
+ * its expected rate, so colors reflect how unlikely the result is rather than the raw ratio:
  * <ul>
- *   <li>Green (lucky) - receiving items more often than expected (ratio ≥ 1.1)</li>
- *   <li>Yellow (neutral) - receiving items at expected rate (0.9 ≤ ratio < 1.1)</li>
- *   <li>Red (unlucky) - receiving items less often than expected (ratio < 0.9)</li>
+ *   <li>Green (lucky) - significantly more drops than expected</li>
+ *   <li>Yellow (neutral) - within normal variation of the expected rate</li>
+ *   <li>Red (unlucky) - significantly fewer drops than expected</li>
  *   <li>Unknown - no expected rate data available</li>
  * </ul>
  * Descending order shows: Green → Yellow → Red → Unknown<br>
@@ -44,23 +58,45 @@ import java.util.function.Consumer;
 public class SalvageSackPanel extends PluginPanel
 {
 	private static final String CONFIG_GROUP = "salvagesack";
-	private static final Color LUCK_GOOD = new Color(0, 200, 83);      // Green - lucky
-	private static final Color LUCK_NEUTRAL = new Color(255, 214, 0); // Yellow - expected
-	private static final Color LUCK_BAD = new Color(255, 68, 68);     // Red - unlucky
-	private static final String ARROW_RIGHT = "▶";
-	private static final String ARROW_DOWN = "▼";
 
 	private final JPanel contentPanel;
 	private final ItemIconManager iconManager;
 	private final Map<ShipwreckType, Boolean> expandedState = new HashMap<>();
+	private final Map<ShipwreckType, ShipwreckSectionPanel> sections = new EnumMap<>(ShipwreckType.class);
 	private final JLabel totalOpensLabel;
-	private Map<ShipwreckType, SalvageData> salvageDataMap;
+	private final JLabel valueLabel;
+	private final JLabel sessionLabel;
+	private final JLabel messageLabel;
+	private final JPanel importPanel;
+	private final JLabel importLabel;
+	private final JProgressBar importProgressBar;
+	private final JButton importCloseButton;
+	private boolean importRunning;
+	private volatile Map<ShipwreckType, SalvageData> salvageDataMap;
+	private volatile SessionStats sessionStats = SessionStats.NONE;
+	private volatile Map<ShipwreckType, RollingDropRates> recentRates = Collections.emptyMap();
+	private volatile LootValues lootValues = LootValues.NONE;
 	private SortOption currentSortOption;
 	private boolean currentSortDescending;
+	private volatile boolean loading;
+	private boolean virtualized;
+	private final SalvageItemRenderer itemRenderer;
+	private final ItemRegistry registry;
+	private final LuckEngine luckEngine;
+
+	@lombok.Getter
+	private final PanelUpdateScheduler updateScheduler;
 
-	@lombok.Setter
 	private DropRateManager dropRateManager;
 
+	/**
+	 * Drop rate handles by item registry ordinal, plus one so that 0 means not looked up yet
+	 */
+	private int[] rateHandles = new int[0];
+
+	@lombok.Setter
+	private LootSimulator lootSimulator;
+
 	@lombok.Setter
 	private Consumer<ShipwreckType> onResetShipwreck;
 
@@ -70,12 +106,29 @@ public class SalvageSackPanel extends PluginPanel
 	@lombok.Setter
 	private ConfigManager configManager;
 
-	public SalvageSackPanel(ItemIconManager iconManager, SalvageSackConfig config)
+	/**
+	 * Where the chat log file chooser starts
+	 */
+	@lombok.Setter
+	private File chatLogDirectory;
+
+	@lombok.Setter
+	private Consumer<List<File>> onImportChatLogs;
+
+	@lombok.Setter
+	private Runnable onCancelImport;
+
+	public SalvageSackPanel(ItemIconManager iconManager, SalvageSackConfig config, ItemRegistry registry)
 	{
 		super(false);
 		this.iconManager = iconManager;
+		this.registry = registry;
+		this.luckEngine = new LuckEngine(registry);
 		this.currentSortOption = config.sortOption();
 		this.currentSortDescending = config.sortDescending();
+		this.virtualized = config.virtualizedList();
+		this.itemRenderer = new SalvageItemRenderer(iconManager);
+		this.updateScheduler = new PanelUpdateScheduler(this::refresh, config::panelRefreshIntervalMs);
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
 		setLayout(new BorderLayout());
 
@@ -99,8 +152,25 @@ public class SalvageSackPanel extends PluginPanel
 		gbc.gridx = 0;
 		gbc.gridy = 0;
 		gbc.gridwidth = 2;
-		gbc.insets = new Insets(0, 0, 8, 0);
+		gbc.insets = new Insets(0, 0, 2, 0);
 		infoPanel.add(totalOpensLabel, gbc);
+
+		// Grand Exchange value of all loot - full width
+		valueLabel = new JLabel("", SwingConstants.CENTER);
+		valueLabel.setForeground(Color.LIGHT_GRAY);
+		valueLabel.setFont(new Font("Arial", Font.PLAIN, 11));
+
+		gbc.gridy = 1;
+		infoPanel.add(valueLabel, gbc);
+
+		// Current session's counters and rates - full width
+		sessionLabel = new JLabel("", SwingConstants.CENTER);
+		sessionLabel.setForeground(Color.LIGHT_GRAY);
+		sessionLabel.setFont(new Font("Arial", Font.PLAIN, 11));
+
+		gbc.gridy = 2;
+		gbc.insets = new Insets(0, 0, 8, 0);
+		infoPanel.add(sessionLabel, gbc);
 		
 		// Sort dropdown - expands to fill available space
 		JComboBox<SortOption> sortComboBox = new JComboBox<>(SortOption.values());
@@ -122,12 +192,12 @@ public class SalvageSackPanel extends PluginPanel
 				{
 					configManager.setConfiguration(CONFIG_GROUP, "sortOption", selected);
 				}
-				rebuild();
+				refreshAll();
 			}
 		});
 		
 		gbc.gridx = 0;
-		gbc.gridy = 1;
+		gbc.gridy = 3;
 		gbc.gridwidth = 1;
 		gbc.weightx = 1.0;
 		gbc.insets = new Insets(0, 0, 0, 4);
@@ -150,7 +220,7 @@ public class SalvageSackPanel extends PluginPanel
 			{
 				configManager.setConfiguration(CONFIG_GROUP, "sortDescending", currentSortDescending);
 			}
-			rebuild();
+			refreshAll();
 		});
 		// Add hover effect
 		sortDirectionButton.addMouseListener(new MouseAdapter() {
@@ -166,11 +236,66 @@ public class SalvageSackPanel extends PluginPanel
 		});
 		
 		gbc.gridx = 1;
-		gbc.gridy = 1;
+		gbc.gridy = 3;
 		gbc.weightx = 0.0;
 		gbc.insets = new Insets(0, 0, 0, 0);
 		infoPanel.add(sortDirectionButton, gbc);
-		
+
+		// Chat log import progress - full width, only shown while importing or just after
+		importPanel = new JPanel(new BorderLayout(4, 2));
+		importPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		importPanel.setVisible(false);
+
+		importLabel = new JLabel();
+		importLabel.setForeground(Color.LIGHT_GRAY);
+		importLabel.setFont(new Font("Arial", Font.PLAIN, 11));
+
+		importProgressBar = new JProgressBar(0, 1000);
+		importProgressBar.setBackground(ColorScheme.DARK_GRAY_COLOR);
+		importProgressBar.setForeground(ColorScheme.PROGRESS_INPROGRESS_COLOR);
+		importProgressBar.setPreferredSize(new Dimension(0, 8));
+		importProgressBar.setBorderPainted(false);
+
+		importCloseButton = new JButton("✕");
+		importCloseButton.setFont(new Font("Arial", Font.PLAIN, 10));
+		importCloseButton.setForeground(Color.LIGHT_GRAY);
+		importCloseButton.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		importCloseButton.setBorder(new EmptyBorder(0, 4, 0, 4));
+		importCloseButton.setFocusable(false);
+		importCloseButton.addActionListener(e -> {
+			if (importRunning)
+			{
+				if (onCancelImport != null)
+				{
+					onCancelImport.run();
+				}
+			}
+			else
+			{
+				importPanel.setVisible(false);
+			}
+		});
+
+		importPanel.add(importLabel, BorderLayout.CENTER);
+		importPanel.add(importCloseButton, BorderLayout.EAST);
+		importPanel.add(importProgressBar, BorderLayout.SOUTH);
+
+		gbc.gridx = 0;
+		gbc.gridy = 4;
+		gbc.gridwidth = 2;
+		gbc.weightx = 1.0;
+		gbc.insets = new Insets(8, 0, 0, 0);
+		infoPanel.add(importPanel, gbc);
+
+		// Panel-wide actions from a right click anywhere in the header
+		JPopupMenu headerMenu = new JPopupMenu();
+		headerMenu.add(createImportMenuItem());
+		titlePanel.setComponentPopupMenu(headerMenu);
+		infoPanel.setInheritsPopupMenu(true);
+		totalOpensLabel.setInheritsPopupMenu(true);
+		valueLabel.setInheritsPopupMenu(true);
+		sessionLabel.setInheritsPopupMenu(true);
+
 		titlePanel.add(infoPanel, BorderLayout.CENTER);
 
 		add(titlePanel, BorderLayout.NORTH);
@@ -190,264 +315,455 @@ public class SalvageSackPanel extends PluginPanel
 
 		add(scrollPane, BorderLayout.CENTER);
 
-		rebuild();
+		messageLabel = new JLabel("No salvage data yet");
+		messageLabel.setForeground(Color.GRAY);
+		messageLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+		messageLabel.setBorder(new EmptyBorder(10, 5, 10, 5));
+		contentPanel.add(messageLabel);
 	}
 
-
+	/**
+	 * Show new data. The map and its contents must not change afterwards; pass a snapshot
+	 * published by {@link SalvageDataStore}.
+	 */
 	public void updateData(Map<ShipwreckType, SalvageData> dataMap)
 	{
 		this.salvageDataMap = dataMap;
+		updateScheduler.requestUpdate(Collections.emptySet());
+	}
 
-		// Initialize expanded state for new shipwreck types (expanded if has data)
-		if (dataMap != null)
-		{
-			for (ShipwreckType type : dataMap.keySet())
+	/**
+	 * Set where expected rates are read from. Handles belong to one manager, so the cached
+	 * ones are dropped.
+	 */
+	public void setDropRateManager(DropRateManager dropRateManager)
+	{
+		this.dropRateManager = dropRateManager;
+		this.rateHandles = new int[0];
+	}
+
+	/**
+	 * Set the recent drop rates shown with each item. They are shown on the next update of each
+	 * shipwreck, so set them before the data they were recorded with is passed to
+	 * {@link #updateData(Map)}, or refresh the shipwrecks whose windows changed.
+	 */
+	public void setRecentRates(Map<ShipwreckType, RollingDropRates> rates)
+	{
+		this.recentRates = rates;
+	}
+
+	/**
+	 * Set the item prices and loot values. Like recent rates, they are shown on the next update
+	 * of each shipwreck, so set them before the data they include is passed to
+	 * {@link #updateData(Map)}, or refresh the shipwrecks whose values changed.
+	 */
+	public void setValues(LootValues values)
+	{
+		this.lootValues = values;
+	}
+
+	/**
+	 * Show the current session's counters and rates in the header
+	 */
+	public void updateSession(SessionStats stats)
+	{
+		this.sessionStats = stats;
+		updateScheduler.requestUpdate(Collections.emptySet());
+	}
+
+	/**
+	 * Refresh the display of specific shipwrecks, e.g. after their expected drop rates changed.
+	 * Other shipwrecks are only updated if their data changed.
+	 * @param types The shipwreck types to refresh
+	 */
+	public void refreshShipwrecks(Set<ShipwreckType> types)
+	{
+		updateScheduler.requestUpdate(types);
+	}
+
+	/**
+	 * Show a loading message instead of the data while saved data is being read
+	 */
+	public void setLoading(boolean loading)
+	{
+		this.loading = loading;
+		updateScheduler.requestUpdate(Collections.emptySet());
+	}
+
+	/**
+	 * Switch between a component per item row and the virtualized item list
+	 */
+	public void setVirtualized(boolean virtualized)
+	{
+		SwingUtilities.invokeLater(() -> {
+			if (this.virtualized == virtualized)
 			{
-				if (!expandedState.containsKey(type))
-				{
-					SalvageData data = dataMap.get(type);
-					expandedState.put(type, data != null && data.getTotalLoots() > 0);
-				}
+				return;
 			}
+
+			// Sections are recreated in the new mode on the next refresh
+			this.virtualized = virtualized;
+			for (ShipwreckSectionPanel section : sections.values())
+			{
+				contentPanel.remove(section);
+			}
+			sections.clear();
+			refreshAll();
+		});
+	}
+
+	/**
+	 * Show the progress of a chat log import; may be called from any thread
+	 */
+	public void setImportProgress(ChatLogImporter.Progress progress)
+	{
+		SwingUtilities.invokeLater(() -> showImportProgress(progress));
+	}
+
+	private void showImportProgress(ChatLogImporter.Progress progress)
+	{
+		importRunning = progress.getStatus() == ChatLogImporter.Status.RUNNING;
+		String found = String.format("%,d sorts found, %,d already counted", progress.getSortsFound(),
+			progress.getDuplicates());
+		switch (progress.getStatus())
+		{
+			case RUNNING:
+				importLabel.setText(String.format("<html>Importing chat logs: %d%%<br>%s</html>",
+					(int) (progress.getFraction() * 100), found));
+				break;
+			case FINISHED:
+				importLabel.setText(String.format("<html>Imported %,d sorts<br>%s</html>", progress.getImported(),
+					found));
+				break;
+			case CANCELLED:
+				importLabel.setText(String.format("<html>Import cancelled after %,d sorts<br>%s</html>",
+					progress.getImported(), found));
+				break;
+			default:
+				importLabel.setText(String.format("<html>Import failed after %,d sorts<br>See the client log</html>",
+					progress.getImported()));
+				break;
+		}
+		importLabel.setToolTipText(String.format("%,.1f of %,.1f MB read", progress.getBytesRead() / 1e6,
+			progress.getTotalBytes() / 1e6));
+		importProgressBar.setValue((int) (progress.getFraction() * importProgressBar.getMaximum()));
+		importProgressBar.setVisible(importRunning);
+		importCloseButton.setToolTipText(importRunning ? "Cancel import" : "Dismiss");
+		importPanel.setVisible(true);
+		importPanel.revalidate();
+	}
+
+	private JMenuItem createImportMenuItem()
+	{
+		JMenuItem importItem = new JMenuItem("Import Chat Logs...");
+		importItem.addActionListener(ev -> chooseChatLogs());
+		return importItem;
+	}
+
+	/**
+	 * Ask for the chat log files or directories to import
+	 */
+	private void chooseChatLogs()
+	{
+		if (importRunning)
+		{
+			JOptionPane.showMessageDialog(this, "A chat log import is already running.", "Import Chat Logs",
+				JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+
+		JFileChooser chooser = new JFileChooser(chatLogDirectory != null && chatLogDirectory.isDirectory()
+			? chatLogDirectory : null);
+		chooser.setDialogTitle("Import salvage from chat logs (choose your game chat log folder)");
+		chooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+		chooser.setMultiSelectionEnabled(true);
+		if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION && onImportChatLogs != null)
+		{
+			onImportChatLogs.accept(Arrays.asList(chooser.getSelectedFiles()));
 		}
+	}
 
-		rebuild();
+	/**
+	 * Refresh every shipwreck, e.g. after the sort order changed
+	 */
+	private void refreshAll()
+	{
+		updateScheduler.requestUpdate(EnumSet.allOf(ShipwreckType.class));
 	}
 
-	private void rebuild()
+	@Override
+	public void onActivate()
 	{
-		SwingUtilities.invokeLater(() -> {
-			contentPanel.removeAll();
+		updateScheduler.setActive(true);
+	}
 
-			// Calculate total opens across all shipwreck types
-			int totalOpens = 0;
-			if (salvageDataMap != null)
+	@Override
+	public void onDeactivate()
+	{
+		updateScheduler.setActive(false);
+	}
+
+	/**
+	 * Bring the sections up to date with the data. Runs on the EDT, via the update scheduler.
+	 * <p>
+	 * Sections are created the first time a shipwreck has data and removed when its data is
+	 * reset. Shipwrecks whose data has not changed since they were last shown are skipped
+	 * unless they are in {@code forced}.
+	 * </p>
+	 * @param forced Shipwreck types to update even if their data has not changed
+	 */
+	private void refresh(Set<ShipwreckType> forced)
+	{
+		Map<ShipwreckType, SalvageData> dataMap = salvageDataMap;
+
+		// Calculate total opens across all shipwreck types
+		int totalOpens = 0;
+		List<SalvageData> shipwrecksWithData = new ArrayList<>();
+		if (dataMap != null && !loading)
+		{
+			for (ShipwreckType type : ShipwreckType.values())
 			{
-				for (SalvageData data : salvageDataMap.values())
+				SalvageData data = dataMap.get(type);
+				if (data != null && data.getTotalLoots() > 0)
 				{
 					totalOpens += data.getTotalLoots();
+					shipwrecksWithData.add(data);
 				}
 			}
-			totalOpensLabel.setText(totalOpens + " Total Salvage Sorted");
+		}
+		totalOpensLabel.setText(totalOpens + " Total Salvage Sorted");
+		LootValues values = lootValues;
+		showValues(values, shipwrecksWithData);
+		showSession(sessionStats);
+
+		if (shipwrecksWithData.isEmpty())
+		{
+			showMessage(loading ? "Loading salvage data..." : "No salvage data yet");
+			return;
+		}
+
+		boolean layoutChanged = false;
+		if (messageLabel.getParent() == contentPanel)
+		{
+			contentPanel.remove(messageLabel);
+			layoutChanged = true;
+		}
 
-			if (salvageDataMap == null || salvageDataMap.isEmpty())
+		// Drop sections for shipwrecks that were reset
+		Iterator<ShipwreckSectionPanel> sectionIterator = sections.values().iterator();
+		while (sectionIterator.hasNext())
+		{
+			ShipwreckSectionPanel section = sectionIterator.next();
+			SalvageData data = dataMap.get(section.getShipwreckType());
+			if (data == null || data.getTotalLoots() == 0)
 			{
-				JLabel emptyLabel = new JLabel("No salvage data yet");
-				emptyLabel.setForeground(Color.GRAY);
-				emptyLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-				emptyLabel.setBorder(new EmptyBorder(10, 5, 10, 5));
-				contentPanel.add(emptyLabel);
+				contentPanel.remove(section);
+				sectionIterator.remove();
+				luckEngine.clear(section.getShipwreckType());
+				layoutChanged = true;
 			}
-			else
+		}
+
+		// Sort by lastUpdated descending (most recently updated first)
+		shipwrecksWithData.sort(Comparator.comparingLong(SalvageData::getLastUpdated).reversed());
+
+		for (int i = 0; i < shipwrecksWithData.size(); i++)
+		{
+			SalvageData data = shipwrecksWithData.get(i);
+			ShipwreckType type = data.getShipwreckType();
+			ShipwreckSectionPanel section = sections.get(type);
+			if (section == null)
+			{
+				section = new ShipwreckSectionPanel(type, expandedState.getOrDefault(type, true), iconManager,
+					virtualized ? itemRenderer : null, this::onSectionToggled, this::showContextMenu);
+				sections.put(type, section);
+				contentPanel.add(section, i);
+				layoutChanged = true;
+			}
+			else if (contentPanel.getComponent(i) != section)
+			{
+				// Move the existing section rather than rebuilding it
+				contentPanel.setComponentZOrder(section, i);
+				layoutChanged = true;
+			}
+
+			if (forced.contains(type) || !section.isShowing(data))
 			{
-				// Collect all shipwrecks with data and sort by lastUpdated (most recent first)
-				List<SalvageData> shipwrecksWithData = new ArrayList<>();
-				for (ShipwreckType type : ShipwreckType.values())
+				section.setData(data, values.getShipwreckValue(type));
+				if (forced.contains(type))
 				{
-					SalvageData data = salvageDataMap.get(type);
-					if (data != null && data.getTotalLoots() > 0)
-					{
-						shipwrecksWithData.add(data);
-					}
+					section.setSortIndex(null);
 				}
-
-				// Sort by lastUpdated descending (most recently updated first)
-				shipwrecksWithData.sort(Comparator.comparingLong(SalvageData::getLastUpdated).reversed());
-
-				for (SalvageData data : shipwrecksWithData)
+				if (section.isExpanded())
 				{
-					contentPanel.add(createShipwreckPanel(data));
-					contentPanel.add(Box.createVerticalStrut(4));
+					updateRows(section, data);
 				}
 			}
+		}
 
-
+		if (layoutChanged)
+		{
 			contentPanel.revalidate();
 			contentPanel.repaint();
-		});
+		}
 	}
 
-	private JPanel createShipwreckPanel(SalvageData data)
+	/**
+	 * Show the total loot value under the total sorts; the per-shipwreck breakdown is in the tooltip
+	 */
+	private void showValues(LootValues values, List<SalvageData> shipwrecks)
 	{
-		ShipwreckType type = data.getShipwreckType();
-		boolean isExpanded = expandedState.getOrDefault(type, data.getTotalLoots() > 0);
-
-		JPanel panel = new JPanel();
-		panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-		panel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-		panel.setBorder(new LineBorder(ColorScheme.MEDIUM_GRAY_COLOR, 1));
-		panel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-		// Header with arrow
-		JPanel headerPanel = new JPanel(new BorderLayout(6, 0));
-		headerPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-		headerPanel.setBorder(new EmptyBorder(4, 6, 4, 6));
-		headerPanel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-		headerPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 28));
-
-		JLabel arrowLabel = new JLabel(isExpanded ? ARROW_DOWN : ARROW_RIGHT);
-		arrowLabel.setForeground(Color.LIGHT_GRAY);
-		arrowLabel.setFont(new Font("Arial", Font.PLAIN, 10));
-
-		JLabel typeLabel = new JLabel(data.getShipwreckType().getDisplayName());
-		typeLabel.setForeground(Color.WHITE);
-		typeLabel.setFont(new Font("Arial", Font.BOLD, 12));
-
-		JLabel totalLabel = new JLabel("Sorts: " + data.getTotalLoots());
-		totalLabel.setForeground(Color.LIGHT_GRAY);
-		totalLabel.setFont(new Font("Arial", Font.PLAIN, 11));
-
-		JPanel leftHeader = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
-		leftHeader.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-		leftHeader.add(arrowLabel);
-		leftHeader.add(typeLabel);
-
-		headerPanel.add(leftHeader, BorderLayout.WEST);
-		headerPanel.add(totalLabel, BorderLayout.EAST);
-
-		// Items panel
-		JPanel itemsPanel = new JPanel();
-		itemsPanel.setLayout(new BoxLayout(itemsPanel, BoxLayout.Y_AXIS));
-		itemsPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-		itemsPanel.setBorder(new EmptyBorder(2, 4, 4, 4));
-		itemsPanel.setVisible(isExpanded);
-
-		// Sort items based on config
-		List<SalvageItem> sortedItems = getSortedItems(data);
-		for (SalvageItem item : sortedItems)
+		String text = values.getTotalValue() > 0
+			? "Value: " + QuantityFormatter.quantityToStackSize(values.getTotalValue()) + " gp"
+			: "";
+		if (!text.equals(valueLabel.getText()))
 		{
-			itemsPanel.add(createItemPanel(item, data.getTotalLoots(), data.getShipwreckType()));
-			itemsPanel.add(Box.createVerticalStrut(2));
+			valueLabel.setText(text);
 		}
 
-		// Click handler for accordion
-		headerPanel.addMouseListener(new MouseAdapter()
+		StringBuilder tooltip = new StringBuilder("<html>");
+		for (SalvageData data : shipwrecks)
 		{
-			@Override
-			public void mouseClicked(MouseEvent e)
+			ShipwreckType type = data.getShipwreckType();
+			long value = values.getShipwreckValue(type);
+			if (value > 0)
 			{
-				if (SwingUtilities.isLeftMouseButton(e))
-				{
-					boolean newState = !expandedState.getOrDefault(type, true);
-					expandedState.put(type, newState);
-					arrowLabel.setText(newState ? ARROW_DOWN : ARROW_RIGHT);
-					itemsPanel.setVisible(newState);
-
-					// Revalidate the entire content panel to recalculate sizes
-					contentPanel.revalidate();
-					contentPanel.repaint();
-				}
+				tooltip.append(String.format("%s: %s gp, %s gp/sort<br>", type.getDisplayName(),
+					QuantityFormatter.formatNumber(value),
+					QuantityFormatter.formatNumber(Math.round(values.getValuePerSort(type, data.getTotalLoots())))));
 			}
+		}
+		valueLabel.setToolTipText(tooltip.length() > "<html>".length() ? tooltip.append("</html>").toString() : null);
+	}
 
-			@Override
-			public void mousePressed(MouseEvent e)
-			{
-				if (SwingUtilities.isRightMouseButton(e))
-				{
-					showContextMenu(e, type);
-				}
-			}
+	/**
+	 * Show the session stats under the total; the per-shipwreck breakdown is in the tooltip
+	 */
+	private void showSession(SessionStats stats)
+	{
+		String text;
+		if (stats.getTotalSorts() == 0)
+		{
+			text = stats.isActive() ? "Session: no sorts yet" : "";
+		}
+		else if (stats.isActive())
+		{
+			text = String.format("<html><center>Session: %d sorts, %.0f/hr<br>%.0f items/hr</center></html>",
+				stats.getTotalSorts(), stats.getSortsPerHour(), stats.getItemsPerHour());
+		}
+		else
+		{
+			text = "Last session: " + stats.getTotalSorts() + " sorts";
+		}
 
-			@Override
-			public void mouseEntered(MouseEvent e)
-			{
-				headerPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
-				leftHeader.setBackground(ColorScheme.DARK_GRAY_COLOR);
-			}
+		if (!text.equals(sessionLabel.getText()))
+		{
+			sessionLabel.setText(text);
+		}
 
-			@Override
-			public void mouseExited(MouseEvent e)
+		StringBuilder tooltip = new StringBuilder("<html>");
+		for (ShipwreckType type : ShipwreckType.values())
+		{
+			int sorts = stats.getSorts(type);
+			if (sorts > 0)
 			{
-				headerPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-				leftHeader.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+				tooltip.append(String.format("%s: %d sorts, %.0f/hr, %.0f items/hr<br>", type.getDisplayName(), sorts,
+					stats.getSortsPerHour(type), stats.getItemsPerHour(type)));
 			}
-		});
-
-		panel.add(headerPanel);
-		panel.add(itemsPanel);
-
-		return panel;
+		}
+		sessionLabel.setToolTipText(tooltip.length() > "<html>".length() ? tooltip.append("</html>").toString() : null);
 	}
 
-	private JPanel createItemPanel(SalvageItem item, int totalLoots, ShipwreckType shipwreckType)
+	private void showMessage(String message)
 	{
-		// Look up expected rate from DropRateManager (dynamically, not from stored value)
-		double expectedRate = 0.0;
-		if (dropRateManager != null)
+		messageLabel.setText(message);
+		if (messageLabel.getParent() == contentPanel && sections.isEmpty())
 		{
-			expectedRate = dropRateManager.getExpectedDropRate(shipwreckType, item.getItemName());
+			return;
 		}
 
-		JPanel panel = new JPanel(new BorderLayout(6, 0));
-		panel.setBackground(new Color(40, 40, 40));
-		panel.setBorder(new CompoundBorder(
-			new LineBorder(new Color(60, 60, 60), 1),
-			new EmptyBorder(4, 6, 4, 6)
-		));
-		// Height depends on whether we have expected rate (3 lines) or not (2 lines)
-		int panelHeight = expectedRate > 0 ? 54 : 44;
-		panel.setMaximumSize(new Dimension(Integer.MAX_VALUE, panelHeight));
-		panel.setPreferredSize(new Dimension(0, panelHeight));
+		contentPanel.removeAll();
+		sections.clear();
+		contentPanel.add(messageLabel);
+		contentPanel.revalidate();
+		contentPanel.repaint();
+	}
 
-		// Left: Icon - give it proper size for 32x32 icons
-		BufferedImage icon = iconManager.getItemIcon(item.getItemId());
-		JLabel iconLabel = new JLabel();
-		if (icon != null)
+	/**
+	 * Remember a section's expanded state, bringing its rows up to date if they were
+	 * skipped while it was collapsed
+	 */
+	private void onSectionToggled(ShipwreckSectionPanel section)
+	{
+		expandedState.put(section.getShipwreckType(), section.isExpanded());
+		if (section.isExpanded() && !section.isRowsCurrent() && section.getShownData() != null)
 		{
-			iconLabel.setIcon(new ImageIcon(icon));
-		}
-		iconLabel.setPreferredSize(new Dimension(32, 32));
-		iconLabel.setMinimumSize(new Dimension(32, 32));
-
-		// Center: Name and rates
-		JPanel infoPanel = new JPanel();
-		infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-		infoPanel.setBackground(new Color(40, 40, 40));
-
-		JLabel nameLabel = new JLabel(item.getItemName());
-		nameLabel.setForeground(Color.WHITE);
-		nameLabel.setFont(new Font("Arial", Font.PLAIN, 11));
-		nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-		// Calculate luck color
-		double currentRate = item.getCurrentDropRate(totalLoots);
-		Color luckColor = getLuckColor(currentRate, expectedRate);
-
-		// Current rate with label
-		double currentPct = currentRate * 100;
-		JLabel currentLabel = new JLabel(String.format("Current: %.2f%%", currentPct));
-		currentLabel.setForeground(luckColor);
-		currentLabel.setFont(new Font("Arial", Font.BOLD, 9));
-		currentLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-		infoPanel.add(nameLabel);
-		infoPanel.add(currentLabel);
-
-		// Expected rate with label (only if we have data)
-		if (expectedRate > 0)
-		{
-			double expectedPct = expectedRate * 100;
-			JLabel expectedLabel = new JLabel(String.format("Expected: %.2f%%", expectedPct));
-			expectedLabel.setForeground(Color.LIGHT_GRAY);
-			expectedLabel.setFont(new Font("Arial", Font.PLAIN, 9));
-			expectedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-			infoPanel.add(expectedLabel);
+			updateRows(section, section.getShownData());
 		}
 
-		// Right: Count (show total quantity received)
-		JLabel countLabel = new JLabel("x" + item.getTotalQuantity());
-		countLabel.setForeground(Color.WHITE);
-		countLabel.setFont(new Font("Arial", Font.BOLD, 11));
+		// Revalidate the entire content panel to recalculate sizes
+		contentPanel.revalidate();
+		contentPanel.repaint();
+	}
 
-		panel.add(iconLabel, BorderLayout.WEST);
-		panel.add(infoPanel, BorderLayout.CENTER);
-		panel.add(countLabel, BorderLayout.EAST);
+	/**
+	 * Update a section's rows in place and put them in the current sort order
+	 */
+	private void updateRows(ShipwreckSectionPanel section, SalvageData data)
+	{
+		ShipwreckType type = data.getShipwreckType();
+		int totalLoots = data.getTotalLoots();
+		List<SalvageItem> sortedItems = getSortedItems(section, data, false);
+		RollingDropRates recent = recentRates.get(type);
+		LootValues values = lootValues;
+		int recentSorts = recent != null ? recent.getWindowSorts() : 0;
+		int recentMinutes = recent != null ? (int) (recent.getWindowMillis() / 60_000) : 0;
+		List<SalvageItemPanel> rows = new ArrayList<>(sortedItems.size());
+		List<SalvageItemRow> listRows = new ArrayList<>(sortedItems.size());
+		for (SalvageItem item : sortedItems)
+		{
+			// Look up expected rate from DropRateManager (dynamically, not from stored value)
+			double expectedRate = getExpectedRate(item, type);
+			double currentRate = item.getCurrentDropRate(totalLoots);
+			LuckEngine.Entry luck = getLuck(item, totalLoots, type);
+			Color luckColor = luck.getColor();
+			double recentRate = recent != null ? recent.getSortWindowRate(item.getItemId()) : 0;
+			double recentTimeRate = recent != null ? recent.getTimeWindowRate(item.getItemId()) : 0;
+			int dryStreak = item.getDryStreak(totalLoots);
+			int dryPercentile = getDryPercentile(item, type, dryStreak);
+			int longestDryStreak = Math.max(item.getLongestDryStreak(), dryStreak);
+			int price = values.getPrice(item.getItemId());
+
+			if (section.isVirtualized())
+			{
+				listRows.add(new SalvageItemRow(item.getItemId(), item.getItemName(), currentRate, expectedRate,
+					item.getTotalQuantity(), price, luckColor, luck.getDescription(), recentSorts, recentRate, recentMinutes,
+					recentTimeRate, dryStreak, dryPercentile, longestDryStreak));
+			}
+			else
+			{
+				SalvageItemPanel row = section.getRow(item.getItemId());
+				row.update(item.getItemName(), currentRate, expectedRate, item.getTotalQuantity(), luckColor);
+				row.setLuckDescription(luck.getDescription());
+				row.updateRecent(recentSorts, recentRate, recentMinutes, recentTimeRate);
+				row.updateDryStreak(dryStreak, dryPercentile, longestDryStreak);
+				row.updateValue(price, item.getTotalQuantity());
+				rows.add(row);
+			}
+		}
 
-		return panel;
+		if (section.isVirtualized())
+		{
+			section.setItems(listRows);
+		}
+		else
+		{
+			section.setRows(rows);
+		}
 	}
 
 	/**
-	 * Returns a sorted list of SalvageItems based on the current sort option and direction.
+	 * Returns the section's items in the current sort order and direction.
 	 * <p>
 	 * Sorting options:
 	 * <ul>
@@ -455,183 +771,124 @@ public class SalvageSackPanel extends PluginPanel
 	 *   <li>CURRENT_RATE - Sort by actual drop rate from player's data</li>
 	 *   <li>EXPECTED_RATE - Sort by wiki-sourced expected drop rate</li>
 	 *   <li>QUANTITY - Sort by total quantity received</li>
-	 *   <li>LUCK - Sort by luck ratio (current rate / expected rate), color-coded green/yellow/red</li>
+	 *   <li>LUCK - Sort by signed z-score against the expected rate, color-coded green/yellow/red</li>
+	 *   <li>RECENT_RATE - Sort by drop rate over the shipwreck's most recent sorts</li>
 	 * </ul>
-	 * Sort direction (ascending/descending) is applied after the comparator is selected.
+	 * Each section keeps a {@link SortedItemIndex} for the current option, so only items that
+	 * changed since the last refresh are repositioned. The index is rebuilt when the option or
+	 * direction changes, or when {@code rebuild} is set because expected rates changed.
+	 * </p>
 	 *
+	 * @param section The section showing the data
 	 * @param data The salvage data containing items to sort
+	 * @param rebuild Whether to discard the existing order
 	 * @return Sorted list of SalvageItems
 	 */
-	private List<SalvageItem> getSortedItems(SalvageData data)
+	private List<SalvageItem> getSortedItems(ShipwreckSectionPanel section, SalvageData data, boolean rebuild)
 	{
-		List<SalvageItem> items = new ArrayList<>(data.getItems().values());
-		
-		Comparator<SalvageItem> comparator;
-		
-		switch (currentSortOption)
+		SortedItemIndex index = section.getSortIndex();
+		if (rebuild || index == null || index.getSortOption() != currentSortOption
+			|| index.isDescending() != currentSortDescending)
+		{
+			ShipwreckType type = data.getShipwreckType();
+			SortOption sortOption = currentSortOption;
+			index = new SortedItemIndex(sortOption, currentSortDescending,
+				(item, totalLoots) -> getSortKey(sortOption, item, totalLoots, type));
+			section.setSortIndex(index);
+		}
+		return index.update(data);
+	}
+
+	/**
+	 * Sort key for an item. Items with equal keys are ordered by name.
+	 */
+	private double getSortKey(SortOption sortOption, SalvageItem item, int totalLoots, ShipwreckType shipwreckType)
+	{
+		switch (sortOption)
 		{
-			case ALPHABETICAL:
-				comparator = Comparator.comparing(SalvageItem::getItemName);
-				break;
-			
 			case CURRENT_RATE:
-				comparator = Comparator.comparingDouble(item -> item.getCurrentDropRate(data.getTotalLoots()));
-				break;
-			
+				// Orders the same as dropCount / totalLoots without depending on the total
+				return item.getDropCount();
+
 			case EXPECTED_RATE:
-				comparator = Comparator.comparingDouble(SalvageItem::getExpectedDropRate);
-				break;
-			
+				return getExpectedRate(item, shipwreckType);
+
 			case QUANTITY:
-				comparator = Comparator.comparingInt(SalvageItem::getTotalQuantity);
-				break;
+				return item.getTotalQuantity();
 
 			case LUCK:
-				comparator = Comparator.comparingInt(item -> getLuckScore(item, data.getTotalLoots()));
-				break;
+				return getLuck(item, totalLoots, shipwreckType).getSortKey();
+
+			case RECENT_RATE:
+				RollingDropRates recent = recentRates.get(shipwreckType);
+				return recent != null ? recent.getSortWindowRate(item.getItemId()) : 0;
 
+			case ALPHABETICAL:
 			default:
-				comparator = Comparator.comparing(SalvageItem::getItemName);
-				break;
-		}
-		
-		if (currentSortDescending)
-		{
-			comparator = comparator.reversed();
+				return 0;
 		}
-		
-		items.sort(comparator);
-		return items;
 	}
 
 	/**
-	 * Determines the luck color for an item based on its current vs expected drop rate.
-	 * <p>
-	 * Uses a gradient system to provide smooth color transitions:
-	 * <ul>
-	 *   <li>Pure Green (ratio ≥ 1.5): Maximum luck - getting items much more often</li>
-	 *   <li>Green-Yellow Gradient (1.1 ≤ ratio < 1.5): Good luck - interpolated color</li>
-	 *   <li>Pure Yellow (0.9 ≤ ratio < 1.1): Neutral - close to expected rate</li>
-	 *   <li>Yellow-Red Gradient (0.5 ≤ ratio < 0.9): Bad luck - interpolated color</li>
-	 *   <li>Pure Red (ratio < 0.5): Worst luck - getting items much less often</li>
-	 *   <li>Gray: Unknown - no expected rate data available</li>
-	 * </ul>
-	 * </p>
-	 *
-	 * @param currentRate the player's actual drop rate
-	 * @param expectedRate the wiki-sourced expected drop rate
-	 * @return Color representing the luck level
+	 * An item's luck, cached by {@link LuckEngine} until its counts or expected rate change
 	 */
-	private Color getLuckColor(double currentRate, double expectedRate)
+	private LuckEngine.Entry getLuck(SalvageItem item, int totalLoots, ShipwreckType shipwreckType)
 	{
-		if (expectedRate <= 0)
-		{
-			return Color.LIGHT_GRAY;
-		}
-
-		double luckRatio = currentRate / expectedRate;
-
-		if (luckRatio >= 1.5)
-		{
-			return LUCK_GOOD;
-		}
-		else if (luckRatio >= 1.1)
-		{
-			float t = (float) ((luckRatio - 1.1) / 0.4);
-			return interpolateColor(LUCK_NEUTRAL, LUCK_GOOD, t);
-		}
-		else if (luckRatio >= 0.9)
-		{
-			return LUCK_NEUTRAL;
-		}
-		else if (luckRatio >= 0.5)
-		{
-			float t = (float) ((luckRatio - 0.5) / 0.4);
-			return interpolateColor(LUCK_BAD, LUCK_NEUTRAL, t);
-		}
-		else
-		{
-			return LUCK_BAD;
-		}
+		return luckEngine.get(shipwreckType, item.getItemId(), item.getDropCount(), totalLoots,
+			getExpectedRate(item, shipwreckType));
 	}
 
 	/**
-	 * Get luck score for sorting items by luck (current rate vs expected rate).
-	 * <p>
-	 * Aligns with the color gradient logic from {@link #getLuckColor(double, double)}
-	 * for consistent sorting and visual representation.
-	 * </p>
-	 * <p>
-	 * Scoring system:
-	 * <ul>
-	 *   <li>Pure Green (ratio ≥ 1.5): Score 1000 - Best luck</li>
-	 *   <li>Green-Yellow Gradient (1.1 ≤ ratio < 1.5): Scores 600-999 - Good luck</li>
-	 *   <li>Pure Yellow (0.9 ≤ ratio < 1.1): Score 500 - Neutral/Expected</li>
-	 *   <li>Yellow-Red Gradient (0.5 ≤ ratio < 0.9): Scores 100-499 - Bad luck</li>
-	 *   <li>Pure Red (ratio < 0.5): Score 0 - Worst luck</li>
-	 *   <li>Unknown (no expected rate): Score Integer.MIN_VALUE - Always last</li>
-	 * </ul>
-	 * </p>
-	 * <p>
-	 * Sort behavior:
-	 * <ul>
-	 *   <li>Descending: Green → Green-Yellow → Yellow → Yellow-Red → Red → Unknown</li>
-	 *   <li>Ascending: Red → Yellow-Red → Yellow → Green-Yellow → Green → Unknown</li>
-	 * </ul>
-	 * </p>
-	 *
-	 * @param item the salvage item to score
-	 * @param totalLoots total number of loots to calculate current drop rate
-	 * @return score based on luck ratio (higher = better luck)
+	 * Expected drop rate from the DropRateManager; rates stored with the item may be
+	 * missing since not every storage format persists them
 	 */
-	private int getLuckScore(SalvageItem item, int totalLoots)
+	private double getExpectedRate(SalvageItem item, ShipwreckType shipwreckType)
 	{
-		double currentRate = item.getCurrentDropRate(totalLoots);
-		double expectedRate = item.getExpectedDropRate();
-
-		if (expectedRate <= 0)
+		if (dropRateManager == null)
 		{
-			return Integer.MIN_VALUE; // Unknown items go last in both directions
+			return item.getExpectedDropRate();
 		}
 
-		double luckRatio = currentRate / expectedRate;
+		return dropRateManager.getExpectedDropRate(shipwreckType, getRateHandle(item));
+	}
 
-		// Pure green (best luck): ratio >= 1.5
-		if (luckRatio >= 1.5)
-		{
-			return 1000;
-		}
-		// Green-yellow gradient: 1.1 <= ratio < 1.5
-		else if (luckRatio >= 1.1)
-		{
-			// Map 1.1-1.5 to scores 600-999
-			return 600 + (int)((luckRatio - 1.1) / 0.4 * 399);
-		}
-		// Pure yellow (neutral): 0.9 <= ratio < 1.1
-		else if (luckRatio >= 0.9)
+	/**
+	 * The item's drop rate handle, looked up by name only the first time the item is shown
+	 */
+	private int getRateHandle(SalvageItem item)
+	{
+		int ordinal = registry.find(item.getItemId());
+		if (ordinal < 0)
 		{
-			return 500;
+			return dropRateManager.getItemHandle(item.getItemName());
 		}
-		// Yellow-red gradient: 0.5 <= ratio < 0.9
-		else if (luckRatio >= 0.5)
+
+		if (ordinal >= rateHandles.length)
 		{
-			// Map 0.5-0.9 to scores 100-499
-			return 100 + (int)((luckRatio - 0.5) / 0.4 * 399);
+			rateHandles = Arrays.copyOf(rateHandles, Math.max(ordinal + 1, rateHandles.length * 2));
 		}
-		// Pure red (worst luck): ratio < 0.5
-		else
+		int handle = rateHandles[ordinal] - 1;
+		if (handle < 0)
 		{
-			return 0;
+			handle = dropRateManager.getItemHandle(item.getItemName());
+			rateHandles[ordinal] = handle + 1;
 		}
+		return handle;
 	}
 
-	private Color interpolateColor(Color c1, Color c2, float t)
+	/**
+	 * How unusual an item's dry streak is, from the precomputed table for its expected rate
+	 * @return Percentage of players who would have had the drop sooner, or -1 if the rate is unknown
+	 */
+	private int getDryPercentile(SalvageItem item, ShipwreckType shipwreckType, int dryStreak)
 	{
-		t = Math.max(0, Math.min(1, t));
-		int r = (int) (c1.getRed() + t * (c2.getRed() - c1.getRed()));
-		int g = (int) (c1.getGreen() + t * (c2.getGreen() - c1.getGreen()));
-		int b = (int) (c1.getBlue() + t * (c2.getBlue() - c1.getBlue()));
-		return new Color(r, g, b);
+		if (dropRateManager == null)
+		{
+			return -1;
+		}
+
+		DryStreakTable table = dropRateManager.getDryStreakTable(shipwreckType, getRateHandle(item));
+		return table != null ? table.getPercentile(dryStreak) : -1;
 	}
 
 	/**
@@ -641,6 +898,16 @@ public class SalvageSackPanel extends PluginPanel
 	{
 		JPopupMenu menu = new JPopupMenu();
 
+		Map<ShipwreckType, SalvageData> dataMap = salvageDataMap;
+		SalvageData data = dataMap != null ? dataMap.get(type) : null;
+		JMenuItem simulateItem = new JMenuItem("Compare With Simulation");
+		simulateItem.setEnabled(lootSimulator != null && data != null && data.getTotalLoots() > 0);
+		simulateItem.addActionListener(ev -> runSimulation(type, data));
+		menu.add(simulateItem);
+		menu.add(createImportMenuItem());
+
+		menu.addSeparator();
+
 		JMenuItem resetItem = new JMenuItem("Reset " + type.getDisplayName() + " Data");
 		resetItem.addActionListener(ev -> {
 			int confirm = JOptionPane.showConfirmDialog(
@@ -677,4 +944,81 @@ public class SalvageSackPanel extends PluginPanel
 
 		menu.show(e.getComponent(), e.getX(), e.getY());
 	}
+
+	/**
+	 * Simulate the shipwreck's sorts, showing a dialog until the result is ready. Dismissing
+	 * the dialog cancels the simulation.
+	 */
+	private void runSimulation(ShipwreckType type, SalvageData data)
+	{
+		CompletableFuture<SimulationResult> simulation = lootSimulator.simulate(type, data.getTotalLoots());
+		JOptionPane pane = new JOptionPane(String.format("Simulating %,d sorts...", data.getTotalLoots()),
+			JOptionPane.PLAIN_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[]{"Cancel"});
+		JDialog progress = pane.createDialog(this, type.getDisplayName() + " Simulation");
+		progress.setModal(false);
+		progress.addComponentListener(new ComponentAdapter()
+		{
+			@Override
+			public void componentHidden(ComponentEvent e)
+			{
+				// Does nothing once the result is in
+				simulation.cancel(false);
+				progress.dispose();
+			}
+		});
+
+		simulation.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+			progress.setVisible(false);
+			if (simulation.isCancelled())
+			{
+				return;
+			}
+			if (error != null)
+			{
+				log.warn("Loot simulation failed", error);
+				return;
+			}
+			showSimulation(result, data);
+		}));
+		if (!simulation.isDone())
+		{
+			progress.setVisible(true);
+		}
+	}
+
+	/**
+	 * Show how the shipwreck's counts compare with the simulated distribution of each item
+	 */
+	private void showSimulation(SimulationResult result, SalvageData data)
+	{
+		Map<String, Integer> dropCounts = new HashMap<>();
+		Map<String, String> names = new HashMap<>();
+		for (int ordinal = data.nextItemOrdinal(0); ordinal >= 0; ordinal = data.nextItemOrdinal(ordinal + 1))
+		{
+			String name = data.getItemNameAt(ordinal);
+			String key = name.toLowerCase(Locale.ROOT);
+			dropCounts.merge(key, data.getDropCountAt(ordinal), Integer::sum);
+			names.put(key, name);
+		}
+
+		StringBuilder html = new StringBuilder("<html>");
+		html.append(String.format("%,d simulated runs of %,d sorts<br><br>", result.getTrials(), result.getSorts()));
+		html.append("<table><tr><th align=left>Item</th><th>You</th><th>Expected (5-95%)</th><th>This few</th>"
+			+ "<th>This many</th></tr>");
+		for (SimulationResult.ItemDistribution item : result.getDistributions())
+		{
+			int actual = dropCounts.getOrDefault(item.getItemName(), 0);
+			html.append(String.format("<tr><td>%s</td><td align=right>%d</td><td align=center>%.1f (%d-%d)</td>"
+					+ "<td align=right>%.1f%%</td><td align=right>%.1f%%</td></tr>",
+				names.getOrDefault(item.getItemName(), item.getItemName()), actual, item.getMean(),
+				item.getPercentile(0.05), item.getPercentile(0.95), item.getProbabilityAtMost(actual) * 100,
+				item.getProbabilityAtLeast(actual) * 100));
+		}
+		html.append("</table></html>");
+
+		JScrollPane scrollPane = new JScrollPane(new JLabel(html.toString()));
+		scrollPane.setPreferredSize(new Dimension(520, 420));
+		JOptionPane.showMessageDialog(this, scrollPane, result.getShipwreckType().getDisplayName() + " Simulation",
+			JOptionPane.PLAIN_MESSAGE);
+	}
 }
@@ -4,9 +4,14 @@ import com.google.gson.Gson;
 import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
+import net.runelite.api.GameState;
 import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -14,16 +19,29 @@ import net.runelite.client.RuneLite;
 import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
-import net.runelite.http.api.item.ItemPrice;
 
 import javax.inject.Inject;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @PluginDescriptor(
@@ -34,14 +52,6 @@ import java.util.regex.Pattern;
 @SuppressWarnings("unused") // Fields and methods are used by RuneLite's dependency injection and event system
 public class SalvageSackPlugin extends Plugin
 {
-	// Pattern to match salvage loot messages
-	// Salvage types: Small, Fishy, Barracuda, Large, Pirate, Martial, Fremennik, Opulent
-	// Example: "You sort through the Martial salvage and find: 1 x Adamant 2h sword."
-	private static final Pattern SALVAGE_PATTERN = Pattern.compile(
-		"You sort through the (.+?) salvage and find: (\\d+) x (.+?)\\.",
-		Pattern.CASE_INSENSITIVE
-	);
-
 	@Inject
 	private ClientToolbar clientToolbar;
 
@@ -57,22 +67,80 @@ public class SalvageSackPlugin extends Plugin
 	@Inject
 	private ConfigManager configManager;
 
+	@Inject
+	private ClientThread clientThread;
+
 	private SalvageSackPanel panel;
 	private NavigationButton navButton;
+	private ItemRegistry itemRegistry;
 	private SalvageDataManager dataManager;
 	private DropRateManager dropRateManager;
+	private DropRateFileWatcher dropRateWatcher;
+	private ItemIdIndex itemIdIndex;
+	private ItemIconManager iconManager;
+	private ScheduledExecutorService persistenceExecutor;
+	private SalvageDataSaver dataSaver;
+	private SalvageDataStore dataStore;
+	private ForkJoinPool workerPool;
+	private LootSimulator lootSimulator;
+
+	// The chat log import in progress, or null; set and cleared on the client thread
+	private volatile ChatLogImporter chatLogImporter;
+
+	// Live data, owned by the client thread; other threads read the store's snapshots
 	private Map<ShipwreckType, SalvageData> salvageDataMap;
 
+	/**
+	 * Delay before queued salvage is applied if no game tick drains it first
+	 */
+	private static final long LOOT_FALLBACK_DRAIN_MILLIS = 1000;
+
+	/**
+	 * Longest shutdown waits for the client thread to apply queued salvage
+	 */
+	private static final long SHUTDOWN_DRAIN_SECONDS = 5;
+
+	// Set on the client thread once saved data is loaded; salvage stays queued until then
+	private volatile boolean dataLoaded;
+	private LootIngestQueue lootQueue;
+
+	/**
+	 * Game ticks between refreshes of the session rates and timed recent rates (about 10 seconds)
+	 */
+	private static final int REFRESH_TICKS = 17;
+
+	// Current salvaging session, owned by the client thread
+	private SessionTracker sessionTracker;
+	private int ticksSinceRefresh;
+
+	// Recent drops per shipwreck, owned by the client thread, and their last published copies
+	private final Map<ShipwreckType, RollingDropWindow> rollingWindows = new EnumMap<>(ShipwreckType.class);
+	private final Map<ShipwreckType, RollingDropRates> rollingRates = new EnumMap<>(ShipwreckType.class);
+
+	// Grand Exchange value of the loot, owned by the client thread
+	private ValueTracker valueTracker;
+
+	// Salvage types: Small, Fishy, Barracuda, Large, Pirate, Martial, Fremennik, Opulent
+	// Example: "You sort through the Martial salvage and find: 1 x Adamant 2h sword."
+	private final SalvageMessageParser messageParser = new SalvageMessageParser();
+
 	@Override
 	protected void startUp()
 	{
 		log.info("Salvage Sack started!");
 
-		// Initialize data structures
-		salvageDataMap = new HashMap<>();
+		// Initialize data structures; the panel and saves read published snapshots
+		dataStore = new SalvageDataStore();
+		salvageDataMap = dataStore.getLive();
+		dataLoaded = false;
+		sessionTracker = new SessionTracker(() -> TimeUnit.MINUTES.toMillis(config.sessionIdleTimeout()));
+		rollingWindows.clear();
+		rollingRates.clear();
+		itemRegistry = new ItemRegistry();
+		valueTracker = new ValueTracker(new PriceCache(itemRegistry, itemManager::getItemPrice));
 		
 		// Initialize icon manager
-		ItemIconManager iconManager = new ItemIconManager();
+		iconManager = new ItemIconManager();
 		iconManager.setItemManager(itemManager);
 
 		// Get legacy data directory for migration
@@ -85,28 +153,49 @@ public class SalvageSackPlugin extends Plugin
 
 		// Initialize data manager with ConfigManager for RSProfile storage
 		// Legacy directory is passed to allow migration of old file-based data
-		dataManager = new SalvageDataManager(configManager, legacyDataDirectory, gson);
-
-		// Initialize drop rate manager
-		dropRateManager = new DropRateManager(legacyDataDirectory, gson);
-
-		// Load saved data
-		Map<ShipwreckType, SalvageData> loadedData = dataManager.loadData();
-		if (loadedData != null && !loadedData.isEmpty())
-		{
-			salvageDataMap.putAll(loadedData);
-			log.info("Loaded {} shipwreck types from saved data", loadedData.size());
-		}
-
-		// Initialize panel
-		panel = new SalvageSackPanel(iconManager, config);
-		panel.setDropRateManager(dropRateManager);
+		dataManager = new SalvageDataManager(configManager, legacyDataDirectory, gson, itemRegistry);
+		dataManager.setStorageFormat(config::storageFormat);
+
+		// Loading and saves run on a background thread
+		persistenceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "salvagesack-persistence");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Snapshots carry the journal position they were taken at, for compacting the journal
+		dataStore.setJournalSeq(dataManager::getJournalSeq);
+		dataSaver = new SalvageDataSaver(persistenceExecutor, () -> {
+			SalvageDataStore.Snapshot snapshot = dataStore.getPublished();
+			dataManager.saveData(snapshot.getData(), snapshot.getJournalSeq());
+		}, config::saveDebounceMs, config::saveMaxStalenessMs);
+
+		// Loot simulations and chat log parsing run in parallel, away from the client thread
+		workerPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("salvagesack-worker-" + thread.getPoolIndex());
+			thread.setDaemon(true);
+			return thread;
+		}, null, false);
+
+		// Salvage is applied once per game tick, so a burst of sorts is one update
+		lootQueue = new LootIngestQueue(persistenceExecutor, () -> clientThread.invokeLater(this::drainLoot),
+			LOOT_FALLBACK_DRAIN_MILLIS);
+
+		itemIdIndex = new ItemIdIndex();
+		itemIdIndex.setItemSearch(itemManager::search);
+
+		// Initialize panel in the loading state until the saved data is read
+		panel = new SalvageSackPanel(iconManager, config, itemRegistry);
 		panel.setConfigManager(configManager);
-		panel.setOnResetShipwreck(this::resetShipwreckData);
-		panel.setOnResetAll(this::resetAllData);
-		panel.updateData(salvageDataMap);
-
-		// Set up icon loaded callback to repaint panel when async icons finish loading
+		// Resets come from the EDT; the data is only changed on the client thread
+		panel.setOnResetShipwreck(type -> clientThread.invokeLater(() -> resetShipwreckData(type)));
+		panel.setOnResetAll(() -> clientThread.invokeLater(this::resetAllData));
+		panel.setChatLogDirectory(new File(runeliteDir, "chatlogs"));
+		panel.setOnImportChatLogs(roots -> clientThread.invokeLater(() -> startImport(roots)));
+		panel.setOnCancelImport(this::cancelImport);
+		panel.setLoading(true);
+
+		// Repaint the panel as async icons finish loading; icons loading together share a repaint
 		iconManager.setOnIconLoaded(() -> {
 			if (panel != null)
 			{
@@ -143,6 +232,147 @@ public class SalvageSackPlugin extends Plugin
 
 		clientToolbar.addNavigation(navButton);
 		log.info("Navigation button added to toolbar");
+
+		// Read drop rates and saved data without blocking startup
+		SalvageDataManager manager = dataManager;
+		persistenceExecutor.execute(() -> loadInBackground(manager, legacyDataDirectory));
+	}
+
+	/**
+	 * Read drop rates, the item ID index and saved data on the persistence thread,
+	 * then hand them to the client thread
+	 */
+	private void loadInBackground(SalvageDataManager manager, File dataDirectory)
+	{
+		long start = System.nanoTime();
+		DropRateManager rates = new DropRateManager(dataDirectory, gson);
+		Map<String, Integer> itemIds = new HashMap<>();
+		Map<ShipwreckType, SalvageData> loadedData = new HashMap<>();
+		try
+		{
+			itemIds = manager.loadItemIdIndex();
+			loadedData = manager.loadData();
+			log.debug("Loaded salvage data in {} ms", (System.nanoTime() - start) / 1_000_000);
+		}
+		catch (RuntimeException e)
+		{
+			// Track this session's loot from nothing rather than queueing it until shutdown
+			log.error("Failed to load saved salvage data", e);
+		}
+
+		Map<String, Integer> ids = itemIds;
+		Map<ShipwreckType, SalvageData> data = loadedData;
+		clientThread.invokeLater(() -> onDataLoaded(manager, rates, ids, data));
+	}
+
+	/**
+	 * Install the loaded data and apply any loot that arrived while loading, in order
+	 */
+	private void onDataLoaded(SalvageDataManager manager, DropRateManager rates,
+		Map<String, Integer> itemIds, Map<ShipwreckType, SalvageData> loadedData)
+	{
+		if (manager != dataManager || persistenceExecutor.isShutdown())
+		{
+			// The plugin was stopped while loading
+			return;
+		}
+
+		dropRateManager = rates;
+		itemIdIndex.load(itemIds);
+		if (loadedData != null && !loadedData.isEmpty())
+		{
+			salvageDataMap.putAll(loadedData);
+			log.info("Loaded {} shipwreck types from saved data", loadedData.size());
+		}
+
+		// Re-key items saved under fallback IDs whose names now resolve
+		itemIdIndex.repairHashedIds(salvageDataMap);
+		dataStore.publish();
+		rebuildRollingWindows();
+		valueTracker.rebuild(salvageDataMap);
+		publishValues();
+		dataLoaded = true;
+
+		int buffered = lootQueue.drain(this::applyLoot);
+		if (buffered > 0)
+		{
+			log.debug("Applied {} salvage messages received while loading", buffered);
+		}
+
+		// Persist anything replayed from the journal or repaired
+		dataSaver.requestSave();
+		if (itemIdIndex.consumeDirty())
+		{
+			dataManager.saveItemIdIndex(itemIdIndex.getEntries());
+		}
+
+		lootSimulator = new LootSimulator(rates, workerPool, System.nanoTime());
+		panel.setDropRateManager(dropRateManager);
+		panel.setLootSimulator(lootSimulator);
+		panel.setLoading(false);
+		panel.updateData(dataStore.getSnapshot());
+
+		// Warm the icon cache on a later tick so the first render is not held up
+		clientThread.invokeLater(() -> prefetchIcons(rates));
+
+		// Pick up edits to the user drop rates file without a restart
+		dropRateWatcher = new DropRateFileWatcher(rates.getUserConfigFile(), () -> reloadDropRates(rates));
+		try
+		{
+			dropRateWatcher.start();
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to watch {} for changes: {}", rates.getUserConfigFile(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Runs on the watcher thread when the user drop rates file changes
+	 */
+	private void reloadDropRates(DropRateManager rates)
+	{
+		Set<ShipwreckType> changed = rates.reload();
+		if (!changed.isEmpty())
+		{
+			log.info("Reloaded drop rates; changed for {}", changed);
+			if (lootSimulator != null)
+			{
+				lootSimulator.clear();
+			}
+			panel.refreshShipwrecks(changed);
+			clientThread.invokeLater(() -> prefetchIcons(rates));
+		}
+	}
+
+	/**
+	 * Start loading the icon of every item in the drop table, so rows have their icons
+	 * as soon as they are shown
+	 */
+	private void prefetchIcons(DropRateManager rates)
+	{
+		if (rates != dropRateManager)
+		{
+			return;
+		}
+
+		List<Integer> itemIds = new ArrayList<>();
+		for (String itemName : rates.getItemNames())
+		{
+			int itemId = itemIdIndex.resolve(itemName);
+			if (itemId != ItemIdIndex.fallbackId(itemName))
+			{
+				itemIds.add(itemId);
+			}
+		}
+
+		if (itemIdIndex.consumeDirty())
+		{
+			dataManager.saveItemIdIndex(itemIdIndex.getEntries());
+		}
+
+		int requested = iconManager.prefetch(itemIds);
+		log.debug("Prefetching {} item icons", requested);
 	}
 
 	@Override
@@ -150,11 +380,56 @@ public class SalvageSackPlugin extends Plugin
 	{
 		log.info("Salvage Sack stopped!");
 
-		// Save data before shutdown
-		if (dataManager != null && salvageDataMap != null)
+		if (dropRateWatcher != null)
+		{
+			dropRateWatcher.close();
+			dropRateWatcher = null;
+		}
+		cancelImport();
+		chatLogImporter = null;
+
+		// Write any pending changes before shutdown; nothing to write if loading never finished
+		if (dataSaver != null && dataLoaded)
+		{
+			// Salvage from the last tick may not have been applied yet
+			drainLootOnClientThread();
+			log.info("Applied {} salvage messages in {} batches (largest {}, slowest {} us, total {} us)",
+				lootQueue.getAppliedMessages(), lootQueue.getBatches(), lootQueue.getLargestBatch(),
+				lootQueue.getLongestApplyNanos() / 1000, lootQueue.getTotalApplyNanos() / 1000);
+
+			dataSaver.requestSave();
+			dataSaver.flush();
+			log.info("Saved salvage data ({} saves written, {} requests coalesced)",
+				dataSaver.getPerformedSaves(), dataSaver.getCoalescedSaves());
+		}
+		if (persistenceExecutor != null)
+		{
+			persistenceExecutor.shutdownNow();
+			try
+			{
+				// Let an in-progress load finish before its journal is closed
+				persistenceExecutor.awaitTermination(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (workerPool != null)
+		{
+			workerPool.shutdownNow();
+		}
+		dataLoaded = false;
+		if (dataManager != null)
+		{
+			dataManager.close();
+		}
+
+		if (panel != null)
 		{
-			dataManager.saveData(salvageDataMap);
-			log.info("Saved salvage data");
+			PanelUpdateScheduler scheduler = panel.getUpdateScheduler();
+			log.info("Panel renders: {} performed, {} skipped", scheduler.getPerformedRenders(),
+				scheduler.getSkippedRenders());
 		}
 
 		// Clean up UI
@@ -173,89 +448,421 @@ public class SalvageSackPlugin extends Plugin
 			return;
 		}
 
-		// Strip HTML tags from the message
-		String message = event.getMessage()
-			.replaceAll("<[^>]*>", "")
-			.replaceAll("&lt;", "<")
-			.replaceAll("&gt;", ">")
-			.replaceAll("&amp;", "&");
+		// Rejects non-salvage messages without allocating
+		SalvageMessage salvage = messageParser.parse(event.getMessage());
+		if (salvage == null)
+		{
+			return;
+		}
+
+		// Applied in order on the next game tick, or once the saved data has been loaded
+		lootQueue.add(salvage);
+	}
 
-		// Log all game messages for debugging (can be removed later)
-		if (message.toLowerCase().contains("salvage"))
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		GameState state = event.getGameState();
+		if (state == GameState.LOGGED_IN && !sessionTracker.isActive())
 		{
-			log.info("Salvage message detected: {}", message);
+			sessionTracker.start(System.currentTimeMillis());
+			publishSession();
 		}
+		else if (state == GameState.LOGIN_SCREEN && sessionTracker.isActive())
+		{
+			sessionTracker.end();
+			publishSession();
+		}
+	}
 
-		Matcher matcher = SALVAGE_PATTERN.matcher(message);
+	@Subscribe
+	public void onGameTick(GameTick event)
+	{
+		drainLoot();
 
-		if (matcher.find())
+		long now = System.currentTimeMillis();
+		if (sessionTracker.checkIdle(now))
 		{
-			String salvageType = matcher.group(1).trim();  // e.g., "martial"
-			int quantity = Integer.parseInt(matcher.group(2).trim());  // e.g., 1
-			String itemName = matcher.group(3).trim();  // e.g., "Adamant 2h sword"
+			log.debug("Salvaging session ended after being idle");
+			publishSession();
+		}
 
-			log.info("Parsed salvage: type='{}' quantity={} item='{}'", salvageType, quantity, itemName);
+		// Rates change with time while nothing is sorted, so refresh them now and then
+		if (++ticksSinceRefresh >= REFRESH_TICKS)
+		{
+			ticksSinceRefresh = 0;
+			if (sessionTracker.isActive())
+			{
+				publishSession();
+			}
+			expireRollingWindows(now);
+			if (dataLoaded && now - valueTracker.getPricesRefreshedAt()
+				>= TimeUnit.MINUTES.toMillis(config.priceRefreshMinutes()))
+			{
+				refreshPrices(now);
+			}
+		}
+	}
 
-			// Determine shipwreck type from salvage type
-			ShipwreckType shipwreckType = ShipwreckType.fromString(salvageType);
+	/**
+	 * Re-read every cached price in one batch and refresh the shipwrecks whose value changed
+	 */
+	private void refreshPrices(long now)
+	{
+		Set<ShipwreckType> changed = valueTracker.refreshPrices(salvageDataMap, now);
+		if (!changed.isEmpty())
+		{
+			log.debug("Refreshed item prices; values changed for {}", changed);
+			publishValues();
+			panel.refreshShipwrecks(changed);
+		}
+	}
 
-			// Get or create salvage data for this shipwreck type
-			SalvageData data = salvageDataMap.computeIfAbsent(
-				shipwreckType, 
-				SalvageData::new
-			);
+	/**
+	 * Hand the panel a copy of the current prices and loot values
+	 */
+	private void publishValues()
+	{
+		panel.setValues(valueTracker.snapshot());
+	}
 
-			// Increment total loots
-			data.incrementTotalLoots();
+	/**
+	 * Show the session's current counters and rates in the panel; runs on the client thread
+	 */
+	private void publishSession()
+	{
+		panel.updateSession(sessionTracker.snapshot(System.currentTimeMillis()));
+	}
 
-			// Look up item ID using ItemManager
-			int itemId = lookupItemId(itemName);
+	private RollingDropWindow newRollingWindow()
+	{
+		return new RollingDropWindow(itemRegistry, config.recentSorts(), TimeUnit.MINUTES.toMillis(config.recentMinutes()));
+	}
+
+	/**
+	 * Refill the recent drop windows from the loot history, after loading or when the window
+	 * sizes change; runs on the client thread
+	 */
+	private void rebuildRollingWindows()
+	{
+		rollingWindows.clear();
+		long now = System.currentTimeMillis();
+		LootHistory history = dataManager.getHistory();
+		if (history != null)
+		{
+			// Individual sorts are kept for a week, which covers any window
+			history.scan(now - LootHistory.RAW_RETENTION_MILLIS, Long.MAX_VALUE, null,
+				(timestamp, type, itemOrdinal, drops, quantity) -> {
+					if (salvageDataMap.containsKey(type))
+					{
+						RollingDropWindow window = rollingWindows.computeIfAbsent(type, t -> newRollingWindow());
+						for (int i = 0; i < drops; i++)
+						{
+							window.record(itemOrdinal, timestamp);
+						}
+					}
+				});
+		}
+
+		for (Map.Entry<ShipwreckType, RollingDropWindow> entry : rollingWindows.entrySet())
+		{
+			// The history keeps sorts from before a reset, the data does not
+			entry.getValue().truncate(salvageDataMap.get(entry.getKey()).getTotalLoots());
+			entry.getValue().expire(now);
+		}
+		publishRollingRates();
+	}
+
+	/**
+	 * Drop sorts that have aged out of the time windows and refresh the shipwrecks they changed
+	 */
+	private void expireRollingWindows(long now)
+	{
+		Set<ShipwreckType> expired = EnumSet.noneOf(ShipwreckType.class);
+		for (Map.Entry<ShipwreckType, RollingDropWindow> entry : rollingWindows.entrySet())
+		{
+			if (entry.getValue().expire(now))
+			{
+				expired.add(entry.getKey());
+			}
+		}
 
-			// Get expected drop rate (default to 0 for unknown items)
-			double expectedRate = getExpectedDropRate(shipwreckType, itemName);
+		if (!expired.isEmpty())
+		{
+			publishRollingRates();
+			panel.refreshShipwrecks(expired);
+		}
+	}
 
-			// Record the loot with quantity
-			data.recordLoot(itemId, itemName, expectedRate, quantity);
+	/**
+	 * Hand the panel copies of the recent drop windows, copying only the windows that changed
+	 */
+	private void publishRollingRates()
+	{
+		rollingRates.keySet().retainAll(rollingWindows.keySet());
+		for (Map.Entry<ShipwreckType, RollingDropWindow> entry : rollingWindows.entrySet())
+		{
+			if (entry.getValue().consumeModified() || !rollingRates.containsKey(entry.getKey()))
+			{
+				rollingRates.put(entry.getKey(), entry.getValue().snapshot());
+			}
+		}
+		panel.setRecentRates(Collections.unmodifiableMap(new EnumMap<>(rollingRates)));
+	}
+
+	/**
+	 * Apply the queued salvage on the client thread, which owns the live data, and wait for it.
+	 * Used on shutdown, which runs on the EDT while game ticks may still drain the queue.
+	 */
+	private void drainLootOnClientThread()
+	{
+		CompletableFuture<Void> drained = new CompletableFuture<>();
+		clientThread.invoke(() -> {
+			try
+			{
+				drainLoot();
+				drained.complete(null);
+			}
+			catch (RuntimeException e)
+			{
+				drained.completeExceptionally(e);
+			}
+		});
+
+		try
+		{
+			drained.get(SHUTDOWN_DRAIN_SECONDS, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException | TimeoutException e)
+		{
+			// The drain is skipped if it runs after shutdown clears dataLoaded
+			log.warn("Unable to apply queued salvage before shutdown", e);
+		}
+	}
 
-			// Update the panel
-			panel.updateData(salvageDataMap);
+	/**
+	 * Apply all queued salvage as one batch; runs on the client thread
+	 */
+	private void drainLoot()
+	{
+		if (!dataLoaded)
+		{
+			return;
+		}
 
-			// Save data
-			dataManager.saveData(salvageDataMap);
+		int applied = lootQueue.drain(this::applyLoot);
+		if (applied > 1)
+		{
+			log.debug("Applied a batch of {} salvage messages", applied);
+		}
+	}
 
-			log.info("Recorded salvage: {}x {} (ID: {}) from {}", quantity, itemName, itemId, shipwreckType);
+	/**
+	 * Record a batch of salvage, then update the panel and request a save once for the whole batch
+	 */
+	private void applyLoot(List<SalvageMessage> batch)
+	{
+		for (SalvageMessage salvage : batch)
+		{
+			recordSalvage(salvage);
 		}
+
+		publishRollingRates();
+		publishValues();
+		panel.updateData(dataStore.publish());
+		publishSession();
+
+		// Save data in the background, coalesced with nearby drops
+		dataSaver.requestSave();
 	}
 
 	/**
-	 * Look up an item ID by name using the ItemManager
+	 * Record a parsed salvage message against its shipwreck's data
+	 */
+	private void recordSalvage(SalvageMessage salvage)
+	{
+		String salvageType = salvage.getSalvageType();  // e.g., "martial"
+		int quantity = salvage.getQuantity();  // e.g., 1
+		String itemName = salvage.getItemName();  // e.g., "Adamant 2h sword"
+
+		log.debug("Parsed salvage: type='{}' quantity={} item='{}'", salvageType, quantity, itemName);
+
+		// Determine shipwreck type from salvage type
+		ShipwreckType shipwreckType = ShipwreckType.fromString(salvageType);
+
+		// Get or create salvage data for this shipwreck type
+		SalvageData data = salvageDataMap.computeIfAbsent(
+			shipwreckType, 
+			type -> new SalvageData(type, itemRegistry)
+		);
+
+		// Look up item ID from the name index
+		int itemId = lookupItemId(itemName);
+
+		// Get expected drop rate (default to 0 for unknown items)
+		double expectedRate = getExpectedDropRate(shipwreckType, itemName);
+
+		// Record the sort with quantity, journaling it immediately
+		long now = System.currentTimeMillis();
+		dataManager.recordLoot(data, itemId, itemName, expectedRate, quantity);
+		sessionTracker.record(shipwreckType, quantity, now);
+		valueTracker.record(shipwreckType, itemId, itemName, quantity);
+		rollingWindows.computeIfAbsent(shipwreckType, t -> newRollingWindow())
+			.record(itemRegistry.ordinal(itemId), now);
+
+		log.info("Recorded salvage: {}x {} (ID: {}) from {}", quantity, itemName, itemId, shipwreckType);
+	}
+
+	/**
+	 * Look up an item ID by name using the item ID index.
+	 * Newly resolved names are persisted and any counts recorded under
+	 * their fallback ID are moved to the real item ID.
 	 */
 	private int lookupItemId(String itemName)
 	{
-		if (itemManager != null)
+		int itemId = itemIdIndex.resolve(itemName);
+		if (itemIdIndex.consumeDirty())
 		{
-			try
+			if (itemIdIndex.repairHashedIds(salvageDataMap) > 0)
 			{
-				// Search for the item by name
-				int itemId = itemManager.search(itemName).stream()
-					.findFirst()
-					.map(ItemPrice::getId)
-					.orElse(-1);
+				// Re-keyed items can now be priced
+				valueTracker.rebuild(salvageDataMap);
+			}
+			dataManager.saveItemIdIndex(itemIdIndex.getEntries());
+		}
+		return itemId;
+	}
+
+	/**
+	 * Start importing sorts from chat logs on a background thread; runs on the client thread
+	 * @param roots Log files and directories of log files chosen by the user
+	 */
+	private void startImport(List<File> roots)
+	{
+		if (!dataLoaded || chatLogImporter != null)
+		{
+			return;
+		}
+
+		LootHistory history = dataManager.getHistory();
+		if (history == null)
+		{
+			// Without timestamps there is no way to tell which logged sorts are already counted
+			log.warn("Chat logs cannot be imported because the loot history is unavailable");
+			panel.setImportProgress(new ChatLogImporter.Progress(ChatLogImporter.Status.FAILED, 0, 0, 0, 0, 0));
+			return;
+		}
 
-				if (itemId != -1)
+		ChatLogImporter importer = new ChatLogImporter(workerPool, workerPool.getParallelism(), ZoneId.systemDefault());
+		chatLogImporter = importer;
+		Thread thread = new Thread(() -> runImport(importer, roots, history), "salvagesack-import");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Runs on the import thread. Each batch is merged on the client thread before the next is
+	 * read, so the import never gets far ahead of the data.
+	 */
+	private void runImport(ChatLogImporter importer, List<File> roots, LootHistory history)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			// Files are found first, so every logged sort they contain is either in the history or new
+			List<ChatLogImporter.LogFile> files = importer.findLogFiles(roots);
+			ImportDeduplicator deduplicator = CompletableFuture.supplyAsync(() -> {
+				int[] totalLoots = new int[ShipwreckType.values().length];
+				for (SalvageData data : salvageDataMap.values())
 				{
-					log.debug("Found item ID {} for '{}'", itemId, itemName);
-					return itemId;
+					totalLoots[data.getShipwreckType().ordinal()] = data.getTotalLoots();
 				}
-			}
-			catch (Exception e)
-			{
-				log.debug("Failed to look up item ID for '{}': {}", itemName, e.getMessage());
-			}
+				return ImportDeduplicator.fromHistory(history, totalLoots);
+			}, clientThread::invokeLater).join();
+
+			ChatLogImporter.Progress result = importer.run(files, deduplicator,
+				batch -> CompletableFuture.runAsync(() -> mergeImported(importer, batch), clientThread::invokeLater)
+					.join(),
+				panel::setImportProgress);
+			log.info("Imported {} sorts from {} chat log files ({} already counted, {} bytes) in {} ms",
+				result.getImported(), files.size(), result.getDuplicates(), result.getBytesRead(),
+				(System.nanoTime() - start) / 1_000_000);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Failed to import chat logs", e);
+			panel.setImportProgress(importer.getProgress());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			panel.setImportProgress(importer.getProgress());
+		}
+		finally
+		{
+			clientThread.invokeLater(() -> finishImport(importer));
+		}
+	}
+
+	/**
+	 * Record a batch of imported sorts at their places among the counted sorts; runs on the client thread
+	 */
+	private void mergeImported(ChatLogImporter importer, List<ImportedSort> batch)
+	{
+		if (importer != chatLogImporter || importer.isCancelled())
+		{
+			return;
+		}
+
+		for (ImportedSort sort : batch)
+		{
+			ShipwreckType shipwreckType = sort.getShipwreckType();
+			String itemName = sort.getItemName();
+			SalvageData data = salvageDataMap.computeIfAbsent(shipwreckType, type -> new SalvageData(type, itemRegistry));
+			int itemId = lookupItemId(itemName);
+			dataManager.recordEarlierLoot(data, sort.getPosition(), itemId, itemName,
+				getExpectedDropRate(shipwreckType, itemName), sort.getQuantity(), sort.getTimestamp());
+			valueTracker.record(shipwreckType, itemId, itemName, sort.getQuantity());
+		}
+
+		publishValues();
+		panel.updateData(dataStore.publish());
+		dataSaver.requestSave();
+	}
+
+	/**
+	 * Refresh everything derived from the history once an import has stopped; runs on the client thread
+	 */
+	private void finishImport(ChatLogImporter importer)
+	{
+		if (importer != chatLogImporter)
+		{
+			return;
+		}
+
+		chatLogImporter = null;
+		if (dataLoaded)
+		{
+			// Imported sorts from the last week belong in the recent windows
+			rebuildRollingWindows();
+			panel.refreshShipwrecks(EnumSet.allOf(ShipwreckType.class));
 		}
+	}
 
-		// Fallback to hash-based ID if lookup fails
-		return itemName.hashCode() & 0x7FFFFFFF;
+	/**
+	 * Stop the import in progress, if any; sorts already merged stay recorded
+	 */
+	private void cancelImport()
+	{
+		ChatLogImporter importer = chatLogImporter;
+		if (importer != null)
+		{
+			importer.cancel();
+		}
 	}
 
 	/**
@@ -274,20 +881,67 @@ public class SalvageSackPlugin extends Plugin
 
 	private void resetShipwreckData(ShipwreckType type)
 	{
+		if (!dataLoaded)
+		{
+			return;
+		}
+
+		// The import's positions and duplicates were worked out against the old counts
+		cancelImport();
 		salvageDataMap.remove(type);
-		panel.updateData(salvageDataMap);
-		dataManager.saveData(salvageDataMap);
+		rollingWindows.remove(type);
+		valueTracker.clear(type);
+		dataManager.recordReset(type);
+		publishRollingRates();
+		publishValues();
+		panel.updateData(dataStore.publish());
+		dataSaver.requestSave();
 		log.info("Reset data for {}", type.getDisplayName());
 	}
 
 	private void resetAllData()
 	{
+		if (!dataLoaded)
+		{
+			return;
+		}
+
+		cancelImport();
 		salvageDataMap.clear();
-		panel.updateData(salvageDataMap);
-		dataManager.saveData(salvageDataMap);
+		rollingWindows.clear();
+		valueTracker.clear(null);
+		dataManager.recordReset(null);
+		publishRollingRates();
+		publishValues();
+		panel.updateData(dataStore.publish());
+		dataSaver.requestSave();
 		log.info("Reset all salvage data");
 	}
 
+	@Subscribe
+	public void onConfigChanged(ConfigChanged event)
+	{
+		if (!"salvagesack".equals(event.getGroup()) || panel == null)
+		{
+			return;
+		}
+
+		if ("virtualizedList".equals(event.getKey()))
+		{
+			panel.setVirtualized(config.virtualizedList());
+		}
+		else if ("recentSorts".equals(event.getKey()) || "recentMinutes".equals(event.getKey()))
+		{
+			clientThread.invokeLater(() -> {
+				if (dataLoaded)
+				{
+					rebuildRollingWindows();
+					panel.refreshShipwrecks(EnumSet.allOf(ShipwreckType.class));
+				}
+			});
+		}
+	}
+
 	@Provides
 	SalvageSackConfig provideConfig(ConfigManager configManager)
 	{
@@ -0,0 +1,87 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+/**
+ * Immutable view of a salvaging session's counters and rates, for the panel.
+ * Per-shipwreck values are indexed by {@link ShipwreckType} ordinal.
+ */
+public class SessionStats
+{
+	/**
+	 * Stats when no session has been started
+	 */
+	public static final SessionStats NONE = new SessionStats(false, 0, new int[0], new long[0], new double[0],
+		new double[0]);
+
+	@Getter
+	private final boolean active;
+
+	@Getter
+	private final long startedAt;
+
+	@Getter
+	private final int totalSorts;
+
+	@Getter
+	private final long totalItems;
+
+	@Getter
+	private final double sortsPerHour;
+
+	@Getter
+	private final double itemsPerHour;
+
+	private final int[] sorts;
+	private final long[] items;
+	private final double[] typeSortsPerHour;
+	private final double[] typeItemsPerHour;
+
+	SessionStats(boolean active, long startedAt, int[] sorts, long[] items, double[] typeSortsPerHour,
+		double[] typeItemsPerHour)
+	{
+		this.active = active;
+		this.startedAt = startedAt;
+		this.sorts = sorts;
+		this.items = items;
+		this.typeSortsPerHour = typeSortsPerHour;
+		this.typeItemsPerHour = typeItemsPerHour;
+
+		int sortSum = 0;
+		long itemSum = 0;
+		double sortRate = 0;
+		double itemRate = 0;
+		for (int i = 0; i < sorts.length; i++)
+		{
+			sortSum += sorts[i];
+			itemSum += items[i];
+			// Meters with the same time constant and start add up to the meter of the combined events
+			sortRate += typeSortsPerHour[i];
+			itemRate += typeItemsPerHour[i];
+		}
+		this.totalSorts = sortSum;
+		this.totalItems = itemSum;
+		this.sortsPerHour = sortRate;
+		this.itemsPerHour = itemRate;
+	}
+
+	public int getSorts(ShipwreckType type)
+	{
+		return type.ordinal() < sorts.length ? sorts[type.ordinal()] : 0;
+	}
+
+	public long getItems(ShipwreckType type)
+	{
+		return type.ordinal() < items.length ? items[type.ordinal()] : 0;
+	}
+
+	public double getSortsPerHour(ShipwreckType type)
+	{
+		return type.ordinal() < typeSortsPerHour.length ? typeSortsPerHour[type.ordinal()] : 0;
+	}
+
+	public double getItemsPerHour(ShipwreckType type)
+	{
+		return type.ordinal() < typeItemsPerHour.length ? typeItemsPerHour[type.ordinal()] : 0;
+	}
+}
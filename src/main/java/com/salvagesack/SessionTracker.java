@@ -0,0 +1,135 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the current salvaging session: sorts and items per shipwreck and their hourly rates.
+ * <p>
+ * A session starts on login, or on the first sort if none is running, and ends on logout or
+ * once no sort has been made for the idle timeout. Each sort updates the counters and the
+ * {@link RateMeter}s in constant time; nothing is rescanned to read the rates. Session counters
+ * sit alongside the lifetime {@link SalvageData} and are not persisted or affected by resets.
+ * </p>
+ * <p>
+ * Used on the client thread only; the panel reads {@link SessionStats} snapshots.
+ * </p>
+ */
+public class SessionTracker
+{
+	/**
+	 * Time constant of the rate meters; rates follow changes in pace within a few minutes
+	 */
+	static final long RATE_TIME_CONSTANT_MILLIS = 10 * 60 * 1000;
+
+	private static final int TYPES = ShipwreckType.values().length;
+
+	private final LongSupplier idleTimeoutMillis;
+	private final int[] sorts = new int[TYPES];
+	private final long[] items = new long[TYPES];
+	private final RateMeter[] sortMeters = new RateMeter[TYPES];
+	private final RateMeter[] itemMeters = new RateMeter[TYPES];
+
+	@Getter
+	private boolean active;
+
+	@Getter
+	private long startedAt;
+	private long lastActivityAt;
+
+	/**
+	 * @param idleTimeoutMillis How long without a sort before the session ends
+	 */
+	public SessionTracker(LongSupplier idleTimeoutMillis)
+	{
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		for (int i = 0; i < TYPES; i++)
+		{
+			sortMeters[i] = new RateMeter(RATE_TIME_CONSTANT_MILLIS);
+			itemMeters[i] = new RateMeter(RATE_TIME_CONSTANT_MILLIS);
+		}
+	}
+
+	/**
+	 * Start a new session, e.g. on login. Does nothing if a session is already running.
+	 */
+	public void start(long now)
+	{
+		if (active)
+		{
+			return;
+		}
+
+		active = true;
+		startedAt = now;
+		lastActivityAt = now;
+		Arrays.fill(sorts, 0);
+		Arrays.fill(items, 0);
+		for (int i = 0; i < TYPES; i++)
+		{
+			sortMeters[i].start(now);
+			itemMeters[i].start(now);
+		}
+	}
+
+	/**
+	 * End the current session, e.g. on logout. Its stats stay readable until the next one starts.
+	 */
+	public void end()
+	{
+		active = false;
+	}
+
+	/**
+	 * Count one sort, starting a session if none is running
+	 */
+	public void record(ShipwreckType type, int quantity, long now)
+	{
+		start(now);
+		int ordinal = type.ordinal();
+		sorts[ordinal]++;
+		items[ordinal] += quantity;
+		sortMeters[ordinal].add(1, now);
+		itemMeters[ordinal].add(quantity, now);
+		lastActivityAt = Math.max(lastActivityAt, now);
+	}
+
+	/**
+	 * End the session if it has been idle for longer than the timeout
+	 * @return true if the session was ended
+	 */
+	public boolean checkIdle(long now)
+	{
+		if (active && now - lastActivityAt > idleTimeoutMillis.getAsLong())
+		{
+			end();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return The session's counters and rates as of a time
+	 */
+	public SessionStats snapshot(long now)
+	{
+		if (startedAt == 0 && !active)
+		{
+			return SessionStats.NONE;
+		}
+
+		double[] sortRates = new double[TYPES];
+		double[] itemRates = new double[TYPES];
+		if (active)
+		{
+			for (int i = 0; i < TYPES; i++)
+			{
+				sortRates[i] = sortMeters[i].getRatePerHour(now);
+				itemRates[i] = itemMeters[i].getRatePerHour(now);
+			}
+		}
+		return new SessionStats(active, startedAt, sorts.clone(), items.clone(), sortRates, itemRates);
+	}
+}
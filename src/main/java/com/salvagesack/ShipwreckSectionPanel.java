@@ -0,0 +1,343 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.Setter;
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.util.QuantityFormatter;
+
+import javax.swing.*;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * One shipwreck's section of the salvage panel: a clickable header and the item rows below it.
+ * <p>
+ * Sections and rows are created once and updated in place. Rows are keyed by item ID and
+ * reordered by moving the existing components. While a section is collapsed its rows are not
+ * kept up to date; the owner is asked to update them when the section is expanded.
+ * </p>
+ * <p>
+ * In virtualized mode the rows are drawn by a single {@link JList} with a shared renderer
+ * instead, so only the rows in view are painted and no component exists per item.
+ * </p>
+ */
+public class ShipwreckSectionPanel extends JPanel
+{
+	private static final String ARROW_RIGHT = "▶";
+	private static final String ARROW_DOWN = "▼";
+	private static final Font ARROW_FONT = new Font("Arial", Font.PLAIN, 10);
+	private static final Font TYPE_FONT = new Font("Arial", Font.BOLD, 12);
+	private static final Font TOTAL_FONT = new Font("Arial", Font.PLAIN, 11);
+
+	/**
+	 * Space below each section; painted by the parent rather than the section
+	 */
+	private static final int SECTION_GAP = 4;
+
+	@Getter
+	private final ShipwreckType shipwreckType;
+
+	private final ItemIconManager iconManager;
+	private final JLabel arrowLabel;
+	private final JLabel totalLabel;
+	private final JPanel itemsPanel;
+	private final Map<Integer, SalvageItemPanel> rows = new HashMap<>();
+	private final JList<SalvageItemRow> itemList;
+	private final DefaultListModel<SalvageItemRow> listModel;
+
+	@Getter
+	private boolean expanded;
+
+	/**
+	 * The data last shown in the header, and its revision at the time
+	 */
+	@Getter
+	private SalvageData shownData;
+	private int shownRevision;
+	private long shownValue = -1;
+
+	/**
+	 * Item order for the current sort option, kept up to date as items change
+	 */
+	@Getter
+	@Setter
+	private SortedItemIndex sortIndex;
+
+	/**
+	 * Whether the rows reflect {@link #shownData}
+	 */
+	@Getter
+	private boolean rowsCurrent;
+
+	/**
+	 * @param shipwreckType The shipwreck this section shows
+	 * @param expanded Whether the section starts expanded
+	 * @param iconManager Source of item icons for new rows
+	 * @param listRenderer Renderer for virtualized mode, or null to use a component per row
+	 * @param onToggle Called after the section is expanded or collapsed
+	 * @param onContextMenu Called when the header is right-clicked
+	 */
+	public ShipwreckSectionPanel(ShipwreckType shipwreckType, boolean expanded, ItemIconManager iconManager,
+		ListCellRenderer<SalvageItemRow> listRenderer, Consumer<ShipwreckSectionPanel> onToggle,
+		BiConsumer<MouseEvent, ShipwreckType> onContextMenu)
+	{
+		this.shipwreckType = shipwreckType;
+		this.expanded = expanded;
+		this.iconManager = iconManager;
+
+		setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+		setOpaque(false);
+		setBorder(new CompoundBorder(
+			new EmptyBorder(0, 0, SECTION_GAP, 0),
+			new LineBorder(ColorScheme.MEDIUM_GRAY_COLOR, 1)
+		));
+		setAlignmentX(Component.LEFT_ALIGNMENT);
+
+		// Header with arrow
+		JPanel headerPanel = new JPanel(new BorderLayout(6, 0));
+		headerPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		headerPanel.setBorder(new EmptyBorder(4, 6, 4, 6));
+		headerPanel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+		headerPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 28));
+
+		arrowLabel = new JLabel(expanded ? ARROW_DOWN : ARROW_RIGHT);
+		arrowLabel.setForeground(Color.LIGHT_GRAY);
+		arrowLabel.setFont(ARROW_FONT);
+
+		JLabel typeLabel = new JLabel(shipwreckType.getDisplayName());
+		typeLabel.setForeground(Color.WHITE);
+		typeLabel.setFont(TYPE_FONT);
+
+		totalLabel = new JLabel();
+		totalLabel.setForeground(Color.LIGHT_GRAY);
+		totalLabel.setFont(TOTAL_FONT);
+
+		JPanel leftHeader = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+		leftHeader.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		leftHeader.add(arrowLabel);
+		leftHeader.add(typeLabel);
+
+		headerPanel.add(leftHeader, BorderLayout.WEST);
+		headerPanel.add(totalLabel, BorderLayout.EAST);
+
+		// Items panel
+		itemsPanel = new JPanel();
+		itemsPanel.setLayout(new BoxLayout(itemsPanel, BoxLayout.Y_AXIS));
+		itemsPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		itemsPanel.setBorder(new EmptyBorder(2, 4, 2, 4));
+		itemsPanel.setVisible(expanded);
+
+		if (listRenderer != null)
+		{
+			listModel = new DefaultListModel<>();
+			itemList = new JList<SalvageItemRow>(listModel)
+			{
+				@Override
+				public Dimension getMaximumSize()
+				{
+					// Stretch to the section width like the component rows do
+					return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+				}
+			};
+			itemList.setCellRenderer(listRenderer);
+			// Row tooltips come from the renderer
+			ToolTipManager.sharedInstance().registerComponent(itemList);
+			// Fixed cell sizes mean rows never need to be measured, only the ones in view are painted
+			itemList.setFixedCellHeight(SalvageItemPanel.FULL_ROW_HEIGHT);
+			itemList.setFixedCellWidth(1);
+			itemList.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+			itemList.setFocusable(false);
+			itemList.setSelectionModel(new DefaultListSelectionModel()
+			{
+				@Override
+				public void setSelectionInterval(int index0, int index1)
+				{
+					// Rows are display only
+				}
+			});
+			itemsPanel.add(itemList);
+		}
+		else
+		{
+			listModel = null;
+			itemList = null;
+		}
+
+		// Click handler for accordion
+		headerPanel.addMouseListener(new MouseAdapter()
+		{
+			@Override
+			public void mouseClicked(MouseEvent e)
+			{
+				if (SwingUtilities.isLeftMouseButton(e))
+				{
+					setExpanded(!ShipwreckSectionPanel.this.expanded);
+					onToggle.accept(ShipwreckSectionPanel.this);
+				}
+			}
+
+			@Override
+			public void mousePressed(MouseEvent e)
+			{
+				if (SwingUtilities.isRightMouseButton(e))
+				{
+					onContextMenu.accept(e, shipwreckType);
+				}
+			}
+
+			@Override
+			public void mouseEntered(MouseEvent e)
+			{
+				headerPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
+				leftHeader.setBackground(ColorScheme.DARK_GRAY_COLOR);
+			}
+
+			@Override
+			public void mouseExited(MouseEvent e)
+			{
+				headerPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+				leftHeader.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+			}
+		});
+
+		add(headerPanel);
+		add(itemsPanel);
+	}
+
+	private void setExpanded(boolean expanded)
+	{
+		this.expanded = expanded;
+		arrowLabel.setText(expanded ? ARROW_DOWN : ARROW_RIGHT);
+		itemsPanel.setVisible(expanded);
+	}
+
+	/**
+	 * @return true if the header already shows this data at its current revision
+	 */
+	public boolean isShowing(SalvageData data)
+	{
+		return data == shownData && data.getRevision() == shownRevision;
+	}
+
+	/**
+	 * Show a new revision of the shipwreck's data in the header. The rows are marked
+	 * out of date until {@link #setRows(List)} is called.
+	 * @param data The shipwreck's data
+	 * @param value Grand Exchange value of the shipwreck's loot
+	 */
+	public void setData(SalvageData data, long value)
+	{
+		int totalLoots = data.getTotalLoots();
+		boolean totalChanged = shownData == null || shownData.getTotalLoots() != totalLoots;
+		shownData = data;
+		shownRevision = data.getRevision();
+		rowsCurrent = false;
+
+		if (totalChanged || value != shownValue)
+		{
+			shownValue = value;
+			String total = "Sorts: " + totalLoots;
+			if (value > 0)
+			{
+				total += " · " + QuantityFormatter.quantityToStackSize(value);
+				totalLabel.setToolTipText(String.format("<html>Value: %s gp<br>Per sort: %s gp</html>",
+					QuantityFormatter.formatNumber(value), QuantityFormatter.formatNumber(value / totalLoots)));
+			}
+			else
+			{
+				totalLabel.setToolTipText(null);
+			}
+			totalLabel.setText(total);
+		}
+	}
+
+	/**
+	 * Get the row for an item, creating it if this section does not have one yet.
+	 * New rows are not shown until they are passed to {@link #setRows(List)}.
+	 */
+	public SalvageItemPanel getRow(int itemId)
+	{
+		return rows.computeIfAbsent(itemId, id -> new SalvageItemPanel(id, iconManager.getItemIcon(id)));
+	}
+
+	/**
+	 * Show exactly these rows in this order. Existing rows are moved rather than recreated,
+	 * and rows that are not in the list are removed.
+	 */
+	public void setRows(List<SalvageItemPanel> ordered)
+	{
+		for (int i = 0; i < ordered.size(); i++)
+		{
+			SalvageItemPanel row = ordered.get(i);
+			if (row.getParent() != itemsPanel)
+			{
+				itemsPanel.add(row, i);
+			}
+			else if (itemsPanel.getComponent(i) != row)
+			{
+				itemsPanel.setComponentZOrder(row, i);
+			}
+		}
+
+		// Everything past the ordered rows belongs to items that no longer exist
+		while (itemsPanel.getComponentCount() > ordered.size())
+		{
+			SalvageItemPanel removed = (SalvageItemPanel) itemsPanel.getComponent(ordered.size());
+			itemsPanel.remove(removed);
+			rows.remove(removed.getItemId());
+		}
+
+		rowsCurrent = true;
+		itemsPanel.revalidate();
+	}
+
+	/**
+	 * @return true if rows are drawn by a list renderer rather than a component per row
+	 */
+	public boolean isVirtualized()
+	{
+		return itemList != null;
+	}
+
+	/**
+	 * Show exactly these rows in this order in virtualized mode.
+	 * Only rows whose values changed are redrawn.
+	 */
+	public void setItems(List<SalvageItemRow> items)
+	{
+		for (int i = 0; i < items.size(); i++)
+		{
+			SalvageItemRow row = items.get(i);
+			if (i >= listModel.size())
+			{
+				listModel.addElement(row);
+			}
+			else if (!row.equals(listModel.get(i)))
+			{
+				listModel.set(i, row);
+			}
+		}
+
+		if (listModel.size() > items.size())
+		{
+			listModel.removeRange(items.size(), listModel.size() - 1);
+		}
+		rowsCurrent = true;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		g.setColor(ColorScheme.DARKER_GRAY_COLOR);
+		g.fillRect(0, 0, getWidth(), getHeight() - SECTION_GAP);
+	}
+}
@@ -0,0 +1,186 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Simulated distribution of each item's drop count after a number of sorts of one shipwreck,
+ * produced by {@link LootSimulator}. Immutable.
+ */
+public class SimulationResult
+{
+	@Getter
+	private final ShipwreckType shipwreckType;
+
+	/**
+	 * Sorts in each simulated trial
+	 */
+	@Getter
+	private final int sorts;
+
+	/**
+	 * Number of simulated trials
+	 */
+	@Getter
+	private final int trials;
+
+	/**
+	 * Time the simulation took
+	 */
+	@Getter
+	private final long elapsedNanos;
+
+	private final Map<String, ItemDistribution> distributions;
+
+	SimulationResult(ShipwreckType shipwreckType, int sorts, int trials, long elapsedNanos,
+		Map<String, ItemDistribution> distributions)
+	{
+		this.shipwreckType = shipwreckType;
+		this.sorts = sorts;
+		this.trials = trials;
+		this.elapsedNanos = elapsedNanos;
+		this.distributions = Collections.unmodifiableMap(new LinkedHashMap<>(distributions));
+	}
+
+	/**
+	 * @return The distributions of every item in the drop table, most common first
+	 */
+	public Collection<ItemDistribution> getDistributions()
+	{
+		return distributions.values();
+	}
+
+	/**
+	 * @param itemName The item name, matched case-insensitively
+	 * @return The item's distribution, or null if it is not in the drop table
+	 */
+	public ItemDistribution getDistribution(String itemName)
+	{
+		return distributions.get(itemName.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Simulated drop counts of one item, as a histogram over the trials.
+	 * <p>
+	 * Bin {@code b} counts the trials with between {@code b * binWidth} and
+	 * {@code (b + 1) * binWidth - 1} drops; the last bin also holds any higher counts. Bins are
+	 * one drop wide unless the plausible range is too wide for the bin limit, in which case
+	 * counts within a bin are treated as evenly spread.
+	 * </p>
+	 */
+	public static final class ItemDistribution
+	{
+		/**
+		 * Lower-cased item name, as in the drop table
+		 */
+		@Getter
+		private final String itemName;
+
+		/**
+		 * Chance of the item per sort
+		 */
+		@Getter
+		private final double rate;
+
+		@Getter
+		private final double mean;
+
+		@Getter
+		private final double standardDeviation;
+
+		@Getter
+		private final int binWidth;
+
+		private final int[] bins;
+		private final int trials;
+
+		ItemDistribution(String itemName, double rate, int[] bins, int binWidth, int trials, double mean,
+			double standardDeviation)
+		{
+			this.itemName = itemName;
+			this.rate = rate;
+			this.bins = bins;
+			this.binWidth = binWidth;
+			this.trials = trials;
+			this.mean = mean;
+			this.standardDeviation = standardDeviation;
+		}
+
+		/**
+		 * @return Number of histogram bins
+		 */
+		public int getBinCount()
+		{
+			return bins.length;
+		}
+
+		/**
+		 * @return Number of trials in a histogram bin
+		 */
+		public int getBin(int bin)
+		{
+			return bins[bin];
+		}
+
+		/**
+		 * @return Share of trials with at most this many drops
+		 */
+		public double getProbabilityAtMost(int count)
+		{
+			if (count < 0 || trials == 0)
+			{
+				return 0.0;
+			}
+
+			int lastBin = count / binWidth;
+			if (lastBin >= bins.length)
+			{
+				return 1.0;
+			}
+
+			double trialsAtMost = 0;
+			for (int bin = 0; bin < lastBin; bin++)
+			{
+				trialsAtMost += bins[bin];
+			}
+
+			// Part of the bin the count falls in
+			int within = count - lastBin * binWidth + 1;
+			trialsAtMost += (double) bins[lastBin] * within / binWidth;
+			return Math.min(1.0, trialsAtMost / trials);
+		}
+
+		/**
+		 * @return Share of trials with at least this many drops
+		 */
+		public double getProbabilityAtLeast(int count)
+		{
+			return count <= 0 ? 1.0 : 1.0 - getProbabilityAtMost(count - 1);
+		}
+
+		/**
+		 * @param quantile From 0 to 1
+		 * @return The smallest drop count that at least this share of trials did not exceed
+		 */
+		public int getPercentile(double quantile)
+		{
+			double target = quantile * trials;
+			double seen = 0;
+			for (int bin = 0; bin < bins.length; bin++)
+			{
+				if (bins[bin] > 0 && seen + bins[bin] >= target)
+				{
+					int within = (int) Math.ceil((target - seen) / bins[bin] * binWidth) - 1;
+					return bin * binWidth + Math.max(0, Math.min(binWidth - 1, within));
+				}
+				seen += bins[bin];
+			}
+			return (bins.length - 1) * binWidth;
+		}
+	}
+}
@@ -12,14 +12,16 @@ import lombok.RequiredArgsConstructor;
  *   <li>CURRENT_RATE - Sort by actual drop rate calculated from player's data</li>
  *   <li>EXPECTED_RATE - Sort by wiki-sourced expected drop rates</li>
  *   <li>QUANTITY - Sort by total quantity received</li>
- *   <li>LUCK - Sort by luck ratio (current/expected rate), grouping by color:
+ *   <li>LUCK - Sort by how significantly the drop count differs from expected (signed z-score),
+ *       grouping by color:
  *       <ul>
- *         <li>Green: ratio ≥ 1.1 (lucky - getting items more often)</li>
- *         <li>Yellow: 0.9 ≤ ratio < 1.1 (neutral - at expected rate)</li>
- *         <li>Red: ratio < 0.9 (unlucky - getting items less often)</li>
+ *         <li>Green: significantly more drops than expected (lucky)</li>
+ *         <li>Yellow: within normal variation of the expected rate (neutral)</li>
+ *         <li>Red: significantly fewer drops than expected (unlucky)</li>
  *         <li>Unknown: no expected rate data available</li>
  *       </ul>
  *   </li>
+ *   <li>RECENT_RATE - Sort by drop rate over the shipwreck's most recent sorts</li>
  * </ul>
  * The sort direction (ascending/descending) can be toggled independently.
  * </p>
@@ -32,7 +34,8 @@ public enum SortOption
 	CURRENT_RATE("Current Rate"),
 	EXPECTED_RATE("Expected Rate"),
 	QUANTITY("Quantity"),
-	LUCK("Luck");
+	LUCK("Luck"),
+	RECENT_RATE("Recent Rate");
 
 	private final String displayName;
 
@@ -0,0 +1,230 @@
+package com.salvagesack;
+
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps one shipwreck's items in order for a single sort option and direction.
+ * <p>
+ * Each item's sort key is computed once when the item changes, and a changed item is moved
+ * to its new position by binary search instead of re-sorting the whole list. Keys that depend
+ * on the shipwreck's total sorts (luck, recent rate) are recomputed when the total changes, and the
+ * nearly-sorted list is repaired with an insertion sort. Current rate is keyed by drop count,
+ * which orders items the same way as their rates for any total, so it never needs revalidating.
+ * </p>
+ * <p>
+ * Items with equal keys are ordered by name and then item ID, so the order is deterministic.
+ * A new index should be built when the sort option, direction or expected rates change.
+ * </p>
+ */
+public class SortedItemIndex
+{
+	/**
+	 * Computes an item's sort key
+	 */
+	@FunctionalInterface
+	public interface KeyFunction
+	{
+		double key(SalvageItem item, int totalLoots);
+	}
+
+	@Getter
+	private final SortOption sortOption;
+
+	@Getter
+	private final boolean descending;
+
+	private final KeyFunction keyFunction;
+	private final List<Entry> order = new ArrayList<>();
+	private Entry[] entries = new Entry[0]; // by item ordinal
+	private int entryCount;
+	private final List<SalvageItem> itemView = new ItemView();
+	private int keyedTotalLoots = -1;
+	private int generation;
+
+	public SortedItemIndex(SortOption sortOption, boolean descending, KeyFunction keyFunction)
+	{
+		this.sortOption = sortOption;
+		this.descending = descending;
+		this.keyFunction = keyFunction;
+	}
+
+	/**
+	 * Bring the order up to date with the shipwreck's items
+	 * @return The items in order; the list is a live view that changes on the next update
+	 */
+	public List<SalvageItem> update(SalvageData data)
+	{
+		int totalLoots = data.getTotalLoots();
+		boolean rekeyAll = keyedTotalLoots != totalLoots && dependsOnTotalLoots(sortOption) && !order.isEmpty();
+		keyedTotalLoots = totalLoots;
+		generation++;
+
+		// Counts are compared in place; item views are only created for new or changed items
+		for (int ordinal = data.nextItemOrdinal(0); ordinal >= 0; ordinal = data.nextItemOrdinal(ordinal + 1))
+		{
+			Entry entry = ordinal < entries.length ? entries[ordinal] : null;
+			if (entry == null)
+			{
+				entry = new Entry();
+				entry.refresh(data, ordinal);
+				entry.key = keyFunction.key(entry.item, totalLoots);
+				if (ordinal >= entries.length)
+				{
+					entries = Arrays.copyOf(entries, Math.max(ordinal + 1, entries.length * 2));
+				}
+				entries[ordinal] = entry;
+				entryCount++;
+				order.add(insertionPoint(entry), entry);
+			}
+			else if (entry.isStale(data, ordinal))
+			{
+				if (rekeyAll)
+				{
+					// Repositioned by the insertion sort below
+					entry.refresh(data, ordinal);
+				}
+				else
+				{
+					order.remove(indexOf(entry));
+					entry.refresh(data, ordinal);
+					entry.key = keyFunction.key(entry.item, totalLoots);
+					order.add(insertionPoint(entry), entry);
+				}
+			}
+			entry.generation = generation;
+		}
+
+		// Items that were re-keyed to a different item ID
+		if (entryCount > data.getItemCount())
+		{
+			for (int ordinal = 0; ordinal < entries.length; ordinal++)
+			{
+				Entry entry = entries[ordinal];
+				if (entry != null && entry.generation != generation)
+				{
+					order.remove(indexOf(entry));
+					entries[ordinal] = null;
+					entryCount--;
+				}
+			}
+		}
+
+		if (rekeyAll)
+		{
+			for (Entry entry : order)
+			{
+				entry.key = keyFunction.key(entry.item, totalLoots);
+			}
+			insertionSort();
+		}
+
+		return itemView;
+	}
+
+	/**
+	 * @return The items in order as of the last update
+	 */
+	public List<SalvageItem> getItems()
+	{
+		return itemView;
+	}
+
+	private static boolean dependsOnTotalLoots(SortOption sortOption)
+	{
+		// Recent rates change for every item whenever a sort enters or leaves the window
+		return sortOption == SortOption.LUCK || sortOption == SortOption.RECENT_RATE;
+	}
+
+	private int compare(Entry a, Entry b)
+	{
+		int result = Double.compare(a.key, b.key);
+		if (result == 0)
+		{
+			result = a.name.compareTo(b.name);
+		}
+		if (result == 0)
+		{
+			result = Integer.compare(a.itemId, b.itemId);
+		}
+		return descending ? -result : result;
+	}
+
+	private int indexOf(Entry entry)
+	{
+		int index = Collections.binarySearch(order, entry, this::compare);
+		return index >= 0 ? index : order.indexOf(entry);
+	}
+
+	private int insertionPoint(Entry entry)
+	{
+		int index = Collections.binarySearch(order, entry, this::compare);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * Fix up an order where only a few items are out of place; linear when already sorted
+	 */
+	private void insertionSort()
+	{
+		for (int i = 1; i < order.size(); i++)
+		{
+			Entry entry = order.get(i);
+			int j = i - 1;
+			while (j >= 0 && compare(order.get(j), entry) > 0)
+			{
+				order.set(j + 1, order.get(j));
+				j--;
+			}
+			order.set(j + 1, entry);
+		}
+	}
+
+	private static class Entry
+	{
+		private int itemId;
+		private SalvageItem item;
+		private String name;
+		private int dropCount;
+		private long totalQuantity;
+		private double key;
+		private int generation;
+
+		boolean isStale(SalvageData data, int ordinal)
+		{
+			return data.getDropCountAt(ordinal) != dropCount || data.getTotalQuantityAt(ordinal) != totalQuantity;
+		}
+
+		void refresh(SalvageData data, int ordinal)
+		{
+			item = data.getItemAt(ordinal);
+			itemId = item.getItemId();
+			name = item.getItemName() != null ? item.getItemName() : "";
+			dropCount = data.getDropCountAt(ordinal);
+			totalQuantity = data.getTotalQuantityAt(ordinal);
+		}
+	}
+
+	/**
+	 * Read-only view of the ordered items
+	 */
+	private class ItemView extends AbstractList<SalvageItem>
+	{
+		@Override
+		public SalvageItem get(int index)
+		{
+			return order.get(index).item;
+		}
+
+		@Override
+		public int size()
+		{
+			return order.size();
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.salvagesack;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formats for storing salvage data in RSProfile configuration.
+ * <p>
+ * Both formats can always be read, so switching format only affects how data is written.
+ * Shipwrecks stored in the other format are rewritten on the next save.
+ * </p>
+ */
+@Getter
+@RequiredArgsConstructor
+public enum StorageFormat
+{
+	JSON("JSON"),
+	COMPACT("Compact");
+
+	private final String displayName;
+
+	@Override
+	public String toString()
+	{
+		return displayName;
+	}
+}
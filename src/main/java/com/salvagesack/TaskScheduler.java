@@ -0,0 +1,23 @@
+package com.salvagesack;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a task once after a delay. The saver and the loot queue schedule their timers through
+ * this, so tests can run the timers by hand and check the delays instead of waiting.
+ */
+interface TaskScheduler
+{
+	/**
+	 * @param task Task to run
+	 * @param delayMillis Delay before the task runs
+	 * @throws java.util.concurrent.RejectedExecutionException If the scheduler is shutting down
+	 */
+	void schedule(Runnable task, long delayMillis);
+
+	static TaskScheduler of(ScheduledExecutorService executor)
+	{
+		return (task, delayMillis) -> executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+	}
+}
@@ -0,0 +1,119 @@
+package com.salvagesack;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the Grand Exchange value of each shipwreck's loot up to date as drops are recorded.
+ * <p>
+ * A drop adds its quantity times the item's cached price to its shipwreck's total, so totals
+ * never need to be summed over the items. When {@link PriceCache} is refreshed, only items whose
+ * price changed are visited, and each shipwreck's total is adjusted by the price difference
+ * times its quantity of the item. Totals are recomputed from the data only after loading or
+ * when items are re-keyed.
+ * </p>
+ * <p>
+ * Owned by the client thread; the panel is given immutable {@link LootValues} copies.
+ * </p>
+ */
+public class ValueTracker
+{
+	private final PriceCache prices;
+	private final long[] values = new long[ShipwreckType.values().length];
+
+	public ValueTracker(PriceCache prices)
+	{
+		this.prices = prices;
+	}
+
+	/**
+	 * Add the value of a drop to its shipwreck's total
+	 */
+	public void record(ShipwreckType type, int itemId, String itemName, int quantity)
+	{
+		values[type.ordinal()] += (long) quantity * prices.getPrice(itemId, itemName);
+	}
+
+	/**
+	 * Recompute every total from the data, e.g. after loading or re-keying items
+	 */
+	public void rebuild(Map<ShipwreckType, SalvageData> dataMap)
+	{
+		Arrays.fill(values, 0);
+		for (Map.Entry<ShipwreckType, SalvageData> entry : dataMap.entrySet())
+		{
+			SalvageData data = entry.getValue();
+			long value = 0;
+			for (int ordinal = data.nextItemOrdinal(0); ordinal >= 0; ordinal = data.nextItemOrdinal(ordinal + 1))
+			{
+				int price = prices.getPrice(data.getRegistry().getItemId(ordinal), data.getItemNameAt(ordinal));
+				value += data.getTotalQuantityAt(ordinal) * price;
+			}
+			values[entry.getKey().ordinal()] = value;
+		}
+	}
+
+	/**
+	 * Clear a shipwreck's total after its data was reset
+	 * @param type The shipwreck, or null for all of them
+	 */
+	public void clear(ShipwreckType type)
+	{
+		if (type == null)
+		{
+			Arrays.fill(values, 0);
+		}
+		else
+		{
+			values[type.ordinal()] = 0;
+		}
+	}
+
+	/**
+	 * Refresh the cached prices in one batch and adjust the totals by the price changes
+	 * @return The shipwreck types whose value changed
+	 */
+	public Set<ShipwreckType> refreshPrices(Map<ShipwreckType, SalvageData> dataMap, long now)
+	{
+		int[] previous = prices.refresh(now);
+		int[] current = prices.getPrices();
+		Set<ShipwreckType> changed = EnumSet.noneOf(ShipwreckType.class);
+		for (int ordinal = 0; ordinal < current.length; ordinal++)
+		{
+			long delta = current[ordinal] - previous[ordinal];
+			if (delta == 0)
+			{
+				continue;
+			}
+
+			for (Map.Entry<ShipwreckType, SalvageData> entry : dataMap.entrySet())
+			{
+				SalvageData data = entry.getValue();
+				if (data.hasItemAt(ordinal))
+				{
+					values[entry.getKey().ordinal()] += delta * data.getTotalQuantityAt(ordinal);
+					changed.add(entry.getKey());
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * @return When prices were last refreshed, or 0 if they never were
+	 */
+	public long getPricesRefreshedAt()
+	{
+		return prices.getRefreshedAt();
+	}
+
+	/**
+	 * @return An immutable copy of the prices and totals for the panel
+	 */
+	public LootValues snapshot()
+	{
+		return new LootValues(prices.getRegistry(), prices.getPrices(), values.clone());
+	}
+}
@@ -0,0 +1,229 @@
+package com.salvagesack;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ChatLogImporterTest
+{
+	private static final ZoneId ZONE = ZoneOffset.UTC;
+	private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+	private static final long DAY_START = DAY.atStartOfDay(ZONE).toInstant().toEpochMilli();
+
+	private final ItemRegistry registry = new ItemRegistry();
+	private Path directory;
+	private ForkJoinPool pool;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("chat-logs");
+		pool = new ForkJoinPool(3);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		pool.shutdownNow();
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	private static String salvageLine(int secondOfDay, String type, int quantity, String item)
+	{
+		return String.format("%02d:%02d:%02d You sort through the %s salvage and find: %d x %s.%n",
+			secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, type, quantity, item);
+	}
+
+	/**
+	 * Write a day of log with a salvage line every minute between other messages
+	 */
+	private Path writeLog(String name, int sorts, boolean compressed) throws IOException
+	{
+		Path file = directory.resolve(name);
+		OutputStream out = Files.newOutputStream(file);
+		if (compressed)
+		{
+			out = new GZIPOutputStream(out);
+		}
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)))
+		{
+			for (int i = 0; i < sorts; i++)
+			{
+				writer.write(String.format("%02d:%02d:30 Your salvage hook snags on something.%n", i / 60, i % 60));
+				writer.write(salvageLine(i * 60 + 45, "Small", i + 1, "Logs"));
+			}
+		}
+		return file;
+	}
+
+	private ImportDeduplicator noHistory()
+	{
+		ImportDeduplicator deduplicator = new ImportDeduplicator(new int[ShipwreckType.values().length]);
+		deduplicator.finishRecorded();
+		return deduplicator;
+	}
+
+	@Test
+	public void testParsesSalvageLines()
+	{
+		String text = "13:45:07 You sort through the Martial salvage and find: 1 x Adamant 2h sword.\r\n"
+			+ "[13:45:09] You sort through the <col=ff0000>Small</col> salvage and find: 50 x Coins.\n"
+			+ "13:45:10 Welcome to Old School RuneScape.\n"
+			+ "You sort through the Small salvage and find: 1 x Logs.\n"
+			+ "23:59:59 You sort through the Large salvage and find: 2 x Oak logs.";
+
+		List<ImportedSort> sorts = ChatLogImporter.parseChunk(
+			ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), DAY, ZONE);
+
+		assertEquals(3, sorts.size());
+		assertEquals(ShipwreckType.MERCENARY, sorts.get(0).getShipwreckType());
+		assertEquals("Adamant 2h sword", sorts.get(0).getItemName());
+		assertEquals(DAY_START + (13 * 3600 + 45 * 60 + 7) * 1000L, sorts.get(0).getTimestamp());
+		assertEquals(ShipwreckType.SMALL, sorts.get(1).getShipwreckType());
+		assertEquals(50, sorts.get(1).getQuantity());
+		assertEquals(ShipwreckType.LARGE, sorts.get(2).getShipwreckType());
+		assertEquals(DAY_START + 86_399_000L, sorts.get(2).getTimestamp());
+	}
+
+	@Test
+	public void testImportsFilesInDateOrderAcrossChunks() throws Exception
+	{
+		writeLog("latest.log", 30, false);
+		Files.setLastModifiedTime(directory.resolve("latest.log"),
+			FileTime.fromMillis(DAY_START + 2 * LootHistory.DAY_MILLIS + 3_600_000));
+		writeLog("2024-05-02.log", 40, false);
+		writeLog("2024-05-01.0.log.gz", 50, true);
+
+		// Small chunks so lines are split across many chunks in flight at once
+		ChatLogImporter importer = new ChatLogImporter(pool, 3, ZONE, 256);
+		List<ChatLogImporter.LogFile> files = importer.findLogFiles(Collections.singletonList(directory.toFile()));
+		assertEquals(3, files.size());
+		assertTrue(files.get(0).isCompressed());
+		assertTrue(files.get(2).isCurrent());
+
+		List<ImportedSort> imported = new ArrayList<>();
+		List<Double> fractions = new ArrayList<>();
+		ChatLogImporter.Progress result = importer.run(files, noHistory(), imported::addAll,
+			progress -> fractions.add(progress.getFraction()));
+
+		assertEquals(ChatLogImporter.Status.FINISHED, result.getStatus());
+		assertEquals(120, result.getSortsFound());
+		assertEquals(120, result.getImported());
+		assertEquals(result.getTotalBytes(), result.getBytesRead());
+		assertEquals(1.0, fractions.get(fractions.size() - 1), 0);
+
+		assertEquals(120, imported.size());
+		for (int i = 0; i < imported.size(); i++)
+		{
+			assertEquals(i, imported.get(i).getPosition());
+			if (i > 0)
+			{
+				assertTrue(imported.get(i).getTimestamp() > imported.get(i - 1).getTimestamp());
+			}
+		}
+		assertEquals(DAY_START + 45_000, imported.get(0).getTimestamp());
+		assertEquals(DAY_START + 2 * LootHistory.DAY_MILLIS + 29 * 60_000 + 45_000,
+			imported.get(119).getTimestamp());
+	}
+
+	@Test
+	public void testImportingAgainFindsOnlyDuplicates() throws Exception
+	{
+		writeLog("2024-05-01.log", 200, false);
+		try (LootHistory history = new LootHistory(directory.resolve("history.bin"), registry))
+		{
+			history.open();
+			ChatLogImporter first = new ChatLogImporter(pool, 3, ZONE, 1024);
+			first.run(first.findLogFiles(Collections.singletonList(directory.resolve("2024-05-01.log").toFile())),
+				ImportDeduplicator.fromHistory(history, new int[ShipwreckType.values().length]),
+				batch -> batch.forEach(sort -> history.append(sort.getShipwreckType(), 1511, sort.getQuantity(),
+					sort.getTimestamp())),
+				progress -> { });
+			assertEquals(200, history.size());
+
+			int[] totals = new int[ShipwreckType.values().length];
+			totals[ShipwreckType.SMALL.ordinal()] = 200;
+			ChatLogImporter second = new ChatLogImporter(pool, 3, ZONE, 1024);
+			List<ImportedSort> imported = new ArrayList<>();
+			ChatLogImporter.Progress result = second.run(
+				second.findLogFiles(Collections.singletonList(directory.resolve("2024-05-01.log").toFile())),
+				ImportDeduplicator.fromHistory(history, totals), imported::addAll, progress -> { });
+
+			assertEquals(200, result.getDuplicates());
+			assertTrue(imported.isEmpty());
+		}
+	}
+
+	@Test
+	public void testCancelKeepsImportedBatches() throws Exception
+	{
+		writeLog("2024-05-01.log", 1400, false);
+		ChatLogImporter importer = new ChatLogImporter(pool, 3, ZONE, 4096);
+		List<ImportedSort> imported = new ArrayList<>();
+		ChatLogImporter.Progress result = importer.run(
+			importer.findLogFiles(Collections.singletonList(directory.toFile())), noHistory(), batch -> {
+				imported.addAll(batch);
+				importer.cancel();
+			}, progress -> { });
+
+		assertEquals(ChatLogImporter.Status.CANCELLED, result.getStatus());
+		assertEquals(ChatLogImporter.BATCH_SIZE, imported.size());
+		assertEquals(ChatLogImporter.BATCH_SIZE, result.getImported());
+		assertTrue(result.getBytesRead() < result.getTotalBytes());
+	}
+
+	@Test
+	public void testLargeLogIsImportedAcrossChunks() throws Exception
+	{
+		// About 3 MB of chat, most of it not salvage, read in 256 KB chunks
+		Path file = directory.resolve("2024-05-01.log");
+		byte[] noise = "12:00:00 Your salvage hook snags on something and you pull it free.\n"
+			.getBytes(StandardCharsets.UTF_8);
+		byte[] salvage = salvageLine(12 * 3600, "Fremennik", 1, "Logs").getBytes(StandardCharsets.UTF_8);
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))
+		{
+			for (int i = 0; i < 50_000; i++)
+			{
+				out.write(i % 5 == 0 ? salvage : noise);
+			}
+		}
+
+		ChatLogImporter importer = new ChatLogImporter(pool, 3, ZONE, 256 * 1024);
+		int[] imported = new int[1];
+		ChatLogImporter.Progress result = importer.run(
+			importer.findLogFiles(Collections.singletonList(file.toFile())), noHistory(),
+			batch -> imported[0] += batch.size(), progress -> { });
+
+		assertEquals(ChatLogImporter.Status.FINISHED, result.getStatus());
+		assertEquals(10_000, imported[0]);
+		assertEquals(10_000, result.getImported());
+		assertEquals(result.getTotalBytes(), result.getBytesRead());
+	}
+}
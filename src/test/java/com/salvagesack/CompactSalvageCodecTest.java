@@ -0,0 +1,223 @@
+package com.salvagesack;
+
+import com.google.gson.Gson;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class CompactSalvageCodecTest
+{
+	private static final String[] ITEM_NAMES = {
+		"Bronze bar", "Bronze nails", "Logs", "Iron nails", "Plank", "Oak logs", "Sawmill coupon (wood plank)",
+		"Iron bar", "Oak plank", "Sawmill coupon (oak plank)", "Steel bar", "Air rune", "Water rune",
+		"Bronze cannonball", "Iron cannonball", "Steel arrow", "Coins", "Bones", "Clue scroll (beginner)",
+		"Boat bottle (empty)", "Sailors' amulet (inert)", "Rusty locket", "Soup"
+	};
+
+	private final ItemRegistry registry = new ItemRegistry();
+	private final CompactSalvageCodec compactCodec = new CompactSalvageCodec(registry);
+	private final JsonSalvageCodec jsonCodec = new JsonSalvageCodec(new Gson(), registry);
+
+	@Test
+	public void testRoundTrip()
+	{
+		SalvageData data = generate(ShipwreckType.MERCHANT, 1000, new Random(42));
+		// Names are shared by a real ID and a fallback ID, and may contain non-ASCII text
+		data.recordLoot(ItemIdIndex.fallbackId("Logs"), "Logs", 0.1, 7);
+		data.recordLoot(Integer.MAX_VALUE, "Ünïcödé item", 0.0, Integer.MAX_VALUE);
+
+		SalvageData decoded = compactCodec.decode(ShipwreckType.MERCHANT, compactCodec.encode(data));
+		assertSameCounts(data, decoded);
+	}
+
+	@Test
+	public void testQuantitiesBeyondIntRangeRoundTrip()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		data.recordLoot(995, "Coins", 0.1, Integer.MAX_VALUE);
+		data.recordLoot(995, "Coins", 0.1, Integer.MAX_VALUE);
+		data.recordLoot(995, "Coins", 0.1, 2);
+		assertEquals(1L << 32, data.getItems().get(995).getTotalQuantity());
+
+		assertSameCounts(data, compactCodec.decode(ShipwreckType.SMALL, compactCodec.encode(data)));
+		assertSameCounts(data, jsonCodec.decode(ShipwreckType.SMALL, jsonCodec.encode(data)));
+	}
+
+	@Test
+	public void testVersion3IsStillRead()
+	{
+		// totalLoots 4, journalSeq 9, one name, one item: ID 1511, 3 drops, 300 quantity, dry 1, longest 2
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(3);
+		out.write(4);
+		out.write(9);
+		out.write(1);
+		out.write(4);
+		out.write("Logs".getBytes(StandardCharsets.UTF_8), 0, 4);
+		out.write(1);
+		out.write(0xE7);
+		out.write(0x0B);
+		out.write(0);
+		out.write(3);
+		out.write(0xAC);
+		out.write(0x02);
+		out.write(1);
+		out.write(2);
+
+		Deflater deflater = new Deflater();
+		deflater.setInput(out.toByteArray());
+		deflater.finish();
+		byte[] buffer = new byte[256];
+		int length = deflater.deflate(buffer);
+		deflater.end();
+
+		SalvageData data = compactCodec.decode(ShipwreckType.SMALL,
+			Base64.getEncoder().encodeToString(Arrays.copyOf(buffer, length)));
+		assertEquals(4, data.getTotalLoots());
+		assertEquals(9, data.getJournalSeq());
+		SalvageItem item = data.getItems().get(1511);
+		assertEquals("Logs", item.getItemName());
+		assertEquals(3, item.getDropCount());
+		assertEquals(300, item.getTotalQuantity());
+		assertEquals(1, item.getDryStreak(data.getTotalLoots()));
+		assertEquals(2, item.getLongestDryStreak());
+	}
+
+	@Test
+	public void testEmptyRoundTrip()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		SalvageData decoded = compactCodec.decode(ShipwreckType.SMALL, compactCodec.encode(data));
+		assertSameCounts(data, decoded);
+	}
+
+	@Test
+	public void testMigrationBetweenFormats()
+	{
+		SalvageData data = generate(ShipwreckType.LARGE, 500, new Random(7));
+
+		SalvageData fromJson = jsonCodec.decode(ShipwreckType.LARGE, jsonCodec.encode(data));
+		SalvageData toCompact = compactCodec.decode(ShipwreckType.LARGE, compactCodec.encode(fromJson));
+		SalvageData backToJson = jsonCodec.decode(ShipwreckType.LARGE, jsonCodec.encode(toCompact));
+
+		assertSameCounts(data, toCompact);
+		assertSameCounts(data, backToJson);
+	}
+
+	@Test
+	public void testLegacyJsonStartsDryStreakAtLoad()
+	{
+		String legacy = "{\"totalLoots\":50,\"items\":{\"1511\":{\"itemName\":\"Logs\",\"dropCount\":5,"
+			+ "\"totalQuantity\":9}}}";
+		SalvageData data = jsonCodec.decode(ShipwreckType.SMALL, legacy);
+		SalvageItem item = data.getItems().get(1511);
+		assertEquals(0, item.getDryStreak(data.getTotalLoots()));
+		assertEquals(0, item.getLongestDryStreak());
+
+		// Survives the compact format, which stores the streak relative to the total
+		SalvageData compact = compactCodec.decode(ShipwreckType.SMALL, compactCodec.encode(data));
+		assertSameCounts(data, compact);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCorruptDataIsRejected()
+	{
+		String encoded = compactCodec.encode(generate(ShipwreckType.SMALL, 100, new Random(1)));
+		char[] chars = encoded.toCharArray();
+		chars[chars.length / 2] = chars[chars.length / 2] == 'A' ? 'B' : 'A';
+		compactCodec.decode(ShipwreckType.SMALL, new String(chars));
+	}
+
+	@Test
+	public void testCompactIsSmallerThanJson()
+	{
+		for (int drops : new int[]{10, 1_000, 100_000})
+		{
+			SalvageData data = generate(ShipwreckType.SMALL, drops, new Random(drops));
+
+			String json = jsonCodec.encode(data);
+			String compact = compactCodec.encode(data);
+			assertTrue(compact.length() < json.length());
+		}
+	}
+
+	/**
+	 * Compares encoded sizes and encode + decode times of both codecs. Only runs with
+	 * -Dsalvagesack.benchmark=true; it prints the results.
+	 */
+	@Test
+	public void testSizeAndTimeComparison()
+	{
+		Assume.assumeTrue(Boolean.getBoolean("salvagesack.benchmark"));
+		for (int drops : new int[]{10, 1_000, 100_000})
+		{
+			SalvageData data = generate(ShipwreckType.SMALL, drops, new Random(drops));
+			String json = jsonCodec.encode(data);
+			String compact = compactCodec.encode(data);
+
+			long jsonNanos = time(() -> jsonCodec.decode(ShipwreckType.SMALL, jsonCodec.encode(data)));
+			long compactNanos = time(() -> compactCodec.decode(ShipwreckType.SMALL, compactCodec.encode(data)));
+
+			System.out.printf("%,7d drops: JSON %,5d chars %,7d ns | compact %,5d chars %,7d ns (encode + decode)%n",
+				drops, json.length(), jsonNanos, compact.length(), compactNanos);
+		}
+	}
+
+	private static long time(Runnable runnable)
+	{
+		// Warm up, then report the best of several runs
+		for (int i = 0; i < 200; i++)
+		{
+			runnable.run();
+		}
+
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 50; i++)
+		{
+			long start = System.nanoTime();
+			runnable.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	private SalvageData generate(ShipwreckType type, int drops, Random random)
+	{
+		SalvageData data = new SalvageData(type, registry);
+		for (int i = 0; i < drops; i++)
+		{
+			// Skew towards the common items, like a real drop table
+			int index = Math.min(ITEM_NAMES.length - 1, (int) (Math.abs(random.nextGaussian()) * 6));
+			data.incrementTotalLoots();
+			data.recordLoot(1000 + index * 37, ITEM_NAMES[index], 0.05, 1 + random.nextInt(40));
+		}
+		return data;
+	}
+
+	private static void assertSameCounts(SalvageData expected, SalvageData actual)
+	{
+		assertEquals(expected.getShipwreckType(), actual.getShipwreckType());
+		assertEquals(expected.getTotalLoots(), actual.getTotalLoots());
+		assertEquals(expected.getItems().size(), actual.getItems().size());
+		for (Map.Entry<Integer, SalvageItem> entry : expected.getItems().entrySet())
+		{
+			SalvageItem item = actual.getItems().get(entry.getKey());
+			assertNotNull(item);
+			assertEquals(entry.getValue().getItemId(), item.getItemId());
+			assertEquals(entry.getValue().getItemName(), item.getItemName());
+			assertEquals(entry.getValue().getDropCount(), item.getDropCount());
+			assertEquals(entry.getValue().getTotalQuantity(), item.getTotalQuantity());
+			assertEquals(entry.getValue().getLastSeenAt(), item.getLastSeenAt());
+			assertEquals(entry.getValue().getLongestDryStreak(), item.getLongestDryStreak());
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.salvagesack;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DropRateFileWatcherTest
+{
+	private File directory;
+	private File file;
+	private DropRateFileWatcher watcher;
+	private Semaphore changes;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("drop-rate-watcher").toFile();
+		file = new File(directory, "drop_rates.json");
+		changes = new Semaphore(0);
+		watcher = new DropRateFileWatcher(file, changes::release);
+		watcher.start();
+	}
+
+	@After
+	public void tearDown()
+	{
+		watcher.close();
+		new File(directory, "other.json").delete();
+		file.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void testChangeIsReported() throws Exception
+	{
+		write(file, "{}");
+		assertTrue(changes.tryAcquire(15, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testOtherFilesAreIgnored() throws Exception
+	{
+		write(new File(directory, "other.json"), "{}");
+		assertFalse(changes.tryAcquire(1, TimeUnit.SECONDS));
+	}
+
+	private static void write(File target, String content) throws IOException
+	{
+		Files.write(target.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,136 @@
+package com.salvagesack;
+
+import com.google.gson.Gson;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DropRateManagerTest
+{
+	private File directory;
+	private DropRateManager manager;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("drop-rates").toFile();
+		manager = new DropRateManager(directory, new Gson());
+	}
+
+	@After
+	public void tearDown()
+	{
+		new File(directory, "drop_rates.json").delete();
+		directory.delete();
+	}
+
+	@Test
+	public void testDryStreakTablesFollowRates()
+	{
+		DryStreakTable logs = manager.getDryStreakTable(ShipwreckType.SMALL, "Logs");
+		assertNotNull(logs);
+		assertEquals(0.1163, logs.getRate(), 0.0);
+		assertNull(manager.getDryStreakTable(ShipwreckType.SMALL, "Not a real item"));
+
+		for (String name : manager.getItemNames())
+		{
+			for (ShipwreckType type : ShipwreckType.values())
+			{
+				double rate = manager.getExpectedDropRate(type, name);
+				DryStreakTable table = manager.getDryStreakTable(type, name);
+				if (rate > 0.0 && rate < 1.0)
+				{
+					assertEquals(rate, table.getRate(), 0.0);
+					if (rate == logs.getRate())
+					{
+						// Items with the same rate share one table
+						assertSame(logs, table);
+					}
+				}
+				else
+				{
+					assertNull(table);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLookupIsCaseInsensitive()
+	{
+		assertEquals(0.1163, manager.getExpectedDropRate(ShipwreckType.SMALL, "Logs"), 0.0);
+		assertEquals(0.1163, manager.getExpectedDropRate(ShipwreckType.SMALL, "LOGS"), 0.0);
+		assertEquals(manager.getItemHandle("Logs"), manager.getItemHandle("logs"));
+	}
+
+	@Test
+	public void testHandleLookup()
+	{
+		int handle = manager.getItemHandle("Bronze bar");
+		assertEquals(handle, manager.getItemHandle("Bronze bar"));
+		assertEquals(0.1163, manager.getExpectedDropRate(ShipwreckType.SMALL, handle), 0.0);
+		assertEquals(0.0, manager.getExpectedDropRate(ShipwreckType.UNKNOWN, handle), 0.0);
+	}
+
+	@Test
+	public void testUnknownItemHasZeroRate()
+	{
+		int handle = manager.getItemHandle("Not a real item");
+		assertTrue(handle >= 0);
+		assertEquals(0.0, manager.getExpectedDropRate(ShipwreckType.SMALL, handle), 0.0);
+		assertEquals(0.0, manager.getExpectedDropRate(ShipwreckType.SMALL, -1), 0.0);
+	}
+
+	@Test
+	public void testItemNamesIncludeUserItems() throws IOException
+	{
+		assertTrue(manager.getItemNames().contains("logs"));
+		assertFalse(manager.getItemNames().contains("dragon claws"));
+
+		writeUserRates("{\"shipwrecks\": {\"LARGE\": {\"items\": {\"Dragon claws\": 0.001}}}}");
+		manager.reload();
+
+		assertTrue(manager.getItemNames().contains("dragon claws"));
+		assertTrue(manager.getItemNames().contains("logs"));
+	}
+
+	@Test
+	public void testReloadReportsChangedShipwrecks() throws IOException
+	{
+		int handle = manager.getItemHandle("Logs");
+		writeUserRates("{\"shipwrecks\": {\"LARGE\": {\"items\": {\"Logs\": 0.5}}}}");
+
+		Set<ShipwreckType> changed = manager.reload();
+
+		// Bundled rates still apply; only the overridden shipwreck changed
+		assertEquals(EnumSet.of(ShipwreckType.LARGE), changed);
+		assertEquals(0.5, manager.getExpectedDropRate(ShipwreckType.LARGE, handle), 0.0);
+		assertEquals(0.1163, manager.getExpectedDropRate(ShipwreckType.SMALL, handle), 0.0);
+		assertTrue(manager.reload().isEmpty());
+	}
+
+	@Test
+	public void testInvalidFileKeepsCurrentRates() throws IOException
+	{
+		writeUserRates("{\"shipwrecks\": {\"LARGE\": {\"items\": {\"Logs\": 0.5}}}}");
+		manager.reload();
+
+		writeUserRates("{\"shipwrecks\": ");
+		assertTrue(manager.reload().isEmpty());
+		assertEquals(0.5, manager.getExpectedDropRate(ShipwreckType.LARGE, "Logs"), 0.0);
+	}
+
+	private void writeUserRates(String json) throws IOException
+	{
+		Files.write(new File(directory, "drop_rates.json").toPath(), json.getBytes(StandardCharsets.UTF_8));
+	}
+}
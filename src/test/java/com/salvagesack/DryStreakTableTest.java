@@ -0,0 +1,35 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DryStreakTableTest
+{
+	@Test
+	public void testMatchesGeometricDistribution()
+	{
+		for (double rate : new double[]{0.5, 0.1, 0.02, 1.0 / 3000})
+		{
+			DryStreakTable table = new DryStreakTable(rate);
+			for (int streak = 0; streak < 20_000; streak += 7)
+			{
+				// Share of players who would have had the drop within this many sorts
+				double drier = 1 - Math.pow(1 - rate, streak);
+				int expected = Math.min(99, (int) Math.floor(drier * 100 + 1e-9));
+				assertEquals("rate " + rate + ", streak " + streak, expected, table.getPercentile(streak));
+			}
+		}
+	}
+
+	@Test
+	public void testKnownStreaks()
+	{
+		DryStreakTable table = new DryStreakTable(0.01);
+		assertEquals(0, table.getPercentile(0));
+		// 1 - 0.99^69 = 0.500, 1 - 0.99^68 = 0.495
+		assertEquals(50, table.getPercentile(69));
+		assertEquals(49, table.getPercentile(68));
+		assertEquals(99, table.getPercentile(10_000));
+	}
+}
@@ -0,0 +1,112 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ImportDeduplicatorTest
+{
+	private static final long START = 1_700_000_000_000L;
+
+	private static int[] totals(ShipwreckType type, int totalLoots)
+	{
+		int[] totals = new int[ShipwreckType.values().length];
+		totals[type.ordinal()] = totalLoots;
+		return totals;
+	}
+
+	private static ImportedSort sort(ShipwreckType type, long timestamp)
+	{
+		return new ImportedSort(type, timestamp, "Logs", 1);
+	}
+
+	@Test
+	public void testMatchesEachRecordedSortOnce()
+	{
+		ImportDeduplicator deduplicator = new ImportDeduplicator(totals(ShipwreckType.SMALL, 2));
+		deduplicator.addRecorded(START + 60_500, 0, ShipwreckType.SMALL, 1);
+		deduplicator.addRecorded(START + 500, 0, ShipwreckType.SMALL, 1);
+		deduplicator.finishRecorded();
+
+		List<ImportedSort> imported = new ArrayList<>();
+		// Logged in the second the first sort was recorded in, then a second sort in that second
+		deduplicator.offer(sort(ShipwreckType.SMALL, START), imported::add);
+		deduplicator.offer(sort(ShipwreckType.SMALL, START), imported::add);
+		// Other shipwrecks are not matched against it
+		deduplicator.offer(sort(ShipwreckType.LARGE, START), imported::add);
+		deduplicator.offer(sort(ShipwreckType.SMALL, START + 60_000), imported::add);
+		deduplicator.offer(sort(ShipwreckType.SMALL, START + 120_000), imported::add);
+
+		assertEquals(2, deduplicator.getDuplicates());
+		assertEquals(3, imported.size());
+		assertEquals(0, imported.get(0).getPosition());
+		assertEquals(ShipwreckType.LARGE, imported.get(1).getShipwreckType());
+		assertEquals(0, imported.get(1).getPosition());
+		// After the other import and both recorded sorts
+		assertEquals(3, imported.get(2).getPosition());
+	}
+
+	@Test
+	public void testRolledUpRowsMatchWithinTheirPeriod()
+	{
+		long hour = START - START % LootHistory.HOUR_MILLIS;
+		ImportDeduplicator deduplicator = new ImportDeduplicator(totals(ShipwreckType.LARGE, 2));
+		deduplicator.addRecorded(hour, LootHistory.HOUR_MILLIS, ShipwreckType.LARGE, 2);
+		deduplicator.finishRecorded();
+
+		List<ImportedSort> imported = new ArrayList<>();
+		deduplicator.offer(sort(ShipwreckType.LARGE, hour + 60_000), imported::add);
+		deduplicator.offer(sort(ShipwreckType.LARGE, hour + 120_000), imported::add);
+		deduplicator.offer(sort(ShipwreckType.LARGE, hour + 180_000), imported::add);
+		deduplicator.offer(sort(ShipwreckType.LARGE, hour + LootHistory.HOUR_MILLIS + 60_000), imported::add);
+
+		assertEquals(2, deduplicator.getDuplicates());
+		assertEquals(2, imported.size());
+	}
+
+	@Test
+	public void testUntimedSortsAreTheLatestBeforeTheHistory()
+	{
+		long historyStart = START + 10 * LootHistory.DAY_MILLIS;
+		// Five counted sorts, only one of them in the history
+		ImportDeduplicator deduplicator = new ImportDeduplicator(totals(ShipwreckType.SMALL, 5));
+		deduplicator.addRecorded(historyStart, 0, ShipwreckType.SMALL, 1);
+		deduplicator.finishRecorded();
+
+		List<ImportedSort> imported = new ArrayList<>();
+		for (int i = 0; i < 6; i++)
+		{
+			deduplicator.offer(sort(ShipwreckType.SMALL, START + i * 60_000L), imported::add);
+		}
+		// The last four are held back in case they are the untimed sorts
+		assertEquals(2, imported.size());
+		assertEquals(0, imported.get(0).getPosition());
+		assertEquals(1, imported.get(1).getPosition());
+
+		deduplicator.offer(sort(ShipwreckType.SMALL, historyStart + LootHistory.HOUR_MILLIS), imported::add);
+		assertEquals(4, deduplicator.getDuplicates());
+		assertEquals(3, imported.size());
+		// After both older imports, the untimed sorts and the recorded one
+		assertEquals(7, imported.get(2).getPosition());
+	}
+
+	@Test
+	public void testHeldSortsAreDroppedAtTheEnd()
+	{
+		ImportDeduplicator deduplicator = new ImportDeduplicator(totals(ShipwreckType.SMALL, 3));
+		deduplicator.finishRecorded();
+
+		List<ImportedSort> imported = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+		{
+			deduplicator.offer(sort(ShipwreckType.SMALL, START + i * 1000L), imported::add);
+		}
+		deduplicator.finish();
+
+		assertEquals(2, imported.size());
+		assertEquals(3, deduplicator.getDuplicates());
+	}
+}
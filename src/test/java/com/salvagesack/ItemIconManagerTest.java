@@ -0,0 +1,151 @@
+package com.salvagesack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ItemIconManagerTest
+{
+	private StubIconSource source;
+
+	@Before
+	public void setUp()
+	{
+		source = new StubIconSource();
+	}
+
+	private ItemIconManager newManager(int maxCachedIcons)
+	{
+		ItemIconManager manager = new ItemIconManager(maxCachedIcons);
+		manager.setIconSource(source);
+		return manager;
+	}
+
+	@Test
+	public void testIconIsRequestedOncePerItem()
+	{
+		ItemIconManager manager = newManager(ItemIconManager.DEFAULT_MAX_CACHED_ICONS);
+		source.loadImmediately = false;
+
+		BufferedImage pending = manager.getItemIcon(10);
+		for (int i = 0; i < 5; i++)
+		{
+			assertSame(pending, manager.getItemIcon(10));
+		}
+		assertEquals(1, manager.prefetch(Arrays.asList(10, 11)));
+		assertEquals(1, source.requests(10));
+		assertEquals(1, source.requests(11));
+		assertEquals(2, manager.getLoadingIconCount());
+
+		source.finishLoading();
+		assertEquals(0, manager.getLoadingIconCount());
+		assertEquals(2, manager.getCachedIconCount());
+		assertSame(pending, manager.getItemIcon(10));
+		assertEquals(0, manager.prefetch(Arrays.asList(10, 11)));
+		assertEquals(1, source.requests(10));
+		assertEquals(1, source.requests(11));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIconIsEvicted()
+	{
+		ItemIconManager manager = newManager(3);
+		manager.getItemIcon(1);
+		manager.getItemIcon(2);
+		manager.getItemIcon(3);
+
+		// Using 1 leaves 2 as the least recently used
+		manager.getItemIcon(1);
+		manager.getItemIcon(4);
+		assertEquals(3, manager.getCachedIconCount());
+
+		manager.getItemIcon(1);
+		manager.getItemIcon(3);
+		manager.getItemIcon(4);
+		assertEquals(1, source.requests(1));
+		assertEquals(1, source.requests(3));
+		assertEquals(1, source.requests(4));
+
+		manager.getItemIcon(2);
+		assertEquals(2, source.requests(2));
+	}
+
+	@Test
+	public void testBurstOfLoadsRepaintsOnce() throws Exception
+	{
+		ItemIconManager manager = newManager(ItemIconManager.DEFAULT_MAX_CACHED_ICONS);
+		AtomicInteger repaints = new AtomicInteger();
+		CountDownLatch repainted = new CountDownLatch(1);
+		manager.setOnIconLoaded(() -> {
+			repaints.incrementAndGet();
+			repainted.countDown();
+		});
+		source.loadImmediately = false;
+
+		for (int itemId = 1; itemId <= 20; itemId++)
+		{
+			manager.getItemIcon(itemId);
+		}
+		source.finishLoading();
+
+		assertTrue(repainted.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		SwingUtilities.invokeAndWait(() -> { });
+		assertEquals(1, repaints.get());
+		assertEquals(20, manager.getCachedIconCount());
+	}
+
+	/**
+	 * Icons that load when the test says so, counting requests per item
+	 */
+	private static class StubIconSource implements ItemIconManager.IconSource
+	{
+		private final Map<Integer, AtomicInteger> requests = new ConcurrentHashMap<>();
+		private final List<Runnable> pending = new ArrayList<>();
+		boolean loadImmediately = true;
+
+		@Override
+		public BufferedImage getImage(int itemId)
+		{
+			requests.computeIfAbsent(itemId, id -> new AtomicInteger()).incrementAndGet();
+			return new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+		}
+
+		@Override
+		public synchronized void onLoaded(BufferedImage image, Runnable callback)
+		{
+			if (loadImmediately)
+			{
+				callback.run();
+			}
+			else
+			{
+				pending.add(callback);
+			}
+		}
+
+		synchronized void finishLoading()
+		{
+			pending.forEach(Runnable::run);
+			pending.clear();
+		}
+
+		int requests(int itemId)
+		{
+			AtomicInteger count = requests.get(itemId);
+			return count != null ? count.get() : 0;
+		}
+	}
+}
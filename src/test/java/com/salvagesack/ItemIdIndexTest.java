@@ -0,0 +1,98 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import net.runelite.http.api.item.ItemPrice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ItemIdIndexTest
+{
+	private final ItemRegistry registry = new ItemRegistry();
+
+	@Test
+	public void testResolveUsesLoadedMappings()
+	{
+		ItemIdIndex index = new ItemIdIndex();
+		index.load(Collections.singletonMap("Logs", 1511));
+
+		assertEquals(1511, index.resolve("Logs"));
+		assertEquals(1511, index.resolve("logs "));
+		assertFalse(index.consumeDirty());
+	}
+
+	@Test
+	public void testUnknownNameFallsBackToHash()
+	{
+		ItemIdIndex index = new ItemIdIndex();
+		assertEquals(ItemIdIndex.fallbackId("Mystery item"), index.resolve("Mystery item"));
+	}
+
+	@Test
+	public void testRepairMergesHashedEntries()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		data.recordLoot(ItemIdIndex.fallbackId("Logs"), "Logs", 0.1, 3);
+		data.recordLoot(1511, "Logs", 0.1, 2);
+		data.recordLoot(ItemIdIndex.fallbackId("Mystery item"), "Mystery item", 0.0, 1);
+
+		Map<ShipwreckType, SalvageData> dataMap = new EnumMap<>(ShipwreckType.class);
+		dataMap.put(ShipwreckType.SMALL, data);
+
+		ItemIdIndex index = new ItemIdIndex();
+		index.load(Collections.singletonMap("logs", 1511));
+
+		assertEquals(1, index.repairHashedIds(dataMap));
+		assertEquals(2, data.getItems().size());
+		assertNull(data.getItems().get(ItemIdIndex.fallbackId("Logs")));
+		assertEquals(2, data.getItems().get(1511).getDropCount());
+		assertEquals(5, data.getItems().get(1511).getTotalQuantity());
+		assertNotNull(data.getItems().get(ItemIdIndex.fallbackId("Mystery item")));
+	}
+
+	@Test
+	public void testMissesAreNotRememberedBeforeTheDatabaseLoads()
+	{
+		List<ItemPrice> database = new ArrayList<>();
+		List<String> searches = new ArrayList<>();
+		ItemIdIndex index = new ItemIdIndex();
+		index.setItemSearch(name -> {
+			searches.add(name);
+			List<ItemPrice> results = new ArrayList<>();
+			for (ItemPrice item : database)
+			{
+				if (item.getName().toLowerCase().contains(name.toLowerCase()))
+				{
+					results.add(item);
+				}
+			}
+			return results;
+		});
+
+		// Nothing is found while the client is still loading the item database
+		assertEquals(ItemIdIndex.fallbackId("Logs"), index.resolve("Logs"));
+		database.add(item(1511, "Logs"));
+		database.add(item(1521, "Oak logs"));
+		assertEquals(1511, index.resolve("Logs"));
+		assertTrue(index.consumeDirty());
+
+		// Once it has loaded, a miss is searched for only once
+		assertEquals(ItemIdIndex.fallbackId("Mystery item"), index.resolve("Mystery item"));
+		assertEquals(ItemIdIndex.fallbackId("Mystery item"), index.resolve("Mystery item"));
+		assertEquals(3, searches.size());
+	}
+
+	private static ItemPrice item(int id, String name)
+	{
+		ItemPrice item = new ItemPrice();
+		item.setId(id);
+		item.setName(name);
+		return item;
+	}
+}
@@ -0,0 +1,171 @@
+package com.salvagesack;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class LootHistoryTest
+{
+	private static final long START = 1_700_000_000_000L;
+
+	private final ItemRegistry registry = new ItemRegistry();
+	private Path directory;
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("loot-history");
+		path = directory.resolve("history.bin");
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testScanByTimeAndShipwreck() throws IOException
+	{
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			history.append(ShipwreckType.SMALL, 995, 100, START);
+			history.append(ShipwreckType.LARGE, 1511, 1, START + 1000);
+			history.append(ShipwreckType.SMALL, 1511, 2, START + 2000);
+			history.append(ShipwreckType.SMALL, 995, 50, START + 3000);
+
+			List<Long> times = new ArrayList<>();
+			history.scan(START + 1000, START + 3000, null, (time, type, item, drops, quantity) -> times.add(time));
+			assertEquals(List.of(START + 1000, START + 2000), times);
+
+			long[] coins = new long[1];
+			int coinsOrdinal = registry.ordinal(995);
+			history.scan(0, Long.MAX_VALUE, ShipwreckType.SMALL, (time, type, item, drops, quantity) -> {
+				assertEquals(ShipwreckType.SMALL, type);
+				if (item == coinsOrdinal)
+				{
+					coins[0] += quantity;
+				}
+			});
+			assertEquals(150, coins[0]);
+		}
+	}
+
+	@Test
+	public void testHistorySurvivesReopen() throws IOException
+	{
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			// Enough sorts to grow the mapped file
+			for (int i = 0; i < 10_000; i++)
+			{
+				history.append(ShipwreckType.values()[i % ShipwreckType.values().length], 995, i, START + i);
+			}
+		}
+
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			assertEquals(10_000, history.size());
+
+			long[] sum = new long[2];
+			history.scan(0, Long.MAX_VALUE, null, (time, type, item, drops, quantity) -> {
+				sum[0] += drops;
+				sum[1] += quantity;
+			});
+			assertEquals(10_000, sum[0]);
+			assertEquals(10_000L * 9_999 / 2, sum[1]);
+		}
+	}
+
+	@Test
+	public void testOldSortsAreRolledUp() throws IOException
+	{
+		int days = 2 * 365;
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			// Ten sorts an hour for two years
+			for (long hour = 0; hour < days * 24L; hour++)
+			{
+				for (int i = 0; i < 10; i++)
+				{
+					history.append(ShipwreckType.SMALL, 995, 1, START + hour * LootHistory.HOUR_MILLIS + i);
+				}
+			}
+
+			// Raw sorts for a week, hourly rows up to 90 days, then one row a day; aging lags by up to a bucket
+			int expectedRows = 7 * 24 * 10 + (90 - 7) * 24 + (days - 90);
+			assertTrue(history.getMemoryRows() < expectedRows + 24 * 10 + 24);
+			assertTrue(history.getMemoryRows() >= expectedRows);
+
+			int[] drops = new int[1];
+			history.scan(0, Long.MAX_VALUE, null, (time, type, item, count, quantity) -> drops[0] += count);
+			assertEquals(days * 24 * 10, drops[0]);
+		}
+
+		// Reloading rolls up the same way from the raw file
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			assertEquals(days * 24L * 10, history.size());
+			int[] drops = new int[1];
+			history.scan(START, START + LootHistory.DAY_MILLIS, null, (time, type, item, count, quantity) -> drops[0] += count);
+			assertEquals(24 * 10, drops[0]);
+		}
+	}
+
+	@Test
+	public void testOutOfOrderSortsAreInserted() throws IOException
+	{
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			history.append(ShipwreckType.SMALL, 995, 1, START + 2000);
+			history.append(ShipwreckType.SMALL, 995, 1, START);
+			history.append(ShipwreckType.SMALL, 995, 1, START + 1000);
+
+			List<Long> times = new ArrayList<>();
+			history.scan(0, Long.MAX_VALUE, null, (time, type, item, drops, quantity) -> times.add(time));
+			assertEquals(List.of(START, START + 1000, START + 2000), times);
+		}
+	}
+
+	@Test
+	public void testOldSortsGoStraightToTheirTier() throws IOException
+	{
+		try (LootHistory history = new LootHistory(path, registry))
+		{
+			history.open();
+			history.append(ShipwreckType.SMALL, 995, 1, START);
+			history.append(ShipwreckType.SMALL, 995, 1, START - 10 * LootHistory.DAY_MILLIS);
+			history.append(ShipwreckType.SMALL, 995, 1, START - 10 * LootHistory.DAY_MILLIS + 1000);
+			history.append(ShipwreckType.LARGE, 995, 1, START - 100 * LootHistory.DAY_MILLIS);
+
+			List<Long> spans = new ArrayList<>();
+			List<Integer> drops = new ArrayList<>();
+			history.scanSpans((time, span, type, count) -> {
+				spans.add(span);
+				drops.add(count);
+			});
+			assertEquals(List.of(LootHistory.DAY_MILLIS, LootHistory.HOUR_MILLIS, 0L), spans);
+			assertEquals(List.of(1, 2, 1), drops);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.salvagesack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LootIngestQueueTest
+{
+	private long nanos;
+	private List<Long> delays;
+	private List<Runnable> timers;
+	private AtomicInteger drainRequests;
+	private List<List<SalvageMessage>> batches;
+
+	@Before
+	public void setUp()
+	{
+		nanos = 0;
+		delays = new ArrayList<>();
+		timers = new ArrayList<>();
+		drainRequests = new AtomicInteger();
+		batches = new ArrayList<>();
+	}
+
+	private LootIngestQueue newQueue(long fallbackMillis)
+	{
+		return new LootIngestQueue((task, delayMillis) -> {
+			timers.add(task);
+			delays.add(delayMillis);
+		}, () -> nanos, drainRequests::incrementAndGet, fallbackMillis);
+	}
+
+	@Test
+	public void testBurstIsAppliedAsOneBatch()
+	{
+		LootIngestQueue queue = newQueue(10000);
+		for (int i = 0; i < 28; i++)
+		{
+			queue.add(new SalvageMessage("Martial", 1, "Item " + i));
+		}
+
+		assertEquals(28, queue.drain(batches::add));
+		assertEquals(0, queue.drain(batches::add));
+
+		assertEquals(1, batches.size());
+		assertEquals("Item 0", batches.get(0).get(0).getItemName());
+		assertEquals("Item 27", batches.get(0).get(27).getItemName());
+		assertEquals(1, queue.getBatches());
+		assertEquals(28, queue.getAppliedMessages());
+		assertEquals(28, queue.getLargestBatch());
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void testFallbackRequestsDrainWithoutTicks()
+	{
+		LootIngestQueue queue = newQueue(20);
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+
+		// One fallback for the two messages
+		assertEquals(Arrays.asList(20L), delays);
+		timers.remove(0).run();
+		assertEquals(1, drainRequests.get());
+		assertEquals(2, queue.size());
+
+		// The next message schedules a new one
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		assertEquals(Arrays.asList(20L, 20L), delays);
+	}
+
+	@Test
+	public void testFallbackSkippedWhenAlreadyDrained()
+	{
+		LootIngestQueue queue = newQueue(20);
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		queue.drain(batches::add);
+
+		timers.remove(0).run();
+		assertEquals(0, drainRequests.get());
+		assertEquals(1, batches.size());
+	}
+
+	@Test
+	public void testRejectedFallbackIsScheduledByTheNextMessage()
+	{
+		AtomicInteger attempts = new AtomicInteger();
+		LootIngestQueue queue = new LootIngestQueue((task, delayMillis) -> {
+			if (attempts.incrementAndGet() == 1)
+			{
+				throw new RejectedExecutionException("Shutting down");
+			}
+			timers.add(task);
+		}, () -> nanos, drainRequests::incrementAndGet, 20);
+
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		assertEquals(2, attempts.get());
+		assertEquals(1, timers.size());
+	}
+
+	@Test
+	public void testApplyTimesAreRecorded()
+	{
+		LootIngestQueue queue = newQueue(20);
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		queue.drain(batch -> nanos += 3_000);
+		queue.add(new SalvageMessage("Small", 1, "Logs"));
+		queue.drain(batch -> nanos += 5_000);
+
+		assertEquals(2, queue.getBatches());
+		assertEquals(8_000, queue.getTotalApplyNanos());
+		assertEquals(5_000, queue.getLongestApplyNanos());
+	}
+}
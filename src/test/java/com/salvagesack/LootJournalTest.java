@@ -0,0 +1,133 @@
+package com.salvagesack;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class LootJournalTest
+{
+	private Path directory;
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("loot-journal");
+		path = directory.resolve("journal.bin");
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testEventsSurviveReopen() throws IOException
+	{
+		try (LootJournal journal = new LootJournal(path))
+		{
+			assertTrue(journal.open().isEmpty());
+			assertEquals(1, journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", 250, 1000L));
+			assertEquals(2, journal.appendReset(null, 2000L));
+			assertEquals(3, journal.appendLoot(ShipwreckType.LARGE, 1511, "Logs", 1, 3000L));
+		}
+
+		try (LootJournal journal = new LootJournal(path))
+		{
+			List<LootJournal.Entry> entries = journal.open();
+			assertEquals(3, entries.size());
+
+			LootJournal.Entry loot = entries.get(0);
+			assertEquals(1, loot.getSeq());
+			assertEquals(LootJournal.KIND_LOOT, loot.getKind());
+			assertEquals(ShipwreckType.SMALL, loot.getShipwreck());
+			assertEquals(995, loot.getItemId());
+			assertEquals("Coins", loot.getItemName());
+			assertEquals(250, loot.getQuantity());
+			assertEquals(1000L, loot.getTimestamp());
+
+			assertEquals(LootJournal.KIND_RESET, entries.get(1).getKind());
+			assertNull(entries.get(1).getShipwreck());
+
+			// Sequence numbers continue after reopening
+			assertEquals(4, journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", 1, 4000L));
+		}
+	}
+
+	@Test
+	public void testTornTailIsTruncated() throws IOException
+	{
+		try (LootJournal journal = new LootJournal(path))
+		{
+			journal.open();
+			journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", 1, 1000L);
+			journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", 2, 2000L);
+		}
+
+		// Simulate a crash part way through writing the second record
+		long size = Files.size(path);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.truncate(size - 3);
+		}
+
+		try (LootJournal journal = new LootJournal(path))
+		{
+			List<LootJournal.Entry> entries = journal.open();
+			assertEquals(1, entries.size());
+			assertEquals(2, journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", 3, 3000L));
+		}
+
+		try (LootJournal journal = new LootJournal(path))
+		{
+			List<LootJournal.Entry> entries = journal.open();
+			assertEquals(2, entries.size());
+			assertEquals(3, entries.get(1).getQuantity());
+		}
+	}
+
+	@Test
+	public void testCompactKeepsOnlyMatchingEvents() throws IOException
+	{
+		try (LootJournal journal = new LootJournal(path))
+		{
+			journal.open();
+			for (int i = 0; i < 100; i++)
+			{
+				journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", i, i);
+			}
+			long before = journal.size();
+
+			journal.compact(entry -> entry.getSeq() > 90);
+			assertTrue(journal.size() < before);
+
+			// Appends continue after the compacted events
+			assertEquals(101, journal.appendLoot(ShipwreckType.SMALL, 995, "Coins", 1, 101L));
+		}
+
+		assertFalse(Files.exists(path.resolveSibling("journal.bin.tmp")));
+
+		try (LootJournal journal = new LootJournal(path))
+		{
+			List<LootJournal.Entry> entries = journal.open();
+			assertEquals(11, entries.size());
+			assertEquals(91, entries.get(0).getSeq());
+			assertEquals(101, entries.get(10).getSeq());
+		}
+	}
+}
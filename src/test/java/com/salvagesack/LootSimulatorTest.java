@@ -0,0 +1,215 @@
+package com.salvagesack;
+
+import com.google.gson.Gson;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class LootSimulatorTest
+{
+	private File directory;
+	private DropRateManager rates;
+	private ForkJoinPool pool;
+	private LootSimulator simulator;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("simulator").toFile();
+		rates = new DropRateManager(directory, new Gson());
+		pool = new ForkJoinPool();
+		simulator = new LootSimulator(rates, pool, 42);
+	}
+
+	@After
+	public void tearDown()
+	{
+		pool.shutdownNow();
+		new File(directory, "drop_rates.json").delete();
+		directory.delete();
+	}
+
+	@Test
+	public void testAliasSamplerMatchesWeights()
+	{
+		double[] weights = {0.5, 0.25, 0.125, 0.0, 0.125};
+		AliasSampler sampler = new AliasSampler(weights);
+		SplittableRandom random = new SplittableRandom(1);
+		int[] counts = new int[weights.length];
+		int draws = 1_000_000;
+		for (int i = 0; i < draws; i++)
+		{
+			counts[sampler.sample(random)]++;
+		}
+
+		for (int i = 0; i < weights.length; i++)
+		{
+			assertEquals(weights[i], (double) counts[i] / draws, 0.002);
+		}
+		assertEquals(0, counts[3]);
+	}
+
+	@Test
+	public void testDistributionsMatchBinomial()
+	{
+		SimulationResult result = simulator.simulate(ShipwreckType.SMALL, 5000).join();
+		assertEquals(5000, result.getSorts());
+		assertEquals(LootSimulator.trialsFor(5000), result.getTrials());
+		assertEquals(rates.getDropTable(ShipwreckType.SMALL).size(), result.getDistributions().size());
+
+		for (SimulationResult.ItemDistribution item : result.getDistributions())
+		{
+			double mean = 5000 * item.getRate();
+			double deviation = Math.sqrt(mean * (1 - item.getRate()));
+			double standardError = deviation / Math.sqrt(result.getTrials());
+			assertEquals(item.getItemName(), mean, item.getMean(), 5 * standardError + 1e-9);
+			assertEquals(item.getItemName(), deviation, item.getStandardDeviation(), 0.1 * deviation + 0.05);
+
+			// The median is near the mean, and the tails are monotonic
+			assertEquals(item.getItemName(), mean, item.getPercentile(0.5), 1.5 + 0.1 * deviation);
+			assertTrue(item.getPercentile(0.05) <= item.getPercentile(0.95));
+			assertEquals(1.0, item.getProbabilityAtMost(5000), 0.0);
+			assertEquals(1.0, item.getProbabilityAtLeast(0), 0.0);
+		}
+	}
+
+	@Test
+	public void testProbabilityOfBeingThisDry()
+	{
+		double rate = rates.getExpectedDropRate(ShipwreckType.SMALL, "Logs");
+		SimulationResult.ItemDistribution logs = simulator.simulate(ShipwreckType.SMALL, 1000).join()
+			.getDistribution("Logs");
+		assertNotNull(logs);
+
+		// Normal approximation of the binomial; 2 standard deviations below the mean is about 2.3%
+		double mean = 1000 * rate;
+		double deviation = Math.sqrt(mean * (1 - rate));
+		int dry = (int) Math.floor(mean - 2 * deviation);
+		assertEquals(0.023, logs.getProbabilityAtMost(dry), 0.015);
+		assertEquals(1.0, logs.getProbabilityAtMost(dry) + logs.getProbabilityAtLeast(dry + 1), 1e-9);
+	}
+
+	@Test
+	public void testResultsAreCachedAndDeterministic()
+	{
+		SimulationResult first = simulator.simulate(ShipwreckType.LARGE, 800).join();
+		assertSame(first, simulator.simulate(ShipwreckType.LARGE, 800).join());
+
+		simulator.clear();
+		SimulationResult again = simulator.simulate(ShipwreckType.LARGE, 800).join();
+		assertNotSame(first, again);
+		for (SimulationResult.ItemDistribution item : first.getDistributions())
+		{
+			assertEquals(item.getMean(), again.getDistribution(item.getItemName()).getMean(), 0.0);
+		}
+	}
+
+	@Test
+	public void testDrawsAreCapped()
+	{
+		for (int sorts : new int[]{1, 1_000, 40_000, 40_001, 1_000_000, Integer.MAX_VALUE})
+		{
+			int trials = LootSimulator.trialsFor(sorts);
+			assertTrue(trials >= LootSimulator.MIN_TRIALS && trials <= LootSimulator.MAX_TRIALS);
+			if (!LootSimulator.approximates(sorts))
+			{
+				assertTrue((long) trials * sorts <= LootSimulator.TARGET_DRAWS);
+			}
+		}
+		assertFalse(LootSimulator.approximates(40_000));
+		assertTrue(LootSimulator.approximates(40_001));
+	}
+
+	@Test
+	public void testBinomialMatchesMeanAndDeviation()
+	{
+		SplittableRandom random = new SplittableRandom(7);
+		int[][] cases = {{1_000_000, 10}, {1_000_000, 100_000}, {1_000_000, 900_000}};
+		for (int[] test : cases)
+		{
+			int n = test[0];
+			double p = (double) test[1] / n;
+			int draws = 20_000;
+			double sum = 0;
+			double squares = 0;
+			for (int i = 0; i < draws; i++)
+			{
+				int count = LootSimulator.binomial(n, p, random);
+				assertTrue(count >= 0 && count <= n);
+				sum += count;
+				squares += (double) count * count;
+			}
+			double mean = sum / draws;
+			double deviation = Math.sqrt(squares / draws - mean * mean);
+			double expectedDeviation = Math.sqrt(n * p * (1 - p));
+			assertEquals(n * p, mean, 5 * expectedDeviation / Math.sqrt(draws));
+			assertEquals(expectedDeviation, deviation, 0.05 * expectedDeviation);
+		}
+	}
+
+	@Test
+	public void testManySortsAreApproximated()
+	{
+		int sorts = 2_000_000;
+		SimulationResult result = simulator.simulate(ShipwreckType.SMALL, sorts).join();
+		assertEquals(LootSimulator.MAX_TRIALS, result.getTrials());
+		for (SimulationResult.ItemDistribution item : result.getDistributions())
+		{
+			double mean = sorts * item.getRate();
+			double deviation = Math.sqrt(mean * (1 - item.getRate()));
+			assertEquals(item.getItemName(), mean, item.getMean(), 5 * deviation / Math.sqrt(result.getTrials()) + 1e-9);
+			assertEquals(item.getItemName(), deviation, item.getStandardDeviation(), 0.1 * deviation + 0.05);
+		}
+	}
+
+	@Test
+	public void testCancelledSimulationIsRunAgain()
+	{
+		CompletableFuture<SimulationResult> first = simulator.simulate(ShipwreckType.LARGE, 20_000);
+		first.cancel(false);
+		assertTrue(first.isCancelled());
+
+		CompletableFuture<SimulationResult> again = simulator.simulate(ShipwreckType.LARGE, 20_000);
+		assertNotSame(first, again);
+		assertEquals(20_000, again.join().getSorts());
+	}
+
+	@Test(expected = CancellationException.class)
+	public void testCancelledRunStops()
+	{
+		simulator.run(ShipwreckType.LARGE, 20_000, 1_000, () -> true);
+	}
+
+	/**
+	 * Times uncached simulations of up to {@link LootSimulator#TARGET_DRAWS} simulated sorts each. Only runs with
+	 * -Dsalvagesack.benchmark=true; it prints the throughput and checks each run takes under a second.
+	 */
+	@Test
+	public void testThroughput()
+	{
+		Assume.assumeTrue(Boolean.getBoolean("salvagesack.benchmark"));
+		for (int sorts : new int[]{1_000, 5_000, 100_000})
+		{
+			// Warm up, then time an uncached run
+			simulator.run(ShipwreckType.MERCHANT, sorts, LootSimulator.trialsFor(sorts));
+			SimulationResult result = simulator.run(ShipwreckType.MERCHANT, sorts, LootSimulator.trialsFor(sorts));
+			long draws = (long) result.getTrials() * sorts;
+			System.out.printf("%,7d sorts x %,6d trials: %,13d simulated sorts in %,5d ms on %d threads%n", sorts,
+				result.getTrials(), draws, result.getElapsedNanos() / 1_000_000, pool.getParallelism());
+
+			assertTrue(draws >= 1_000_000);
+			assertTrue(result.getElapsedNanos() < 1_000_000_000L);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.awt.Color;
+
+import static org.junit.Assert.*;
+
+public class LuckStatsTest
+{
+	private final ItemRegistry registry = new ItemRegistry();
+
+	@Test
+	public void testFewSortsAreNotSignificant()
+	{
+		// 1 drop in 2 sorts of a 10% item used to show as very lucky
+		LuckStats stats = new LuckStats(1, 2, 0.1);
+		assertEquals(0.38, stats.getPValue(), 0.01);
+		assertTrue(stats.getZScore() > 0);
+		assertTrue(stats.getZScore() < LuckEngine.Z_NEUTRAL);
+		assertEquals(LuckEngine.LUCK_NEUTRAL, LuckEngine.colorFor(stats));
+	}
+
+	@Test
+	public void testSignificantResultsAreColored()
+	{
+		// 150 drops in 1000 sorts of a 10% item is over 5 standard deviations lucky
+		LuckStats lucky = new LuckStats(150, 1000, 0.1);
+		assertEquals(50 / Math.sqrt(90), lucky.getZScore(), 1e-9);
+		assertTrue(lucky.getPValue() < 1e-6);
+		assertEquals(LuckEngine.LUCK_GOOD, LuckEngine.colorFor(lucky));
+
+		LuckStats unlucky = new LuckStats(0, 150, 0.05);
+		assertTrue(unlucky.getZScore() < -LuckEngine.Z_FULL);
+		assertEquals(LuckEngine.LUCK_BAD, LuckEngine.colorFor(unlucky));
+
+		assertEquals(Color.LIGHT_GRAY, LuckEngine.colorFor(new LuckStats(3, 10, 0)));
+	}
+
+	@Test
+	public void testExactPValue()
+	{
+		// P(X <= 0) for n = 10, p = 0.2 is 0.8^10
+		assertEquals(2 * Math.pow(0.8, 10), LuckStats.exactPValue(0, 10, 0.2), 1e-12);
+		// P(X >= 10) for n = 10, p = 0.2 is 0.2^10
+		assertEquals(2 * Math.pow(0.2, 10), LuckStats.exactPValue(10, 10, 0.2), 1e-15);
+		assertEquals(1.0, LuckStats.exactPValue(2, 10, 0.2), 0);
+
+		// (1 - p)^n underflows without log space
+		double p = LuckStats.exactPValue(5000, 5000, 0.999);
+		assertTrue(p > 0 && p < 1);
+	}
+
+	@Test
+	public void testNormalFunctions()
+	{
+		assertEquals(0.05, LuckStats.erfc(1.959963984540054 / Math.sqrt(2)), 1e-6);
+		assertEquals(1.0, LuckStats.erfc(0), 1e-6);
+		assertEquals(1.959963984540054, LuckStats.inverseNormal(0.975), 1e-8);
+		assertEquals(-2.5758293035489, LuckStats.inverseNormal(0.005), 1e-8);
+		assertEquals(0, LuckStats.inverseNormal(0.5), 1e-12);
+	}
+
+	@Test
+	public void testWilsonInterval()
+	{
+		LuckStats stats = new LuckStats(10, 100, 0.1);
+		assertEquals(0.0552, stats.getWilsonLower(), 1e-4);
+		assertEquals(0.1744, stats.getWilsonUpper(), 1e-4);
+
+		LuckStats none = new LuckStats(0, 20, 0.1);
+		assertEquals(0, none.getWilsonLower(), 1e-12);
+		assertTrue(none.getWilsonUpper() > 0.1);
+	}
+
+	@Test
+	public void testEngineCachesUntilCountsChange()
+	{
+		LuckEngine engine = new LuckEngine(registry);
+		LuckEngine.Entry first = engine.get(ShipwreckType.SMALL, 995, 3, 50, 0.05);
+		assertSame(first, engine.get(ShipwreckType.SMALL, 995, 3, 50, 0.05));
+		assertNotSame(first, engine.get(ShipwreckType.SMALL, 995, 3, 51, 0.05));
+		assertNotSame(first, engine.get(ShipwreckType.LARGE, 995, 3, 50, 0.05));
+		assertEquals(Integer.MIN_VALUE, engine.get(ShipwreckType.SMALL, 1511, 3, 50, 0).getSortKey(), 0);
+	}
+}
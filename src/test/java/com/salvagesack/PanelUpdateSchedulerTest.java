@@ -0,0 +1,83 @@
+package com.salvagesack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class PanelUpdateSchedulerTest
+{
+	private List<Set<ShipwreckType>> renders;
+	private PanelUpdateScheduler scheduler;
+
+	@Before
+	public void setUp()
+	{
+		renders = new CopyOnWriteArrayList<>();
+		scheduler = new PanelUpdateScheduler(renders::add, () -> 50);
+	}
+
+	@Test
+	public void testBurstIsRenderedOnce() throws Exception
+	{
+		scheduler.setActive(true);
+		for (int i = 0; i < 20; i++)
+		{
+			scheduler.requestUpdate(Collections.emptySet());
+		}
+		scheduler.requestUpdate(EnumSet.of(ShipwreckType.LARGE));
+
+		waitForRenders(1);
+		Thread.sleep(150);
+
+		assertEquals(1, renders.size());
+		assertEquals(EnumSet.of(ShipwreckType.LARGE), renders.get(0));
+		assertEquals(1, scheduler.getPerformedRenders());
+		assertEquals(20, scheduler.getSkippedRenders());
+	}
+
+	@Test
+	public void testHiddenPanelRendersOnActivation() throws Exception
+	{
+		scheduler.requestUpdate(Collections.emptySet());
+		scheduler.requestUpdate(Collections.emptySet());
+		Thread.sleep(150);
+		assertTrue(renders.isEmpty());
+
+		scheduler.setActive(true);
+		waitForRenders(1);
+		assertEquals(1, scheduler.getPerformedRenders());
+		assertEquals(1, scheduler.getSkippedRenders());
+	}
+
+	@Test
+	public void testRendersAreSpacedByInterval() throws Exception
+	{
+		scheduler.setActive(true);
+		scheduler.requestUpdate(Collections.emptySet());
+		waitForRenders(1);
+
+		long start = System.currentTimeMillis();
+		scheduler.requestUpdate(Collections.emptySet());
+		waitForRenders(2);
+		assertTrue(System.currentTimeMillis() - start >= 30);
+	}
+
+	private void waitForRenders(int count) throws Exception
+	{
+		long end = System.currentTimeMillis() + 5000;
+		while (renders.size() < count && System.currentTimeMillis() < end)
+		{
+			Thread.sleep(10);
+		}
+		SwingUtilities.invokeAndWait(() -> {});
+		assertEquals(count, renders.size());
+	}
+}
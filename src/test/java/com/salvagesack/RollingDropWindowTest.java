@@ -0,0 +1,123 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RollingDropWindowTest
+{
+	private static final long MINUTE = 60 * 1000;
+
+	private final ItemRegistry registry = new ItemRegistry();
+
+	@Test
+	public void testSortWindowKeepsLastSorts()
+	{
+		RollingDropWindow window = new RollingDropWindow(registry, 4, 30 * MINUTE);
+		int coins = registry.ordinal(995);
+		int logs = registry.ordinal(1511);
+
+		window.record(coins, 0);
+		window.record(coins, 1);
+		RollingDropRates rates = window.snapshot();
+		assertEquals(2, rates.getWindowSorts());
+		assertEquals(1.0, rates.getSortWindowRate(995), 0);
+
+		window.record(logs, 2);
+		window.record(logs, 3);
+		window.record(logs, 4);
+		window.record(logs, 5);
+		rates = window.snapshot();
+		assertEquals(4, rates.getWindowSorts());
+		assertEquals(0.0, rates.getSortWindowRate(995), 0);
+		assertEquals(1.0, rates.getSortWindowRate(1511), 0);
+
+		// The time window still holds every sort
+		assertEquals(6, rates.getWindowTimeSorts());
+		assertEquals(2.0 / 6, rates.getTimeWindowRate(995), 1e-9);
+	}
+
+	@Test
+	public void testTimeWindowExpires()
+	{
+		RollingDropWindow window = new RollingDropWindow(registry, 100, 10 * MINUTE);
+		int coins = registry.ordinal(995);
+		window.record(coins, 0);
+		window.record(coins, 5 * MINUTE);
+		window.consumeModified();
+
+		assertFalse(window.expire(9 * MINUTE));
+		assertFalse(window.consumeModified());
+		assertTrue(window.expire(10 * MINUTE));
+		assertTrue(window.consumeModified());
+
+		RollingDropRates rates = window.snapshot();
+		assertEquals(1, rates.getWindowTimeSorts());
+		assertEquals(2, rates.getWindowSorts());
+
+		window.expire(20 * MINUTE);
+		assertEquals(0, window.snapshot().getWindowTimeSorts());
+		assertEquals(0.0, window.snapshot().getTimeWindowRate(995), 0);
+	}
+
+	@Test
+	public void testMatchesRecount()
+	{
+		int[] itemIds = {995, 1511, 1513, 1515, 1517};
+		RollingDropWindow window = new RollingDropWindow(registry, 250, 5 * MINUTE);
+		List<long[]> sorts = new ArrayList<>();
+		Random random = new Random(7);
+		long time = 0;
+		for (int i = 0; i < 20_000; i++)
+		{
+			time += random.nextInt(3000);
+			int itemId = itemIds[random.nextInt(random.nextBoolean() ? 2 : itemIds.length)];
+			window.record(registry.ordinal(itemId), time);
+			sorts.add(new long[]{time, itemId});
+		}
+
+		RollingDropRates rates = window.snapshot();
+		for (int itemId : itemIds)
+		{
+			int lastSorts = 0;
+			int timed = 0;
+			int timedDrops = 0;
+			for (int i = 0; i < sorts.size(); i++)
+			{
+				long[] sort = sorts.get(i);
+				if (i >= sorts.size() - 250 && sort[1] == itemId)
+				{
+					lastSorts++;
+				}
+				if (sort[0] > time - 5 * MINUTE)
+				{
+					timed++;
+					timedDrops += sort[1] == itemId ? 1 : 0;
+				}
+			}
+			assertEquals(lastSorts / 250.0, rates.getSortWindowRate(itemId), 1e-9);
+			assertEquals(timed, rates.getWindowTimeSorts());
+			assertEquals((double) timedDrops / timed, rates.getTimeWindowRate(itemId), 1e-9);
+		}
+	}
+
+	@Test
+	public void testTruncateKeepsNewest()
+	{
+		RollingDropWindow window = new RollingDropWindow(registry, 10, 30 * MINUTE);
+		window.record(registry.ordinal(995), 0);
+		window.record(registry.ordinal(995), 1);
+		window.record(registry.ordinal(1511), 2);
+		window.truncate(1);
+
+		RollingDropRates rates = window.snapshot();
+		assertEquals(1, rates.getWindowSorts());
+		assertEquals(1, rates.getWindowTimeSorts());
+		assertEquals(1.0, rates.getSortWindowRate(1511), 0);
+		assertEquals(0.0, rates.getSortWindowRate(995), 0);
+	}
+}
@@ -0,0 +1,292 @@
+package com.salvagesack;
+
+import com.google.gson.Gson;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SalvageDataManagerTest
+{
+	private final ItemRegistry registry = new ItemRegistry();
+	private final Gson gson = new Gson();
+	private final MapProfileConfig profileConfig = new MapProfileConfig();
+	private Path directory;
+	private SalvageDataManager manager;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("salvage-data");
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		if (manager != null)
+		{
+			manager.close();
+		}
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	/**
+	 * A manager that compacts the journal on every save
+	 */
+	private SalvageDataManager openManager()
+	{
+		if (manager != null)
+		{
+			manager.close();
+		}
+		manager = new SalvageDataManager(profileConfig, directory.toFile(), gson, registry, 0);
+		return manager;
+	}
+
+	private void record(Map<ShipwreckType, SalvageData> live, ShipwreckType type)
+	{
+		manager.recordLoot(live.computeIfAbsent(type, t -> new SalvageData(t, registry)), 1511, "Logs", 0.1, 1);
+	}
+
+	private void save(SalvageDataStore.Snapshot snapshot)
+	{
+		manager.saveData(snapshot.getData(), snapshot.getJournalSeq());
+	}
+
+	private static void assertMigrated(Map<ShipwreckType, SalvageData> loaded)
+	{
+		SalvageData small = loaded.get(ShipwreckType.SMALL);
+		assertNotNull(small);
+		assertEquals(3, small.getTotalLoots());
+		SalvageItem logs = small.getItems().get(1511);
+		assertEquals("Logs", logs.getItemName());
+		assertEquals(2, logs.getDropCount());
+		assertEquals(5, logs.getTotalQuantity());
+	}
+
+	@Test
+	public void testEventsAfterTheSnapshotSurviveCompaction()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		live.putAll(openManager().loadData());
+		store.setJournalSeq(manager::getJournalSeq);
+
+		record(live, ShipwreckType.SMALL);
+		record(live, ShipwreckType.SMALL);
+		store.publish();
+		SalvageDataStore.Snapshot published = store.getPublished();
+		assertEquals(2, published.getJournalSeq());
+
+		// Journaled on the client thread while the saver still holds the older snapshot
+		record(live, ShipwreckType.LARGE);
+		live.remove(ShipwreckType.SMALL);
+		manager.recordReset(ShipwreckType.SMALL);
+		record(live, ShipwreckType.SMALL);
+		save(published);
+
+		// The client stops before the next save
+		Map<ShipwreckType, SalvageData> loaded = openManager().loadData();
+		assertEquals(1, loaded.get(ShipwreckType.LARGE).getTotalLoots());
+		assertEquals(1, loaded.get(ShipwreckType.SMALL).getTotalLoots());
+	}
+
+	@Test
+	public void testCompactionKeepsOnlyEventsTheShardsLack() throws IOException
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		live.putAll(openManager().loadData());
+		store.setJournalSeq(manager::getJournalSeq);
+
+		record(live, ShipwreckType.SMALL);
+		record(live, ShipwreckType.LARGE);
+		live.remove(ShipwreckType.LARGE);
+		manager.recordReset(ShipwreckType.LARGE);
+		store.publish();
+		save(store.getPublished());
+
+		// Everything is in the shards, and LARGE has neither a shard nor events left
+		try (LootJournal journal = new LootJournal(directory.resolve("loot-journal-profile.bin")))
+		{
+			assertTrue(journal.open().isEmpty());
+		}
+		assertNull(profileConfig.values.get("salvageData.LARGE"));
+
+		Map<ShipwreckType, SalvageData> loaded = openManager().loadData();
+		assertEquals(1, loaded.get(ShipwreckType.SMALL).getTotalLoots());
+		assertFalse(loaded.containsKey(ShipwreckType.LARGE));
+	}
+
+	@Test
+	public void testSingleKeyDataIsMigratedToShards()
+	{
+		profileConfig.values.put("salvageData", "{\"shipwrecks\":{\"SMALL\":{\"totalLoots\":3,\"items\":"
+			+ "{\"1511\":{\"itemName\":\"Logs\",\"dropCount\":2,\"totalQuantity\":5,\"expectedDropRate\":0.1}}}}}");
+
+		assertMigrated(openManager().loadData());
+		assertNull(profileConfig.values.get("salvageData"));
+		assertNotNull(profileConfig.values.get("salvageData.SMALL"));
+
+		// Loaded from the shards from now on
+		assertMigrated(openManager().loadData());
+	}
+
+	@Test
+	public void testLegacyFileIsMigratedToShards() throws IOException
+	{
+		Path legacyFile = directory.resolve("salvage-data.json");
+		Files.write(legacyFile, ("{\"shipwrecks\":{\"SMALL\":{\"totalLoots\":3,\"items\":"
+			+ "{\"1511\":{\"itemName\":\"Logs\",\"dropCount\":2,\"totalQuantity\":5,\"expectedDropRate\":0.1}}}}}")
+			.getBytes(StandardCharsets.UTF_8));
+
+		assertMigrated(openManager().loadData());
+		assertFalse(Files.exists(legacyFile));
+		assertTrue(Files.exists(directory.resolve("salvage-data.json.migrated")));
+		assertNotNull(profileConfig.values.get("salvageData.SMALL"));
+
+		assertMigrated(openManager().loadData());
+	}
+
+	@Test
+	public void testCleanShardsAreNotRewritten()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		live.putAll(openManager().loadData());
+		store.setJournalSeq(manager::getJournalSeq);
+
+		record(live, ShipwreckType.SMALL);
+		record(live, ShipwreckType.LARGE);
+		store.publish();
+		save(store.getPublished());
+		assertTrue(profileConfig.writes.contains("salvageData.SMALL"));
+		assertTrue(profileConfig.writes.contains("salvageData.LARGE"));
+
+		// Only LARGE changes, so only its shard is written
+		profileConfig.writes.clear();
+		record(live, ShipwreckType.LARGE);
+		store.publish();
+		save(store.getPublished());
+		assertEquals(Collections.singletonList("salvageData.LARGE"), profileConfig.writes);
+
+		// Nothing changed
+		profileConfig.writes.clear();
+		store.publish();
+		save(store.getPublished());
+		assertTrue(profileConfig.writes.isEmpty());
+	}
+
+	@Test
+	public void testUnreadableShardIsKept()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		live.putAll(openManager().loadData());
+		record(live, ShipwreckType.SMALL);
+		record(live, ShipwreckType.LARGE);
+		store.publish();
+		save(store.getPublished());
+
+		profileConfig.values.put("salvageData.LARGE", "not a shard");
+		store = new SalvageDataStore();
+		live = store.getLive();
+		live.putAll(openManager().loadData());
+		assertFalse(live.containsKey(ShipwreckType.LARGE));
+
+		// Saving without the shipwreck neither removes nor unlists it
+		record(live, ShipwreckType.SMALL);
+		store.publish();
+		save(store.getPublished());
+		assertEquals("not a shard", profileConfig.values.get("salvageData.LARGE"));
+		assertTrue(profileConfig.values.get("salvageDataManifest").contains("LARGE"));
+		assertEquals(2, openManager().loadData().get(ShipwreckType.SMALL).getTotalLoots());
+		assertEquals("not a shard", profileConfig.values.get("salvageData.LARGE"));
+	}
+
+	@Test
+	public void testNewDataKeepsACopyOfTheUnreadableShard()
+	{
+		profileConfig.values.put("salvageDataManifest", "{\"version\":1,\"format\":\"JSON\",\"shipwrecks\":[\"LARGE\"]}");
+		profileConfig.values.put("salvageData.LARGE", "not a shard");
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		live.putAll(openManager().loadData());
+
+		record(live, ShipwreckType.LARGE);
+		store.publish();
+		save(store.getPublished());
+		assertEquals("not a shard", profileConfig.values.get("salvageData.LARGE.unreadable"));
+		assertEquals(1, openManager().loadData().get(ShipwreckType.LARGE).getTotalLoots());
+	}
+
+	@Test
+	public void testResetRemovesTheUnreadableShard()
+	{
+		profileConfig.values.put("salvageDataManifest", "{\"version\":1,\"format\":\"JSON\",\"shipwrecks\":[\"LARGE\"]}");
+		profileConfig.values.put("salvageData.LARGE", "not a shard");
+		SalvageDataStore store = new SalvageDataStore();
+		store.getLive().putAll(openManager().loadData());
+
+		manager.recordReset(ShipwreckType.LARGE);
+		store.publish();
+		save(store.getPublished());
+		assertNull(profileConfig.values.get("salvageData.LARGE"));
+		assertFalse(profileConfig.values.get("salvageDataManifest").contains("LARGE"));
+	}
+
+	/**
+	 * Profile configuration kept in a map, recording which keys were written
+	 */
+	static class MapProfileConfig implements SalvageDataManager.ProfileConfig
+	{
+		final Map<String, String> values = new HashMap<>();
+		final List<String> writes = new ArrayList<>();
+
+		@Override
+		public String get(String key)
+		{
+			return values.get(key);
+		}
+
+		@Override
+		public void set(String key, String value)
+		{
+			values.put(key, value);
+			writes.add(key);
+		}
+
+		@Override
+		public void unset(String key)
+		{
+			values.remove(key);
+		}
+
+		@Override
+		public String getProfileKey()
+		{
+			return "profile";
+		}
+
+		@Override
+		public void flush()
+		{
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.salvagesack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SalvageDataSaverTest
+{
+	private long now;
+	private List<Long> delays;
+	private List<Runnable> timers;
+	private AtomicInteger saves;
+
+	@Before
+	public void setUp()
+	{
+		now = 0;
+		delays = new ArrayList<>();
+		timers = new ArrayList<>();
+		saves = new AtomicInteger();
+	}
+
+	private SalvageDataSaver newSaver(Runnable saveAction, int debounceMillis, int maxStalenessMillis)
+	{
+		return new SalvageDataSaver((task, delayMillis) -> {
+			timers.add(task);
+			delays.add(delayMillis);
+		}, () -> now, saveAction, () -> debounceMillis, () -> maxStalenessMillis);
+	}
+
+	/**
+	 * Advance the clock to a time and run the oldest scheduled timer
+	 */
+	private void runTimerAt(long time)
+	{
+		now = time;
+		timers.remove(0).run();
+	}
+
+	@Test
+	public void testBurstIsCoalescedIntoOneSave()
+	{
+		SalvageDataSaver saver = newSaver(saves::incrementAndGet, 50, 10000);
+
+		for (int i = 0; i < 100; i++)
+		{
+			saver.requestSave();
+		}
+		assertEquals(Arrays.asList(50L), delays);
+
+		runTimerAt(50);
+		assertEquals(1, saves.get());
+		assertTrue(timers.isEmpty());
+		assertEquals(100, saver.getRequestedSaves());
+		assertEquals(99, saver.getCoalescedSaves());
+		assertEquals(1, saver.getPerformedSaves());
+	}
+
+	@Test
+	public void testTimerWaitsForTheDebounceWindow()
+	{
+		SalvageDataSaver saver = newSaver(saves::incrementAndGet, 50, 10000);
+
+		saver.requestSave();
+		now = 30;
+		saver.requestSave();
+
+		// Due 50 ms after the last request, not the first
+		runTimerAt(50);
+		assertEquals(0, saves.get());
+		assertEquals(Arrays.asList(50L, 30L), delays);
+
+		runTimerAt(80);
+		assertEquals(1, saves.get());
+		assertTrue(timers.isEmpty());
+	}
+
+	@Test
+	public void testMaxStalenessBoundsContinuousRequests()
+	{
+		SalvageDataSaver saver = newSaver(saves::incrementAndGet, 200, 100);
+
+		// A request every 10 ms, running each timer when it is due
+		for (int i = 0; i < 30; i++)
+		{
+			now = i * 10;
+			saver.requestSave();
+			if (i % 10 == 9)
+			{
+				runTimerAt(now + 10);
+			}
+		}
+
+		// Requests never paused for the debounce window, so only the staleness bound saved
+		assertEquals(3, saves.get());
+		assertEquals(Arrays.asList(100L, 100L, 100L), delays);
+	}
+
+	@Test
+	public void testFlushSavesPendingChangesImmediately()
+	{
+		SalvageDataSaver saver = newSaver(saves::incrementAndGet, 60000, 60000);
+
+		saver.flush();
+		assertEquals(0, saves.get());
+
+		saver.requestSave();
+		saver.flush();
+		assertEquals(1, saves.get());
+
+		// Nothing left to write, and the pending timer finds nothing to do
+		saver.flush();
+		runTimerAt(60000);
+		assertEquals(1, saves.get());
+	}
+
+	@Test
+	public void testFailedSaveIsRetried()
+	{
+		AtomicInteger attempts = new AtomicInteger();
+		SalvageDataSaver saver = newSaver(() -> {
+			if (attempts.incrementAndGet() == 1)
+			{
+				throw new IllegalStateException("Disk full");
+			}
+			saves.incrementAndGet();
+		}, 50, 10000);
+
+		saver.requestSave();
+		now = 10;
+		saver.flush();
+		assertEquals(1, attempts.get());
+		assertEquals(0, saves.get());
+
+		// Still dirty, so a retry is scheduled with the debounce delay
+		assertEquals(Arrays.asList(50L, 50L), delays);
+		runTimerAt(50);
+		assertEquals(0, saves.get());
+		runTimerAt(60);
+		assertEquals(1, saves.get());
+		assertEquals(2, attempts.get());
+		assertEquals(1, saver.getPerformedSaves());
+	}
+}
@@ -0,0 +1,188 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SalvageDataStoreTest
+{
+	private final ItemRegistry registry = new ItemRegistry();
+
+	@Test
+	public void testUnchangedDataIsShared()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		record(live, ShipwreckType.SMALL, 1, "Logs", 1);
+		record(live, ShipwreckType.SMALL, 2, "Oak logs", 1);
+		record(live, ShipwreckType.LARGE, 3, "Steel bar", 1);
+		Map<ShipwreckType, SalvageData> first = store.publish();
+
+		record(live, ShipwreckType.SMALL, 1, "Logs", 1);
+		Map<ShipwreckType, SalvageData> second = store.publish();
+
+		assertSame(first.get(ShipwreckType.LARGE), second.get(ShipwreckType.LARGE));
+		assertNotSame(first.get(ShipwreckType.SMALL), second.get(ShipwreckType.SMALL));
+
+		// Earlier snapshots keep their values
+		assertEquals(2, first.get(ShipwreckType.SMALL).getTotalLoots());
+		assertEquals(1, first.get(ShipwreckType.SMALL).getItems().get(1).getDropCount());
+		assertEquals(3, second.get(ShipwreckType.SMALL).getTotalLoots());
+		assertEquals(2, second.get(ShipwreckType.SMALL).getItems().get(1).getDropCount());
+	}
+
+	@Test
+	public void testPublishingWithoutChangesReusesSnapshotData()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		record(store.getLive(), ShipwreckType.SMALL, 1, "Logs", 1);
+		SalvageData first = store.publish().get(ShipwreckType.SMALL);
+		SalvageData second = store.publish().get(ShipwreckType.SMALL);
+
+		assertSame(first, second);
+		assertTrue(second.consumeDirty());
+		assertFalse(store.getLive().get(ShipwreckType.SMALL).isDirty());
+	}
+
+	@Test
+	public void testResetDataIsCopiedAgain()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		Map<ShipwreckType, SalvageData> live = store.getLive();
+		record(live, ShipwreckType.SMALL, 1, "Logs", 1);
+		SalvageData before = store.publish().get(ShipwreckType.SMALL);
+
+		// Same revision as before, but a different shipwreck's worth of data
+		live.remove(ShipwreckType.SMALL);
+		record(live, ShipwreckType.SMALL, 2, "Oak logs", 1);
+		SalvageData after = store.publish().get(ShipwreckType.SMALL);
+
+		assertEquals(before.getRevision(), after.getRevision());
+		assertNotSame(before, after);
+		assertTrue(after.getItems().containsKey(2));
+		assertFalse(after.getItems().containsKey(1));
+
+		live.clear();
+		assertTrue(store.publish().isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotCannotBeChanged()
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		record(store.getLive(), ShipwreckType.SMALL, 1, "Logs", 1);
+		store.publish().get(ShipwreckType.SMALL).recordLoot(2, "Oak logs", 0.0);
+	}
+
+	@Test
+	public void testSnapshotsAreConsistentUnderConcurrentIngest() throws InterruptedException
+	{
+		SalvageDataStore store = new SalvageDataStore();
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<String> failure = new AtomicReference<>();
+		AtomicLong snapshotsChecked = new AtomicLong();
+
+		Thread writer = new Thread(() -> {
+			Random random = new Random(42);
+			Map<ShipwreckType, SalvageData> live = store.getLive();
+			ShipwreckType[] types = ShipwreckType.values();
+			for (int i = 0; i < 200_000; i++)
+			{
+				int itemId = 1 + random.nextInt(40);
+				record(live, types[random.nextInt(types.length)], itemId, "Item " + itemId, 3);
+				if (random.nextInt(8) == 0)
+				{
+					store.publish();
+				}
+			}
+			store.publish();
+			done.set(true);
+		});
+
+		List<Thread> readers = new ArrayList<>();
+		for (int r = 0; r < 3; r++)
+		{
+			readers.add(new Thread(() -> {
+				Map<ShipwreckType, Integer> lastTotals = new EnumMap<>(ShipwreckType.class);
+				while (!done.get() && failure.get() == null)
+				{
+					Map<ShipwreckType, SalvageData> snapshot = store.getSnapshot();
+					for (SalvageData data : snapshot.values())
+					{
+						String problem = check(data, lastTotals.getOrDefault(data.getShipwreckType(), 0));
+						if (problem != null)
+						{
+							failure.compareAndSet(null, problem);
+						}
+						lastTotals.put(data.getShipwreckType(), data.getTotalLoots());
+					}
+					snapshotsChecked.incrementAndGet();
+				}
+			}));
+		}
+
+		readers.forEach(Thread::start);
+		writer.start();
+		writer.join();
+		for (Thread reader : readers)
+		{
+			reader.join();
+		}
+
+		assertNull(failure.get(), failure.get());
+		assertTrue(snapshotsChecked.get() > 0);
+
+		int total = 0;
+		for (SalvageData data : store.getSnapshot().values())
+		{
+			assertNull(check(data, 0));
+			total += data.getTotalLoots();
+		}
+		assertEquals(200_000, total);
+	}
+
+	/**
+	 * @return A description of the inconsistency, or null if the copy is consistent
+	 */
+	private static String check(SalvageData data, int previousTotal)
+	{
+		int totalLoots = data.getTotalLoots();
+		int drops = 0;
+		long quantity = 0;
+		for (SalvageItem item : data.getItems().values())
+		{
+			drops += item.getDropCount();
+			quantity += item.getTotalQuantity();
+		}
+
+		if (drops != totalLoots || quantity != totalLoots * 3)
+		{
+			return data.getShipwreckType() + ": " + totalLoots + " sorts but " + drops + " drops, " + quantity + " items";
+		}
+		if (totalLoots < previousTotal)
+		{
+			return data.getShipwreckType() + " went back from " + previousTotal + " to " + totalLoots + " sorts";
+		}
+		if (totalLoots != data.getTotalLoots())
+		{
+			return data.getShipwreckType() + " changed while being read";
+		}
+		return null;
+	}
+
+	private void record(Map<ShipwreckType, SalvageData> live, ShipwreckType type, int itemId, String name, int quantity)
+	{
+		SalvageData data = live.computeIfAbsent(type, t -> new SalvageData(t, registry));
+		data.incrementTotalLoots();
+		data.recordLoot(itemId, name, 0.0, quantity);
+	}
+}
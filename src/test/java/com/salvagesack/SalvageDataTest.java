@@ -1,10 +1,20 @@
 package com.salvagesack;
 
+import org.junit.Assume;
 import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
 import static org.junit.Assert.*;
 
 public class SalvageDataTest
 {
+	private final ItemRegistry registry = new ItemRegistry();
+
 	@Test
 	public void testSalvageItemTracking()
 	{
@@ -24,7 +34,7 @@ public class SalvageDataTest
 	@Test
 	public void testSalvageDataRecording()
 	{
-		SalvageData data = new SalvageData(ShipwreckType.SMALL);
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
 		assertEquals(ShipwreckType.SMALL, data.getShipwreckType());
 		assertEquals(0, data.getTotalLoots());
 		assertTrue(data.getItems().isEmpty());
@@ -73,4 +83,235 @@ public class SalvageDataTest
 		item.incrementDropCount();
 		assertEquals(0.3, item.getCurrentDropRate(10), 0.001);
 	}
+
+	@Test
+	public void testDirtyTracking()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry, 5, new ConcurrentHashMap<>());
+		assertFalse(data.consumeDirty());
+
+		data.incrementTotalLoots();
+		assertTrue(data.consumeDirty());
+		assertFalse(data.consumeDirty());
+
+		data.recordLoot(1, "Item 1", 0.5);
+		assertTrue(data.consumeDirty());
+	}
+
+	@Test
+	public void testRemapMergesCounts()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		data.recordLoot(ItemIdIndex.fallbackId("Logs"), "Logs", 0.1, 3);
+		data.recordLoot(1511, "Logs", 0.1, 2);
+
+		data.remapItem(ItemIdIndex.fallbackId("Logs"), 1511);
+
+		assertEquals(1, data.getItemCount());
+		assertFalse(data.getItems().containsKey(ItemIdIndex.fallbackId("Logs")));
+		assertEquals(2, data.getItems().get(1511).getDropCount());
+		assertEquals(5, data.getItems().get(1511).getTotalQuantity());
+	}
+
+	@Test
+	public void testDryStreakTracking()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		for (int sort = 1; sort <= 20; sort++)
+		{
+			data.incrementTotalLoots();
+			if (sort == 3 || sort == 15)
+			{
+				data.recordLoot(1511, "Logs", 0.1, 1);
+			}
+		}
+
+		SalvageItem logs = data.getItems().get(1511);
+		assertEquals(15, logs.getLastSeenAt());
+		assertEquals(5, logs.getDryStreak(data.getTotalLoots()));
+		// 2 sorts before the first drop, 11 between the two
+		assertEquals(11, logs.getLongestDryStreak());
+
+		// A second drop in the same sort is not a streak
+		data.incrementTotalLoots();
+		data.recordLoot(1511, "Logs", 0.1, 1);
+		data.recordLoot(1511, "Logs", 0.1, 1);
+		assertEquals(0, data.getItems().get(1511).getDryStreak(data.getTotalLoots()));
+		assertEquals(11, data.getItems().get(1511).getLongestDryStreak());
+	}
+
+	@Test
+	public void testRemapKeepsLatestDryStreak()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		data.incrementTotalLoots();
+		data.recordLoot(1511, "Logs", 0.1, 1);
+		for (int i = 0; i < 30; i++)
+		{
+			data.incrementTotalLoots();
+		}
+		data.recordLoot(ItemIdIndex.fallbackId("Logs"), "Logs", 0.1, 1);
+
+		data.remapItem(ItemIdIndex.fallbackId("Logs"), 1511);
+
+		SalvageItem logs = data.getItems().get(1511);
+		assertEquals(31, logs.getLastSeenAt());
+		assertEquals(30, logs.getLongestDryStreak());
+	}
+
+	@Test
+	public void testEarlierLootKeepsLaterDryStreaks()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		for (int sort = 1; sort <= 10; sort++)
+		{
+			data.incrementTotalLoots();
+			if (sort == 8)
+			{
+				data.recordLoot(1511, "Logs", 0.1, 1);
+			}
+		}
+
+		// An older sort of a new item goes first; the later drop moves down one place
+		data.recordEarlierLoot(0, 995, "Coins", 0.5, 100);
+		assertEquals(11, data.getTotalLoots());
+		assertEquals(1, data.getItems().get(995).getLastSeenAt());
+		assertEquals(9, data.getItems().get(1511).getLastSeenAt());
+		assertEquals(2, data.getItems().get(1511).getDryStreak(data.getTotalLoots()));
+
+		// An older drop of an item seen since does not end its streak
+		data.recordEarlierLoot(0, 1511, "Logs", 0.1, 1);
+		SalvageItem logs = data.getItems().get(1511);
+		assertEquals(2, logs.getDropCount());
+		assertEquals(2, logs.getDryStreak(data.getTotalLoots()));
+		assertEquals(2, data.getItems().get(995).getLastSeenAt());
+
+		// Positions past the end are clamped to the latest sort
+		data.recordEarlierLoot(100, 995, "Coins", 0.5, 50);
+		assertEquals(13, data.getItems().get(995).getLastSeenAt());
+		assertEquals(150, data.getItems().get(995).getTotalQuantity());
+	}
+
+	@Test
+	public void testItemsAreViews()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		data.recordLoot(1, "Item 1", 0.5, 4);
+
+		// Changing a view does not change the data
+		data.getItems().get(1).recordDrop(10);
+		assertEquals(1, data.getItems().get(1).getDropCount());
+		assertEquals(4, data.getItems().get(1).getTotalQuantity());
+
+		// Names are stored once however many shipwrecks record the item
+		SalvageData other = new SalvageData(ShipwreckType.LARGE, registry);
+		other.recordLoot(1, new String("Item 1"), 0.5, 1);
+		assertSame(data.getItems().get(1).getItemName(), other.getItems().get(1).getItemName());
+	}
+
+	@Test
+	public void testItemsAreHeldInArraysByRegistryOrdinal()
+	{
+		int itemsPerShipwreck = 50;
+		ShipwreckType[] types = ShipwreckType.values();
+		List<SalvageData> shipwrecks = new ArrayList<>();
+		for (ShipwreckType type : types)
+		{
+			SalvageData data = new SalvageData(type, registry);
+			for (int i = 0; i < itemsPerShipwreck; i++)
+			{
+				data.setItem(100_000 + i, new String("Synthetic item " + i), i, i * 3L, 0.01);
+			}
+			shipwrecks.add(data);
+		}
+
+		// Every shipwreck indexes an item by the same ordinal, so the registry holds each item once
+		assertEquals(itemsPerShipwreck, registry.size());
+		for (int i = 0; i < itemsPerShipwreck; i++)
+		{
+			int ordinal = registry.find(100_000 + i);
+			assertEquals(100_000 + i, registry.getItemId(ordinal));
+			String name = shipwrecks.get(0).getItemNameAt(ordinal);
+			for (SalvageData data : shipwrecks)
+			{
+				assertTrue(data.hasItemAt(ordinal));
+				assertEquals(i, data.getDropCountAt(ordinal));
+				assertEquals(i * 3L, data.getTotalQuantityAt(ordinal));
+				assertSame(name, data.getItemNameAt(ordinal));
+			}
+		}
+
+		// Items are read out of the arrays as new views rather than kept as objects
+		SalvageData data = shipwrecks.get(0);
+		int ordinal = registry.find(100_000);
+		assertNotSame(data.getItemAt(ordinal), data.getItemAt(ordinal));
+	}
+
+	/**
+	 * Heap used by the registry arrays against the previous map of items. Run with
+	 * -Dsalvagesack.benchmark=true; it forces garbage collections and prints the sizes.
+	 */
+	@Test
+	public void testMemoryComparison()
+	{
+		Assume.assumeTrue(Boolean.getBoolean("salvagesack.benchmark"));
+		int itemsPerShipwreck = 5_000;
+		ShipwreckType[] types = ShipwreckType.values();
+
+		// Previous layout: a map entry, boxed key, item object and decoded name per item per shipwreck
+		long mapBytes = measure(() -> {
+			List<Map<Integer, SalvageItem>> shipwrecks = new ArrayList<>();
+			for (ShipwreckType type : types)
+			{
+				Map<Integer, SalvageItem> items = new ConcurrentHashMap<>();
+				for (int i = 0; i < itemsPerShipwreck; i++)
+				{
+					int itemId = 100_000 + i;
+					items.put(itemId, new SalvageItem(itemId, new String("Synthetic item " + i), i, i * 3, 0.01));
+				}
+				shipwrecks.add(items);
+			}
+			return shipwrecks;
+		});
+
+		long arrayBytes = measure(() -> {
+			List<SalvageData> shipwrecks = new ArrayList<>();
+			for (ShipwreckType type : types)
+			{
+				SalvageData data = new SalvageData(type, registry);
+				for (int i = 0; i < itemsPerShipwreck; i++)
+				{
+					data.setItem(100_000 + i, new String("Synthetic item " + i), i, i * 3L, 0.01);
+				}
+				shipwrecks.add(data);
+			}
+			return shipwrecks;
+		});
+
+		System.out.printf("%d shipwrecks x %,d items: map of items %,d KB | registry arrays %,d KB%n",
+			types.length, itemsPerShipwreck, mapBytes / 1024, arrayBytes / 1024);
+		assertTrue(arrayBytes < mapBytes);
+	}
+
+	/**
+	 * Approximate heap retained by the value a supplier builds
+	 */
+	private static long measure(Supplier<Object> build)
+	{
+		long before = usedMemory();
+		Object retained = build.get();
+		long after = usedMemory();
+		assertNotNull(retained);
+		return after - before;
+	}
+
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+		{
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
 }
@@ -0,0 +1,171 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class SalvageMessageParserTest
+{
+	// The regular expression the plugin used before the dedicated parser
+	private static final Pattern SALVAGE_PATTERN = Pattern.compile(
+		"You sort through the (.+?) salvage and find: (\\d+) x (.+?)\\.",
+		Pattern.CASE_INSENSITIVE
+	);
+
+	private static final List<String> CORPUS = Arrays.asList(
+		"You sort through the Martial salvage and find: 1 x Adamant 2h sword.",
+		"You sort through the Small salvage and find: 25 x Bronze nails.",
+		"You sort through the Fishy salvage and find: 3 x Raw lobster.",
+		"You sort through the Plundered salvage and find: 1 x Clue scroll (medium).",
+		"You sort through the Opulent salvage and find: 1,000 x Coins.",
+		"You sort through the Opulent salvage and find: 1000 x Coins.",
+		"you sort through the small salvage and find: 2 x logs.",
+		"YOU SORT THROUGH THE LARGE SALVAGE AND FIND: 7 X OAK PLANK.",
+		"<col=ef1020>You sort through the Barracuda salvage and find: 4 x Steel nails.</col>",
+		"You sort through the <col=ffffff>Fremennik</col> salvage and find: 1 x Rune full helm.",
+		"You sort through the Small salvage and find: 1 x Sailors' amulet (inert).",
+		"You sort through the Small salvage and find: 1 x Boat bottle (empty).",
+		"You sort through the Small salvage and find: 1 x Mr. Mordaut's hat.",
+		"You sort through the Martial salvage and find: 1 x &lt;Broken&gt; sword.",
+		"You sort through the Martial salvage and find: 1 x Fish &amp; chips.",
+		"You sort through the Martial salvage and find: 1 x Fish &amp;lt; chips.",
+		"You sort through the Martial salvage and find: 1 x Fish &l<b>t; chips.",
+		"You sort through the Martial salvage and find: 1 x Unclosed <tag.",
+		"You sort through the Small salvage and find: 1 x .",
+		"You sort through the Small salvage and find: 1 x ..",
+		"You sort through the Small salvage and find: x Logs.",
+		"You sort through the Small salvage and find: 1 x Logs",
+		"You sort through the  salvage and find: 1 x Logs.",
+		"You sort through the Small salvage and find:  1 x Logs.",
+		"You sort through the Small salvage and find: 1x Logs.",
+		"You sort through the a salvage and find: b salvage and find: 2 x Logs.",
+		"You sort through the Small\nsalvage and find: 1 x Logs.",
+		"You sort through the Small salvage and find: 1 x Lo\ngs.",
+		"You sort through the Small salvage and find: 1 x Lo\ngs. You sort through the Large salvage and find: 2 x Plank.",
+		"Junk. You sort through the Small salvage and find: 1 x Logs. Trailing",
+		"You sort through the Small salvage and find: 99999999999 x Logs.",
+		"You sort through the Small salvage and find: 2147483647 x Logs.",
+		"Welcome to Old School RuneScape.",
+		"You catch some salvage.",
+		"Your salvage sack is full.",
+		"The salvage and find: 1 x Logs.",
+		"",
+		"<",
+		"&",
+		"&amp;",
+		"<col=ff0000>Nothing interesting happens.</col>"
+	);
+
+	@Test
+	public void testCorpusMatchesRegex()
+	{
+		SalvageMessageParser parser = new SalvageMessageParser();
+		for (String message : CORPUS)
+		{
+			assertEquivalent(parser, message);
+		}
+	}
+
+	@Test
+	public void testGeneratedCorpusMatchesRegex()
+	{
+		String[] fragments = {
+			"You sort through the ", "you SORT through THE ", "Small", "Martial", " salvage and find: ",
+			" SALVAGE and find: ", "1", "42", " x ", " X ", "Logs", "Oak plank", ".", "..", " ", "<col=ff0000>",
+			"</col>", "<", ">", "&lt;", "&gt;", "&amp;", "&", "\n", " ", "É", "find:", "x"
+		};
+
+		SalvageMessageParser parser = new SalvageMessageParser();
+		Random random = new Random(1234);
+		for (int i = 0; i < 20000; i++)
+		{
+			StringBuilder sb = new StringBuilder();
+			int parts = random.nextInt(16);
+			for (int p = 0; p < parts; p++)
+			{
+				sb.append(fragments[random.nextInt(fragments.length)]);
+			}
+			assertEquivalent(parser, sb.toString());
+		}
+	}
+
+	@Test
+	public void testParsedFields()
+	{
+		SalvageMessage message = new SalvageMessageParser()
+			.parse("<col=ef1020>You sort through the Martial salvage and find: 12 x Adamant 2h sword.</col>");
+
+		assertNotNull(message);
+		assertEquals("Martial", message.getSalvageType());
+		assertEquals(12, message.getQuantity());
+		assertEquals("Adamant 2h sword", message.getItemName());
+	}
+
+	@Test
+	public void testPreFilterRejectsPlainMessages()
+	{
+		assertFalse(SalvageMessageParser.mightBeSalvage("Welcome to Old School RuneScape."));
+		assertFalse(SalvageMessageParser.mightBeSalvage("You catch some salvage from the shipwreck."));
+		assertTrue(SalvageMessageParser.mightBeSalvage("You sort through the Small salvage and find: 1 x Logs."));
+		assertTrue(SalvageMessageParser.mightBeSalvage("<col=ff0000>You sort through something long enough</col>"));
+	}
+
+	private static void assertEquivalent(SalvageMessageParser parser, String message)
+	{
+		List<Object> expected = parseWithRegex(message);
+		SalvageMessage actual = parser.parse(message);
+
+		if (expected == null)
+		{
+			assertNull("Unexpected match for: " + message, actual);
+			return;
+		}
+
+		assertNotNull("Missed match for: " + message, actual);
+		assertEquals("Salvage type for: " + message, expected.get(0), actual.getSalvageType());
+		assertEquals("Quantity for: " + message, expected.get(1), actual.getQuantity());
+		assertEquals("Item name for: " + message, expected.get(2), actual.getItemName());
+	}
+
+	/**
+	 * Reference implementation: the original replaceAll + regex path from onChatMessage
+	 */
+	private static List<Object> parseWithRegex(String raw)
+	{
+		String message = raw
+			.replaceAll("<[^>]*>", "")
+			.replaceAll("&lt;", "<")
+			.replaceAll("&gt;", ">")
+			.replaceAll("&amp;", "&");
+
+		Matcher matcher = SALVAGE_PATTERN.matcher(message);
+		if (!matcher.find())
+		{
+			return null;
+		}
+
+		int quantity;
+		try
+		{
+			quantity = Integer.parseInt(matcher.group(2).trim());
+		}
+		catch (NumberFormatException e)
+		{
+			// The old path threw here; the parser treats it as not a salvage message
+			return null;
+		}
+
+		List<Object> groups = new ArrayList<>();
+		groups.add(matcher.group(1).trim());
+		groups.add(quantity);
+		groups.add(matcher.group(3).trim());
+		return groups;
+	}
+}
@@ -0,0 +1,90 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionTrackerTest
+{
+	private static final long MINUTE = 60 * 1000;
+	private static final long START = 1_700_000_000_000L;
+
+	@Test
+	public void testSteadyPaceReadsAsItsRate()
+	{
+		// One sort every 6 seconds is 600 an hour, from the first minute on
+		RateMeter meter = new RateMeter(SessionTracker.RATE_TIME_CONSTANT_MILLIS);
+		meter.start(START);
+		for (long t = 6000; t <= 60 * MINUTE; t += 6000)
+		{
+			meter.add(1, START + t);
+			if (t >= 2 * MINUTE)
+			{
+				assertEquals(600, meter.getRatePerHour(START + t), 600 * 0.06);
+			}
+		}
+	}
+
+	@Test
+	public void testRateFollowsChangeOfPace()
+	{
+		RateMeter meter = new RateMeter(SessionTracker.RATE_TIME_CONSTANT_MILLIS);
+		meter.start(START);
+		long t = START;
+		for (int i = 0; i < 600; i++)
+		{
+			t += 6000;
+			meter.add(1, t);
+		}
+
+		// After an hour at 600/hr, an hour at 1200/hr
+		for (int i = 0; i < 1200; i++)
+		{
+			t += 3000;
+			meter.add(1, t);
+		}
+		assertEquals(1200, meter.getRatePerHour(t), 1200 * 0.05);
+
+		// The rate decays while nothing happens
+		assertTrue(meter.getRatePerHour(t + 30 * MINUTE) < 100);
+	}
+
+	@Test
+	public void testSessionLifecycle()
+	{
+		SessionTracker tracker = new SessionTracker(() -> 15 * MINUTE);
+		assertSame(SessionStats.NONE, tracker.snapshot(START));
+
+		// A sort starts a session if none is running
+		tracker.record(ShipwreckType.SMALL, 2, START);
+		tracker.record(ShipwreckType.SMALL, 1, START + MINUTE);
+		tracker.record(ShipwreckType.LARGE, 5, START + 2 * MINUTE);
+		SessionStats stats = tracker.snapshot(START + 2 * MINUTE);
+		assertTrue(stats.isActive());
+		assertEquals(START, stats.getStartedAt());
+		assertEquals(3, stats.getTotalSorts());
+		assertEquals(8, stats.getTotalItems());
+		assertEquals(2, stats.getSorts(ShipwreckType.SMALL));
+		assertEquals(5, stats.getItems(ShipwreckType.LARGE));
+		assertEquals(stats.getSortsPerHour(ShipwreckType.SMALL) + stats.getSortsPerHour(ShipwreckType.LARGE),
+			stats.getSortsPerHour(), 1e-9);
+
+		// Logging in again while a session runs does not restart it
+		tracker.start(START + 3 * MINUTE);
+		assertEquals(START, tracker.getStartedAt());
+
+		assertFalse(tracker.checkIdle(START + 17 * MINUTE));
+		assertTrue(tracker.checkIdle(START + 18 * MINUTE));
+		stats = tracker.snapshot(START + 18 * MINUTE);
+		assertFalse(stats.isActive());
+		assertEquals(3, stats.getTotalSorts());
+		assertEquals(0, stats.getSortsPerHour(), 0);
+
+		// The next sort starts a new session
+		tracker.record(ShipwreckType.FISHERMANS, 1, START + 60 * MINUTE);
+		stats = tracker.snapshot(START + 60 * MINUTE);
+		assertEquals(START + 60 * MINUTE, stats.getStartedAt());
+		assertEquals(1, stats.getTotalSorts());
+		assertEquals(0, stats.getSorts(ShipwreckType.SMALL));
+	}
+}
@@ -13,6 +13,7 @@ public class SortOptionTest
 		assertEquals("Expected Rate", SortOption.EXPECTED_RATE.getDisplayName());
 		assertEquals("Quantity", SortOption.QUANTITY.getDisplayName());
 		assertEquals("Luck", SortOption.LUCK.getDisplayName());
+		assertEquals("Recent Rate", SortOption.RECENT_RATE.getDisplayName());
 	}
 
 	@Test
@@ -23,17 +24,19 @@ public class SortOptionTest
 		assertEquals("Expected Rate", SortOption.EXPECTED_RATE.toString());
 		assertEquals("Quantity", SortOption.QUANTITY.toString());
 		assertEquals("Luck", SortOption.LUCK.toString());
+		assertEquals("Recent Rate", SortOption.RECENT_RATE.toString());
 	}
 
 	@Test
 	public void testSortOptionValues()
 	{
 		SortOption[] values = SortOption.values();
-		assertEquals(5, values.length);
+		assertEquals(6, values.length);
 		assertEquals(SortOption.ALPHABETICAL, values[0]);
 		assertEquals(SortOption.CURRENT_RATE, values[1]);
 		assertEquals(SortOption.EXPECTED_RATE, values[2]);
 		assertEquals(SortOption.QUANTITY, values[3]);
 		assertEquals(SortOption.LUCK, values[4]);
+		assertEquals(SortOption.RECENT_RATE, values[5]);
 	}
 }
@@ -0,0 +1,110 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.Assert.*;
+
+public class SortedItemIndexTest
+{
+	private final ItemRegistry registry = new ItemRegistry();
+
+	/**
+	 * Depends on the total, like the luck score, and has many ties
+	 */
+	private static final SortedItemIndex.KeyFunction BUCKETED_RATE =
+		(item, totalLoots) -> Math.floor(item.getDropCount() * 20.0 / totalLoots);
+
+	@Test
+	public void testQuantityOrderMatchesFullSort()
+	{
+		for (boolean descending : new boolean[]{false, true})
+		{
+			checkAgainstFullSort(new SortedItemIndex(SortOption.QUANTITY, descending,
+				(item, totalLoots) -> item.getTotalQuantity()), item -> (double) item.getTotalQuantity(), descending);
+		}
+	}
+
+	@Test
+	public void testTotalDependentOrderMatchesFullSort()
+	{
+		for (boolean descending : new boolean[]{false, true})
+		{
+			checkAgainstFullSort(new SortedItemIndex(SortOption.LUCK, descending, BUCKETED_RATE), null, descending);
+		}
+	}
+
+	@Test
+	public void testRemappedItemIsRemoved()
+	{
+		SalvageData data = new SalvageData(ShipwreckType.SMALL, registry);
+		data.incrementTotalLoots();
+		data.recordLoot(1, "Logs", 0.1, 1);
+		data.recordLoot(2, "Coins", 0.1, 5);
+
+		SortedItemIndex index = new SortedItemIndex(SortOption.ALPHABETICAL, false, (item, totalLoots) -> 0);
+		assertEquals(2, index.update(data).size());
+
+		data.remapItem(2, 995);
+		List<SalvageItem> items = index.update(data);
+		assertEquals(2, items.size());
+		assertEquals(995, items.get(0).getItemId());
+		assertEquals(1, items.get(1).getItemId());
+	}
+
+	private void checkAgainstFullSort(SortedItemIndex index, ToDoubleFunction<SalvageItem> plainKey,
+		boolean descending)
+	{
+		Random random = new Random(42);
+		SalvageData data = new SalvageData(ShipwreckType.LARGE, registry);
+		for (int i = 0; i < 2000; i++)
+		{
+			// A few drops between refreshes, like a coalesced panel update
+			int drops = 1 + random.nextInt(3);
+			for (int d = 0; d < drops; d++)
+			{
+				int itemId = 1 + random.nextInt(60);
+				data.incrementTotalLoots();
+				data.recordLoot(itemId, "Item " + (itemId % 25), 0.1, 1 + random.nextInt(10));
+			}
+
+			// Items are views, so compare the order by item ID
+			assertEquals("Order after " + i + " refreshes", itemIds(fullSort(data, plainKey, descending)),
+				itemIds(index.update(data)));
+		}
+	}
+
+	private List<SalvageItem> fullSort(SalvageData data, ToDoubleFunction<SalvageItem> plainKey,
+		boolean descending)
+	{
+		int totalLoots = data.getTotalLoots();
+		Comparator<SalvageItem> comparator = Comparator
+			.comparingDouble((SalvageItem item) -> plainKey != null ? plainKey.applyAsDouble(item)
+				: BUCKETED_RATE.key(item, totalLoots))
+			.thenComparing(SalvageItem::getItemName)
+			.thenComparingInt(SalvageItem::getItemId);
+		if (descending)
+		{
+			comparator = comparator.reversed();
+		}
+
+		List<SalvageItem> items = new ArrayList<>(data.getItems().values());
+		items.sort(comparator);
+		return items;
+	}
+
+	private static List<Integer> itemIds(List<SalvageItem> items)
+	{
+		List<Integer> ids = new ArrayList<>();
+		for (SalvageItem item : items)
+		{
+			ids.add(item.getItemId());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,102 @@
+package com.salvagesack;
+
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ValueTrackerTest
+{
+	private static final long START = 1_700_000_000_000L;
+
+	private final ItemRegistry registry = new ItemRegistry();
+	private final Map<Integer, Integer> prices = new HashMap<>();
+	private int lookups;
+	private final PriceCache priceCache = new PriceCache(registry, itemId -> {
+		lookups++;
+		return prices.getOrDefault(itemId, 0);
+	});
+	private final ValueTracker tracker = new ValueTracker(priceCache);
+	private final Map<ShipwreckType, SalvageData> dataMap = new EnumMap<>(ShipwreckType.class);
+
+	@Test
+	public void testDropsAddTheirValue()
+	{
+		prices.put(1511, 100);
+		prices.put(995, 1);
+		record(ShipwreckType.SMALL, 1511, "Logs", 3);
+		record(ShipwreckType.SMALL, 995, "Coins", 250);
+		record(ShipwreckType.LARGE, 1511, "Logs", 2);
+
+		LootValues values = tracker.snapshot();
+		assertEquals(550, values.getShipwreckValue(ShipwreckType.SMALL));
+		assertEquals(200, values.getShipwreckValue(ShipwreckType.LARGE));
+		assertEquals(750, values.getTotalValue());
+		assertEquals(275.0, values.getValuePerSort(ShipwreckType.SMALL, 2), 0.0);
+		assertEquals(100, values.getPrice(1511));
+
+		// Each price is looked up once, not per drop
+		assertEquals(2, lookups);
+	}
+
+	@Test
+	public void testRefreshAdjustsTotalsByPriceChange()
+	{
+		prices.put(1511, 100);
+		prices.put(995, 1);
+		record(ShipwreckType.SMALL, 1511, "Logs", 3);
+		record(ShipwreckType.SMALL, 995, "Coins", 250);
+		record(ShipwreckType.LARGE, 995, "Coins", 10);
+
+		prices.put(1511, 120);
+		Set<ShipwreckType> changed = tracker.refreshPrices(dataMap, START);
+		assertEquals(EnumSet.of(ShipwreckType.SMALL), changed);
+		assertEquals(START, tracker.getPricesRefreshedAt());
+
+		LootValues values = tracker.snapshot();
+		assertEquals(610, values.getShipwreckValue(ShipwreckType.SMALL));
+		assertEquals(10, values.getShipwreckValue(ShipwreckType.LARGE));
+
+		// The same as summing over the items
+		tracker.rebuild(dataMap);
+		assertEquals(610, tracker.snapshot().getShipwreckValue(ShipwreckType.SMALL));
+		assertEquals(620, tracker.snapshot().getTotalValue());
+	}
+
+	@Test
+	public void testFallbackIdsHaveNoPrice()
+	{
+		int fallback = ItemIdIndex.fallbackId("Logs");
+		prices.put(fallback, 1000);
+		record(ShipwreckType.SMALL, fallback, "Logs", 5);
+
+		assertEquals(0, tracker.snapshot().getTotalValue());
+		assertEquals(0, lookups);
+	}
+
+	@Test
+	public void testClear()
+	{
+		prices.put(1511, 100);
+		record(ShipwreckType.SMALL, 1511, "Logs", 1);
+		record(ShipwreckType.LARGE, 1511, "Logs", 1);
+
+		tracker.clear(ShipwreckType.SMALL);
+		assertEquals(100, tracker.snapshot().getTotalValue());
+		tracker.clear(null);
+		assertEquals(0, tracker.snapshot().getTotalValue());
+	}
+
+	private void record(ShipwreckType type, int itemId, String itemName, int quantity)
+	{
+		SalvageData data = dataMap.computeIfAbsent(type, t -> new SalvageData(t, registry));
+		data.incrementTotalLoots();
+		data.recordLoot(itemId, itemName, 0.0, quantity);
+		tracker.record(type, itemId, itemName, quantity);
+	}
+}